@@ -1,5 +1,8 @@
 package io.burt.athena;
 
+import io.burt.athena.cache.QueryRefresher;
+import io.burt.athena.catalog.Catalog;
+import io.burt.athena.catalog.InformationSchemaCatalogSource;
 import io.burt.athena.configuration.ConnectionConfiguration;
 
 import java.sql.Array;
@@ -29,11 +32,13 @@ import java.util.concurrent.Executor;
 public class AthenaConnection implements Connection {
     private ConnectionConfiguration configuration;
     private DatabaseMetaData metaData;
+    private Catalog catalog;
     private boolean open;
 
     AthenaConnection(ConnectionConfiguration configuration) {
         this.configuration = configuration;
         this.metaData = null;
+        this.catalog = null;
         this.open = true;
     }
 
@@ -69,6 +74,9 @@ public class AthenaConnection implements Connection {
     public void close() throws SQLException {
         try {
             open = false;
+            if (catalog != null) {
+                catalog.close();
+            }
             configuration.close();
         } catch (Exception e) {
             throw new SQLException(e);
@@ -179,7 +187,8 @@ public class AthenaConnection implements Connection {
     @Override
     public DatabaseMetaData getMetaData() {
         if (metaData == null) {
-            metaData = new AthenaDatabaseMetaData(this);
+            catalog = new Catalog(new InformationSchemaCatalogSource(this), configuration.catalogCacheTtl());
+            metaData = new AthenaDatabaseMetaData(this, catalog);
         }
         return metaData;
     }
@@ -212,7 +221,7 @@ public class AthenaConnection implements Connection {
 
     @Override
     public String getCatalog() {
-        return "AwsDataCatalog";
+        return AthenaDatabaseMetaData.CATALOG_NAME;
     }
 
     @Override
@@ -303,6 +312,18 @@ public class AthenaConnection implements Connection {
         return new Properties();
     }
 
+    /**
+     * Makes statements created after this call return the latest result of
+     * queries registered with a refresher, instead of running them.
+     *
+     * @param queryRefresher the refresher, or null to stop using one
+     * @see QueryRefresher
+     */
+    public void setQueryRefresher(QueryRefresher queryRefresher) throws SQLException {
+        checkClosed();
+        configuration = configuration.withQueryRefresher(queryRefresher);
+    }
+
     @Override
     public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
         checkClosed();
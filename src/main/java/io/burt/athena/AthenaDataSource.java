@@ -90,6 +90,330 @@ public class AthenaDataSource implements DataSource {
         properties.setProperty(AthenaDriver.OUTPUT_LOCATION_PROPERTY_NAME, uri);
     }
 
+    /**
+     * Spreads the connection's queries over several work groups.
+     *
+     * The work groups are given as a comma separated list of
+     * <code>name[:weight[:outputLocation]]</code> entries, for example
+     * <code>etl-a:2:s3://bucket/a/,etl-b</code>. Each query is started in the
+     * work group where queries have recently spent the least time queued,
+     * taking into account how many queries are already running there, and
+     * throttled work groups are avoided for a while. The weight defaults to
+     * one, and work groups without an output location use the one set with
+     * {@link #setOutputLocation(String)}. When set, this takes precedence
+     * over {@link #setWorkGroup(String)}.
+     *
+     * Corresponds to setting the {@link AthenaDriver#WORK_GROUPS_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param workGroups the work groups
+     * @see io.burt.athena.routing.WorkGroupRouter
+     */
+    public void setWorkGroups(String workGroups) {
+        properties.setProperty(AthenaDriver.WORK_GROUPS_PROPERTY_NAME, workGroups);
+    }
+
+    /**
+     * Hedges queries that have been queued for too long.
+     *
+     * The value is either a number of milliseconds, or a percentile of the
+     * queue times of recent queries written as for example <code>p95</code>.
+     * A query that has been queued for longer than that is started again in
+     * another of the work groups set with {@link #setWorkGroups(String)}, and
+     * whichever execution succeeds first is used. This has no effect unless
+     * more than one work group is set.
+     *
+     * Corresponds to setting the {@link AthenaDriver#HEDGE_AFTER_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param hedgeAfter the hedging threshold
+     * @see AthenaStatement#setHedgingPolicy(io.burt.athena.routing.HedgingPolicy)
+     */
+    public void setHedgeAfter(String hedgeAfter) {
+        properties.setProperty(AthenaDriver.HEDGE_AFTER_PROPERTY_NAME, hedgeAfter);
+    }
+
+    /**
+     * Paces the connection's Athena API calls with the JVM-wide rate governor.
+     *
+     * The governor keeps the calls of all connections that use it below the
+     * Athena API rate limits, and pauses calls to an operation for a while
+     * when Athena throttles it. See {@link io.burt.athena.admission.RateGovernor}.
+     *
+     * Corresponds to setting the {@link AthenaDriver#RATE_GOVERNOR_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param enabled whether or not to pace API calls
+     */
+    public void setRateGovernor(boolean enabled) {
+        properties.setProperty(AthenaDriver.RATE_GOVERNOR_PROPERTY_NAME, String.valueOf(enabled));
+    }
+
+    /**
+     * Enables polling that adapts to how long similar queries took before.
+     *
+     * The driver keeps statistics on the execution times of queries that
+     * have the same shape, i.e. that only differ in their literal values. When
+     * a query with a known shape runs, its status is polled only a few times
+     * until it is expected to complete, and frequently around that time.
+     *
+     * Corresponds to setting the {@link AthenaDriver#PREDICTIVE_POLLING_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param predictive whether or not to use predictive polling
+     */
+    public void setPredictivePolling(boolean predictive) {
+        properties.setProperty(AthenaDriver.PREDICTIVE_POLLING_PROPERTY_NAME, String.valueOf(predictive));
+    }
+
+    /**
+     * Enables batched status polling with the specified interval.
+     *
+     * Instead of each statement polling for the status of its own query, all
+     * statements created from the connection share a poller that refreshes the
+     * status of all in-flight queries with a single
+     * <code>BatchGetQueryExecution</code> call (per 50 queries) every interval.
+     * This reduces the risk of being throttled when many queries run
+     * concurrently.
+     *
+     * Corresponds to setting the {@link AthenaDriver#BATCH_POLLING_INTERVAL_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param milliseconds the number of milliseconds between polls
+     */
+    public void setBatchPollingInterval(long milliseconds) {
+        properties.setProperty(AthenaDriver.BATCH_POLLING_INTERVAL_PROPERTY_NAME, String.valueOf(milliseconds));
+    }
+
+    /**
+     * Limits the number of queries that run at the same time.
+     *
+     * Executions beyond the limit wait for a running query to complete
+     * before they are started, instead of being rejected by Athena when the
+     * account's limit of active queries is reached. Executions that are
+     * throttled anyway are retried once a slot is available.
+     *
+     * Corresponds to setting the {@link AthenaDriver#MAX_CONCURRENT_QUERIES_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param maxConcurrentQueries the maximum number of concurrent queries
+     */
+    public void setMaxConcurrentQueries(int maxConcurrentQueries) {
+        properties.setProperty(AthenaDriver.MAX_CONCURRENT_QUERIES_PROPERTY_NAME, String.valueOf(maxConcurrentQueries));
+    }
+
+    /**
+     * Makes the limit set with {@link #setMaxConcurrentQueries(int)} adapt to
+     * throttling.
+     *
+     * The limit is halved whenever Athena throttles an execution, and then
+     * slowly grows back towards the maximum.
+     *
+     * Corresponds to setting the {@link AthenaDriver#ADAPTIVE_CONCURRENCY_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param adaptive whether or not the limit should adapt to throttling
+     */
+    public void setAdaptiveConcurrency(boolean adaptive) {
+        properties.setProperty(AthenaDriver.ADAPTIVE_CONCURRENCY_PROPERTY_NAME, String.valueOf(adaptive));
+    }
+
+    /**
+     * Sets the share of the concurrent query slots each tenant gets.
+     *
+     * The weights are given as a comma separated list of
+     * <code>tenant:weight</code> pairs, for example
+     * <code>dashboards:4,extracts:1</code>. Tenants that are not listed
+     * have a weight of one. This has no effect unless
+     * {@link #setMaxConcurrentQueries(int)} has been set.
+     *
+     * Corresponds to setting the {@link AthenaDriver#TENANT_WEIGHTS_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param tenantWeights the tenant weights
+     */
+    public void setTenantWeights(String tenantWeights) {
+        properties.setProperty(AthenaDriver.TENANT_WEIGHTS_PROPERTY_NAME, tenantWeights);
+    }
+
+    /**
+     * Sets the default priority of the connection's statements.
+     *
+     * Corresponds to setting the {@link AthenaDriver#PRIORITY_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param priority the priority, higher is more urgent
+     * @see AthenaStatement#setPriority(int)
+     */
+    public void setPriority(int priority) {
+        properties.setProperty(AthenaDriver.PRIORITY_PROPERTY_NAME, String.valueOf(priority));
+    }
+
+    /**
+     * Sets the default tenant of the connection's statements.
+     *
+     * Corresponds to setting the {@link AthenaDriver#TENANT_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param tenant the name of the tenant
+     * @see AthenaStatement#setTenant(String)
+     */
+    public void setTenant(String tenant) {
+        properties.setProperty(AthenaDriver.TENANT_PROPERTY_NAME, tenant);
+    }
+
+    /**
+     * Stops queries that scan more than this many bytes.
+     *
+     * Corresponds to setting the {@link AthenaDriver#MAX_DATA_SCANNED_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param bytes the maximum number of bytes a query may scan
+     * @see AthenaStatement#setQueryBudget(io.burt.athena.budget.QueryBudget)
+     */
+    public void setMaxDataScanned(long bytes) {
+        properties.setProperty(AthenaDriver.MAX_DATA_SCANNED_PROPERTY_NAME, String.valueOf(bytes));
+    }
+
+    /**
+     * Stops queries that have run in the engine for longer than this many
+     * milliseconds, not counting the time they were queued.
+     *
+     * Corresponds to setting the {@link AthenaDriver#MAX_ENGINE_EXECUTION_TIME_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param millis the maximum engine execution time of a query
+     * @see AthenaStatement#setQueryBudget(io.burt.athena.budget.QueryBudget)
+     */
+    public void setMaxEngineExecutionTime(long millis) {
+        properties.setProperty(AthenaDriver.MAX_ENGINE_EXECUTION_TIME_PROPERTY_NAME, String.valueOf(millis));
+    }
+
+    /**
+     * Makes identical queries that are executed at the same time, by any
+     * connection in the JVM that also has this enabled, share one query
+     * execution.
+     *
+     * Corresponds to setting the {@link AthenaDriver#SINGLE_FLIGHT_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param singleFlight whether or not to share query executions
+     * @see io.burt.athena.dedup.SingleFlight
+     */
+    public void setSingleFlight(boolean singleFlight) {
+        properties.setProperty(AthenaDriver.SINGLE_FLIGHT_PROPERTY_NAME, String.valueOf(singleFlight));
+    }
+
+    /**
+     * Makes result sets that read the output of the same query execution at
+     * the same time, from any connection in the JVM that also has this
+     * enabled, share one download.
+     *
+     * Corresponds to setting the {@link AthenaDriver#BROADCAST_RESULTS_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param broadcastResults whether or not to share result downloads
+     * @see io.burt.athena.result.ResultBroadcaster
+     */
+    public void setBroadcastResults(boolean broadcastResults) {
+        properties.setProperty(AthenaDriver.BROADCAST_RESULTS_PROPERTY_NAME, String.valueOf(broadcastResults));
+    }
+
+    /**
+     * Keeps small results in a cache shared by all connections in the JVM
+     * that also have this enabled, so that reading the result of a query
+     * execution again does not download it again.
+     *
+     * Corresponds to setting the {@link AthenaDriver#RESULT_CACHE_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param resultCache whether or not to cache results
+     * @see io.burt.athena.cache.ResultCache
+     */
+    public void setResultCache(boolean resultCache) {
+        properties.setProperty(AthenaDriver.RESULT_CACHE_PROPERTY_NAME, String.valueOf(resultCache));
+    }
+
+    /**
+     * Makes queries return a cached result of the same query, without
+     * starting a query execution, when the cached result is at most this
+     * old. Only applies when the result cache is enabled.
+     *
+     * Corresponds to setting the {@link AthenaDriver#RESULT_CACHE_MAX_AGE_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param maxAge the maximum age of cached results, in milliseconds
+     */
+    public void setResultCacheMaxAge(long maxAge) {
+        properties.setProperty(AthenaDriver.RESULT_CACHE_MAX_AGE_PROPERTY_NAME, String.valueOf(maxAge));
+    }
+
+    /**
+     * Keeps downloaded result files in a directory on local disk, so that
+     * reading the result of a query execution again does not download it
+     * again. Connections in other JVMs on the same host can share the
+     * directory.
+     *
+     * Corresponds to setting the {@link AthenaDriver#RESULT_FILE_CACHE_DIRECTORY_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param directory the directory to keep result files in
+     * @see io.burt.athena.cache.ResultFileCache
+     */
+    public void setResultFileCacheDirectory(String directory) {
+        properties.setProperty(AthenaDriver.RESULT_FILE_CACHE_DIRECTORY_PROPERTY_NAME, directory);
+    }
+
+    /**
+     * Corresponds to setting the {@link AthenaDriver#RESULT_FILE_CACHE_SIZE_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param maxBytes the maximum total size of the cached result files
+     */
+    public void setResultFileCacheSize(long maxBytes) {
+        properties.setProperty(AthenaDriver.RESULT_FILE_CACHE_SIZE_PROPERTY_NAME, String.valueOf(maxBytes));
+    }
+
+    /**
+     * Answers queries that only select constants, like the validation
+     * queries of connection pools, without running them in Athena.
+     *
+     * Corresponds to setting the {@link AthenaDriver#LOCAL_CONSTANT_QUERIES_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param localConstantQueries whether or not to answer constant queries locally
+     * @see io.burt.athena.sql.ConstantQueries
+     */
+    public void setLocalConstantQueries(boolean localConstantQueries) {
+        properties.setProperty(AthenaDriver.LOCAL_CONSTANT_QUERIES_PROPERTY_NAME, String.valueOf(localConstantQueries));
+    }
+
+    /**
+     * Sets how long the databases and tables returned by the database
+     * metadata are cached before they are reloaded in the background.
+     *
+     * Corresponds to setting the {@link AthenaDriver#CATALOG_CACHE_TTL_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param ttl the time to live of the catalog cache, in milliseconds
+     * @see io.burt.athena.catalog.Catalog
+     */
+    public void setCatalogCacheTtl(long ttl) {
+        properties.setProperty(AthenaDriver.CATALOG_CACHE_TTL_PROPERTY_NAME, String.valueOf(ttl));
+    }
+
+    /**
+     * Runs the callbacks of the AWS SDK on virtual threads, requires Java 21.
+     *
+     * Corresponds to setting the {@link AthenaDriver#VIRTUAL_THREADS_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param virtualThreads whether or not to use virtual threads
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        properties.setProperty(AthenaDriver.VIRTUAL_THREADS_PROPERTY_NAME, String.valueOf(virtualThreads));
+    }
+
     @Override
     public Connection getConnection() throws SQLException {
         return driver.connect(AthenaDriver.createURL(databaseName), properties);
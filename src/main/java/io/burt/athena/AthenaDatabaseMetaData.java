@@ -1,16 +1,119 @@
 package io.burt.athena;
 
+import io.burt.athena.catalog.Catalog;
+import io.burt.athena.catalog.CatalogColumn;
+import io.burt.athena.catalog.CatalogTable;
+import io.burt.athena.result.ConstantResult;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+import software.amazon.awssdk.services.athena.model.ColumnNullable;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
+
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.RowIdLifetime;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
 
 class AthenaDatabaseMetaData implements DatabaseMetaData {
+    static final String CATALOG_NAME = "AwsDataCatalog";
+
+    private static final List<ColumnInfo> CATALOGS_COLUMNS = Arrays.asList(
+            column("TABLE_CAT", "varchar")
+    );
+
+    private static final List<ColumnInfo> SCHEMAS_COLUMNS = Arrays.asList(
+            column("TABLE_SCHEM", "varchar"),
+            column("TABLE_CATALOG", "varchar")
+    );
+
+    private static final List<ColumnInfo> TABLE_TYPES_COLUMNS = Arrays.asList(
+            column("TABLE_TYPE", "varchar")
+    );
+
+    private static final List<ColumnInfo> TABLES_COLUMNS = Arrays.asList(
+            column("TABLE_CAT", "varchar"),
+            column("TABLE_SCHEM", "varchar"),
+            column("TABLE_NAME", "varchar"),
+            column("TABLE_TYPE", "varchar"),
+            column("REMARKS", "varchar"),
+            column("TYPE_CAT", "varchar"),
+            column("TYPE_SCHEM", "varchar"),
+            column("TYPE_NAME", "varchar"),
+            column("SELF_REFERENCING_COL_NAME", "varchar"),
+            column("REF_GENERATION", "varchar")
+    );
+
+    private static final List<ColumnInfo> COLUMNS_COLUMNS = Arrays.asList(
+            column("TABLE_CAT", "varchar"),
+            column("TABLE_SCHEM", "varchar"),
+            column("TABLE_NAME", "varchar"),
+            column("COLUMN_NAME", "varchar"),
+            column("DATA_TYPE", "integer"),
+            column("TYPE_NAME", "varchar"),
+            column("COLUMN_SIZE", "integer"),
+            column("BUFFER_LENGTH", "integer"),
+            column("DECIMAL_DIGITS", "integer"),
+            column("NUM_PREC_RADIX", "integer"),
+            column("NULLABLE", "integer"),
+            column("REMARKS", "varchar"),
+            column("COLUMN_DEF", "varchar"),
+            column("SQL_DATA_TYPE", "integer"),
+            column("SQL_DATETIME_SUB", "integer"),
+            column("CHAR_OCTET_LENGTH", "integer"),
+            column("ORDINAL_POSITION", "integer"),
+            column("IS_NULLABLE", "varchar"),
+            column("SCOPE_CATALOG", "varchar"),
+            column("SCOPE_SCHEMA", "varchar"),
+            column("SCOPE_TABLE", "varchar"),
+            column("SOURCE_DATA_TYPE", "smallint"),
+            column("IS_AUTOINCREMENT", "varchar"),
+            column("IS_GENERATEDCOLUMN", "varchar")
+    );
+
     private final Connection connection;
+    private final Catalog catalog;
 
-    AthenaDatabaseMetaData(Connection connection) {
+    AthenaDatabaseMetaData(Connection connection, Catalog catalog) {
         this.connection = connection;
+        this.catalog = catalog;
+    }
+
+    private static ColumnInfo column(String name, String type) {
+        return ColumnInfo.builder()
+                .name(name)
+                .label(name)
+                .type(type)
+                .precision(0)
+                .scale(0)
+                .nullable(ColumnNullable.NULLABLE)
+                .build();
+    }
+
+    private ResultSet createResultSet(List<ColumnInfo> columns, List<String[]> rows) throws SQLException {
+        String databaseName = connection.getSchema();
+        QueryExecution queryExecution = QueryExecution.builder()
+                .queryExecutionContext(b -> b.database(databaseName))
+                .status(b -> b.state(QueryExecutionState.SUCCEEDED))
+                .build();
+        AthenaResultSetMetaData metaData = new AthenaResultSetMetaData(queryExecution, ResultSetMetadata.builder().columnInfo(columns).build());
+        return new AthenaResultSet(new ConstantResult(metaData, rows), null);
+    }
+
+    /**
+     * Catalogs other than the Athena data catalog, and the empty string,
+     * which means "without a catalog", match nothing.
+     */
+    private static boolean isCatalog(String catalog) {
+        return catalog == null || CATALOG_NAME.equalsIgnoreCase(catalog);
     }
 
     @Override
@@ -653,28 +756,109 @@ class AthenaDatabaseMetaData implements DatabaseMetaData {
     }
 
     @Override
-    public ResultSet getTables(String catalog, String schemaPattern, String tableNamePattern, String[] types) {
-        throw new UnsupportedOperationException("Not implemented");
+    public ResultSet getTables(String catalog, String schemaPattern, String tableNamePattern, String[] types) throws SQLException {
+        List<String[]> rows = new ArrayList<>();
+        if (isCatalog(catalog)) {
+            List<String> typeList = types == null ? null : Arrays.asList(types);
+            List<CatalogTable> tables = new ArrayList<>(this.catalog.tables(schemaPattern, tableNamePattern));
+            tables.sort(Comparator.comparing(CatalogTable::type));
+            for (CatalogTable table : tables) {
+                if (typeList == null || typeList.contains(table.type())) {
+                    rows.add(new String[]{CATALOG_NAME, table.databaseName(), table.name(), table.type(), null, null, null, null, null, null});
+                }
+            }
+        }
+        return createResultSet(TABLES_COLUMNS, rows);
     }
 
     @Override
-    public ResultSet getSchemas() {
-        throw new UnsupportedOperationException("Not implemented");
+    public ResultSet getSchemas() throws SQLException {
+        return getSchemas(null, null);
     }
 
     @Override
-    public ResultSet getCatalogs() {
-        throw new UnsupportedOperationException("Not implemented");
+    public ResultSet getCatalogs() throws SQLException {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{CATALOG_NAME});
+        return createResultSet(CATALOGS_COLUMNS, rows);
     }
 
     @Override
-    public ResultSet getTableTypes() {
-        throw new UnsupportedOperationException("Not implemented");
+    public ResultSet getTableTypes() throws SQLException {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{CatalogTable.TABLE});
+        rows.add(new String[]{CatalogTable.VIEW});
+        return createResultSet(TABLE_TYPES_COLUMNS, rows);
     }
 
     @Override
-    public ResultSet getColumns(String catalog, String schemaPattern, String tableNamePattern, String columnNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+    public ResultSet getColumns(String catalog, String schemaPattern, String tableNamePattern, String columnNamePattern) throws SQLException {
+        List<String[]> rows = new ArrayList<>();
+        if (isCatalog(catalog)) {
+            Predicate<String> columnMatcher = Catalog.matcher(columnNamePattern);
+            for (CatalogTable table : this.catalog.tables(schemaPattern, tableNamePattern)) {
+                for (CatalogColumn column : table.columns()) {
+                    if (columnMatcher.test(column.name())) {
+                        rows.add(columnRow(table, column));
+                    }
+                }
+            }
+        }
+        return createResultSet(COLUMNS_COLUMNS, rows);
+    }
+
+    private static String[] columnRow(CatalogTable table, CatalogColumn column) {
+        String typeName = column.type().toLowerCase(Locale.ROOT);
+        int parameterStart = typeName.indexOf('(');
+        String baseTypeName = parameterStart < 0 ? typeName.trim() : typeName.substring(0, parameterStart).trim();
+        int dataType = AthenaResultSetMetaData.sqlType(baseTypeName);
+        String columnSize = null;
+        String decimalDigits = null;
+        if (parameterStart >= 0 && (dataType == Types.VARCHAR || dataType == Types.CHAR || dataType == Types.DECIMAL)) {
+            String[] parameters = typeName.substring(parameterStart + 1, typeName.lastIndexOf(')')).split(",");
+            columnSize = parameters[0].trim();
+            if (parameters.length > 1) {
+                decimalDigits = parameters[1].trim();
+            }
+        }
+        String radix = null;
+        switch (dataType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.DECIMAL:
+                radix = "10";
+                break;
+            default:
+                break;
+        }
+        return new String[]{
+                CATALOG_NAME,
+                table.databaseName(),
+                table.name(),
+                column.name(),
+                String.valueOf(dataType),
+                column.type(),
+                columnSize,
+                null,
+                decimalDigits,
+                radix,
+                String.valueOf(column.nullable() ? columnNullable : columnNoNulls),
+                column.comment(),
+                null,
+                null,
+                null,
+                dataType == Types.VARCHAR || dataType == Types.CHAR ? columnSize : null,
+                String.valueOf(column.ordinalPosition()),
+                column.nullable() ? "YES" : "NO",
+                null,
+                null,
+                null,
+                null,
+                "NO",
+                "NO"
+        };
     }
 
     @Override
@@ -858,8 +1042,14 @@ class AthenaDatabaseMetaData implements DatabaseMetaData {
     }
 
     @Override
-    public ResultSet getSchemas(String catalog, String schemaPattern) {
-        throw new UnsupportedOperationException("Not implemented");
+    public ResultSet getSchemas(String catalog, String schemaPattern) throws SQLException {
+        List<String[]> rows = new ArrayList<>();
+        if (isCatalog(catalog)) {
+            for (String databaseName : this.catalog.databases(schemaPattern)) {
+                rows.add(new String[]{databaseName, CATALOG_NAME});
+            }
+        }
+        return createResultSet(SCHEMAS_COLUMNS, rows);
     }
 
     @Override
@@ -1,10 +1,20 @@
 package io.burt.athena;
 
+import io.burt.athena.admission.AdmissionController;
+import io.burt.athena.admission.RateGovernor;
+import io.burt.athena.cache.ResultCache;
+import io.burt.athena.cache.ResultFileCache;
 import io.burt.athena.configuration.ConnectionConfiguration;
 import io.burt.athena.configuration.ConnectionConfigurationFactory;
 import io.burt.athena.configuration.ResultLoadingStrategy;
+import io.burt.athena.dedup.SingleFlight;
+import io.burt.athena.polling.PollingStrategies;
+import io.burt.athena.result.ResultBroadcaster;
+import io.burt.athena.routing.HedgingPolicy;
+import io.burt.athena.routing.WorkGroupRouter;
 import software.amazon.awssdk.regions.Region;
 
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
@@ -12,8 +22,13 @@ import java.sql.DriverPropertyInfo;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.function.Function;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -22,6 +37,27 @@ public class AthenaDriver implements Driver {
     public static final String REGION_PROPERTY_NAME = "region";
     public static final String WORK_GROUP_PROPERTY_NAME = "workGroup";
     public static final String OUTPUT_LOCATION_PROPERTY_NAME = "outputLocation";
+    public static final String WORK_GROUPS_PROPERTY_NAME = "workGroups";
+    public static final String HEDGE_AFTER_PROPERTY_NAME = "hedgeAfter";
+    public static final String RATE_GOVERNOR_PROPERTY_NAME = "rateGovernor";
+    public static final String PREDICTIVE_POLLING_PROPERTY_NAME = "predictivePolling";
+    public static final String BATCH_POLLING_INTERVAL_PROPERTY_NAME = "batchPollingInterval";
+    public static final String MAX_CONCURRENT_QUERIES_PROPERTY_NAME = "maxConcurrentQueries";
+    public static final String ADAPTIVE_CONCURRENCY_PROPERTY_NAME = "adaptiveConcurrency";
+    public static final String TENANT_WEIGHTS_PROPERTY_NAME = "tenantWeights";
+    public static final String PRIORITY_PROPERTY_NAME = "priority";
+    public static final String TENANT_PROPERTY_NAME = "tenant";
+    public static final String MAX_DATA_SCANNED_PROPERTY_NAME = "maxDataScanned";
+    public static final String MAX_ENGINE_EXECUTION_TIME_PROPERTY_NAME = "maxEngineExecutionTime";
+    public static final String VIRTUAL_THREADS_PROPERTY_NAME = "virtualThreads";
+    public static final String SINGLE_FLIGHT_PROPERTY_NAME = "singleFlight";
+    public static final String BROADCAST_RESULTS_PROPERTY_NAME = "broadcastResults";
+    public static final String RESULT_CACHE_PROPERTY_NAME = "resultCache";
+    public static final String RESULT_CACHE_MAX_AGE_PROPERTY_NAME = "resultCacheMaxAge";
+    public static final String RESULT_FILE_CACHE_DIRECTORY_PROPERTY_NAME = "resultFileCacheDirectory";
+    public static final String RESULT_FILE_CACHE_SIZE_PROPERTY_NAME = "resultFileCacheSize";
+    public static final String LOCAL_CONSTANT_QUERIES_PROPERTY_NAME = "localConstantQueries";
+    public static final String CATALOG_CACHE_TTL_PROPERTY_NAME = "catalogCacheTtl";
     public static final String DEFAULT_DATABASE_NAME = "default";
     public static final String JDBC_SUBPROTOCOL = "athena";
 
@@ -115,12 +151,34 @@ public class AthenaDriver implements Driver {
      *                             of the keys
      *                             {@link AthenaDriver#REGION_PROPERTY_NAME},
      *                             {@link AthenaDriver#OUTPUT_LOCATION_PROPERTY_NAME},
-     *                             and {@link AthenaDriver#WORK_GROUP_PROPERTY_NAME}.
+     *                             {@link AthenaDriver#WORK_GROUP_PROPERTY_NAME},
+     *                             {@link AthenaDriver#WORK_GROUPS_PROPERTY_NAME},
+     *                             {@link AthenaDriver#HEDGE_AFTER_PROPERTY_NAME},
+     *                             {@link AthenaDriver#RATE_GOVERNOR_PROPERTY_NAME},
+     *                             {@link AthenaDriver#PREDICTIVE_POLLING_PROPERTY_NAME},
+     *                             {@link AthenaDriver#BATCH_POLLING_INTERVAL_PROPERTY_NAME},
+     *                             {@link AthenaDriver#MAX_CONCURRENT_QUERIES_PROPERTY_NAME},
+     *                             {@link AthenaDriver#ADAPTIVE_CONCURRENCY_PROPERTY_NAME},
+     *                             {@link AthenaDriver#TENANT_WEIGHTS_PROPERTY_NAME},
+     *                             {@link AthenaDriver#PRIORITY_PROPERTY_NAME},
+     *                             {@link AthenaDriver#TENANT_PROPERTY_NAME},
+     *                             {@link AthenaDriver#MAX_DATA_SCANNED_PROPERTY_NAME},
+     *                             {@link AthenaDriver#MAX_ENGINE_EXECUTION_TIME_PROPERTY_NAME},
+     *                             {@link AthenaDriver#VIRTUAL_THREADS_PROPERTY_NAME},
+     *                             {@link AthenaDriver#SINGLE_FLIGHT_PROPERTY_NAME},
+     *                             {@link AthenaDriver#BROADCAST_RESULTS_PROPERTY_NAME},
+     *                             {@link AthenaDriver#RESULT_CACHE_PROPERTY_NAME},
+     *                             {@link AthenaDriver#RESULT_CACHE_MAX_AGE_PROPERTY_NAME},
+     *                             {@link AthenaDriver#RESULT_FILE_CACHE_DIRECTORY_PROPERTY_NAME},
+     *                             {@link AthenaDriver#RESULT_FILE_CACHE_SIZE_PROPERTY_NAME},
+     *                             {@link AthenaDriver#LOCAL_CONSTANT_QUERIES_PROPERTY_NAME},
+     *                             and {@link AthenaDriver#CATALOG_CACHE_TTL_PROPERTY_NAME}.
      *                             All other keys will be ignored.
      * @return a JDBC connection ready to execute queries
+     * @throws SQLException when a property has an invalid value
      */
     @Override
-    public Connection connect(String url, Properties connectionProperties) {
+    public Connection connect(String url, Properties connectionProperties) throws SQLException {
         Matcher m = matchURL(url);
         if (m.matches()) {
             String databaseName = m.group(1) == null ? DEFAULT_DATABASE_NAME : m.group(1);
@@ -136,12 +194,130 @@ public class AthenaDriver implements Driver {
                     Duration.ofMinutes(30),
                     ResultLoadingStrategy.S3
             );
+            if (Boolean.parseBoolean(connectionProperties.getProperty(VIRTUAL_THREADS_PROPERTY_NAME))) {
+                configuration = configuration.withVirtualThreads(true);
+            }
+            if (connectionProperties.containsKey(WORK_GROUPS_PROPERTY_NAME)) {
+                configuration = configuration.withWorkGroupRouter(new WorkGroupRouter(parseProperty(connectionProperties, WORK_GROUPS_PROPERTY_NAME, AthenaDriver::parseWorkGroups)));
+            }
+            if (connectionProperties.containsKey(HEDGE_AFTER_PROPERTY_NAME)) {
+                configuration = configuration.withHedgingPolicy(parseProperty(connectionProperties, HEDGE_AFTER_PROPERTY_NAME, AthenaDriver::parseHedgingPolicy));
+            }
+            if (Boolean.parseBoolean(connectionProperties.getProperty(RATE_GOVERNOR_PROPERTY_NAME))) {
+                configuration = configuration.withRateGovernor(RateGovernor.shared());
+            }
+            if (Boolean.parseBoolean(connectionProperties.getProperty(PREDICTIVE_POLLING_PROPERTY_NAME))) {
+                configuration = configuration.withPollingStrategy(PollingStrategies.predictive());
+            }
+            if (connectionProperties.containsKey(BATCH_POLLING_INTERVAL_PROPERTY_NAME)) {
+                configuration = configuration.withBatchPollingInterval(parseProperty(connectionProperties, BATCH_POLLING_INTERVAL_PROPERTY_NAME, AthenaDriver::parseMillis));
+            }
+            if (connectionProperties.containsKey(MAX_CONCURRENT_QUERIES_PROPERTY_NAME)) {
+                int maxConcurrentQueries = parseProperty(connectionProperties, MAX_CONCURRENT_QUERIES_PROPERTY_NAME, Integer::parseInt);
+                AdmissionController admissionController;
+                if (Boolean.parseBoolean(connectionProperties.getProperty(ADAPTIVE_CONCURRENCY_PROPERTY_NAME))) {
+                    admissionController = AdmissionController.adaptive(1, maxConcurrentQueries);
+                } else {
+                    admissionController = AdmissionController.fixed(maxConcurrentQueries);
+                }
+                if (connectionProperties.containsKey(TENANT_WEIGHTS_PROPERTY_NAME)) {
+                    parseProperty(connectionProperties, TENANT_WEIGHTS_PROPERTY_NAME, AthenaDriver::parseTenantWeights).forEach(admissionController::setTenantWeight);
+                }
+                configuration = configuration.withAdmissionController(admissionController);
+            }
+            if (connectionProperties.containsKey(PRIORITY_PROPERTY_NAME)) {
+                configuration = configuration.withPriority(parseProperty(connectionProperties, PRIORITY_PROPERTY_NAME, Integer::parseInt));
+            }
+            if (connectionProperties.containsKey(TENANT_PROPERTY_NAME)) {
+                configuration = configuration.withTenant(connectionProperties.getProperty(TENANT_PROPERTY_NAME));
+            }
+            if (connectionProperties.containsKey(MAX_DATA_SCANNED_PROPERTY_NAME)) {
+                configuration = configuration.withQueryBudget(configuration.queryBudget().withMaxDataScanned(parseProperty(connectionProperties, MAX_DATA_SCANNED_PROPERTY_NAME, Long::parseLong)));
+            }
+            if (connectionProperties.containsKey(MAX_ENGINE_EXECUTION_TIME_PROPERTY_NAME)) {
+                configuration = configuration.withQueryBudget(configuration.queryBudget().withMaxEngineExecutionTime(parseProperty(connectionProperties, MAX_ENGINE_EXECUTION_TIME_PROPERTY_NAME, AthenaDriver::parseMillis)));
+            }
+            if (Boolean.parseBoolean(connectionProperties.getProperty(SINGLE_FLIGHT_PROPERTY_NAME))) {
+                configuration = configuration.withSingleFlight(SingleFlight.shared());
+            }
+            if (Boolean.parseBoolean(connectionProperties.getProperty(BROADCAST_RESULTS_PROPERTY_NAME))) {
+                configuration = configuration.withResultBroadcaster(ResultBroadcaster.shared());
+            }
+            if (Boolean.parseBoolean(connectionProperties.getProperty(RESULT_CACHE_PROPERTY_NAME))) {
+                configuration = configuration.withResultCache(ResultCache.shared());
+            }
+            if (connectionProperties.containsKey(RESULT_CACHE_MAX_AGE_PROPERTY_NAME)) {
+                configuration = configuration.withResultCacheMaxAge(parseProperty(connectionProperties, RESULT_CACHE_MAX_AGE_PROPERTY_NAME, AthenaDriver::parseMillis));
+            }
+            if (connectionProperties.containsKey(RESULT_FILE_CACHE_DIRECTORY_PROPERTY_NAME)) {
+                long maxBytes = connectionProperties.containsKey(RESULT_FILE_CACHE_SIZE_PROPERTY_NAME) ? parseProperty(connectionProperties, RESULT_FILE_CACHE_SIZE_PROPERTY_NAME, Long::parseLong) : ResultFileCache.DEFAULT_MAX_BYTES;
+                configuration = configuration.withResultFileCache(ResultFileCache.forDirectory(Paths.get(connectionProperties.getProperty(RESULT_FILE_CACHE_DIRECTORY_PROPERTY_NAME)), maxBytes));
+            }
+            if (Boolean.parseBoolean(connectionProperties.getProperty(LOCAL_CONSTANT_QUERIES_PROPERTY_NAME))) {
+                configuration = configuration.withLocalConstantQueries(true);
+            }
+            if (connectionProperties.containsKey(CATALOG_CACHE_TTL_PROPERTY_NAME)) {
+                configuration = configuration.withCatalogCacheTtl(parseProperty(connectionProperties, CATALOG_CACHE_TTL_PROPERTY_NAME, AthenaDriver::parseMillis));
+            }
             return new AthenaConnection(configuration);
         } else {
             return null;
         }
     }
 
+    private static <T> T parseProperty(Properties connectionProperties, String propertyName, Function<String, T> parser) throws SQLException {
+        String value = connectionProperties.getProperty(propertyName);
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            throw new SQLException(String.format("Invalid value for property \"%s\": %s", propertyName, e.getMessage()), e);
+        }
+    }
+
+    private static Duration parseMillis(String millis) {
+        return Duration.ofMillis(Long.parseLong(millis.trim()));
+    }
+
+    private static List<WorkGroupRouter.WorkGroup> parseWorkGroups(String workGroups) {
+        List<WorkGroupRouter.WorkGroup> list = new ArrayList<>();
+        for (String workGroup : workGroups.split(",")) {
+            String[] parts = workGroup.split(":", 3);
+            String name = parts[0].trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException(String.format("Invalid work group \"%s\", expected \"name[:weight[:outputLocation]]\"", workGroup));
+            }
+            double weight = parts.length > 1 ? Double.parseDouble(parts[1].trim()) : 1.0;
+            String outputLocation = parts.length > 2 ? parts[2].trim() : null;
+            list.add(new WorkGroupRouter.WorkGroup(name, outputLocation, weight));
+        }
+        return list;
+    }
+
+    private static HedgingPolicy parseHedgingPolicy(String hedgeAfter) {
+        String value = hedgeAfter.trim();
+        if (value.startsWith("p")) {
+            return HedgingPolicy.percentile(Double.parseDouble(value.substring(1)), HedgingPolicy.DEFAULT_INITIAL_THRESHOLD);
+        } else {
+            return HedgingPolicy.after(Duration.ofMillis(Long.parseLong(value)));
+        }
+    }
+
+    private static Map<String, Double> parseTenantWeights(String tenantWeights) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String tenantWeight : tenantWeights.split(",")) {
+            String[] parts = tenantWeight.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(String.format("Invalid tenant weight \"%s\", expected \"tenant:weight\"", tenantWeight));
+            }
+            double weight = Double.parseDouble(parts[1].trim());
+            if (!(weight > 0)) {
+                throw new IllegalArgumentException(String.format("Invalid tenant weight \"%s\", the weight must be positive", tenantWeight));
+            }
+            weights.put(parts[0].trim(), weight);
+        }
+        return weights;
+    }
+
     private Matcher matchURL(String url) {
         return URL_PATTERN.matcher(url);
     }
@@ -3,6 +3,8 @@ package io.burt.athena;
 import io.burt.athena.result.AthenaArray;
 import io.burt.athena.result.Result;
 import io.burt.athena.result.ResultPosition;
+import io.burt.athena.result.ResultSetPublisher;
+import org.reactivestreams.Publisher;
 
 import java.io.InputStream;
 import java.io.Reader;
@@ -38,12 +40,13 @@ import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalQueries;
 import java.util.Calendar;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
 public class AthenaResultSet implements ResultSet {
     private AthenaStatement statement;
     private boolean open;
-    private Result result;
+    private volatile Result result;
     private boolean lastWasNull;
 
     public AthenaResultSet(Result result, AthenaStatement statement) {
@@ -117,6 +120,38 @@ public class AthenaResultSet implements ResultSet {
         }
     }
 
+    void cancel() {
+        Result currentResult = result;
+        if (currentResult != null) {
+            currentResult.cancel();
+        }
+    }
+
+    /**
+     * Returns a Reactive Streams publisher of the rows of this result set.
+     *
+     * Rows are read only as fast as the subscriber requests them, which also
+     * slows down the download of the result. The result set must not be used
+     * directly after this method has been called, and it is closed when the
+     * publisher completes, fails, or its subscription is cancelled.
+     *
+     * @return a publisher that can be subscribed to once
+     * @see ResultSetPublisher
+     */
+    public Publisher<String[]> publisher() {
+        return new ResultSetPublisher(this, this::cancel);
+    }
+
+    /**
+     * Like {@link #publisher()}, but reads the rows on the given executor.
+     *
+     * @param executor the executor to read the rows on, reading blocks
+     * @return a publisher that can be subscribed to once
+     */
+    public Publisher<String[]> publisher(Executor executor) {
+        return new ResultSetPublisher(this, executor, this::cancel);
+    }
+
     @Override
     public boolean isClosed() {
         return !open;
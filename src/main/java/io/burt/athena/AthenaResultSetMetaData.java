@@ -64,7 +64,15 @@ public class AthenaResultSetMetaData implements ResultSetMetaData {
 
     @Override
     public int getColumnType(int column) {
-        switch (getColumn(column).type()) {
+        return sqlType(getColumn(column).type());
+    }
+
+    /**
+     * @param typeName the name of an Athena type, without parameters
+     * @return the corresponding {@link Types} constant
+     */
+    static int sqlType(String typeName) {
+        switch (typeName) {
             case "tinyint":
                 return Types.TINYINT;
             case "smallint":
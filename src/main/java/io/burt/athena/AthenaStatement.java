@@ -1,9 +1,35 @@
 package io.burt.athena;
 
+import io.burt.athena.admission.AdmissionController;
+import io.burt.athena.budget.QueryBudget;
+import io.burt.athena.budget.QueryBudgetExceededException;
+import io.burt.athena.cache.QueryRefresher;
+import io.burt.athena.cache.ResultCache;
 import io.burt.athena.configuration.ConnectionConfiguration;
+import io.burt.athena.dedup.ClientRequestTokens;
+import io.burt.athena.dedup.SingleFlight;
+import io.burt.athena.polling.BatchQueryExecutionPoller;
+import io.burt.athena.polling.PollingScheduler;
+import io.burt.athena.result.ConcatenatedResult;
+import io.burt.athena.result.Result;
+import io.burt.athena.result.SortColumn;
+import io.burt.athena.result.SortMergedResult;
+import io.burt.athena.routing.HedgingPolicy;
+import io.burt.athena.routing.WorkGroupRouter;
+import io.burt.athena.sql.ConstantQueries;
+import io.burt.athena.sql.Script;
+import io.burt.athena.sql.ScriptExecutionException;
+import io.burt.athena.sql.ScriptStatement;
+import io.burt.athena.sql.ScriptStatementResult;
+import io.burt.athena.sql.SqlNormalizer;
 import software.amazon.awssdk.services.athena.AthenaAsyncClient;
+import software.amazon.awssdk.services.athena.model.GetQueryExecutionResponse;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+import software.amazon.awssdk.services.athena.model.StartQueryExecutionResponse;
+import software.amazon.awssdk.services.athena.model.TooManyRequestsException;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -14,30 +40,57 @@ import java.sql.Statement;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 public class AthenaStatement implements Statement {
+    public static final int DEFAULT_BATCH_PARALLELISM = 20;
+    public static final String SCATTER_PREDICATE_PLACEHOLDER = "{predicate}";
+
     private final AthenaAsyncClient athenaClient;
     private Clock clock;
 
     private ConnectionConfiguration configuration;
-    private String queryExecutionId;
-    private ResultSet currentResultSet;
+    private final Object executionLock;
+    private volatile String queryExecutionId;
+    private volatile ResultSet currentResultSet;
+    private Thread executingThread;
+    private volatile boolean cancelRequested;
+    private volatile boolean followingFlight;
+    private volatile HedgedQuery currentHedgedQuery;
     private Function<String, Optional<String>> clientRequestTokenProvider;
     private boolean open;
+    private final List<String> batch;
+    private int batchParallelism;
 
     AthenaStatement(ConnectionConfiguration configuration, Clock clock) {
         this.configuration = configuration;
         this.athenaClient = configuration.athenaClient();
         this.clock = clock;
+        this.executionLock = new Object();
         this.queryExecutionId = null;
         this.currentResultSet = null;
+        this.executingThread = null;
+        this.cancelRequested = false;
+        this.followingFlight = false;
         this.clientRequestTokenProvider = sql -> Optional.empty();
         this.open = true;
+        this.batch = new ArrayList<>();
+        this.batchParallelism = DEFAULT_BATCH_PARALLELISM;
     }
 
     /**
@@ -65,6 +118,118 @@ public class AthenaStatement implements Statement {
         }
     }
 
+    /**
+     * Makes this statement use client request tokens derived from the query,
+     * the database and the work group, so that statements on any node that
+     * run the same query within the same freshness window share one query
+     * execution. Statements that are not read-only get a new query execution
+     * every time.
+     *
+     * @param freshnessWindow how long queries share a query execution
+     * @see ClientRequestTokens
+     */
+    public void setDeterministicClientRequestTokens(Duration freshnessWindow) {
+        setClientRequestTokenProvider(ClientRequestTokens.deterministic(configuration.databaseName(), configuration.workGroupName(), freshnessWindow, clock));
+    }
+
+    /**
+     * Sets the priority of this statement's executions.
+     *
+     * When the connection limits the number of concurrent queries, executions
+     * that wait for a slot get one in priority order, so for example queries
+     * that a user is waiting for can be given a higher priority than
+     * background work. Executions that are already running are not affected.
+     *
+     * The default is the connection's priority, which is
+     * {@link AdmissionController#DEFAULT_PRIORITY} unless it has been set
+     * with a connection property.
+     *
+     * @param priority the priority, higher is more urgent
+     */
+    public void setPriority(int priority) {
+        configuration = configuration.withPriority(priority);
+    }
+
+    public int getPriority() {
+        return configuration.priority();
+    }
+
+    /**
+     * Sets the tenant that this statement's executions belong to.
+     *
+     * When the connection limits the number of concurrent queries, executions
+     * with the same priority that wait for a slot are queued fairly across
+     * tenants, so that one tenant's large batch does not delay the queries of
+     * all other tenants.
+     *
+     * The default is the connection's tenant, which is
+     * {@link AdmissionController#DEFAULT_TENANT} unless it has been set with a
+     * connection property.
+     *
+     * @param tenant the name of the tenant
+     */
+    public void setTenant(String tenant) {
+        configuration = configuration.withTenant(tenant);
+    }
+
+    public String getTenant() {
+        return configuration.tenant();
+    }
+
+    /**
+     * Sets the hedging policy of this statement's executions.
+     *
+     * When the connection routes queries to more than one work group, a query
+     * that has been queued for longer than the policy's threshold is started
+     * again in another work group. Whichever of the two executions succeeds
+     * first is used, and the other one is stopped. When the connection limits
+     * the number of concurrent queries the hedge needs a slot of its own, and
+     * the query is not hedged while there is none to spare.
+     *
+     * Hedged executions are started without a client request token, since
+     * Athena would otherwise return the original execution. Hedging is not
+     * used with batched status polling.
+     *
+     * The default is the connection's hedging policy, which is to not hedge
+     * unless it has been set with a connection property.
+     *
+     * @param hedgingPolicy the hedging policy, or <code>null</code> to not
+     *                      hedge queries
+     * @see io.burt.athena.routing.WorkGroupRouter
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        configuration = configuration.withHedgingPolicy(hedgingPolicy);
+    }
+
+    public HedgingPolicy getHedgingPolicy() {
+        return configuration.hedgingPolicy().orElse(null);
+    }
+
+    /**
+     * Sets limits on how much data this statement's queries may scan and
+     * how long they may run.
+     *
+     * Every time the status of a running query is polled its statistics are
+     * compared to the budget, and a query that is over it is stopped right
+     * away and fails with a {@link QueryBudgetExceededException}. Since the
+     * statistics are only as fresh as the last poll, a query can go somewhat
+     * over its budget before it is stopped.
+     *
+     * The default is the connection's budget, which is
+     * {@link QueryBudget#UNLIMITED} unless it has been set with connection
+     * properties.
+     *
+     * @param queryBudget the budget, or <code>null</code> to not limit the
+     *                    queries
+     */
+    public void setQueryBudget(QueryBudget queryBudget) {
+        configuration = configuration.withQueryBudget(queryBudget);
+    }
+
+    public QueryBudget getQueryBudget() {
+        return configuration.queryBudget();
+    }
+
     @Override
     public ResultSet executeQuery(String sql) throws SQLException {
         execute(sql);
@@ -77,17 +242,69 @@ public class AthenaStatement implements Statement {
             currentResultSet.close();
             currentResultSet = null;
         }
+        if (configuration.localConstantQueries()) {
+            Optional<Result> constantResult = ConstantQueries.evaluate(sql, configuration.databaseName());
+            if (constantResult.isPresent()) {
+                currentResultSet = new AthenaResultSet(constantResult.get(), this);
+                return true;
+            }
+        }
+        ResultSet cachedResultSet = cachedResultSet(sql);
+        if (cachedResultSet != null) {
+            currentResultSet = cachedResultSet;
+            return true;
+        }
+        AdmissionController.Slot slot = null;
+        AtomicReference<WorkGroupRouter.Route> route = new AtomicReference<>();
+        SingleFlight.Flight flight = joinFlight(sql);
+        beginExecution();
         try {
             Instant deadline = clock.instant().plus(configuration.queryTimeout());
-            queryExecutionId = startQueryExecution(sql, deadline);
-            currentResultSet = configuration.pollingStrategy().pollUntilCompleted(this::poll, deadline);
+            if (flight != null && !flight.isLeader()) {
+                ResultSet sharedResultSet = followFlight(flight, sql, deadline);
+                if (sharedResultSet != null) {
+                    currentResultSet = sharedResultSet;
+                    return true;
+                }
+                flight = null;
+            }
+            Optional<AdmissionController> admissionController = configuration.admissionController();
+            if (admissionController.isPresent()) {
+                while (true) {
+                    slot = admissionController.get().acquireBlocking(configuration.priority(), configuration.tenant(), Duration.between(clock.instant(), deadline));
+                    try {
+                        queryExecutionId = startQueryExecution(sql, route, deadline);
+                        if (flight != null) {
+                            flight.started(queryExecutionId);
+                        }
+                        break;
+                    } catch (ExecutionException ee) {
+                        if (ee.getCause() instanceof TooManyRequestsException) {
+                            slot.throttled();
+                            slot = null;
+                        } else {
+                            throw ee;
+                        }
+                    }
+                }
+            } else {
+                queryExecutionId = startQueryExecution(sql, route, deadline);
+                if (flight != null) {
+                    flight.started(queryExecutionId);
+                }
+            }
+            throwIfCancelled();
+            currentResultSet = pollUntilCompleted(configuration, sql, queryExecutionId, workGroupName(configuration, route), deadline);
             return currentResultSet != null;
         } catch (InterruptedException ie) {
+            if (cancelRequested) {
+                throw cancelledException();
+            }
             Thread.currentThread().interrupt();
             throw new SQLException(ie);
         } catch (TimeoutException te) {
             SQLTimeoutException ste = new SQLTimeoutException(te);
-            if (queryExecutionId != null) {
+            if (queryExecutionId != null && !followingFlight) {
                 try {
                     athenaClient.stopQueryExecution(b -> {
                         b.queryExecutionId(queryExecutionId);
@@ -101,47 +318,675 @@ public class AthenaStatement implements Statement {
             SQLException eee = new SQLException(ee.getCause());
             eee.addSuppressed(ee);
             throw eee;
+        } finally {
+            endExecution();
+            if (flight != null) {
+                flight.finish();
+            }
+            if (slot != null) {
+                slot.release();
+            }
+            WorkGroupRouter.Route heldRoute = route.getAndSet(null);
+            if (heldRoute != null) {
+                heldRoute.release();
+            }
+        }
+    }
+
+    /**
+     * @return a result set over the latest result of a refreshed query, or a
+     *         cached result of the query, or null when the query is not
+     *         refreshed and there is no recent enough result in the cache,
+     *         or caching by query is not enabled
+     */
+    private ResultSet cachedResultSet(String sql) {
+        Optional<QueryRefresher> queryRefresher = configuration.queryRefresher();
+        if (queryRefresher.isPresent()) {
+            Optional<Result> refreshedResult = queryRefresher.get().get(configuration.databaseName(), sql);
+            if (refreshedResult.isPresent()) {
+                return new AthenaResultSet(refreshedResult.get(), this);
+            }
+        }
+        Optional<ResultCache> resultCache = configuration.resultCache();
+        Duration maxAge = configuration.resultCacheMaxAge();
+        if (resultCache.isPresent() && !maxAge.isZero() && !maxAge.isNegative() && SqlNormalizer.isReadOnly(sql)) {
+            return resultCache.get().get(resultCacheKey(configuration, sql), clock.instant().minus(maxAge)).map(result -> new AthenaResultSet(result, this)).orElse(null);
+        } else {
+            return null;
         }
     }
 
-    private String startQueryExecution(String sql, Instant deadline) throws InterruptedException, ExecutionException, TimeoutException {
+    private static String resultCacheKey(ConnectionConfiguration executionConfiguration, String sql) {
+        return ResultCache.queryKey(executionConfiguration.clientIdentity(), executionConfiguration.databaseName(), executionConfiguration.workGroupName(), executionConfiguration.outputLocation(), sql);
+    }
+
+    private SingleFlight.Flight joinFlight(String sql) {
+        Optional<SingleFlight> singleFlight = configuration.singleFlight();
+        if (singleFlight.isPresent() && !configuration.hedgingPolicy().isPresent() && SqlNormalizer.isReadOnly(sql)) {
+            return singleFlight.get().join(SingleFlight.key(configuration.clientIdentity(), configuration.databaseName(), configuration.workGroupName(), configuration.outputLocation(), sql));
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Waits for the query execution of another statement that is executing
+     * the same query, and reads its output.
+     *
+     * @return a result set, or null when the other statement failed to start
+     *         its query execution and this statement should start its own
+     */
+    private ResultSet followFlight(SingleFlight.Flight flight, String sql, Instant deadline) throws SQLException, InterruptedException, ExecutionException, TimeoutException {
+        String id = flight.queryExecutionId().get(Duration.between(clock.instant(), deadline).toMillis(), TimeUnit.MILLISECONDS);
+        if (id == null) {
+            return null;
+        }
+        followingFlight = true;
+        queryExecutionId = id;
+        throwIfCancelled();
+        Optional<QueryExecution> queryExecution = flight.completion().get(Duration.between(clock.instant(), deadline).toMillis(), TimeUnit.MILLISECONDS);
+        if (queryExecution.isPresent()) {
+            if (queryExecution.get().status().state() == QueryExecutionState.SUCCEEDED) {
+                return createResultSet(configuration, queryExecution.get());
+            } else {
+                throw new SQLException(queryExecution.get().status().stateChangeReason());
+            }
+        } else {
+            return configuration.pollingStrategy().forQuery(sql).pollUntilCompleted(d -> poll(configuration, id, d), deadline);
+        }
+    }
+
+    /**
+     * Executes a query without blocking the calling thread.
+     *
+     * The query is started and then polled using the connection's polling
+     * strategy, but instead of sleeping between polls the next poll is
+     * scheduled on a shared timer. This means that a large number of
+     * concurrent executions can be driven by only a few threads.
+     *
+     * Unlike {@link #execute(String)} this method does not change the
+     * statement's current result set, and it can be called again before
+     * previous executions have completed. The caller is responsible for
+     * closing the result sets produced by the returned futures.
+     *
+     * Cancelling the returned future stops the query execution and the
+     * polling, and releases the execution's query slot.
+     *
+     * @param sql the SQL to execute
+     * @return a future that completes with the result set when the query has
+     *         succeeded, or exceptionally with an {@link SQLException} if it
+     *         fails, and a {@link SQLTimeoutException} if it does not
+     *         complete before the query timeout
+     */
+    public CompletableFuture<AthenaResultSet> executeAsync(String sql) {
+        CompletableFuture<AthenaResultSet> future = new CompletableFuture<>();
+        if (!open) {
+            future.completeExceptionally(new SQLException("Statement is closed"));
+            return future;
+        }
+        ConnectionConfiguration executionConfiguration = configuration;
+        PollingScheduler scheduler = executionConfiguration.pollingScheduler();
+        Instant deadline = clock.instant().plus(executionConfiguration.queryTimeout());
+        AtomicReference<AdmissionController.Slot> slot = new AtomicReference<>();
+        AtomicReference<WorkGroupRouter.Route> route = new AtomicReference<>();
+        CompletableFuture<String> startFuture;
+        try {
+            Optional<AdmissionController> admissionController = executionConfiguration.admissionController();
+            if (admissionController.isPresent()) {
+                startFuture = startAdmittedQueryExecutionAsync(admissionController.get(), executionConfiguration, slot, route, sql, deadline, scheduler);
+            } else {
+                startFuture = startRoutedQueryExecutionAsync(executionConfiguration, route, sql, deadline, scheduler);
+            }
+        } catch (RuntimeException e) {
+            future.completeExceptionally(toSQLException(e));
+            return future;
+        }
+        AtomicReference<CompletableFuture<ResultSet>> polling = new AtomicReference<>();
+        startFuture
+                .thenCompose(id -> {
+                    if (future.isCancelled()) {
+                        CompletableFuture<ResultSet> cancelled = new CompletableFuture<>();
+                        cancelled.cancel(false);
+                        return cancelled;
+                    }
+                    CompletableFuture<ResultSet> pollFuture = pollUntilCompletedAsync(executionConfiguration, sql, id, workGroupName(executionConfiguration, route), deadline, scheduler);
+                    polling.set(pollFuture);
+                    if (future.isCancelled()) {
+                        pollFuture.cancel(false);
+                    }
+                    return pollFuture.whenComplete((rs, error) -> {
+                        if (error != null && unwrapCompletionException(error) instanceof TimeoutException) {
+                            athenaClient.stopQueryExecution(b -> b.queryExecutionId(id));
+                        }
+                    });
+                })
+                .whenComplete((rs, error) -> {
+                    AdmissionController.Slot heldSlot = slot.getAndSet(null);
+                    if (heldSlot != null) {
+                        heldSlot.release();
+                    }
+                    WorkGroupRouter.Route heldRoute = route.getAndSet(null);
+                    if (heldRoute != null) {
+                        heldRoute.release();
+                    }
+                    if (error == null) {
+                        if (!future.complete((AthenaResultSet) rs)) {
+                            closeQuietly(rs);
+                        }
+                    } else {
+                        future.completeExceptionally(toSQLException(error));
+                    }
+                });
+        future.whenComplete((rs, error) -> {
+            if (future.isCancelled()) {
+                startFuture.thenAccept(id -> athenaClient.stopQueryExecution(b -> b.queryExecutionId(id)));
+                CompletableFuture<ResultSet> pollFuture = polling.get();
+                if (pollFuture != null) {
+                    pollFuture.cancel(false);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Executes a query as several smaller queries and returns one result set
+     * with the rows of all of them.
+     *
+     * A scan over a large partitioned table is often faster as a number of
+     * queries over disjoint partition ranges that run at the same time. The
+     * SQL template must contain {@link #SCATTER_PREDICATE_PLACEHOLDER}, which
+     * is replaced by each of the predicates, in parentheses, to produce one
+     * query per predicate. The queries are started at once with
+     * {@link #executeAsync(String)}, so the connection's limit on concurrent
+     * queries applies if it has one.
+     *
+     * The rows of each query are returned as soon as it has completed, one
+     * query after the other in the order they complete. The results of the
+     * queries that have completed are downloaded in parallel in the
+     * background, while the returned result set is consumed.
+     *
+     * The result set's metadata is that of the first query. When one of the
+     * queries fails, the failure is thrown when the result set reaches its
+     * rows.
+     *
+     * @param sqlTemplate the SQL to execute, with a placeholder for the
+     *                    predicates
+     * @param predicates the predicates, which should select disjoint sets of
+     *                   rows
+     * @return a result set with the rows of all queries
+     * @throws SQLException when the statement is closed, or the template or
+     *                      predicates are invalid
+     */
+    public AthenaResultSet executeScatter(String sqlTemplate, List<String> predicates) throws SQLException {
+        return executeScatter(sqlTemplate, predicates, Collections.emptyList());
+    }
+
+    /**
+     * Executes a query as several smaller queries and returns one result set
+     * with the rows of all of them, sorted on the specified columns.
+     *
+     * This works like {@link #executeScatter(String, List)}, but the SQL
+     * template should have an <code>ORDER BY</code> on the same columns as
+     * the sort columns, and the rows of the queries are merged so that the
+     * returned result set is sorted too. The first row is only available when
+     * all queries have completed.
+     *
+     * @param sqlTemplate the SQL to execute, with a placeholder for the
+     *                    predicates
+     * @param predicates the predicates, which should select disjoint sets of
+     *                   rows
+     * @param sortColumns the columns that the results of the queries are
+     *                    sorted on, or an empty list to concatenate them
+     * @return a result set with the rows of all queries
+     * @throws SQLException when the statement is closed, or the template or
+     *                      predicates are invalid
+     */
+    public AthenaResultSet executeScatter(String sqlTemplate, List<String> predicates, List<SortColumn> sortColumns) throws SQLException {
+        checkClosed();
+        if (!sqlTemplate.contains(SCATTER_PREDICATE_PLACEHOLDER)) {
+            throw new SQLException(String.format("The SQL template does not contain the placeholder %s", SCATTER_PREDICATE_PLACEHOLDER));
+        } else if (predicates.isEmpty()) {
+            throw new SQLException("At least one predicate is required");
+        }
+        if (currentResultSet != null) {
+            currentResultSet.close();
+            currentResultSet = null;
+        }
+        List<CompletableFuture<? extends ResultSet>> splits = new ArrayList<>(predicates.size());
+        for (String predicate : predicates) {
+            splits.add(executeAsync(sqlTemplate.replace(SCATTER_PREDICATE_PLACEHOLDER, "(" + predicate + ")")));
+        }
+        Result result;
+        if (sortColumns.isEmpty()) {
+            result = new ConcatenatedResult(splits);
+        } else {
+            result = new SortMergedResult(splits, sortColumns);
+        }
+        AthenaResultSet resultSet = new AthenaResultSet(result, this);
+        currentResultSet = resultSet;
+        return resultSet;
+    }
+
+    private String startQueryExecution(String sql, AtomicReference<WorkGroupRouter.Route> route, Instant deadline) throws InterruptedException, ExecutionException, TimeoutException {
+        Optional<WorkGroupRouter> router = configuration.workGroupRouter();
+        if (router.isPresent()) {
+            ExecutionException throttled = null;
+            for (int attempt = 0; attempt < router.get().workGroups().size(); attempt++) {
+                WorkGroupRouter.Route acquiredRoute = router.get().route();
+                route.set(acquiredRoute);
+                try {
+                    return startQueryExecutionAsync(configuration, sql, acquiredRoute, clientRequestTokenProvider.apply(sql)).get(networkTimeoutMillis(deadline), TimeUnit.MILLISECONDS);
+                } catch (ExecutionException ee) {
+                    if (ee.getCause() instanceof TooManyRequestsException) {
+                        route.set(null);
+                        acquiredRoute.throttled();
+                        throttled = ee;
+                    } else {
+                        throw ee;
+                    }
+                }
+            }
+            throw throttled;
+        } else {
+            return startQueryExecutionAsync(configuration, sql, null, clientRequestTokenProvider.apply(sql)).get(networkTimeoutMillis(deadline), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private CompletableFuture<String> startQueryExecutionAsync(ConnectionConfiguration executionConfiguration, String sql, WorkGroupRouter.Route route, Optional<String> clientRequestToken) {
+        String workGroupName = route == null ? executionConfiguration.workGroupName() : route.workGroupName();
+        String outputLocation = route == null || route.outputLocation() == null ? executionConfiguration.outputLocation() : route.outputLocation();
         return athenaClient
                 .startQueryExecution(b -> {
                     b.queryString(sql);
-                    b.workGroup(configuration.workGroupName());
-                    b.queryExecutionContext(bb -> bb.database(configuration.databaseName()));
-                    b.resultConfiguration(bb -> bb.outputLocation(configuration.outputLocation()));
-                    clientRequestTokenProvider.apply(sql).ifPresent(b::clientRequestToken);
+                    b.workGroup(workGroupName);
+                    b.queryExecutionContext(bb -> bb.database(executionConfiguration.databaseName()));
+                    b.resultConfiguration(bb -> bb.outputLocation(outputLocation));
+                    clientRequestToken.ifPresent(b::clientRequestToken);
                 })
-                .get(networkTimeoutMillis(deadline), TimeUnit.MILLISECONDS)
-                .queryExecutionId();
+                .thenApply(StartQueryExecutionResponse::queryExecutionId);
+    }
+
+    private CompletableFuture<String> startRoutedQueryExecutionAsync(ConnectionConfiguration executionConfiguration, AtomicReference<WorkGroupRouter.Route> route, String sql, Instant deadline, PollingScheduler scheduler) {
+        Optional<WorkGroupRouter> router = executionConfiguration.workGroupRouter();
+        if (router.isPresent()) {
+            return startRoutedQueryExecutionAsync(router.get(), executionConfiguration, route, sql, deadline, scheduler, router.get().workGroups().size());
+        } else {
+            return scheduler.withTimeout(startQueryExecutionAsync(executionConfiguration, sql, null, clientRequestTokenProvider.apply(sql)), networkTimeout(deadline));
+        }
+    }
+
+    private CompletableFuture<String> startRoutedQueryExecutionAsync(WorkGroupRouter router, ConnectionConfiguration executionConfiguration, AtomicReference<WorkGroupRouter.Route> route, String sql, Instant deadline, PollingScheduler scheduler, int attemptsLeft) {
+        WorkGroupRouter.Route acquiredRoute = router.route();
+        route.set(acquiredRoute);
+        return scheduler
+                .withTimeout(startQueryExecutionAsync(executionConfiguration, sql, acquiredRoute, clientRequestTokenProvider.apply(sql)), networkTimeout(deadline))
+                .handle((id, error) -> {
+                    if (error != null && unwrapCompletionException(error) instanceof TooManyRequestsException && route.compareAndSet(acquiredRoute, null)) {
+                        acquiredRoute.throttled();
+                        if (attemptsLeft > 1) {
+                            return startRoutedQueryExecutionAsync(router, executionConfiguration, route, sql, deadline, scheduler, attemptsLeft - 1);
+                        }
+                    }
+                    if (error != null) {
+                        CompletableFuture<String> failed = new CompletableFuture<>();
+                        failed.completeExceptionally(error);
+                        return failed;
+                    } else {
+                        return CompletableFuture.completedFuture(id);
+                    }
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<String> startAdmittedQueryExecutionAsync(AdmissionController admissionController, ConnectionConfiguration executionConfiguration, AtomicReference<AdmissionController.Slot> slot, AtomicReference<WorkGroupRouter.Route> route, String sql, Instant deadline, PollingScheduler scheduler) {
+        return admissionController
+                .acquire(executionConfiguration.priority(), executionConfiguration.tenant(), Duration.between(clock.instant(), deadline))
+                .thenCompose(acquiredSlot -> {
+                    slot.set(acquiredSlot);
+                    return startRoutedQueryExecutionAsync(executionConfiguration, route, sql, deadline, scheduler)
+                            .handle((id, error) -> {
+                                if (error != null && unwrapCompletionException(error) instanceof TooManyRequestsException && slot.compareAndSet(acquiredSlot, null)) {
+                                    acquiredSlot.throttled();
+                                    return startAdmittedQueryExecutionAsync(admissionController, executionConfiguration, slot, route, sql, deadline, scheduler);
+                                } else if (error != null) {
+                                    CompletableFuture<String> failed = new CompletableFuture<>();
+                                    failed.completeExceptionally(error);
+                                    return failed;
+                                } else {
+                                    return CompletableFuture.completedFuture(id);
+                                }
+                            })
+                            .thenCompose(Function.identity());
+                });
+    }
+
+    private static String workGroupName(ConnectionConfiguration executionConfiguration, AtomicReference<WorkGroupRouter.Route> route) {
+        WorkGroupRouter.Route heldRoute = route.get();
+        return heldRoute == null ? executionConfiguration.workGroupName() : heldRoute.workGroupName();
+    }
+
+    private ResultSet pollUntilCompleted(ConnectionConfiguration executionConfiguration, String sql, String queryExecutionId, String workGroupName, Instant deadline) throws SQLException, InterruptedException, ExecutionException, TimeoutException {
+        Optional<BatchQueryExecutionPoller> batchPoller = executionConfiguration.batchQueryExecutionPoller();
+        if (batchPoller.isPresent()) {
+            CompletableFuture<QueryExecution> completion = batchPoller.get().awaitCompletion(queryExecutionId, executionConfiguration.queryBudget()::isExceededBy);
+            try {
+                QueryExecution queryExecution = completion.get(Math.max(0, Duration.between(clock.instant(), deadline).toMillis()), TimeUnit.MILLISECONDS);
+                return resultSetWhenCompleted(executionConfiguration, queryExecution).orElse(null);
+            } catch (ExecutionException ee) {
+                if (ee.getCause() instanceof SQLException) {
+                    throw (SQLException) ee.getCause();
+                } else {
+                    throw ee;
+                }
+            } finally {
+                completion.cancel(false);
+            }
+        } else {
+            Optional<HedgedQuery> hedgedQuery = hedgedQuery(executionConfiguration, sql, queryExecutionId, workGroupName);
+            if (hedgedQuery.isPresent()) {
+                currentHedgedQuery = hedgedQuery.get();
+                try {
+                    return executionConfiguration.pollingStrategy().forQuery(sql).pollUntilCompleted(d -> hedgedQuery.get().poll(d), deadline);
+                } finally {
+                    currentHedgedQuery = null;
+                    hedgedQuery.get().finish();
+                }
+            } else {
+                return executionConfiguration.pollingStrategy().forQuery(sql).pollUntilCompleted(d -> poll(executionConfiguration, queryExecutionId, d), deadline);
+            }
+        }
+    }
+
+    private CompletableFuture<ResultSet> pollUntilCompletedAsync(ConnectionConfiguration executionConfiguration, String sql, String queryExecutionId, String workGroupName, Instant deadline, PollingScheduler scheduler) {
+        Optional<BatchQueryExecutionPoller> batchPoller = executionConfiguration.batchQueryExecutionPoller();
+        if (batchPoller.isPresent()) {
+            CompletableFuture<QueryExecution> completion = batchPoller.get().awaitCompletion(queryExecutionId, executionConfiguration.queryBudget()::isExceededBy);
+            return scheduler
+                    .withTimeout(completion, Duration.between(clock.instant(), deadline))
+                    .whenComplete((queryExecution, error) -> completion.cancel(false))
+                    .thenApply(queryExecution -> {
+                        try {
+                            return resultSetWhenCompleted(executionConfiguration, queryExecution).orElse(null);
+                        } catch (SQLException e) {
+                            throw new CompletionException(e);
+                        }
+                    });
+        } else {
+            Optional<HedgedQuery> hedgedQuery = hedgedQuery(executionConfiguration, sql, queryExecutionId, workGroupName);
+            if (hedgedQuery.isPresent()) {
+                return executionConfiguration.pollingStrategy().forQuery(sql)
+                        .pollUntilCompletedAsync(d -> hedgedQuery.get().pollAsync(d, scheduler), deadline, scheduler)
+                        .whenComplete((rs, error) -> hedgedQuery.get().finish());
+            } else {
+                return executionConfiguration.pollingStrategy().forQuery(sql).pollUntilCompletedAsync(d -> pollAsync(executionConfiguration, queryExecutionId, d, scheduler), deadline, scheduler);
+            }
+        }
+    }
+
+    private Optional<HedgedQuery> hedgedQuery(ConnectionConfiguration executionConfiguration, String sql, String queryExecutionId, String workGroupName) {
+        Optional<HedgingPolicy> hedgingPolicy = executionConfiguration.hedgingPolicy();
+        Optional<WorkGroupRouter> router = executionConfiguration.workGroupRouter();
+        if (hedgingPolicy.isPresent() && router.isPresent() && router.get().workGroups().size() > 1) {
+            return Optional.of(new HedgedQuery(executionConfiguration, hedgingPolicy.get(), router.get(), sql, queryExecutionId, workGroupName));
+        } else {
+            return Optional.empty();
+        }
     }
 
-    private Optional<ResultSet> poll(Instant deadline) throws SQLException, InterruptedException, ExecutionException, TimeoutException {
+    private Optional<ResultSet> poll(ConnectionConfiguration executionConfiguration, String queryExecutionId, Instant deadline) throws SQLException, InterruptedException, ExecutionException, TimeoutException {
+        throwIfCancelled();
         QueryExecution queryExecution = athenaClient
                 .getQueryExecution(b -> b.queryExecutionId(queryExecutionId))
                 .get(networkTimeoutMillis(deadline), TimeUnit.MILLISECONDS)
                 .queryExecution();
+        return resultSetWhenCompleted(executionConfiguration, queryExecution);
+    }
+
+    private CompletableFuture<Optional<ResultSet>> pollAsync(ConnectionConfiguration executionConfiguration, String queryExecutionId, Instant deadline, PollingScheduler scheduler) {
+        return getQueryExecutionAsync(queryExecutionId, deadline, scheduler).thenApply(queryExecution -> resultSetWhenCompletedOrFail(executionConfiguration, queryExecution));
+    }
+
+    private CompletableFuture<QueryExecution> getQueryExecutionAsync(String queryExecutionId, Instant deadline, PollingScheduler scheduler) {
+        return scheduler
+                .withTimeout(athenaClient.getQueryExecution(b -> b.queryExecutionId(queryExecutionId)), networkTimeout(deadline))
+                .thenApply(GetQueryExecutionResponse::queryExecution);
+    }
+
+    private Optional<ResultSet> resultSetWhenCompletedOrFail(ConnectionConfiguration executionConfiguration, QueryExecution queryExecution) {
+        try {
+            return resultSetWhenCompleted(executionConfiguration, queryExecution);
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private Optional<ResultSet> resultSetWhenCompleted(ConnectionConfiguration executionConfiguration, QueryExecution queryExecution) throws SQLException {
         switch (queryExecution.status().state()) {
             case SUCCEEDED:
-                return Optional.of(createResultSet(queryExecution));
+                executionConfiguration.singleFlight().ifPresent(singleFlight -> singleFlight.completed(queryExecution));
+                executionConfiguration.pollingStrategy().recordCompletion(queryExecution);
+                executionConfiguration.workGroupRouter().ifPresent(router -> router.recordCompletion(queryExecution));
+                executionConfiguration.hedgingPolicy().ifPresent(policy -> policy.recordCompletion(queryExecution));
+                return Optional.of(createResultSet(executionConfiguration, queryExecution));
             case FAILED:
             case CANCELLED:
+                executionConfiguration.singleFlight().ifPresent(singleFlight -> singleFlight.completed(queryExecution));
+                executionConfiguration.workGroupRouter().ifPresent(router -> router.recordCompletion(queryExecution));
                 throw new SQLException(queryExecution.status().stateChangeReason());
             default:
+                QueryBudget budget = executionConfiguration.queryBudget();
+                if (budget.isExceededBy(queryExecution)) {
+                    athenaClient.stopQueryExecution(b -> b.queryExecutionId(queryExecution.queryExecutionId()));
+                    throw new QueryBudgetExceededException(queryExecution, budget);
+                }
                 return Optional.empty();
         }
     }
 
+    private static Throwable unwrapCompletionException(Throwable t) {
+        if ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            return t.getCause();
+        } else {
+            return t;
+        }
+    }
+
+    private static SQLException toSQLException(Throwable t) {
+        Throwable cause = unwrapCompletionException(t);
+        if (cause instanceof SQLException) {
+            return (SQLException) cause;
+        } else if (cause instanceof TimeoutException) {
+            return new SQLTimeoutException(cause);
+        } else {
+            return new SQLException(cause);
+        }
+    }
+
+    private Duration networkTimeout(Instant deadline) {
+        return Duration.ofMillis(networkTimeoutMillis(deadline));
+    }
+
     private long networkTimeoutMillis(Instant deadline) {
         return Math.max(0, Math.min(configuration.networkTimeout().toMillis(), Duration.between(clock.instant(), deadline).toMillis()));
     }
 
-    private ResultSet createResultSet(QueryExecution queryExecution) {
-        return new AthenaResultSet(
-                configuration.createResult(queryExecution),
-                this
-        );
+    private ResultSet createResultSet(ConnectionConfiguration executionConfiguration, QueryExecution queryExecution) {
+        Optional<ResultCache> resultCache = executionConfiguration.resultCache();
+        Result result;
+        if (resultCache.isPresent()) {
+            String sql = queryExecution.query();
+            String queryKey = sql != null && SqlNormalizer.isReadOnly(sql) ? resultCacheKey(executionConfiguration, sql) : null;
+            result = resultCache.get().get(queryExecution.queryExecutionId()).orElseGet(() -> resultCache.get().recording(queryExecution, queryKey, executionConfiguration.createResult(queryExecution)));
+        } else {
+            result = executionConfiguration.createResult(queryExecution);
+        }
+        return new AthenaResultSet(result, this);
+    }
+
+    /**
+     * Polls a query execution, and hedges it in another work group when it
+     * has been queued for longer than the hedging policy's threshold.
+     */
+    private class HedgedQuery {
+        private final ConnectionConfiguration executionConfiguration;
+        private final HedgingPolicy hedgingPolicy;
+        private final WorkGroupRouter router;
+        private final String sql;
+        private final String queryExecutionId;
+        private final String workGroupName;
+        private final Instant started;
+
+        private boolean hedged;
+        private boolean hedgeWon;
+        private boolean finished;
+        private String hedgeQueryExecutionId;
+        private WorkGroupRouter.Route hedgeRoute;
+        private AdmissionController.Slot hedgeSlot;
+
+        HedgedQuery(ConnectionConfiguration executionConfiguration, HedgingPolicy hedgingPolicy, WorkGroupRouter router, String sql, String queryExecutionId, String workGroupName) {
+            this.executionConfiguration = executionConfiguration;
+            this.hedgingPolicy = hedgingPolicy;
+            this.router = router;
+            this.sql = sql;
+            this.queryExecutionId = queryExecutionId;
+            this.workGroupName = workGroupName;
+            this.started = clock.instant();
+        }
+
+        Optional<ResultSet> poll(Instant deadline) throws SQLException, InterruptedException, ExecutionException, TimeoutException {
+            throwIfCancelled();
+            try {
+                return pollAsync(deadline, executionConfiguration.pollingScheduler()).get(networkTimeoutMillis(deadline), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException ee) {
+                if (ee.getCause() instanceof SQLException) {
+                    throw (SQLException) ee.getCause();
+                } else if (ee.getCause() instanceof TimeoutException) {
+                    throw (TimeoutException) ee.getCause();
+                } else {
+                    throw ee;
+                }
+            }
+        }
+
+        CompletableFuture<Optional<ResultSet>> pollAsync(Instant deadline, PollingScheduler scheduler) {
+            String hedgeId = hedgeQueryExecutionId();
+            CompletableFuture<QueryExecution> primaryPoll = getQueryExecutionAsync(queryExecutionId, deadline, scheduler);
+            CompletableFuture<QueryExecution> hedgePoll = hedgeId == null ? CompletableFuture.completedFuture(null) : getQueryExecutionAsync(hedgeId, deadline, scheduler);
+            return primaryPoll
+                    .thenCombine(hedgePoll, (primary, hedge) -> {
+                        QueryExecutionState primaryState = primary.status().state();
+                        if (hedge != null && primaryState != QueryExecutionState.SUCCEEDED) {
+                            switch (hedge.status().state()) {
+                                case SUCCEEDED:
+                                    won();
+                                    athenaClient.stopQueryExecution(b -> b.queryExecutionId(queryExecutionId));
+                                    return CompletableFuture.completedFuture(resultSetWhenCompletedOrFail(executionConfiguration, hedge));
+                                case FAILED:
+                                case CANCELLED:
+                                    abandon();
+                                    break;
+                                default:
+                                    break;
+                            }
+                        }
+                        if (primaryState == QueryExecutionState.QUEUED && shouldHedge()) {
+                            return startHedge(deadline, scheduler).thenApply(v -> Optional.<ResultSet>empty());
+                        } else {
+                            return CompletableFuture.completedFuture(resultSetWhenCompletedOrFail(executionConfiguration, primary));
+                        }
+                    })
+                    .thenCompose(Function.identity());
+        }
+
+        private CompletableFuture<Void> startHedge(Instant deadline, PollingScheduler scheduler) {
+            Optional<AdmissionController.Slot> slot = Optional.empty();
+            Optional<AdmissionController> admissionController = executionConfiguration.admissionController();
+            if (admissionController.isPresent()) {
+                slot = admissionController.get().tryAcquire();
+                if (!slot.isPresent()) {
+                    return CompletableFuture.completedFuture(null);
+                }
+            }
+            Optional<WorkGroupRouter.Route> route = router.routeExcept(workGroupName);
+            synchronized (this) {
+                hedged = true;
+            }
+            if (!route.isPresent()) {
+                slot.ifPresent(AdmissionController.Slot::release);
+                return CompletableFuture.completedFuture(null);
+            }
+            AdmissionController.Slot acquiredSlot = slot.orElse(null);
+            return scheduler
+                    .withTimeout(startQueryExecutionAsync(executionConfiguration, sql, route.get(), Optional.empty()), networkTimeout(deadline))
+                    .handle((id, error) -> {
+                        if (error == null) {
+                            started(id, route.get(), acquiredSlot);
+                        } else if (unwrapCompletionException(error) instanceof TooManyRequestsException) {
+                            route.get().throttled();
+                            if (acquiredSlot != null) {
+                                acquiredSlot.throttled();
+                            }
+                        } else {
+                            route.get().release();
+                            if (acquiredSlot != null) {
+                                acquiredSlot.release();
+                            }
+                        }
+                        return null;
+                    });
+        }
+
+        private synchronized String hedgeQueryExecutionId() {
+            return hedgeQueryExecutionId;
+        }
+
+        private synchronized boolean shouldHedge() {
+            return !hedged && !finished && Duration.between(started, clock.instant()).compareTo(hedgingPolicy.threshold()) >= 0;
+        }
+
+        private synchronized void started(String id, WorkGroupRouter.Route route, AdmissionController.Slot slot) {
+            hedgeQueryExecutionId = id;
+            hedgeRoute = route;
+            hedgeSlot = slot;
+            if (finished) {
+                stopHedge();
+                release();
+            }
+        }
+
+        private synchronized void won() {
+            hedgeWon = true;
+        }
+
+        private synchronized void abandon() {
+            hedgeQueryExecutionId = null;
+            release();
+        }
+
+        synchronized void stopHedge() {
+            if (hedgeQueryExecutionId != null && !hedgeWon) {
+                String hedgeId = hedgeQueryExecutionId;
+                athenaClient.stopQueryExecution(b -> b.queryExecutionId(hedgeId));
+            }
+        }
+
+        synchronized void finish() {
+            finished = true;
+            stopHedge();
+            release();
+        }
+
+        private void release() {
+            if (hedgeRoute != null) {
+                hedgeRoute.release();
+                hedgeRoute = null;
+            }
+            if (hedgeSlot != null) {
+                hedgeSlot.release();
+                hedgeSlot = null;
+            }
+        }
     }
 
     private void checkClosed() throws SQLException {
@@ -163,15 +1008,87 @@ public class AthenaStatement implements Statement {
         return !open;
     }
 
+    /**
+     * Cancels the statement's current execution, or the download of its
+     * current result set.
+     *
+     * When another thread is executing the statement the query execution is
+     * stopped, and the executing thread is woken up if it is waiting for a
+     * query slot, sleeping between polls or waiting for a response, and fails
+     * with a {@link StatementCancelledException}. When the execution has
+     * completed, the download of the result set is aborted instead, and a
+     * thread that is reading the result set fails with a
+     * {@link StatementCancelledException}.
+     *
+     * Executions started with {@link #executeAsync(String)} are cancelled by
+     * cancelling the returned future.
+     *
+     * @throws SQLException if the statement is closed or has not been executed
+     */
     @Override
     public void cancel() throws SQLException {
         checkClosed();
+        synchronized (executionLock) {
+            if (executingThread != null) {
+                cancelRequested = true;
+                stopCurrentQueryExecution();
+                executingThread.interrupt();
+                return;
+            }
+        }
+        ResultSet resultSet = getResultSet();
         if (queryExecutionId == null) {
             throw new SQLException("Cannot cancel a statement before it has started");
-        } else if (getResultSet() != null) {
-            throw new SQLException("Cannot cancel an completed statement");
+        } else if (resultSet instanceof AthenaResultSet) {
+            ((AthenaResultSet) resultSet).cancel();
+        } else if (resultSet == null) {
+            stopCurrentQueryExecution();
+        }
+    }
+
+    private void stopCurrentQueryExecution() {
+        String id = queryExecutionId;
+        if (id != null && !followingFlight) {
+            athenaClient.stopQueryExecution(b -> b.queryExecutionId(id));
+        }
+        HedgedQuery hedgedQuery = currentHedgedQuery;
+        if (hedgedQuery != null) {
+            hedgedQuery.stopHedge();
+        }
+    }
+
+    private void beginExecution() {
+        synchronized (executionLock) {
+            executingThread = Thread.currentThread();
+            cancelRequested = false;
+            followingFlight = false;
+            queryExecutionId = null;
+        }
+    }
+
+    private void endExecution() {
+        synchronized (executionLock) {
+            executingThread = null;
+            if (cancelRequested) {
+                // the interrupt was only meant to wake this execution up
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void throwIfCancelled() throws StatementCancelledException {
+        if (cancelRequested) {
+            stopCurrentQueryExecution();
+            throw cancelledException();
+        }
+    }
+
+    private StatementCancelledException cancelledException() {
+        String id = queryExecutionId;
+        if (id == null) {
+            return new StatementCancelledException("The statement was cancelled");
         } else {
-            athenaClient.stopQueryExecution(b -> b.queryExecutionId(queryExecutionId));
+            return new StatementCancelledException(String.format("The statement was cancelled, query execution %s was stopped", id));
         }
     }
 
@@ -360,18 +1277,219 @@ public class AthenaStatement implements Statement {
     }
 
     @Override
-    public void addBatch(String sql) {
-        throw new UnsupportedOperationException("Not implemented");
+    public void addBatch(String sql) throws SQLException {
+        checkClosed();
+        batch.add(sql);
     }
 
     @Override
-    public void clearBatch() {
-        throw new UnsupportedOperationException("Not implemented");
+    public void clearBatch() throws SQLException {
+        checkClosed();
+        batch.clear();
+    }
+
+    /**
+     * Sets the maximum number of batched statements that run at the same time.
+     *
+     * @param parallelism the maximum number of concurrent query executions
+     *                    started by {@link #executeBatch()}
+     * @throws IllegalArgumentException if the parallelism is less than one
+     */
+    public void setBatchParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Batch parallelism must be at least one");
+        }
+        batchParallelism = parallelism;
+    }
+
+    public int getBatchParallelism() {
+        return batchParallelism;
     }
 
+    /**
+     * Executes all batched statements concurrently.
+     *
+     * Athena has no notion of a batch, so instead the statements are started
+     * as separate query executions, at most {@link #getBatchParallelism()} at
+     * a time, and polled in the same way as {@link #executeAsync(String)}.
+     * The wall time of a batch of independent statements should therefore be
+     * close to that of the slowest one.
+     *
+     * Since Athena does not report update counts every element of the returned
+     * array is {@link Statement#SUCCESS_NO_INFO}. When one or more statements
+     * fail the remaining statements still run to completion, and then a
+     * {@link BatchUpdateException} is thrown whose update counts have
+     * {@link Statement#EXECUTE_FAILED} in the positions of the failed
+     * statements. The failures are available from
+     * {@link SQLException#getNextException()}.
+     *
+     * Any results produced by the statements are discarded.
+     *
+     * @return an array of update counts, one for each batched statement
+     * @throws SQLException when the statement is closed, or one or more of the
+     *                      statements fail
+     */
     @Override
-    public int[] executeBatch() {
-        throw new UnsupportedOperationException("Not implemented");
+    public int[] executeBatch() throws SQLException {
+        checkClosed();
+        List<String> statements = new ArrayList<>(batch);
+        batch.clear();
+        int[] updateCounts = new int[statements.size()];
+        SQLException[] failures = new SQLException[statements.size()];
+        List<CompletableFuture<Void>> executions = new ArrayList<>(statements.size());
+        Semaphore permits = new Semaphore(batchParallelism);
+        try {
+            for (int i = 0; i < statements.size(); i++) {
+                int index = i;
+                permits.acquire();
+                executions.add(executeAsync(statements.get(index)).handle((rs, error) -> {
+                    permits.release();
+                    if (error == null) {
+                        updateCounts[index] = SUCCESS_NO_INFO;
+                        closeQuietly(rs);
+                    } else {
+                        updateCounts[index] = EXECUTE_FAILED;
+                        failures[index] = toSQLException(error);
+                    }
+                    return null;
+                }));
+            }
+            CompletableFuture.allOf(executions.toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(ie);
+        } catch (ExecutionException ee) {
+            throw toSQLException(ee);
+        }
+        BatchUpdateException batchException = null;
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] != null) {
+                if (batchException == null) {
+                    batchException = new BatchUpdateException(String.format("Statement %d of the batch failed: %s", i, failures[i].getMessage()), updateCounts, failures[i]);
+                }
+                batchException.setNextException(failures[i]);
+            }
+        }
+        if (batchException != null) {
+            throw batchException;
+        }
+        return updateCounts;
+    }
+
+    /**
+     * Executes a script of <code>;</code> separated statements, running
+     * statements that do not depend on each other concurrently.
+     *
+     * The script is parsed with {@link Script#parse(String)}, which finds the
+     * tables each statement creates, changes and reads. A statement is
+     * started once all earlier statements it depends on have succeeded, with
+     * at most {@link #getBatchParallelism()} statements running at a time,
+     * and earlier statements are started first when more are ready. Each
+     * statement is executed like with {@link #executeAsync(String)}, and any
+     * results are discarded.
+     *
+     * When a statement fails, the statements that depend on it, directly or
+     * indirectly, are skipped, but all other statements still run to
+     * completion, and then a {@link ScriptExecutionException} is thrown.
+     *
+     * @param script the statements to execute
+     * @return the outcome and timing of each statement, in the order they
+     *         appear in the script
+     * @throws ScriptExecutionException when one or more statements fail
+     * @throws SQLException when the statement is closed, or the execution is
+     *                      interrupted
+     */
+    public List<ScriptStatementResult> executeScript(String script) throws SQLException {
+        checkClosed();
+        List<ScriptStatement> statements = Script.parse(script).statements();
+        int count = statements.size();
+        ScriptStatementResult[] results = new ScriptStatementResult[count];
+        int[] remainingDependencies = new int[count];
+        List<List<Integer>> dependents = new ArrayList<>(count);
+        PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (ScriptStatement statement : statements) {
+            dependents.add(new ArrayList<>());
+            remainingDependencies[statement.index()] = statement.dependencies().size();
+            for (int dependency : statement.dependencies()) {
+                dependents.get(dependency).add(statement.index());
+            }
+            if (statement.dependencies().isEmpty()) {
+                ready.add(statement.index());
+            }
+        }
+        BlockingQueue<ScriptStatementResult> completions = new LinkedBlockingQueue<>();
+        int running = 0;
+        int finished = 0;
+        try {
+            while (finished < count) {
+                while (running < batchParallelism && !ready.isEmpty()) {
+                    ScriptStatement statement = statements.get(ready.poll());
+                    Instant startedAt = clock.instant();
+                    running++;
+                    executeAsync(statement.sql()).whenComplete((rs, error) -> {
+                        closeQuietly(rs);
+                        if (error == null) {
+                            completions.add(new ScriptStatementResult(statement, ScriptStatementResult.Status.SUCCEEDED, startedAt, clock.instant(), null));
+                        } else {
+                            completions.add(new ScriptStatementResult(statement, ScriptStatementResult.Status.FAILED, startedAt, clock.instant(), toSQLException(error)));
+                        }
+                    });
+                }
+                ScriptStatementResult result = completions.take();
+                int index = result.statement().index();
+                results[index] = result;
+                running--;
+                finished++;
+                for (int dependent : dependents.get(index)) {
+                    remainingDependencies[dependent]--;
+                    if (result.status() != ScriptStatementResult.Status.SUCCEEDED) {
+                        finished += skip(statements, dependents, results, dependent);
+                    } else if (remainingDependencies[dependent] == 0 && results[dependent] == null) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(ie);
+        }
+        List<ScriptStatementResult> resultList = Arrays.asList(results);
+        ScriptExecutionException scriptException = null;
+        for (ScriptStatementResult result : resultList) {
+            if (result.failure().isPresent()) {
+                SQLException failure = result.failure().get();
+                if (scriptException == null) {
+                    scriptException = new ScriptExecutionException(String.format("Statement %d of the script failed: %s", result.statement().index(), failure.getMessage()), failure, resultList);
+                }
+                scriptException.setNextException(failure);
+            }
+        }
+        if (scriptException != null) {
+            throw scriptException;
+        }
+        return resultList;
+    }
+
+    private static int skip(List<ScriptStatement> statements, List<List<Integer>> dependents, ScriptStatementResult[] results, int index) {
+        if (results[index] != null) {
+            return 0;
+        }
+        results[index] = new ScriptStatementResult(statements.get(index), ScriptStatementResult.Status.SKIPPED, null, null, null);
+        int skipped = 1;
+        for (int dependent : dependents.get(index)) {
+            skipped += skip(statements, dependents, results, dependent);
+        }
+        return skipped;
+    }
+
+    private static void closeQuietly(ResultSet resultSet) {
+        if (resultSet != null) {
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                // the result is discarded anyway
+            }
+        }
     }
 
     @Override
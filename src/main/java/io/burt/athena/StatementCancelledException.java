@@ -0,0 +1,17 @@
+package io.burt.athena;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown by an execution, or by a result set that was being downloaded, when
+ * the statement is cancelled with {@link AthenaStatement#cancel()}.
+ *
+ * The SQL state is <code>HY008</code>, "operation cancelled".
+ */
+public class StatementCancelledException extends SQLException {
+    public static final String SQL_STATE = "HY008";
+
+    public StatementCancelledException(String reason) {
+        super(reason, SQL_STATE);
+    }
+}
@@ -0,0 +1,104 @@
+package io.burt.athena;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads when the JVM supports them.
+ *
+ * The driver is built for Java 8, so the virtual thread API introduced in
+ * Java 21 is looked up reflectively. On older JVMs the driver falls back to
+ * daemon platform threads where that is harmless, and refuses to enable
+ * features that only make sense with virtual threads.
+ */
+public final class VirtualThreads {
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Method BUILDER_NAME = findMethod(findClass("java.lang.Thread$Builder"), "name", String.class, long.class);
+    private static final Method BUILDER_FACTORY = findMethod(findClass("java.lang.Thread$Builder"), "factory");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findMethod(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private VirtualThreads() {
+    }
+
+    private static Class<?> findClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return whether or not the JVM supports virtual threads
+     */
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null && BUILDER_NAME != null && BUILDER_FACTORY != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * @param name the prefix of the names of the threads, which are numbered
+     * @return a factory that creates virtual threads
+     * @throws UnsupportedOperationException when the JVM does not support
+     *                                       virtual threads
+     */
+    public static ThreadFactory newThreadFactory(String name) {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, name + "-", 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Could not create virtual threads", e);
+        }
+    }
+
+    /**
+     * @param name the prefix of the names of the threads, which are numbered
+     * @return an executor that runs each task on a new virtual thread
+     * @throws UnsupportedOperationException when the JVM does not support
+     *                                       virtual threads
+     */
+    public static ExecutorService newExecutor(String name) {
+        ThreadFactory threadFactory = newThreadFactory(name);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Could not create virtual threads", e);
+        }
+    }
+
+    /**
+     * Returns a factory for threads that block, for example while reading
+     * results: virtual threads when the JVM supports them, and daemon
+     * platform threads otherwise.
+     *
+     * @param name the name of the threads
+     * @return a thread factory
+     */
+    public static ThreadFactory blockingThreadFactory(String name) {
+        if (isAvailable()) {
+            return newThreadFactory(name);
+        } else {
+            return runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package io.burt.athena.admission;
+
+import io.burt.athena.polling.PollingScheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits the number of queries that run at the same time.
+ *
+ * Athena limits the number of active queries per account, and when the limit
+ * is reached <code>StartQueryExecution</code> fails with
+ * <code>TooManyRequestsException</code>. An admission controller queues
+ * executions locally instead, and lets them start as slots are released by
+ * executions that have completed.
+ *
+ * A controller has a lower and an upper bound on the number of slots. When the
+ * bounds are the same the number of slots is fixed. Otherwise the number of
+ * slots adapts using additive increase, multiplicative decrease: it starts at
+ * the upper bound, is halved when an execution is throttled, and grows by
+ * roughly one slot for every full round of executions that complete without
+ * being throttled.
+ *
+ * A throttled execution keeps its slot for a short backoff period before it is
+ * given back, so that retries don't immediately hit the limit again.
+ *
+ * Executions that wait for a slot are queued by priority, and executions with
+ * the same priority are queued fairly across tenants: a tenant that queues a
+ * large batch of executions gets slots in turn with the other tenants instead
+ * of all before them. Tenants can be given weights to get a bigger or smaller
+ * share of the slots, see {@link #setTenantWeight(String, double)}.
+ *
+ * A controller can be shared by many connections to enforce a JVM-wide limit.
+ */
+public class AdmissionController {
+    public static final Duration DEFAULT_THROTTLE_BACKOFF = Duration.ofSeconds(1);
+    public static final int DEFAULT_PRIORITY = 0;
+    public static final String DEFAULT_TENANT = "default";
+
+    private final int minSlots;
+    private final int maxSlots;
+    private final PollingScheduler scheduler;
+    private final Duration throttleBackoff;
+    private final Clock clock;
+    private final FairQueue<CompletableFuture<Slot>> waiters;
+
+    private double limit;
+    private int slotsInUse;
+    private Instant lastDecrease;
+
+    public AdmissionController(int minSlots, int maxSlots, PollingScheduler scheduler, Duration throttleBackoff) {
+        this(minSlots, maxSlots, scheduler, throttleBackoff, Clock.systemUTC());
+    }
+
+    AdmissionController(int minSlots, int maxSlots, PollingScheduler scheduler, Duration throttleBackoff, Clock clock) {
+        if (minSlots < 1 || maxSlots < minSlots) {
+            throw new IllegalArgumentException(String.format("Invalid number of slots: %d to %d", minSlots, maxSlots));
+        }
+        this.minSlots = minSlots;
+        this.maxSlots = maxSlots;
+        this.scheduler = scheduler;
+        this.throttleBackoff = throttleBackoff;
+        this.clock = clock;
+        this.waiters = new FairQueue<>();
+        this.limit = maxSlots;
+        this.slotsInUse = 0;
+        this.lastDecrease = Instant.MIN;
+    }
+
+    /**
+     * Creates a controller with a fixed number of slots.
+     *
+     * @param slots the maximum number of concurrent executions
+     * @return a new admission controller
+     */
+    public static AdmissionController fixed(int slots) {
+        return new AdmissionController(slots, slots, PollingScheduler.shared(), DEFAULT_THROTTLE_BACKOFF);
+    }
+
+    /**
+     * Creates a controller whose number of slots adapts to throttling.
+     *
+     * @param minSlots the number of slots the controller never goes below
+     * @param maxSlots the number of slots the controller starts with, and
+     *                 never goes above
+     * @return a new admission controller
+     */
+    public static AdmissionController adaptive(int minSlots, int maxSlots) {
+        return new AdmissionController(minSlots, maxSlots, PollingScheduler.shared(), DEFAULT_THROTTLE_BACKOFF);
+    }
+
+    /**
+     * Sets the share of the slots that a tenant gets when executions are
+     * queued.
+     *
+     * Tenants that have not been given a weight have a weight of one. A tenant
+     * with a weight of two gets twice as many slots as a tenant with a weight
+     * of one when both have executions queued with the same priority.
+     *
+     * @param tenant the tenant
+     * @param weight the tenant's weight, must be positive
+     */
+    public synchronized void setTenantWeight(String tenant, double weight) {
+        waiters.setWeight(tenant, weight);
+    }
+
+    /**
+     * Waits for a slot with the default priority for the default tenant.
+     *
+     * @param timeout how long to wait for a slot
+     * @return a future that completes with a slot, or with a
+     *         {@link TimeoutException} if no slot became available in time
+     * @see #acquire(int, String, Duration)
+     */
+    public CompletableFuture<Slot> acquire(Duration timeout) {
+        return acquire(DEFAULT_PRIORITY, DEFAULT_TENANT, timeout);
+    }
+
+    /**
+     * Waits for a slot.
+     *
+     * Queued executions with a higher priority get slots before those with a
+     * lower priority, even if they were queued later. Executions with the same
+     * priority get slots fairly across tenants, and in the order they were
+     * queued within a tenant. Cancelling the returned future before it has
+     * completed gives up the place in the queue.
+     *
+     * @param priority the priority of the execution, higher is more urgent
+     * @param tenant the tenant that the execution belongs to
+     * @param timeout how long to wait for a slot
+     * @return a future that completes with a slot, or with a
+     *         {@link TimeoutException} if no slot became available in time
+     */
+    public CompletableFuture<Slot> acquire(int priority, String tenant, Duration timeout) {
+        CompletableFuture<Slot> waiter = new CompletableFuture<>();
+        synchronized (this) {
+            waiters.add(waiter, priority, tenant == null ? DEFAULT_TENANT : tenant);
+        }
+        dispatch();
+        if (!waiter.isDone()) {
+            ScheduledFuture<?> timer = scheduler.schedule(() -> {
+                if (dequeue(waiter)) {
+                    waiter.completeExceptionally(new TimeoutException("no query slot became available within " + timeout));
+                }
+            }, timeout);
+            waiter.whenComplete((slot, error) -> {
+                timer.cancel(false);
+                if (waiter.isCancelled()) {
+                    dequeue(waiter);
+                }
+            });
+        }
+        return waiter;
+    }
+
+    /**
+     * Takes a slot if one is available right away.
+     *
+     * A slot is only taken when no other executions are waiting for one, so
+     * this never takes a slot ahead of queued executions. This is meant for
+     * optional work, like hedged executions.
+     *
+     * @return a slot, or empty if there is no free slot
+     */
+    public Optional<Slot> tryAcquire() {
+        synchronized (this) {
+            if (!waiters.isEmpty() || slotsInUse >= (int) limit) {
+                return Optional.empty();
+            }
+            slotsInUse++;
+        }
+        return Optional.of(new Slot());
+    }
+
+    /**
+     * Blocks until a slot with the default priority for the default tenant is
+     * available.
+     *
+     * @param timeout how long to wait for a slot
+     * @return a slot
+     * @throws InterruptedException when interrupted while waiting
+     * @throws TimeoutException when no slot became available in time
+     */
+    public Slot acquireBlocking(Duration timeout) throws InterruptedException, TimeoutException {
+        return acquireBlocking(DEFAULT_PRIORITY, DEFAULT_TENANT, timeout);
+    }
+
+    /**
+     * Blocks until a slot is available.
+     *
+     * @param priority the priority of the execution, higher is more urgent
+     * @param tenant the tenant that the execution belongs to
+     * @param timeout how long to wait for a slot
+     * @return a slot
+     * @throws InterruptedException when interrupted while waiting
+     * @throws TimeoutException when no slot became available in time
+     * @see #acquire(int, String, Duration)
+     */
+    public Slot acquireBlocking(int priority, String tenant, Duration timeout) throws InterruptedException, TimeoutException {
+        CompletableFuture<Slot> waiter = acquire(priority, tenant, timeout);
+        try {
+            return waiter.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            } else {
+                throw new IllegalStateException(e.getCause());
+            }
+        } catch (InterruptedException e) {
+            if (!waiter.cancel(false)) {
+                waiter.thenAccept(Slot::release);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of executions that can currently run at the same time
+     */
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return the number of slots held by executions
+     */
+    public synchronized int slotsInUse() {
+        return slotsInUse;
+    }
+
+    /**
+     * @return the number of executions waiting for a slot
+     */
+    public synchronized int queueLength() {
+        return waiters.size();
+    }
+
+    private synchronized boolean dequeue(CompletableFuture<Slot> waiter) {
+        return waiters.remove(waiter);
+    }
+
+    private void dispatch() {
+        while (true) {
+            CompletableFuture<Slot> waiter;
+            synchronized (this) {
+                if (waiters.isEmpty() || slotsInUse >= (int) limit) {
+                    return;
+                }
+                waiter = waiters.poll();
+                slotsInUse++;
+            }
+            Slot slot = new Slot();
+            if (!waiter.complete(slot)) {
+                slot.release();
+            }
+        }
+    }
+
+    private void completed(boolean throttled) {
+        synchronized (this) {
+            if (throttled) {
+                Instant now = clock.instant();
+                if (lastDecrease.plus(throttleBackoff).isBefore(now)) {
+                    limit = Math.max(minSlots, Math.floor(limit / 2));
+                    lastDecrease = now;
+                }
+            } else if (limit < maxSlots) {
+                limit = Math.min(maxSlots, limit + 1.0 / limit);
+            }
+        }
+        if (throttled) {
+            scheduler.schedule(this::freeSlot, throttleBackoff);
+        } else {
+            freeSlot();
+        }
+    }
+
+    private void freeSlot() {
+        synchronized (this) {
+            slotsInUse--;
+        }
+        dispatch();
+    }
+
+    /**
+     * Permission to run one query execution.
+     *
+     * A slot must be given back with either {@link #release()} or
+     * {@link #throttled()}, once the execution has completed, or when it
+     * failed to start.
+     */
+    public class Slot {
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        /**
+         * Gives the slot back after the execution has completed.
+         *
+         * Calling this method more than once has no effect.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                completed(false);
+            }
+        }
+
+        /**
+         * Gives the slot back after the execution was rejected because of
+         * throttling.
+         *
+         * This shrinks the number of slots of an adaptive controller, and the
+         * slot is not available to other executions until the backoff period
+         * has passed.
+         */
+        public void throttled() {
+            if (released.compareAndSet(false, true)) {
+                completed(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.burt.athena.admission;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A queue ordered by priority, and by weighted fair queueing across tenants
+ * within each priority.
+ *
+ * Items with a higher priority are always taken before items with a lower
+ * priority, regardless of when they were added. Within a priority each item
+ * gets a virtual finish tag when it is added: the later of the current
+ * virtual time and the tag of the tenant's previous item, plus the inverse of
+ * the tenant's weight. Items are taken in tag order, which means that a tenant
+ * that adds many items at once does not delay the items of other tenants, and
+ * that over time tenants get turns in proportion to their weights.
+ *
+ * This class is not thread safe.
+ */
+class FairQueue<T> {
+    static final double DEFAULT_WEIGHT = 1.0;
+
+    private final PriorityQueue<Entry<T>> entries;
+    private final Map<String, Double> weights;
+    private final Map<String, Double> lastTags;
+    private double virtualTime;
+    private long sequence;
+
+    FairQueue() {
+        this.entries = new PriorityQueue<>(Comparator
+                .comparingInt((Entry<T> e) -> -e.priority)
+                .thenComparingDouble(e -> e.tag)
+                .thenComparingLong(e -> e.sequence));
+        this.weights = new HashMap<>();
+        this.lastTags = new HashMap<>();
+        this.virtualTime = 0;
+        this.sequence = 0;
+    }
+
+    void setWeight(String tenant, double weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid weight for tenant %s: %f", tenant, weight));
+        }
+        weights.put(tenant, weight);
+    }
+
+    void add(T item, int priority, String tenant) {
+        double weight = weights.getOrDefault(tenant, DEFAULT_WEIGHT);
+        double tag = Math.max(virtualTime, lastTags.getOrDefault(tenant, 0.0)) + 1.0 / weight;
+        lastTags.put(tenant, tag);
+        entries.add(new Entry<>(item, priority, tenant, tag, sequence++));
+    }
+
+    T poll() {
+        Entry<T> entry = entries.poll();
+        if (entry == null) {
+            return null;
+        }
+        virtualTime = Math.max(virtualTime, entry.tag);
+        if (lastTags.getOrDefault(entry.tenant, 0.0) <= virtualTime) {
+            lastTags.remove(entry.tenant);
+        }
+        return entry.item;
+    }
+
+    boolean remove(T item) {
+        for (Iterator<Entry<T>> iterator = entries.iterator(); iterator.hasNext(); ) {
+            if (iterator.next().item == item) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static class Entry<T> {
+        final T item;
+        final int priority;
+        final String tenant;
+        final double tag;
+        final long sequence;
+
+        Entry(T item, int priority, String tenant, double tag, long sequence) {
+            this.item = item;
+            this.priority = priority;
+            this.tenant = tenant;
+            this.tag = tag;
+            this.sequence = sequence;
+        }
+    }
+}
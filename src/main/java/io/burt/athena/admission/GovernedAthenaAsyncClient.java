@@ -0,0 +1,93 @@
+package io.burt.athena.admission;
+
+import software.amazon.awssdk.services.athena.AthenaAsyncClient;
+import software.amazon.awssdk.services.athena.model.BatchGetQueryExecutionRequest;
+import software.amazon.awssdk.services.athena.model.BatchGetQueryExecutionResponse;
+import software.amazon.awssdk.services.athena.model.GetQueryExecutionRequest;
+import software.amazon.awssdk.services.athena.model.GetQueryExecutionResponse;
+import software.amazon.awssdk.services.athena.model.GetQueryResultsRequest;
+import software.amazon.awssdk.services.athena.model.GetQueryResultsResponse;
+import software.amazon.awssdk.services.athena.model.StartQueryExecutionRequest;
+import software.amazon.awssdk.services.athena.model.StartQueryExecutionResponse;
+import software.amazon.awssdk.services.athena.model.StopQueryExecutionRequest;
+import software.amazon.awssdk.services.athena.model.StopQueryExecutionResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * An Athena client that sends the calls the driver makes through a
+ * {@link RateGovernor}.
+ *
+ * Operations that the driver does not use are not overridden, and fail like
+ * they do in the {@link AthenaAsyncClient} interface.
+ */
+public class GovernedAthenaAsyncClient implements AthenaAsyncClient {
+    private final AthenaAsyncClient delegate;
+    private final RateGovernor governor;
+
+    public GovernedAthenaAsyncClient(AthenaAsyncClient delegate, RateGovernor governor) {
+        this.delegate = delegate;
+        this.governor = governor;
+    }
+
+    @Override
+    public CompletableFuture<StartQueryExecutionResponse> startQueryExecution(StartQueryExecutionRequest request) {
+        return governor.submit(RateGovernor.START_QUERY_EXECUTION, () -> delegate.startQueryExecution(request));
+    }
+
+    @Override
+    public CompletableFuture<StartQueryExecutionResponse> startQueryExecution(Consumer<StartQueryExecutionRequest.Builder> requestBuilderConsumer) {
+        return governor.submit(RateGovernor.START_QUERY_EXECUTION, () -> delegate.startQueryExecution(requestBuilderConsumer));
+    }
+
+    @Override
+    public CompletableFuture<StopQueryExecutionResponse> stopQueryExecution(StopQueryExecutionRequest request) {
+        return governor.submit(RateGovernor.STOP_QUERY_EXECUTION, () -> delegate.stopQueryExecution(request));
+    }
+
+    @Override
+    public CompletableFuture<StopQueryExecutionResponse> stopQueryExecution(Consumer<StopQueryExecutionRequest.Builder> requestBuilderConsumer) {
+        return governor.submit(RateGovernor.STOP_QUERY_EXECUTION, () -> delegate.stopQueryExecution(requestBuilderConsumer));
+    }
+
+    @Override
+    public CompletableFuture<GetQueryExecutionResponse> getQueryExecution(GetQueryExecutionRequest request) {
+        return governor.submit(RateGovernor.GET_QUERY_EXECUTION, () -> delegate.getQueryExecution(request));
+    }
+
+    @Override
+    public CompletableFuture<GetQueryExecutionResponse> getQueryExecution(Consumer<GetQueryExecutionRequest.Builder> requestBuilderConsumer) {
+        return governor.submit(RateGovernor.GET_QUERY_EXECUTION, () -> delegate.getQueryExecution(requestBuilderConsumer));
+    }
+
+    @Override
+    public CompletableFuture<BatchGetQueryExecutionResponse> batchGetQueryExecution(BatchGetQueryExecutionRequest request) {
+        return governor.submit(RateGovernor.BATCH_GET_QUERY_EXECUTION, () -> delegate.batchGetQueryExecution(request));
+    }
+
+    @Override
+    public CompletableFuture<BatchGetQueryExecutionResponse> batchGetQueryExecution(Consumer<BatchGetQueryExecutionRequest.Builder> requestBuilderConsumer) {
+        return governor.submit(RateGovernor.BATCH_GET_QUERY_EXECUTION, () -> delegate.batchGetQueryExecution(requestBuilderConsumer));
+    }
+
+    @Override
+    public CompletableFuture<GetQueryResultsResponse> getQueryResults(GetQueryResultsRequest request) {
+        return governor.submit(RateGovernor.GET_QUERY_RESULTS, () -> delegate.getQueryResults(request));
+    }
+
+    @Override
+    public CompletableFuture<GetQueryResultsResponse> getQueryResults(Consumer<GetQueryResultsRequest.Builder> requestBuilderConsumer) {
+        return governor.submit(RateGovernor.GET_QUERY_RESULTS, () -> delegate.getQueryResults(requestBuilderConsumer));
+    }
+
+    @Override
+    public String serviceName() {
+        return delegate.serviceName();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,199 @@
+package io.burt.athena.admission;
+
+import io.burt.athena.polling.PollingScheduler;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.athena.model.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Paces Athena API calls so that they stay below the service's rate limits.
+ *
+ * Each API operation has its own token bucket, since Athena limits each
+ * operation separately. Calls that would exceed an operation's rate are
+ * delayed on a scheduler instead of being sent, and the delays are jittered
+ * so that callers that were delayed together don't all fire at the same time.
+ *
+ * When a call is throttled anyway, for example because other processes use
+ * the same account, the operation's circuit opens: the bucket is emptied and
+ * all calls to the operation are paused for a cooldown that doubles with
+ * every consecutive throttled call, up to {@link #MAX_COOLDOWN}. The first
+ * call that succeeds resets the cooldown. Throttled calls still fail, retrying
+ * them is left to the SDK and the caller.
+ *
+ * Operations without a configured rate are not paced.
+ *
+ * The rates of {@link #shared()} default to the Athena quotas for
+ * <code>StartQueryExecution</code>, <code>StopQueryExecution</code>,
+ * <code>GetQueryExecution</code>, <code>BatchGetQueryExecution</code> and
+ * <code>GetQueryResults</code>, and can be changed with
+ * {@link #setRate(String, double, int)}.
+ */
+public class RateGovernor {
+    public static final String START_QUERY_EXECUTION = "StartQueryExecution";
+    public static final String STOP_QUERY_EXECUTION = "StopQueryExecution";
+    public static final String GET_QUERY_EXECUTION = "GetQueryExecution";
+    public static final String BATCH_GET_QUERY_EXECUTION = "BatchGetQueryExecution";
+    public static final String GET_QUERY_RESULTS = "GetQueryResults";
+
+    public static final Duration MIN_COOLDOWN = Duration.ofMillis(100);
+    public static final Duration MAX_COOLDOWN = Duration.ofSeconds(10);
+
+    private static final double PACING_JITTER = 0.1;
+
+    private static RateGovernor sharedInstance;
+
+    private final PollingScheduler scheduler;
+    private final LongSupplier nanoTime;
+    private final Random random;
+    private final Map<String, OperationGovernor> operations;
+
+    public RateGovernor(PollingScheduler scheduler) {
+        this(scheduler, System::nanoTime, new Random());
+    }
+
+    RateGovernor(PollingScheduler scheduler, LongSupplier nanoTime, Random random) {
+        this.scheduler = scheduler;
+        this.nanoTime = nanoTime;
+        this.random = random;
+        this.operations = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the JVM-wide governor.
+     *
+     * @return a governor shared by all connections in this JVM
+     */
+    public static synchronized RateGovernor shared() {
+        if (sharedInstance == null) {
+            sharedInstance = withDefaultRates(new RateGovernor(PollingScheduler.shared()));
+        }
+        return sharedInstance;
+    }
+
+    static RateGovernor withDefaultRates(RateGovernor governor) {
+        governor.setRate(START_QUERY_EXECUTION, 20, 80);
+        governor.setRate(STOP_QUERY_EXECUTION, 20, 80);
+        governor.setRate(GET_QUERY_EXECUTION, 100, 200);
+        governor.setRate(BATCH_GET_QUERY_EXECUTION, 20, 40);
+        governor.setRate(GET_QUERY_RESULTS, 100, 200);
+        return governor;
+    }
+
+    /**
+     * Sets the rate of an operation.
+     *
+     * @param operation the name of the API operation, e.g.
+     *                  {@link #GET_QUERY_EXECUTION}
+     * @param requestsPerSecond the sustained number of calls per second
+     * @param burst the number of calls that can be made at once after a period
+     *              of inactivity
+     */
+    public void setRate(String operation, double requestsPerSecond, int burst) {
+        long now = nanoTime.getAsLong();
+        operations.put(operation, new OperationGovernor(new TokenBucket(requestsPerSecond, burst, now), now));
+    }
+
+    /**
+     * Makes an API call when the operation's rate allows it.
+     *
+     * @param operation the name of the API operation
+     * @param call the function that makes the call
+     * @param <T> the type of the response
+     * @return a future that completes like the future returned by the call
+     */
+    public <T> CompletableFuture<T> submit(String operation, Supplier<CompletableFuture<T>> call) {
+        OperationGovernor governor = operations.get(operation);
+        if (governor == null) {
+            return call.get();
+        }
+        Duration delay = governor.reserve();
+        if (delay.isZero()) {
+            return track(governor, call.get());
+        } else {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                try {
+                    track(governor, call.get()).whenComplete((response, error) -> {
+                        if (error == null) {
+                            result.complete(response);
+                        } else {
+                            result.completeExceptionally(error);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }, delay);
+            return result;
+        }
+    }
+
+    private <T> CompletableFuture<T> track(OperationGovernor governor, CompletableFuture<T> future) {
+        future.whenComplete((response, error) -> {
+            if (error == null) {
+                governor.succeeded();
+            } else if (isThrottling(error)) {
+                governor.throttled();
+            }
+        });
+        return future;
+    }
+
+    private static boolean isThrottling(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TooManyRequestsException) {
+            return true;
+        } else {
+            return cause instanceof AwsServiceException && ((AwsServiceException) cause).isThrottlingException();
+        }
+    }
+
+    private class OperationGovernor {
+        private final TokenBucket bucket;
+        private long pausedUntilNanos;
+        private int consecutiveThrottles;
+
+        OperationGovernor(TokenBucket bucket, long nowNanos) {
+            this.bucket = bucket;
+            this.pausedUntilNanos = nowNanos;
+            this.consecutiveThrottles = 0;
+        }
+
+        synchronized Duration reserve() {
+            long now = nanoTime.getAsLong();
+            Duration delay = bucket.reserve(now);
+            if (pausedUntilNanos - now > delay.toNanos()) {
+                delay = Duration.ofNanos(pausedUntilNanos - now);
+            }
+            if (delay.isZero()) {
+                return delay;
+            } else {
+                return delay.plusNanos((long) (delay.toNanos() * PACING_JITTER * random.nextDouble()));
+            }
+        }
+
+        synchronized void succeeded() {
+            consecutiveThrottles = 0;
+        }
+
+        synchronized void throttled() {
+            long now = nanoTime.getAsLong();
+            consecutiveThrottles++;
+            long cooldown = MIN_COOLDOWN.toNanos() << Math.min(consecutiveThrottles - 1, 20);
+            cooldown = Math.min(cooldown, MAX_COOLDOWN.toNanos());
+            long jitteredCooldown = cooldown / 2 + (long) (cooldown / 2 * random.nextDouble());
+            if (now + jitteredCooldown - pausedUntilNanos > 0) {
+                pausedUntilNanos = now + jitteredCooldown;
+            }
+            bucket.drain(now);
+        }
+    }
+}
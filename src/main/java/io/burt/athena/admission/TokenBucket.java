@@ -0,0 +1,54 @@
+package io.burt.athena.admission;
+
+import java.time.Duration;
+
+/**
+ * A token bucket that hands out reservations instead of rejecting requests.
+ *
+ * Every call to {@link #reserve(long)} takes a token, and when the bucket is
+ * empty the balance goes negative. The returned delay is how long the caller
+ * needs to wait until its token has been refilled, which means that concurrent
+ * callers are spaced out at the configured rate instead of all retrying at the
+ * same time.
+ */
+class TokenBucket {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final double permitsPerSecond;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double permitsPerSecond, int capacity, long nowNanos) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException(String.format("Invalid rate: %f per second with a burst of %d", permitsPerSecond, capacity));
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    synchronized Duration reserve(long nowNanos) {
+        refill(nowNanos);
+        tokens -= 1;
+        if (tokens >= 0) {
+            return Duration.ZERO;
+        } else {
+            return Duration.ofNanos((long) Math.ceil(-tokens / permitsPerSecond * NANOS_PER_SECOND));
+        }
+    }
+
+    synchronized void drain(long nowNanos) {
+        refill(nowNanos);
+        tokens = Math.min(tokens, 0);
+    }
+
+    private void refill(long nowNanos) {
+        if (nowNanos - lastRefillNanos > 0) {
+            tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) / NANOS_PER_SECOND * permitsPerSecond);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.burt.athena.budget;
+
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionStatistics;
+
+import java.time.Duration;
+
+/**
+ * Limits on how much data a query may scan and how long it may run.
+ *
+ * The limits are checked against the statistics Athena reports every time
+ * the status of a running query is polled, and a query that goes over them is
+ * stopped, so that a mistaken full table scan does not keep using the
+ * capacity that other queries need. Since the statistics are only as fresh as
+ * the last poll a query can go somewhat over its budget before it is stopped.
+ *
+ * Budgets are immutable, the <code>with</code> methods return new budgets.
+ */
+public class QueryBudget {
+    public static final QueryBudget UNLIMITED = new QueryBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final long maxDataScannedBytes;
+    private final long maxEngineExecutionTimeMillis;
+
+    private QueryBudget(long maxDataScannedBytes, long maxEngineExecutionTimeMillis) {
+        this.maxDataScannedBytes = maxDataScannedBytes;
+        this.maxEngineExecutionTimeMillis = maxEngineExecutionTimeMillis;
+    }
+
+    /**
+     * @param bytes the maximum number of bytes a query may scan
+     * @return a copy of this budget with the new limit
+     */
+    public QueryBudget withMaxDataScanned(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("The data scanned limit must not be negative");
+        }
+        return new QueryBudget(bytes, maxEngineExecutionTimeMillis);
+    }
+
+    /**
+     * @param time the maximum time a query may spend running in the engine,
+     *             time spent queued is not counted
+     * @return a copy of this budget with the new limit
+     */
+    public QueryBudget withMaxEngineExecutionTime(Duration time) {
+        if (time.isNegative()) {
+            throw new IllegalArgumentException("The engine execution time limit must not be negative");
+        }
+        return new QueryBudget(maxDataScannedBytes, time.toMillis());
+    }
+
+    public long maxDataScannedBytes() {
+        return maxDataScannedBytes;
+    }
+
+    public Duration maxEngineExecutionTime() {
+        return Duration.ofMillis(maxEngineExecutionTimeMillis);
+    }
+
+    public boolean isUnlimited() {
+        return maxDataScannedBytes == Long.MAX_VALUE && maxEngineExecutionTimeMillis == Long.MAX_VALUE;
+    }
+
+    /**
+     * @param queryExecution a query execution, as returned when polling it
+     * @return whether or not the query execution's statistics are over any
+     *         of the limits
+     */
+    public boolean isExceededBy(QueryExecution queryExecution) {
+        QueryExecutionStatistics statistics = queryExecution.statistics();
+        if (statistics == null) {
+            return false;
+        }
+        Long dataScanned = statistics.dataScannedInBytes();
+        Long engineExecutionTime = statistics.engineExecutionTimeInMillis();
+        return (dataScanned != null && dataScanned > maxDataScannedBytes)
+                || (engineExecutionTime != null && engineExecutionTime > maxEngineExecutionTimeMillis);
+    }
+}
@@ -0,0 +1,58 @@
+package io.burt.athena.budget;
+
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionStatistics;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Thrown when a query was stopped because it went over its
+ * {@link QueryBudget}.
+ */
+public class QueryBudgetExceededException extends SQLException {
+    private final String queryExecutionId;
+    private final long dataScannedBytes;
+    private final Duration engineExecutionTime;
+
+    public QueryBudgetExceededException(QueryExecution queryExecution, QueryBudget budget) {
+        super(String.format(
+                "Query execution %s was stopped because it went over its budget: %d bytes scanned (limit %d), %d ms engine execution time (limit %d ms)",
+                queryExecution.queryExecutionId(),
+                dataScannedBytes(queryExecution.statistics()),
+                budget.maxDataScannedBytes(),
+                engineExecutionTime(queryExecution.statistics()).toMillis(),
+                budget.maxEngineExecutionTime().toMillis()
+        ));
+        this.queryExecutionId = queryExecution.queryExecutionId();
+        this.dataScannedBytes = dataScannedBytes(queryExecution.statistics());
+        this.engineExecutionTime = engineExecutionTime(queryExecution.statistics());
+    }
+
+    private static long dataScannedBytes(QueryExecutionStatistics statistics) {
+        return statistics == null || statistics.dataScannedInBytes() == null ? 0 : statistics.dataScannedInBytes();
+    }
+
+    private static Duration engineExecutionTime(QueryExecutionStatistics statistics) {
+        return Duration.ofMillis(statistics == null || statistics.engineExecutionTimeInMillis() == null ? 0 : statistics.engineExecutionTimeInMillis());
+    }
+
+    public String getQueryExecutionId() {
+        return queryExecutionId;
+    }
+
+    /**
+     * @return the number of bytes the query had scanned when it was last
+     *         polled
+     */
+    public long getDataScannedBytes() {
+        return dataScannedBytes;
+    }
+
+    /**
+     * @return the time the query had been running when it was last polled
+     */
+    public Duration getEngineExecutionTime() {
+        return engineExecutionTime;
+    }
+}
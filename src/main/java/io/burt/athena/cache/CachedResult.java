@@ -0,0 +1,69 @@
+package io.burt.athena.cache;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.result.Result;
+import io.burt.athena.result.ResultPosition;
+
+/**
+ * A cursor over a cached result.
+ */
+class CachedResult implements Result {
+    private final DecodedResult decodedResult;
+    private int rowNumber;
+
+    CachedResult(DecodedResult decodedResult) {
+        this.decodedResult = decodedResult;
+        this.rowNumber = 0;
+    }
+
+    @Override
+    public int getFetchSize() {
+        return decodedResult.rowCount();
+    }
+
+    @Override
+    public void setFetchSize(int newFetchSize) {
+    }
+
+    @Override
+    public AthenaResultSetMetaData getMetaData() {
+        return decodedResult.metaData();
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public boolean next() {
+        if (rowNumber <= decodedResult.rowCount()) {
+            rowNumber++;
+        }
+        return rowNumber <= decodedResult.rowCount();
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        return decodedResult.get(rowNumber - 1, columnIndex - 1);
+    }
+
+    @Override
+    public ResultPosition getPosition() {
+        if (rowNumber == 0) {
+            return ResultPosition.BEFORE_FIRST;
+        } else if (rowNumber > decodedResult.rowCount()) {
+            return ResultPosition.AFTER_LAST;
+        } else if (rowNumber == 1) {
+            return ResultPosition.FIRST;
+        } else if (rowNumber == decodedResult.rowCount()) {
+            return ResultPosition.LAST;
+        } else {
+            return ResultPosition.MIDDLE;
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
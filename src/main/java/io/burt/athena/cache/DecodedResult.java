@@ -0,0 +1,109 @@
+package io.burt.athena.cache;
+
+import io.burt.athena.AthenaResultSetMetaData;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The rows of a result, stored column by column outside of the heap.
+ *
+ * Each column is a null bitmap with one bit per row, followed by the offsets
+ * of the values, followed by the UTF-8 encoded values, all in one direct
+ * buffer. The buffer is released when the result is no longer referenced by
+ * the cache or by any cursor.
+ */
+class DecodedResult {
+    private static final int OVERHEAD_BYTES = 256;
+
+    private final AthenaResultSetMetaData metaData;
+    private final int rowCount;
+    private final int[] columnStarts;
+    private final ByteBuffer buffer;
+
+    private DecodedResult(AthenaResultSetMetaData metaData, int rowCount, int[] columnStarts, ByteBuffer buffer) {
+        this.metaData = metaData;
+        this.rowCount = rowCount;
+        this.columnStarts = columnStarts;
+        this.buffer = buffer;
+    }
+
+    static DecodedResult encode(AthenaResultSetMetaData metaData, int columnCount, List<String[]> rows) {
+        int rowCount = rows.size();
+        int bitmapBytes = (rowCount + 7) / 8;
+        int offsetBytes = (rowCount + 1) * 4;
+        byte[][][] encoded = new byte[columnCount][rowCount][];
+        int[] columnStarts = new int[columnCount];
+        int size = 0;
+        for (int column = 0; column < columnCount; column++) {
+            columnStarts[column] = size;
+            size += bitmapBytes + offsetBytes;
+            for (int row = 0; row < rowCount; row++) {
+                String value = rows.get(row)[column];
+                if (value != null) {
+                    encoded[column][row] = value.getBytes(StandardCharsets.UTF_8);
+                    size += encoded[column][row].length;
+                }
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        for (int column = 0; column < columnCount; column++) {
+            int bitmapStart = columnStarts[column];
+            int offsetsStart = bitmapStart + bitmapBytes;
+            int dataStart = offsetsStart + offsetBytes;
+            int offset = 0;
+            for (int row = 0; row < rowCount; row++) {
+                byte[] value = encoded[column][row];
+                buffer.putInt(offsetsStart + row * 4, offset);
+                if (value == null) {
+                    int i = bitmapStart + row / 8;
+                    buffer.put(i, (byte) (buffer.get(i) | (1 << (row % 8))));
+                } else {
+                    for (int b = 0; b < value.length; b++) {
+                        buffer.put(dataStart + offset + b, value[b]);
+                    }
+                    offset += value.length;
+                }
+            }
+            buffer.putInt(offsetsStart + rowCount * 4, offset);
+        }
+        return new DecodedResult(metaData, rowCount, columnStarts, buffer);
+    }
+
+    AthenaResultSetMetaData metaData() {
+        return metaData;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the number of bytes the result occupies, approximately
+     */
+    long weight() {
+        return buffer.capacity() + columnStarts.length * 4L + OVERHEAD_BYTES;
+    }
+
+    /**
+     * @param row the zero based row index
+     * @param column the zero based column index
+     * @return the value, or null when it is null
+     */
+    String get(int row, int column) {
+        int bitmapStart = columnStarts[column];
+        if ((buffer.get(bitmapStart + row / 8) & (1 << (row % 8))) != 0) {
+            return null;
+        }
+        int offsetsStart = bitmapStart + (rowCount + 7) / 8;
+        int dataStart = offsetsStart + (rowCount + 1) * 4;
+        int start = buffer.getInt(offsetsStart + row * 4);
+        int end = buffer.getInt(offsetsStart + (row + 1) * 4);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(dataStart + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
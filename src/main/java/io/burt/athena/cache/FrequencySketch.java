@@ -0,0 +1,66 @@
+package io.burt.athena.cache;
+
+/**
+ * Estimates how often keys have been seen recently.
+ *
+ * This is a count-min sketch with four rows of four bit counters. Counts are
+ * halved when the number of increments reaches ten times the width of the
+ * sketch, so that keys that were popular a long time ago lose out against
+ * keys that are popular now.
+ */
+class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0xb9f0a1c5, 0x3c6ef372, 0x5be0cd19};
+
+    private final byte[][] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int width) {
+        int powerOfTwo = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+        this.counters = new byte[DEPTH][powerOfTwo];
+        this.mask = powerOfTwo - 1;
+        this.sampleSize = 10 * powerOfTwo;
+        this.additions = 0;
+    }
+
+    private int index(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    int frequency(Object key) {
+        int hash = key.hashCode();
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, counters[row][index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = key.hashCode();
+        boolean incremented = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int i = index(hash, row);
+            if (counters[row][i] < MAX_COUNT) {
+                counters[row][i]++;
+                incremented = true;
+            }
+        }
+        if (incremented && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (byte[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = (byte) (row[i] >>> 1);
+            }
+        }
+        additions /= 2;
+    }
+}
@@ -0,0 +1,377 @@
+package io.burt.athena.cache;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.result.Result;
+import io.burt.athena.sql.SqlNormalizer;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs registered queries in the background and keeps their latest
+ * successful results, so that running a registered query returns
+ * immediately.
+ *
+ * Each registered query is run when it is registered, and then again each
+ * time its interval has passed since the previous run completed. Statements
+ * of connections that use the refresher return the latest result of a
+ * registered query, when there is one, even when it is older than the
+ * interval. When it is, and no run has started within the interval, for
+ * example because the refresher thread has fallen behind, the query is
+ * refreshed in the background right away. Results of failed runs are
+ * ignored, and the previous result is kept.
+ *
+ * Queries over append-only tables can be registered to be refreshed
+ * incrementally, so that each run only scans the partitions that can have
+ * changed since the previous one, see
+ * {@link #registerIncremental(String, String, Duration)}.
+ *
+ * The queries are run with statements of the connection given to the
+ * constructor, so they go through the same admission, routing, and caching
+ * as other queries on that connection. Queries run by the refresher are
+ * never served by it, even when that connection uses it too.
+ *
+ * @see io.burt.athena.AthenaConnection#setQueryRefresher(QueryRefresher)
+ */
+public class QueryRefresher implements AutoCloseable {
+    private static final ThreadLocal<Boolean> refreshing = ThreadLocal.withInitial(() -> false);
+
+    private final Connection connection;
+    private final ScheduledExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Clock clock;
+    private final Map<String, Registration> registrations;
+
+    /**
+     * @param connection the connection to run the registered queries with
+     */
+    public QueryRefresher(Connection connection) {
+        this(connection, Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "athena-query-refresher");
+            thread.setDaemon(true);
+            return thread;
+        }), true, Clock.systemUTC());
+    }
+
+    QueryRefresher(Connection connection, ScheduledExecutorService executor, Clock clock) {
+        this(connection, executor, false, clock);
+    }
+
+    private QueryRefresher(Connection connection, ScheduledExecutorService executor, boolean ownsExecutor, Clock clock) {
+        this.connection = connection;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.clock = clock;
+        this.registrations = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Registers a query to be run in the current database of the connection
+     * and refreshed at an interval. Registering a query that is already
+     * registered changes its interval.
+     *
+     * @param sql the query
+     * @param interval the time to wait between a run completing and the next
+     *                 one starting
+     * @throws SQLException when the database of the connection can't be read
+     */
+    public void register(String sql, Duration interval) throws SQLException {
+        register(sql, null, interval);
+    }
+
+    /**
+     * Registers a query over an append-only table that is refreshed
+     * incrementally.
+     *
+     * The watermark column must be one of the columns of the result, usually
+     * the partition column of the table, for example a date, and each row of
+     * the result must only depend on data with the same value of that
+     * column, for example by grouping on it. The first run reads all data,
+     * and each following run only reads data where the watermark column is
+     * at least the largest value seen so far, by wrapping the query as
+     * {@code SELECT * FROM (query) WHERE column >= watermark}, which Athena
+     * pushes down to the partitions of the table. The rows of the new result
+     * replace the cached rows at or after the watermark, and the other
+     * cached rows are kept.
+     *
+     * @param sql the query
+     * @param watermarkColumn the name of the watermark column in the result
+     * @param interval the time to wait between a run completing and the next
+     *                 one starting
+     * @throws SQLException when the database of the connection can't be read
+     */
+    public void registerIncremental(String sql, String watermarkColumn, Duration interval) throws SQLException {
+        if (watermarkColumn == null || watermarkColumn.isEmpty()) {
+            throw new IllegalArgumentException("The watermark column must be given");
+        }
+        register(sql, watermarkColumn, interval);
+    }
+
+    private static String key(String databaseName, String sql) {
+        return databaseName + '\u0000' + SqlNormalizer.normalize(sql);
+    }
+
+    private void register(String sql, String watermarkColumn, Duration interval) throws SQLException {
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("The refresh interval must be positive");
+        }
+        String key = key(connection.getSchema(), sql);
+        Registration registration = new Registration(sql, watermarkColumn, interval);
+        Registration previous = registrations.put(key, registration);
+        if (previous != null) {
+            previous.cancel();
+            if (Objects.equals(previous.watermarkColumn, watermarkColumn)) {
+                registration.latest = previous.latest;
+            }
+        }
+        registration.schedule = executor.schedule(() -> refresh(registration), 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops refreshing a query and drops its latest result.
+     *
+     * @param sql the query, as it was registered
+     * @throws SQLException when the database of the connection can't be read
+     */
+    public void unregister(String sql) throws SQLException {
+        Registration registration = registrations.remove(key(connection.getSchema(), sql));
+        if (registration != null) {
+            registration.cancel();
+        }
+    }
+
+    /**
+     * Returns the latest result of a registered query, and starts refreshing
+     * it in the background when it is older than its interval.
+     *
+     * @param databaseName the database the query runs in
+     * @param sql the query
+     * @return a result with its own position, or empty when the query is not
+     *         registered, has not completed successfully yet, or when called
+     *         by the refresher itself
+     */
+    public Optional<Result> get(String databaseName, String sql) {
+        if (refreshing.get()) {
+            return Optional.empty();
+        }
+        Registration registration = registrations.get(key(databaseName, sql));
+        if (registration == null) {
+            return Optional.empty();
+        }
+        Snapshot latest = registration.latest;
+        if (latest == null) {
+            return Optional.empty();
+        }
+        Instant staleBefore = clock.instant().minus(registration.interval);
+        if (!latest.refreshedAt.isAfter(staleBefore) && !registration.lastStartedAt.isAfter(staleBefore) && !registration.running.get() && !registration.cancelled) {
+            executor.execute(() -> refresh(registration));
+        }
+        return Optional.of(new CachedResult(latest.decodedResult));
+    }
+
+    private void refresh(Registration registration) {
+        if (registration.cancelled || !registration.running.compareAndSet(false, true)) {
+            return;
+        }
+        registration.cancelSchedule();
+        registration.lastStartedAt = clock.instant();
+        refreshing.set(true);
+        Snapshot previous = registration.latest;
+        boolean incremental = registration.watermarkColumn != null && previous != null && previous.watermark != null;
+        String sql = incremental ? incrementalSql(registration, previous) : registration.sql;
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            AthenaResultSetMetaData metaData = resultSet.getMetaData().unwrap(AthenaResultSetMetaData.class);
+            int columnCount = metaData.getColumnCount();
+            List<String[]> rows = new ArrayList<>();
+            if (incremental) {
+                rows.addAll(rowsBefore(previous));
+            }
+            while (resultSet.next()) {
+                String[] row = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = resultSet.getString(i + 1);
+                }
+                rows.add(row);
+            }
+            String watermark = null;
+            int watermarkIndex = -1;
+            if (registration.watermarkColumn != null) {
+                watermarkIndex = columnIndex(metaData, registration.watermarkColumn);
+                watermark = maxWatermark(metaData, watermarkIndex, rows);
+            }
+            registration.latest = new Snapshot(DecodedResult.encode(metaData, columnCount, rows), clock.instant(), watermarkIndex, watermark);
+        } catch (SQLException | RuntimeException e) {
+            // the previous result is kept until a run succeeds
+        } finally {
+            refreshing.set(false);
+            registration.running.set(false);
+            if (!registration.cancelled) {
+                registration.schedule = executor.schedule(() -> refresh(registration), registration.interval.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private static String incrementalSql(Registration registration, Snapshot previous) {
+        String typeName = previous.decodedResult.metaData().getColumnTypeName(previous.watermarkIndex + 1);
+        return String.format("SELECT * FROM (%s) WHERE \"%s\" >= %s", registration.sql, registration.watermarkColumn.replace("\"", "\"\""), literal(typeName, previous.watermark));
+    }
+
+    private static String literal(String typeName, String value) {
+        String quoted = "'" + value.replace("'", "''") + "'";
+        if (isNumeric(typeName)) {
+            return value;
+        } else if (typeName.equalsIgnoreCase("date")) {
+            return "DATE " + quoted;
+        } else if (typeName.equalsIgnoreCase("timestamp")) {
+            return "TIMESTAMP " + quoted;
+        } else {
+            return quoted;
+        }
+    }
+
+    private static boolean isNumeric(String typeName) {
+        switch (typeName.toLowerCase()) {
+            case "tinyint":
+            case "smallint":
+            case "integer":
+            case "bigint":
+            case "real":
+            case "float":
+            case "double":
+            case "decimal":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int compareWatermarks(String typeName, String a, String b) {
+        if (isNumeric(typeName)) {
+            return new BigDecimal(a).compareTo(new BigDecimal(b));
+        } else {
+            return a.compareTo(b);
+        }
+    }
+
+    private static int columnIndex(AthenaResultSetMetaData metaData, String columnName) throws SQLException {
+        for (int i = 0; i < metaData.getColumnCount(); i++) {
+            if (columnName.equalsIgnoreCase(metaData.getColumnLabel(i + 1)) || columnName.equalsIgnoreCase(metaData.getColumnName(i + 1))) {
+                return i;
+            }
+        }
+        throw new SQLException(String.format("The result has no watermark column \"%s\"", columnName));
+    }
+
+    private static String maxWatermark(AthenaResultSetMetaData metaData, int watermarkIndex, List<String[]> rows) {
+        String typeName = metaData.getColumnTypeName(watermarkIndex + 1);
+        String max = null;
+        for (String[] row : rows) {
+            String value = row[watermarkIndex];
+            if (value != null && (max == null || compareWatermarks(typeName, value, max) > 0)) {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return the rows of a previous result that are not read again by an
+     *         incremental run, which are the rows before the watermark, and
+     *         rows without a watermark, which the incremental query filters
+     *         out
+     */
+    private static List<String[]> rowsBefore(Snapshot previous) {
+        DecodedResult decodedResult = previous.decodedResult;
+        String typeName = decodedResult.metaData().getColumnTypeName(previous.watermarkIndex + 1);
+        int columnCount = decodedResult.metaData().getColumnCount();
+        List<String[]> rows = new ArrayList<>();
+        for (int row = 0; row < decodedResult.rowCount(); row++) {
+            String value = decodedResult.get(row, previous.watermarkIndex);
+            if (value == null || compareWatermarks(typeName, value, previous.watermark) < 0) {
+                String[] values = new String[columnCount];
+                for (int column = 0; column < columnCount; column++) {
+                    values[column] = decodedResult.get(row, column);
+                }
+                rows.add(values);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Stops refreshing all queries. The connection is not closed.
+     */
+    @Override
+    public void close() {
+        for (Registration registration : registrations.values()) {
+            registration.cancel();
+        }
+        registrations.clear();
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class Snapshot {
+        private final DecodedResult decodedResult;
+        private final Instant refreshedAt;
+        private final int watermarkIndex;
+        private final String watermark;
+
+        Snapshot(DecodedResult decodedResult, Instant refreshedAt, int watermarkIndex, String watermark) {
+            this.decodedResult = decodedResult;
+            this.refreshedAt = refreshedAt;
+            this.watermarkIndex = watermarkIndex;
+            this.watermark = watermark;
+        }
+    }
+
+    private static class Registration {
+        private final String sql;
+        private final String watermarkColumn;
+        private final Duration interval;
+        private final AtomicBoolean running;
+
+        private volatile Snapshot latest;
+        private volatile Instant lastStartedAt;
+        private volatile ScheduledFuture<?> schedule;
+        private volatile boolean cancelled;
+
+        Registration(String sql, String watermarkColumn, Duration interval) {
+            this.sql = sql;
+            this.watermarkColumn = watermarkColumn;
+            this.interval = interval;
+            this.running = new AtomicBoolean(false);
+            this.lastStartedAt = Instant.EPOCH;
+        }
+
+        void cancel() {
+            cancelled = true;
+            cancelSchedule();
+        }
+
+        void cancelSchedule() {
+            ScheduledFuture<?> currentSchedule = schedule;
+            if (currentSchedule != null) {
+                currentSchedule.cancel(false);
+            }
+        }
+    }
+}
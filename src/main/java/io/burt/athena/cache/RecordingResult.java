@@ -0,0 +1,113 @@
+package io.burt.athena.cache;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.result.Result;
+import io.burt.athena.result.ResultPosition;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Passes the rows of a result through while keeping a copy, and adds the
+ * copy to a cache when the last row has been read.
+ *
+ * The copy is dropped, and nothing is cached, when the result is larger than
+ * the largest result the cache accepts, or when it is closed before all rows
+ * have been read.
+ */
+class RecordingResult implements Result {
+    private final ResultCache cache;
+    private final QueryExecution queryExecution;
+    private final String queryKey;
+    private final Result result;
+    private final long maxBytes;
+
+    private List<String[]> rows;
+    private long bytes;
+
+    RecordingResult(ResultCache cache, QueryExecution queryExecution, String queryKey, Result result, long maxBytes) {
+        this.cache = cache;
+        this.queryExecution = queryExecution;
+        this.queryKey = queryKey;
+        this.result = result;
+        this.maxBytes = maxBytes;
+        this.rows = new ArrayList<>();
+        this.bytes = 0;
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return result.getFetchSize();
+    }
+
+    @Override
+    public void setFetchSize(int newFetchSize) throws SQLException {
+        result.setFetchSize(newFetchSize);
+    }
+
+    @Override
+    public AthenaResultSetMetaData getMetaData() throws SQLException {
+        return result.getMetaData();
+    }
+
+    @Override
+    public int getRowNumber() throws SQLException {
+        return result.getRowNumber();
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        boolean hasNext = result.next();
+        if (rows != null) {
+            if (hasNext) {
+                record();
+            } else {
+                AthenaResultSetMetaData metaData = result.getMetaData();
+                cache.put(queryExecution, queryKey, DecodedResult.encode(metaData, metaData.getColumnCount(), rows));
+                rows = null;
+            }
+        }
+        return hasNext;
+    }
+
+    private void record() throws SQLException {
+        int columnCount = result.getMetaData().getColumnCount();
+        String[] row = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            row[i] = result.getString(i + 1);
+            if (row[i] != null) {
+                bytes += row[i].length();
+            }
+        }
+        bytes += columnCount * 4L;
+        if (bytes > maxBytes) {
+            rows = null;
+        } else {
+            rows.add(row);
+        }
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        return result.getString(columnIndex);
+    }
+
+    @Override
+    public ResultPosition getPosition() throws SQLException {
+        return result.getPosition();
+    }
+
+    @Override
+    public void cancel() {
+        rows = null;
+        result.cancel();
+    }
+
+    @Override
+    public void close() throws Exception {
+        rows = null;
+        result.close();
+    }
+}
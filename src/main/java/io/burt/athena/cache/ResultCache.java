@@ -0,0 +1,325 @@
+package io.burt.athena.cache;
+
+import io.burt.athena.result.Result;
+import io.burt.athena.sql.SqlNormalizer;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the rows of small results in memory, so that reading them again does
+ * not download and parse them again.
+ *
+ * Results are added to the cache when a result set has read all of their
+ * rows, and are looked up by query execution ID, which is always safe, since
+ * the output of a query execution never changes, or by a
+ * {@link #queryKey(String, String, String, String, String) query key}, which
+ * returns the latest result of a query if it completed within a given
+ * maximum age. The query key is made of the client identity, database, work
+ * group, output location and {@link SqlNormalizer#normalize(String)
+ * canonical SQL} of the query, so that connections with different
+ * credentials or settings never see each other's results, and results are
+ * only registered under it for {@link SqlNormalizer#isReadOnly(String)
+ * read-only} queries.
+ *
+ * The rows are stored column by column outside of the heap, and the cache is
+ * bounded by the number of bytes they occupy. A result can take up at most a
+ * tenth of the cache, larger results are never cached. Which results to keep
+ * is decided with the W-TinyLFU policy: new results enter a small window that
+ * is ordered by recency, and when they leave the window they are only let
+ * into the main part of the cache if they have been used more often recently
+ * than the results they would replace. The main part is split into a
+ * probation segment and a protected segment for results that have been used
+ * again while in the cache. Usage is estimated with a small frequency sketch
+ * that also counts the results that are not in the cache.
+ */
+public class ResultCache {
+    public static final long DEFAULT_MAX_BYTES = 128L * 1024 * 1024;
+
+    private static final double WINDOW_SHARE = 0.01;
+    private static final double PROTECTED_SHARE = 0.8;
+    private static final int MAX_ENTRY_SHARE = 10;
+
+    private static ResultCache sharedInstance;
+
+    private final long maxBytes;
+    private final long windowMaxBytes;
+    private final long protectedMaxBytes;
+    private final Clock clock;
+    private final FrequencySketch sketch;
+    private final Map<String, Entry> entriesById;
+    private final Map<String, Entry> entriesByQuery;
+    private final Segment window;
+    private final Segment probation;
+    private final Segment protectedSegment;
+
+    public ResultCache(long maxBytes) {
+        this(maxBytes, Clock.systemUTC());
+    }
+
+    ResultCache(long maxBytes, Clock clock) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.windowMaxBytes = Math.max(1, (long) (maxBytes * WINDOW_SHARE));
+        this.protectedMaxBytes = (long) ((maxBytes - windowMaxBytes) * PROTECTED_SHARE);
+        this.clock = clock;
+        this.sketch = new FrequencySketch(1024);
+        this.entriesById = new HashMap<>();
+        this.entriesByQuery = new HashMap<>();
+        this.window = new Segment();
+        this.probation = new Segment();
+        this.protectedSegment = new Segment();
+    }
+
+    /**
+     * Returns the JVM-wide cache, which holds at most
+     * {@link #DEFAULT_MAX_BYTES} bytes.
+     *
+     * @return a cache shared by all connections in this JVM
+     */
+    public static synchronized ResultCache shared() {
+        if (sharedInstance == null) {
+            sharedInstance = new ResultCache(DEFAULT_MAX_BYTES);
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * @param clientIdentity the region and credentials of the client that
+     *                       runs the query, see
+     *                       {@link io.burt.athena.configuration.ConnectionConfiguration#clientIdentity()}
+     * @return the key that identifies results of the same query
+     */
+    public static String queryKey(String clientIdentity, String databaseName, String workGroupName, String outputLocation, String sql) {
+        return clientIdentity + '\u0000' + databaseName + '\u0000' + workGroupName + '\u0000' + outputLocation + '\u0000' + SqlNormalizer.normalize(sql);
+    }
+
+    /**
+     * Returns the result of a query execution.
+     *
+     * @param queryExecutionId the ID of a query execution
+     * @return a result with its own position, or empty when the result of the
+     *         query execution is not in the cache
+     */
+    public Optional<Result> get(String queryExecutionId) {
+        DecodedResult decodedResult;
+        synchronized (this) {
+            sketch.increment(queryExecutionId);
+            Entry entry = entriesById.get(queryExecutionId);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            touch(entry);
+            decodedResult = entry.decodedResult;
+        }
+        return Optional.of(new CachedResult(decodedResult));
+    }
+
+    /**
+     * Returns the latest result of a query, if it is fresh enough.
+     *
+     * @param queryKey the key of the query, see
+     *                 {@link #queryKey(String, String, String, String, String)}
+     * @param completedAfter the earliest time the query execution may have
+     *                       completed
+     * @return a result with its own position, or empty when there is no
+     *         result of the query in the cache, or it is too old
+     */
+    public Optional<Result> get(String queryKey, Instant completedAfter) {
+        DecodedResult decodedResult;
+        synchronized (this) {
+            Entry entry = entriesByQuery.get(queryKey);
+            if (entry == null || entry.completedAt.isBefore(completedAfter)) {
+                return Optional.empty();
+            }
+            sketch.increment(entry.queryExecutionId);
+            touch(entry);
+            decodedResult = entry.decodedResult;
+        }
+        return Optional.of(new CachedResult(decodedResult));
+    }
+
+    /**
+     * Wraps the result of a query execution so that its rows are added to
+     * the cache when they have all been read.
+     *
+     * @param queryExecution the query execution that produced the result
+     * @param queryKey the key to also find the result by, or null when the
+     *                 result should only be found by query execution ID,
+     *                 which is the case for queries that are not read-only
+     * @param result the result to read through
+     * @return a result that reads the rows of the given result
+     */
+    public Result recording(QueryExecution queryExecution, String queryKey, Result result) {
+        return new RecordingResult(this, queryExecution, queryKey, result, maxBytes / MAX_ENTRY_SHARE);
+    }
+
+    synchronized void put(QueryExecution queryExecution, String queryKey, DecodedResult decodedResult) {
+        String queryExecutionId = queryExecution.queryExecutionId();
+        if (queryExecutionId == null || decodedResult.weight() > maxBytes / MAX_ENTRY_SHARE || entriesById.containsKey(queryExecutionId)) {
+            return;
+        }
+        Entry entry = new Entry(queryExecutionId, queryKey, completedAt(queryExecution), decodedResult);
+        entriesById.put(queryExecutionId, entry);
+        if (entry.queryKey != null) {
+            Entry previous = entriesByQuery.get(entry.queryKey);
+            if (previous == null || !previous.completedAt.isAfter(entry.completedAt)) {
+                if (previous != null) {
+                    previous.queryKey = null;
+                }
+                entriesByQuery.put(entry.queryKey, entry);
+            } else {
+                entry.queryKey = null;
+            }
+        }
+        sketch.increment(queryExecutionId);
+        window.addLast(entry);
+        evict();
+    }
+
+    private Instant completedAt(QueryExecution queryExecution) {
+        if (queryExecution.status() != null && queryExecution.status().completionDateTime() != null) {
+            return queryExecution.status().completionDateTime();
+        } else {
+            return clock.instant();
+        }
+    }
+
+    /**
+     * Moves an entry that has been used to the most recently used end of its
+     * segment, or from probation to the protected segment.
+     */
+    private void touch(Entry entry) {
+        if (entry.segment == probation) {
+            probation.remove(entry);
+            protectedSegment.addLast(entry);
+            while (protectedSegment.bytes > protectedMaxBytes) {
+                Entry demoted = protectedSegment.first();
+                protectedSegment.remove(demoted);
+                probation.addLast(demoted);
+            }
+        } else {
+            Segment segment = entry.segment;
+            segment.remove(entry);
+            segment.addLast(entry);
+        }
+    }
+
+    /**
+     * Moves the entries that overflow the window to the main part of the
+     * cache, if they are used more often than the entries they would
+     * replace.
+     */
+    private void evict() {
+        long mainMaxBytes = maxBytes - windowMaxBytes;
+        while (window.bytes > windowMaxBytes) {
+            Entry candidate = window.first();
+            window.remove(candidate);
+            int candidateFrequency = sketch.frequency(candidate.queryExecutionId);
+            boolean admitted = true;
+            while (probation.bytes + protectedSegment.bytes + candidate.weight > mainMaxBytes) {
+                Entry victim = probation.first() != null ? probation.first() : protectedSegment.first();
+                if (candidateFrequency > sketch.frequency(victim.queryExecutionId)) {
+                    victim.segment.remove(victim);
+                    forget(victim);
+                } else {
+                    admitted = false;
+                    break;
+                }
+            }
+            if (admitted) {
+                probation.addLast(candidate);
+            } else {
+                forget(candidate);
+            }
+        }
+    }
+
+    private void forget(Entry entry) {
+        entriesById.remove(entry.queryExecutionId, entry);
+        if (entry.queryKey != null) {
+            entriesByQuery.remove(entry.queryKey, entry);
+        }
+    }
+
+    synchronized int size() {
+        return entriesById.size();
+    }
+
+    synchronized long weightedSize() {
+        return window.bytes + probation.bytes + protectedSegment.bytes;
+    }
+
+    synchronized boolean contains(String queryExecutionId) {
+        return entriesById.containsKey(queryExecutionId);
+    }
+
+    private static class Entry {
+        private final String queryExecutionId;
+        private final Instant completedAt;
+        private final DecodedResult decodedResult;
+        private final long weight;
+
+        private String queryKey;
+        private Segment segment;
+        private Entry previous;
+        private Entry next;
+
+        Entry(String queryExecutionId, String queryKey, Instant completedAt, DecodedResult decodedResult) {
+            this.queryExecutionId = queryExecutionId;
+            this.queryKey = queryKey;
+            this.completedAt = completedAt;
+            this.decodedResult = decodedResult;
+            this.weight = decodedResult.weight();
+        }
+    }
+
+    /**
+     * A list of entries ordered from least to most recently used.
+     */
+    private static class Segment {
+        private Entry head;
+        private Entry tail;
+        private long bytes;
+
+        Entry first() {
+            return head;
+        }
+
+        void addLast(Entry entry) {
+            entry.segment = this;
+            entry.previous = tail;
+            entry.next = null;
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+            bytes += entry.weight;
+        }
+
+        void remove(Entry entry) {
+            if (entry.previous == null) {
+                head = entry.next;
+            } else {
+                entry.previous.next = entry.next;
+            }
+            if (entry.next == null) {
+                tail = entry.previous;
+            } else {
+                entry.next.previous = entry.previous;
+            }
+            entry.previous = null;
+            entry.next = null;
+            entry.segment = null;
+            bytes -= entry.weight;
+        }
+    }
+}
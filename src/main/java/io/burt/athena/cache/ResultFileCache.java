@@ -0,0 +1,456 @@
+package io.burt.athena.cache;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the result files of query executions on local disk, so that reading
+ * the result of a query execution again does not download it from S3 again.
+ *
+ * The files of a query execution, the CSV data and the metadata, are written
+ * to the cache while the result is read from S3, and are committed to the
+ * cache once all of the data has been read, together with the ETag of the
+ * object they were read from. Results read from the cache are memory mapped.
+ *
+ * The cache is bounded by the total size of its files, and the least recently
+ * used results are deleted when it grows larger than that. Several JVMs on the
+ * same host can share a cache directory: changes to the directory are made
+ * while holding a lock on a lock file in it, and results are committed by
+ * moving a complete directory into place, so readers never see partial
+ * results. Results that are being read when they are evicted stay readable,
+ * on platforms where mapped files can be deleted.
+ */
+public class ResultFileCache {
+    public static final long DEFAULT_MAX_BYTES = 1L << 30;
+
+    private static final Pattern QUERY_EXECUTION_ID_PATTERN = Pattern.compile("^[A-Za-z0-9][A-Za-z0-9-]*$");
+    private static final String DATA_FILE_NAME = "result.csv";
+    private static final String METADATA_FILE_NAME = "result.csv.metadata";
+    private static final String ETAG_FILE_NAME = "etag";
+    private static final String LOCK_FILE_NAME = ".lock";
+    private static final String TEMPORARY_PREFIX = ".tmp-";
+    private static final Duration ABANDONED_AGE = Duration.ofHours(1);
+
+    private static final Map<Path, ResultFileCache> instances = new HashMap<>();
+
+    private final Path directory;
+    private final long maxBytes;
+    private final ReentrantLock lock;
+
+    public ResultFileCache(Path directory, long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.lock = new ReentrantLock();
+    }
+
+    /**
+     * Returns the cache that uses a directory, creating it if needed, so that
+     * all connections in the JVM that use the same directory share the same
+     * instance.
+     *
+     * @param directory the directory to keep the files in
+     * @param maxBytes the maximum total size of the files, only used when the
+     *                 instance is created
+     * @return a cache shared by all connections in this JVM
+     */
+    public static synchronized ResultFileCache forDirectory(Path directory, long maxBytes) {
+        return instances.computeIfAbsent(directory.toAbsolutePath().normalize(), d -> new ResultFileCache(d, maxBytes));
+    }
+
+    /**
+     * The files of a cached result.
+     */
+    public static class ResultFiles {
+        private final ByteBuffer metaData;
+        private final ByteBuffer data;
+        private final Path dataPath;
+
+        ResultFiles(ByteBuffer metaData, ByteBuffer data, Path dataPath) {
+            this.metaData = metaData;
+            this.data = data;
+            this.dataPath = dataPath;
+        }
+
+        /**
+         * @return the contents of the metadata file
+         */
+        public ByteBuffer metaData() {
+            return metaData.duplicate();
+        }
+
+        /**
+         * @return a stream of the contents of the data file
+         */
+        public InputStream openData() throws IOException {
+            if (data != null) {
+                return new ByteBufferInputStream(data.duplicate());
+            } else {
+                return Files.newInputStream(dataPath);
+            }
+        }
+    }
+
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Runs an action while holding both the lock of this instance and the
+     * lock on the lock file, which excludes other JVMs.
+     */
+    private <T> T withLock(LockedAction<T> action) throws IOException {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                return action.run();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<Path> entryDirectory(String queryExecutionId) {
+        if (queryExecutionId != null && QUERY_EXECUTION_ID_PATTERN.matcher(queryExecutionId).matches()) {
+            return Optional.of(directory.resolve(queryExecutionId));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the files of a query execution's result, if they are in the
+     * cache.
+     *
+     * @param queryExecutionId the ID of a query execution
+     * @return the files, or empty when they are not in the cache, or could
+     *         not be read
+     */
+    public Optional<ResultFiles> get(String queryExecutionId) {
+        Optional<Path> entry = entryDirectory(queryExecutionId);
+        if (!entry.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            return withLock(() -> {
+                if (Files.exists(entry.get().resolve(ETAG_FILE_NAME))) {
+                    ResultFiles files = map(entry.get());
+                    Files.setLastModifiedTime(entry.get(), FileTime.fromMillis(System.currentTimeMillis()));
+                    return Optional.of(files);
+                } else {
+                    return Optional.empty();
+                }
+            });
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return the ETag of the object that a cached result was read from
+     */
+    public Optional<String> eTag(String queryExecutionId) {
+        Optional<Path> entry = entryDirectory(queryExecutionId);
+        if (!entry.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            return withLock(() -> {
+                Path eTagPath = entry.get().resolve(ETAG_FILE_NAME);
+                if (Files.exists(eTagPath)) {
+                    return Optional.of(new String(Files.readAllBytes(eTagPath), StandardCharsets.UTF_8));
+                } else {
+                    return Optional.empty();
+                }
+            });
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static ResultFiles map(Path entry) throws IOException {
+        ByteBuffer metaData;
+        try (FileChannel channel = FileChannel.open(entry.resolve(METADATA_FILE_NAME), StandardOpenOption.READ)) {
+            metaData = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        Path dataPath = entry.resolve(DATA_FILE_NAME);
+        MappedByteBuffer data = null;
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+            if (channel.size() <= Integer.MAX_VALUE) {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        return new ResultFiles(metaData, data, dataPath);
+    }
+
+    /**
+     * Wraps the data of a result that is read from S3 so that it is written
+     * to the cache as it is read, and committed to the cache when it has all
+     * been read.
+     *
+     * Nothing is cached when the stream is closed before it has been read to
+     * the end, or when the files can't be written.
+     *
+     * @param queryExecutionId the ID of the query execution
+     * @param metaData the contents of the metadata file
+     * @param data the contents of the data file
+     * @param eTag provides the ETag of the data file, when it has been read
+     * @return a stream that reads the contents of the given stream
+     */
+    public InputStream recording(String queryExecutionId, ByteBuffer metaData, InputStream data, Supplier<String> eTag) {
+        Optional<Path> entry = entryDirectory(queryExecutionId);
+        if (!entry.isPresent()) {
+            return data;
+        }
+        Path temporaryDirectory = directory.resolve(TEMPORARY_PREFIX + UUID.randomUUID());
+        try {
+            Files.createDirectories(temporaryDirectory);
+            try (FileChannel channel = FileChannel.open(temporaryDirectory.resolve(METADATA_FILE_NAME), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer contents = metaData.duplicate();
+                while (contents.hasRemaining()) {
+                    channel.write(contents);
+                }
+            }
+            OutputStream output = Files.newOutputStream(temporaryDirectory.resolve(DATA_FILE_NAME), StandardOpenOption.CREATE_NEW);
+            return new RecordingInputStream(data, output, temporaryDirectory, entry.get(), eTag);
+        } catch (IOException e) {
+            deleteQuietly(temporaryDirectory);
+            return data;
+        }
+    }
+
+    private void commit(Path temporaryDirectory, Path entry, String eTag) throws IOException {
+        Files.write(temporaryDirectory.resolve(ETAG_FILE_NAME), String.valueOf(eTag).getBytes(StandardCharsets.UTF_8));
+        withLock(() -> {
+            if (Files.exists(entry)) {
+                deleteQuietly(temporaryDirectory);
+            } else {
+                try {
+                    Files.move(temporaryDirectory, entry, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    deleteQuietly(temporaryDirectory);
+                }
+            }
+            evict();
+            return null;
+        });
+    }
+
+    /**
+     * Deletes the least recently used results until the cache is within its
+     * maximum size, and temporary directories that have been abandoned.
+     */
+    private void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        Map<Path, Long> sizes = new HashMap<>();
+        Map<Path, FileTime> accessTimes = new HashMap<>();
+        long totalSize = 0;
+        long abandonedBefore = System.currentTimeMillis() - ABANDONED_AGE.toMillis();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+            for (Path child : children) {
+                String name = child.getFileName().toString();
+                if (!Files.isDirectory(child)) {
+                    continue;
+                }
+                FileTime lastModified = Files.getLastModifiedTime(child);
+                if (name.startsWith(TEMPORARY_PREFIX)) {
+                    if (lastModified.toMillis() < abandonedBefore) {
+                        deleteQuietly(child);
+                    }
+                } else {
+                    long size = size(child);
+                    entries.add(child);
+                    sizes.put(child, size);
+                    accessTimes.put(child, lastModified);
+                    totalSize += size;
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(accessTimes::get));
+        for (Path entry : entries) {
+            if (totalSize <= maxBytes) {
+                break;
+            }
+            deleteQuietly(entry);
+            totalSize -= sizes.get(entry);
+        }
+    }
+
+    private static long size(Path entry) throws IOException {
+        long size = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(entry)) {
+            for (Path file : files) {
+                size += Files.size(file);
+            }
+        }
+        return size;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            // the file is still in use, or was already deleted
+        }
+    }
+
+    private class RecordingInputStream extends FilterInputStream {
+        private final OutputStream output;
+        private final Path temporaryDirectory;
+        private final Path entry;
+        private final Supplier<String> eTag;
+
+        private boolean recording;
+
+        RecordingInputStream(InputStream input, OutputStream output, Path temporaryDirectory, Path entry, Supplier<String> eTag) {
+            super(input);
+            this.output = output;
+            this.temporaryDirectory = temporaryDirectory;
+            this.entry = entry;
+            this.eTag = eTag;
+            this.recording = true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                finish();
+            } else if (recording) {
+                try {
+                    output.write(b);
+                } catch (IOException e) {
+                    abort();
+                }
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n < 0) {
+                finish();
+            } else if (recording) {
+                try {
+                    output.write(b, off, n);
+                } catch (IOException e) {
+                    abort();
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            abort();
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void finish() {
+            if (recording) {
+                recording = false;
+                try {
+                    output.close();
+                    commit(temporaryDirectory, entry, eTag.get());
+                } catch (IOException e) {
+                    deleteQuietly(temporaryDirectory);
+                }
+            }
+        }
+
+        private void abort() {
+            if (recording) {
+                recording = false;
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    // the files are deleted anyway
+                }
+                deleteQuietly(temporaryDirectory);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            abort();
+            super.close();
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            if (buffer.hasRemaining()) {
+                return buffer.get() & 0xff;
+            } else {
+                return -1;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            } else if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package io.burt.athena.catalog;
+
+import io.burt.athena.VirtualThreads;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Caches the databases and tables of the catalog, so that browsing it does
+ * not run a query each time.
+ *
+ * The list of databases, and the tables of each database, are loaded the
+ * first time they are needed, and the tables of several databases are
+ * loaded in parallel. After that they are served from memory. When they
+ * are older than the TTL they are still served, but are reloaded in the
+ * background, so that browsing the catalog never waits for a reload. When
+ * a reload fails the previous version is kept and the next lookup tries
+ * again.
+ *
+ * Names are matched against JDBC search patterns locally, where
+ * <code>%</code> matches any sequence of characters, <code>_</code> matches
+ * any one character, and a backslash escapes the character after it.
+ */
+public class Catalog implements AutoCloseable {
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    private final CatalogSource source;
+    private final Duration ttl;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Clock clock;
+    private final Cached<List<String>> databases;
+    private final Map<String, Cached<List<CatalogTable>>> tables;
+
+    /**
+     * @param source where to load the catalog from
+     * @param ttl how long loaded databases and tables are served before they
+     *            are reloaded in the background
+     */
+    public Catalog(CatalogSource source, Duration ttl) {
+        this(source, ttl, Executors.newFixedThreadPool(DEFAULT_PARALLELISM, VirtualThreads.blockingThreadFactory("athena-catalog")), true, Clock.systemUTC());
+    }
+
+    Catalog(CatalogSource source, Duration ttl, ExecutorService executor, Clock clock) {
+        this(source, ttl, executor, false, clock);
+    }
+
+    private Catalog(CatalogSource source, Duration ttl, ExecutorService executor, boolean ownsExecutor, Clock clock) {
+        this.source = source;
+        this.ttl = ttl;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.clock = clock;
+        this.databases = new Cached<>(source::listDatabases);
+        this.tables = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param pattern a JDBC search pattern, or null to match all names
+     * @return a predicate that matches the names that the pattern matches,
+     *         ignoring case
+     */
+    public static Predicate<String> matcher(String pattern) {
+        if (pattern == null || pattern.equals("%")) {
+            return name -> true;
+        }
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        Pattern compiled = Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+        return name -> name != null && compiled.matcher(name).matches();
+    }
+
+    /**
+     * @param databasePattern a JDBC search pattern, or null to match all
+     *                        databases
+     * @return the names of the matching databases, in order
+     * @throws SQLException when the databases have not been loaded before
+     *                      and could not be loaded
+     */
+    public List<String> databases(String databasePattern) throws SQLException {
+        Predicate<String> matcher = matcher(databasePattern);
+        List<String> matching = new ArrayList<>();
+        for (String databaseName : await(databases.get())) {
+            if (matcher.test(databaseName)) {
+                matching.add(databaseName);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Looks up tables, loading the tables of all matching databases that
+     * have not been loaded before in parallel.
+     *
+     * @param databasePattern a JDBC search pattern, or null to match all
+     *                        databases
+     * @param tablePattern a JDBC search pattern, or null to match all tables
+     * @return the matching tables, ordered by database and name
+     * @throws SQLException when the databases or tables have not been loaded
+     *                      before and could not be loaded
+     */
+    public List<CatalogTable> tables(String databasePattern, String tablePattern) throws SQLException {
+        List<CompletableFuture<List<CatalogTable>>> futures = new ArrayList<>();
+        for (String databaseName : databases(databasePattern)) {
+            futures.add(tables.computeIfAbsent(databaseName, name -> new Cached<>(() -> source.listTables(name))).get());
+        }
+        Predicate<String> matcher = matcher(tablePattern);
+        List<CatalogTable> matching = new ArrayList<>();
+        for (CompletableFuture<List<CatalogTable>> future : futures) {
+            for (CatalogTable table : await(future)) {
+                if (matcher.test(table.name())) {
+                    matching.add(table);
+                }
+            }
+        }
+        return matching;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            } else {
+                throw new SQLException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Stops reloading in the background. Loads that are in progress are
+     * allowed to complete.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private class Cached<T> {
+        private final Callable<T> loader;
+        private T value;
+        private Instant loadedAt;
+        private CompletableFuture<T> loading;
+
+        Cached(Callable<T> loader) {
+            this.loader = loader;
+        }
+
+        /**
+         * @return the loaded value, or a future that completes when it has
+         *         been loaded for the first time
+         */
+        synchronized CompletableFuture<T> get() {
+            if (value == null) {
+                return load();
+            }
+            if (loadedAt.plus(ttl).compareTo(clock.instant()) <= 0) {
+                load();
+            }
+            return CompletableFuture.completedFuture(value);
+        }
+
+        private CompletableFuture<T> load() {
+            if (loading == null) {
+                CompletableFuture<T> future = new CompletableFuture<>();
+                loading = future;
+                Runnable task = () -> {
+                    try {
+                        T loaded = loader.call();
+                        synchronized (this) {
+                            value = loaded;
+                            loadedAt = clock.instant();
+                            loading = null;
+                        }
+                        future.complete(loaded);
+                    } catch (Exception e) {
+                        synchronized (this) {
+                            loading = null;
+                        }
+                        future.completeExceptionally(e);
+                    }
+                };
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    loading = null;
+                    future.completeExceptionally(e);
+                }
+                return future;
+            }
+            return loading;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.burt.athena.catalog;
+
+/**
+ * A column of a table in the catalog.
+ */
+public class CatalogColumn {
+    private final String name;
+    private final String type;
+    private final int ordinalPosition;
+    private final boolean nullable;
+    private final String comment;
+
+    /**
+     * @param name the name of the column
+     * @param type the Athena type of the column, for example
+     *             <code>varchar</code> or <code>decimal(10,2)</code>
+     * @param ordinalPosition the position of the column in the table,
+     *                        starting at one
+     * @param nullable whether or not the column can contain nulls
+     * @param comment the comment of the column, or null
+     */
+    public CatalogColumn(String name, String type, int ordinalPosition, boolean nullable, String comment) {
+        this.name = name;
+        this.type = type;
+        this.ordinalPosition = ordinalPosition;
+        this.nullable = nullable;
+        this.comment = comment;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public int ordinalPosition() {
+        return ordinalPosition;
+    }
+
+    public boolean nullable() {
+        return nullable;
+    }
+
+    public String comment() {
+        return comment;
+    }
+}
@@ -0,0 +1,25 @@
+package io.burt.athena.catalog;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Loads the databases and tables of the catalog, for {@link Catalog} to
+ * cache.
+ *
+ * The methods may be called concurrently from several threads.
+ */
+public interface CatalogSource {
+    /**
+     * @return the names of all databases, in order
+     * @throws SQLException when the databases could not be loaded
+     */
+    List<String> listDatabases() throws SQLException;
+
+    /**
+     * @param databaseName the database to list the tables of
+     * @return the tables of the database with their columns, ordered by name
+     * @throws SQLException when the tables could not be loaded
+     */
+    List<CatalogTable> listTables(String databaseName) throws SQLException;
+}
@@ -0,0 +1,46 @@
+package io.burt.athena.catalog;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A table or view in the catalog, with its columns.
+ */
+public class CatalogTable {
+    public static final String TABLE = "TABLE";
+    public static final String VIEW = "VIEW";
+
+    private final String databaseName;
+    private final String name;
+    private final String type;
+    private final List<CatalogColumn> columns;
+
+    /**
+     * @param databaseName the database the table is in
+     * @param name the name of the table
+     * @param type the JDBC table type, {@link #TABLE} or {@link #VIEW}
+     * @param columns the columns of the table, in order
+     */
+    public CatalogTable(String databaseName, String name, String type, List<CatalogColumn> columns) {
+        this.databaseName = databaseName;
+        this.name = name;
+        this.type = type;
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    public String databaseName() {
+        return databaseName;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public List<CatalogColumn> columns() {
+        return columns;
+    }
+}
@@ -0,0 +1,82 @@
+package io.burt.athena.catalog;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the catalog by querying <code>information_schema</code> with
+ * statements of a connection.
+ *
+ * All tables of a database, with their columns, are loaded with a single
+ * query, so that browsing a database costs one query execution instead of
+ * one per table.
+ */
+public class InformationSchemaCatalogSource implements CatalogSource {
+    private final Connection connection;
+
+    /**
+     * @param connection the connection to run the queries with
+     */
+    public InformationSchemaCatalogSource(Connection connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public List<String> listDatabases() throws SQLException {
+        List<String> databaseNames = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT schema_name FROM information_schema.schemata ORDER BY schema_name")) {
+            while (resultSet.next()) {
+                databaseNames.add(resultSet.getString(1));
+            }
+        }
+        return databaseNames;
+    }
+
+    @Override
+    public List<CatalogTable> listTables(String databaseName) throws SQLException {
+        String sql = String.format(
+                "SELECT t.table_name, t.table_type, c.column_name, c.ordinal_position, c.data_type, c.is_nullable, c.comment " +
+                "FROM information_schema.tables t " +
+                "LEFT JOIN information_schema.columns c ON c.table_schema = t.table_schema AND c.table_name = t.table_name " +
+                "WHERE t.table_schema = '%s' " +
+                "ORDER BY t.table_name, c.ordinal_position",
+                databaseName.replace("'", "''")
+        );
+        List<CatalogTable> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            String tableName = null;
+            String tableType = null;
+            List<CatalogColumn> columns = null;
+            while (resultSet.next()) {
+                if (!resultSet.getString(1).equals(tableName)) {
+                    if (tableName != null) {
+                        tables.add(new CatalogTable(databaseName, tableName, tableType, columns));
+                    }
+                    tableName = resultSet.getString(1);
+                    tableType = "VIEW".equalsIgnoreCase(resultSet.getString(2)) ? CatalogTable.VIEW : CatalogTable.TABLE;
+                    columns = new ArrayList<>();
+                }
+                String columnName = resultSet.getString(3);
+                if (columnName != null) {
+                    columns.add(new CatalogColumn(
+                            columnName,
+                            resultSet.getString(5),
+                            resultSet.getInt(4),
+                            !"NO".equalsIgnoreCase(resultSet.getString(6)),
+                            resultSet.getString(7)
+                    ));
+                }
+            }
+            if (tableName != null) {
+                tables.add(new CatalogTable(databaseName, tableName, tableType, columns));
+            }
+        }
+        return tables;
+    }
+}
@@ -1,30 +1,71 @@
 package io.burt.athena.configuration;
 
+import io.burt.athena.VirtualThreads;
+import io.burt.athena.admission.AdmissionController;
+import io.burt.athena.admission.GovernedAthenaAsyncClient;
+import io.burt.athena.admission.RateGovernor;
+import io.burt.athena.budget.QueryBudget;
+import io.burt.athena.cache.QueryRefresher;
+import io.burt.athena.cache.ResultCache;
+import io.burt.athena.cache.ResultFileCache;
+import io.burt.athena.catalog.Catalog;
+import io.burt.athena.dedup.SingleFlight;
+import io.burt.athena.polling.BatchQueryExecutionPoller;
+import io.burt.athena.polling.PollingScheduler;
 import io.burt.athena.polling.PollingStrategies;
 import io.burt.athena.polling.PollingStrategy;
 import io.burt.athena.result.PreloadingStandardResult;
 import io.burt.athena.result.Result;
+import io.burt.athena.result.ResultBroadcaster;
+import io.burt.athena.routing.HedgingPolicy;
+import io.burt.athena.routing.WorkGroupRouter;
 import io.burt.athena.result.S3Result;
 import io.burt.athena.result.StandardResult;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientAsyncConfiguration;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.providers.DefaultAwsRegionProviderChain;
 import software.amazon.awssdk.services.athena.AthenaAsyncClient;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 
 import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 class ConcreteConnectionConfiguration implements ConnectionConfiguration {
     private final Region awsRegion;
-    private final String databaseName;
-    private final String workGroupName;
-    private final String outputLocation;
-    private final Duration networkTimeout;
-    private final Duration queryTimeout;
     private final ResultLoadingStrategy resultLoadingStrategy;
 
+    private String databaseName;
+    private String workGroupName;
+    private String outputLocation;
+    private Duration networkTimeout;
+    private Duration queryTimeout;
+    private int priority;
+    private String tenant;
+
     private AthenaAsyncClient athenaClient;
     private S3AsyncClient s3Client;
+    private String clientIdentity;
     private PollingStrategy pollingStrategy;
+    private Duration batchPollingInterval;
+    private BatchQueryExecutionPoller batchPoller;
+    private AdmissionController admissionController;
+    private WorkGroupRouter workGroupRouter;
+    private HedgingPolicy hedgingPolicy;
+    private QueryBudget queryBudget;
+    private SingleFlight singleFlight;
+    private ResultBroadcaster resultBroadcaster;
+    private ResultCache resultCache;
+    private Duration resultCacheMaxAge;
+    private ResultFileCache resultFileCache;
+    private QueryRefresher queryRefresher;
+    private boolean localConstantQueries;
+    private Duration catalogCacheTtl;
+    private ExecutorService completionExecutor;
 
     ConcreteConnectionConfiguration(Region awsRegion, String databaseName, String workGroupName, String outputLocation, Duration networkTimeout, Duration queryTimeout, ResultLoadingStrategy resultLoadingStrategy) {
         this.awsRegion = awsRegion;
@@ -33,14 +74,37 @@ class ConcreteConnectionConfiguration implements ConnectionConfiguration {
         this.outputLocation = outputLocation;
         this.networkTimeout = networkTimeout;
         this.queryTimeout = queryTimeout;
+        this.priority = AdmissionController.DEFAULT_PRIORITY;
+        this.tenant = AdmissionController.DEFAULT_TENANT;
+        this.queryBudget = QueryBudget.UNLIMITED;
+        this.resultCacheMaxAge = Duration.ZERO;
+        this.catalogCacheTtl = Catalog.DEFAULT_TTL;
         this.resultLoadingStrategy = resultLoadingStrategy;
     }
 
-    private ConcreteConnectionConfiguration(Region awsRegion, String databaseName, String workGroupName, String outputLocation, Duration networkTimeout, Duration queryTimeout, ResultLoadingStrategy resultLoadingStrategy, AthenaAsyncClient athenaClient, S3AsyncClient s3Client, PollingStrategy pollingStrategy) {
-        this(awsRegion, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy);
-        this.athenaClient = athenaClient;
-        this.s3Client = s3Client;
-        this.pollingStrategy = pollingStrategy;
+    private ConcreteConnectionConfiguration(ConcreteConnectionConfiguration other) {
+        this(other.awsRegion, other.databaseName, other.workGroupName, other.outputLocation, other.networkTimeout, other.queryTimeout, other.resultLoadingStrategy);
+        this.athenaClient = other.athenaClient;
+        this.s3Client = other.s3Client;
+        this.clientIdentity = other.clientIdentity;
+        this.pollingStrategy = other.pollingStrategy;
+        this.batchPollingInterval = other.batchPollingInterval;
+        this.batchPoller = other.batchPoller;
+        this.admissionController = other.admissionController;
+        this.workGroupRouter = other.workGroupRouter;
+        this.hedgingPolicy = other.hedgingPolicy;
+        this.queryBudget = other.queryBudget;
+        this.singleFlight = other.singleFlight;
+        this.resultBroadcaster = other.resultBroadcaster;
+        this.resultCache = other.resultCache;
+        this.resultCacheMaxAge = other.resultCacheMaxAge;
+        this.resultFileCache = other.resultFileCache;
+        this.queryRefresher = other.queryRefresher;
+        this.localConstantQueries = other.localConstantQueries;
+        this.catalogCacheTtl = other.catalogCacheTtl;
+        this.completionExecutor = other.completionExecutor;
+        this.priority = other.priority;
+        this.tenant = other.tenant;
     }
 
     @Override
@@ -66,10 +130,20 @@ class ConcreteConnectionConfiguration implements ConnectionConfiguration {
     @Override
     public Duration queryTimeout() { return queryTimeout; }
 
+    @Override
+    public int priority() {
+        return priority;
+    }
+
+    @Override
+    public String tenant() {
+        return tenant;
+    }
+
     @Override
     public AthenaAsyncClient athenaClient() {
         if (athenaClient == null) {
-            athenaClient = AthenaAsyncClient.builder().region(awsRegion).build();
+            athenaClient = AthenaAsyncClient.builder().region(awsRegion).asyncConfiguration(this::configureAsync).build();
         }
         return athenaClient;
     }
@@ -77,11 +151,48 @@ class ConcreteConnectionConfiguration implements ConnectionConfiguration {
     @Override
     public S3AsyncClient s3Client() {
         if (s3Client == null) {
-            s3Client = S3AsyncClient.builder().region(awsRegion).build();
+            s3Client = S3AsyncClient.builder().region(awsRegion).asyncConfiguration(this::configureAsync).build();
         }
         return s3Client;
     }
 
+    /**
+     * Identifies the AWS account and region that the clients talk to, by the
+     * region and the access key ID of the credentials that the clients use.
+     *
+     * This is used to keep connections that share registries and caches
+     * between them, like a JVM-wide {@link SingleFlight}, from seeing each
+     * other's queries when they use different credentials or regions. The
+     * identity is resolved when it is first needed, and when the region or
+     * credentials can't be resolved it has an empty part, just like the
+     * clients would then fail to make any requests.
+     */
+    @Override
+    public String clientIdentity() {
+        if (clientIdentity == null) {
+            String region;
+            try {
+                region = awsRegion == null ? new DefaultAwsRegionProviderChain().getRegion().id() : awsRegion.id();
+            } catch (SdkClientException e) {
+                region = "";
+            }
+            String accessKeyId;
+            try {
+                accessKeyId = DefaultCredentialsProvider.create().resolveCredentials().accessKeyId();
+            } catch (SdkClientException e) {
+                accessKeyId = "";
+            }
+            clientIdentity = region + '/' + accessKeyId;
+        }
+        return clientIdentity;
+    }
+
+    private void configureAsync(ClientAsyncConfiguration.Builder builder) {
+        if (completionExecutor != null) {
+            builder.advancedOption(SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR, completionExecutor);
+        }
+    }
+
     @Override
     public PollingStrategy pollingStrategy() {
         if (pollingStrategy == null) {
@@ -90,27 +201,257 @@ class ConcreteConnectionConfiguration implements ConnectionConfiguration {
         return pollingStrategy;
     }
 
+    @Override
+    public PollingScheduler pollingScheduler() {
+        return PollingScheduler.shared();
+    }
+
+    @Override
+    public Optional<BatchQueryExecutionPoller> batchQueryExecutionPoller() {
+        return Optional.ofNullable(batchPoller);
+    }
+
+    @Override
+    public Optional<AdmissionController> admissionController() {
+        return Optional.ofNullable(admissionController);
+    }
+
+    @Override
+    public Optional<WorkGroupRouter> workGroupRouter() {
+        return Optional.ofNullable(workGroupRouter);
+    }
+
+    @Override
+    public Optional<HedgingPolicy> hedgingPolicy() {
+        return Optional.ofNullable(hedgingPolicy);
+    }
+
+    @Override
+    public QueryBudget queryBudget() {
+        return queryBudget;
+    }
+
+    @Override
+    public Optional<SingleFlight> singleFlight() {
+        return Optional.ofNullable(singleFlight);
+    }
+
+    @Override
+    public Optional<ResultBroadcaster> resultBroadcaster() {
+        return Optional.ofNullable(resultBroadcaster);
+    }
+
+    @Override
+    public Optional<ResultCache> resultCache() {
+        return Optional.ofNullable(resultCache);
+    }
+
+    @Override
+    public Duration resultCacheMaxAge() {
+        return resultCacheMaxAge;
+    }
+
+    @Override
+    public Optional<ResultFileCache> resultFileCache() {
+        return Optional.ofNullable(resultFileCache);
+    }
+
+    @Override
+    public Optional<QueryRefresher> queryRefresher() {
+        return Optional.ofNullable(queryRefresher);
+    }
+
+    @Override
+    public boolean localConstantQueries() {
+        return localConstantQueries;
+    }
+
+    @Override
+    public Duration catalogCacheTtl() {
+        return catalogCacheTtl;
+    }
+
+    @Override
+    public boolean virtualThreads() {
+        return completionExecutor != null;
+    }
+
     @Override
     public ConnectionConfiguration withDatabaseName(String databaseName) {
-        return new ConcreteConnectionConfiguration(awsRegion, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, athenaClient, s3Client, pollingStrategy);
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.databaseName = databaseName;
+        return configuration;
     }
 
     @Override
     public ConnectionConfiguration withNetworkTimeout(Duration networkTimeout) {
-        return new ConcreteConnectionConfiguration(awsRegion, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, athenaClient, s3Client, pollingStrategy);
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.networkTimeout = networkTimeout;
+        return configuration;
     }
 
     @Override
     public ConnectionConfiguration withQueryTimeout(Duration queryTimeout) {
-        return new ConcreteConnectionConfiguration(awsRegion, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, athenaClient, s3Client, pollingStrategy);
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.queryTimeout = queryTimeout;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withPriority(int priority) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.priority = priority;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withTenant(String tenant) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.tenant = tenant;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withPollingStrategy(PollingStrategy pollingStrategy) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.pollingStrategy = pollingStrategy;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withBatchPollingInterval(Duration interval) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.batchPollingInterval = interval;
+        configuration.batchPoller = new BatchQueryExecutionPoller(configuration.athenaClient(), configuration.pollingScheduler(), interval);
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withAdmissionController(AdmissionController admissionController) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.admissionController = admissionController;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withRateGovernor(RateGovernor rateGovernor) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.athenaClient = new GovernedAthenaAsyncClient(athenaClient(), rateGovernor);
+        if (batchPoller != null) {
+            configuration.batchPoller = new BatchQueryExecutionPoller(configuration.athenaClient, configuration.pollingScheduler(), batchPollingInterval);
+        }
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withWorkGroupRouter(WorkGroupRouter workGroupRouter) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.workGroupRouter = workGroupRouter;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.hedgingPolicy = hedgingPolicy;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withQueryBudget(QueryBudget queryBudget) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.queryBudget = queryBudget == null ? QueryBudget.UNLIMITED : queryBudget;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withSingleFlight(SingleFlight singleFlight) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.singleFlight = singleFlight;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withResultBroadcaster(ResultBroadcaster resultBroadcaster) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.resultBroadcaster = resultBroadcaster;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withResultCache(ResultCache resultCache) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.resultCache = resultCache;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withResultCacheMaxAge(Duration maxAge) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.resultCacheMaxAge = maxAge;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withResultFileCache(ResultFileCache resultFileCache) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.resultFileCache = resultFileCache;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withQueryRefresher(QueryRefresher queryRefresher) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.queryRefresher = queryRefresher;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withLocalConstantQueries(boolean localConstantQueries) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.localConstantQueries = localConstantQueries;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withCatalogCacheTtl(Duration ttl) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.catalogCacheTtl = ttl;
+        return configuration;
+    }
+
+    /**
+     * Makes the AWS SDK complete its futures on virtual threads instead of on
+     * its own thread pool, which means that the callbacks the driver, and its
+     * users, attach to those futures also run on virtual threads.
+     *
+     * This only affects clients that have not been created yet, so it should
+     * be applied before anything that uses the clients.
+     *
+     * @throws UnsupportedOperationException when the JVM does not support
+     *                                       virtual threads
+     */
+    @Override
+    public ConnectionConfiguration withVirtualThreads(boolean virtualThreads) {
+        ConcreteConnectionConfiguration configuration = new ConcreteConnectionConfiguration(this);
+        configuration.completionExecutor = virtualThreads ? VirtualThreads.newExecutor("athena-sdk-completion") : null;
+        return configuration;
     }
 
     @Override
     public Result createResult(QueryExecution queryExecution) {
+        if (resultBroadcaster != null) {
+            return resultBroadcaster.open(queryExecution, () -> createDownloadingResult(queryExecution));
+        } else {
+            return createDownloadingResult(queryExecution);
+        }
+    }
+
+    private Result createDownloadingResult(QueryExecution queryExecution) {
         if (resultLoadingStrategy == ResultLoadingStrategy.GET_EXECUTION_RESULTS) {
             return new PreloadingStandardResult(athenaClient(), queryExecution, StandardResult.MAX_FETCH_SIZE, Duration.ofSeconds(10));
         } else if (resultLoadingStrategy == ResultLoadingStrategy.S3) {
-            return new S3Result(s3Client(), queryExecution, Duration.ofSeconds(10));
+            return new S3Result(s3Client(), queryExecution, Duration.ofSeconds(10), resultFileCache);
         } else {
             throw new IllegalStateException(String.format("No such result loading strategy: %s", queryExecution));
         }
@@ -118,6 +459,10 @@ class ConcreteConnectionConfiguration implements ConnectionConfiguration {
 
     @Override
     public void close() {
+        if (batchPoller != null) {
+            batchPoller.close();
+            batchPoller = null;
+        }
         if (athenaClient != null) {
             athenaClient.close();
             athenaClient = null;
@@ -126,5 +471,9 @@ class ConcreteConnectionConfiguration implements ConnectionConfiguration {
             s3Client.close();
             s3Client = null;
         }
+        if (completionExecutor != null) {
+            completionExecutor.shutdown();
+            completionExecutor = null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,25 @@
 package io.burt.athena.configuration;
 
+import io.burt.athena.admission.AdmissionController;
+import io.burt.athena.admission.RateGovernor;
+import io.burt.athena.budget.QueryBudget;
+import io.burt.athena.cache.QueryRefresher;
+import io.burt.athena.cache.ResultCache;
+import io.burt.athena.cache.ResultFileCache;
+import io.burt.athena.dedup.SingleFlight;
+import io.burt.athena.polling.BatchQueryExecutionPoller;
+import io.burt.athena.polling.PollingScheduler;
 import io.burt.athena.polling.PollingStrategy;
 import io.burt.athena.result.Result;
+import io.burt.athena.result.ResultBroadcaster;
+import io.burt.athena.routing.HedgingPolicy;
+import io.burt.athena.routing.WorkGroupRouter;
 import software.amazon.awssdk.services.athena.AthenaAsyncClient;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 
 import java.time.Duration;
+import java.util.Optional;
 
 public interface ConnectionConfiguration extends AutoCloseable {
     String databaseName();
@@ -19,17 +32,89 @@ public interface ConnectionConfiguration extends AutoCloseable {
 
     Duration queryTimeout();
 
+    int priority();
+
+    String tenant();
+
     AthenaAsyncClient athenaClient();
 
     S3AsyncClient s3Client();
 
+    String clientIdentity();
+
     PollingStrategy pollingStrategy();
 
+    PollingScheduler pollingScheduler();
+
+    Optional<BatchQueryExecutionPoller> batchQueryExecutionPoller();
+
+    Optional<AdmissionController> admissionController();
+
+    Optional<WorkGroupRouter> workGroupRouter();
+
+    Optional<HedgingPolicy> hedgingPolicy();
+
+    QueryBudget queryBudget();
+
+    Optional<SingleFlight> singleFlight();
+
+    Optional<ResultBroadcaster> resultBroadcaster();
+
+    Optional<ResultCache> resultCache();
+
+    Duration resultCacheMaxAge();
+
+    Optional<ResultFileCache> resultFileCache();
+
+    Optional<QueryRefresher> queryRefresher();
+
+    boolean localConstantQueries();
+
+    Duration catalogCacheTtl();
+
+    boolean virtualThreads();
+
     ConnectionConfiguration withDatabaseName(String databaseName);
 
     ConnectionConfiguration withNetworkTimeout(Duration timeout);
 
     ConnectionConfiguration withQueryTimeout(Duration timeout);
 
+    ConnectionConfiguration withPriority(int priority);
+
+    ConnectionConfiguration withTenant(String tenant);
+
+    ConnectionConfiguration withPollingStrategy(PollingStrategy pollingStrategy);
+
+    ConnectionConfiguration withBatchPollingInterval(Duration interval);
+
+    ConnectionConfiguration withAdmissionController(AdmissionController admissionController);
+
+    ConnectionConfiguration withRateGovernor(RateGovernor rateGovernor);
+
+    ConnectionConfiguration withWorkGroupRouter(WorkGroupRouter workGroupRouter);
+
+    ConnectionConfiguration withHedgingPolicy(HedgingPolicy hedgingPolicy);
+
+    ConnectionConfiguration withQueryBudget(QueryBudget queryBudget);
+
+    ConnectionConfiguration withSingleFlight(SingleFlight singleFlight);
+
+    ConnectionConfiguration withResultBroadcaster(ResultBroadcaster resultBroadcaster);
+
+    ConnectionConfiguration withResultCache(ResultCache resultCache);
+
+    ConnectionConfiguration withResultCacheMaxAge(Duration maxAge);
+
+    ConnectionConfiguration withResultFileCache(ResultFileCache resultFileCache);
+
+    ConnectionConfiguration withQueryRefresher(QueryRefresher queryRefresher);
+
+    ConnectionConfiguration withLocalConstantQueries(boolean localConstantQueries);
+
+    ConnectionConfiguration withCatalogCacheTtl(Duration ttl);
+
+    ConnectionConfiguration withVirtualThreads(boolean virtualThreads);
+
     Result createResult(QueryExecution queryExecution);
 }
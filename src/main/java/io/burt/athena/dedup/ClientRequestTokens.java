@@ -0,0 +1,111 @@
+package io.burt.athena.dedup;
+
+import io.burt.athena.sql.SqlNormalizer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Client request token providers that derive the token from the query.
+ *
+ * Athena returns the existing query execution when it gets a request with a
+ * client request token that it has already seen, instead of starting a new
+ * one. Providers from this class give the same token to the same query, run in
+ * the same database and work group, on any node, so that nodes that run the
+ * same query at around the same time end up sharing one query execution.
+ *
+ * Queries are the same when they have the same
+ * {@link SqlNormalizer#normalize(String) canonical form}. With a freshness
+ * window the token also changes when the window changes, and the windows are
+ * aligned to the epoch, so all nodes with synchronized clocks agree on when a
+ * window starts. A query run in a new window gets a new query execution, so
+ * results are at most about one window old.
+ *
+ * Only {@link SqlNormalizer#isReadOnly(String) read-only} queries get a
+ * token. Other statements get no token, which makes the SDK generate a
+ * random one, since a write that is run again must not silently be answered
+ * with the earlier execution.
+ *
+ * @see io.burt.athena.AthenaStatement#setClientRequestTokenProvider(Function)
+ */
+public class ClientRequestTokens {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private ClientRequestTokens() {
+    }
+
+    /**
+     * Returns a provider that gives the same query the same token for as
+     * long as Athena remembers the token.
+     *
+     * @param databaseName the database the queries are run in
+     * @param workGroupName the work group the queries are run in
+     * @return a client request token provider
+     */
+    public static Function<String, Optional<String>> deterministic(String databaseName, String workGroupName) {
+        return sql -> readOnlyToken(databaseName, workGroupName, sql, 0);
+    }
+
+    /**
+     * Returns a provider that gives the same query the same token within
+     * each freshness window.
+     *
+     * @param databaseName the database the queries are run in
+     * @param workGroupName the work group the queries are run in
+     * @param freshnessWindow how long queries share a query execution
+     * @return a client request token provider
+     */
+    public static Function<String, Optional<String>> deterministic(String databaseName, String workGroupName, Duration freshnessWindow) {
+        return deterministic(databaseName, workGroupName, freshnessWindow, Clock.systemUTC());
+    }
+
+    /**
+     * Like {@link #deterministic(String, String, Duration)}, but with the
+     * windows determined by the given clock.
+     */
+    public static Function<String, Optional<String>> deterministic(String databaseName, String workGroupName, Duration freshnessWindow, Clock clock) {
+        if (freshnessWindow.isNegative() || freshnessWindow.isZero()) {
+            throw new IllegalArgumentException("The freshness window must be positive");
+        }
+        return sql -> readOnlyToken(databaseName, workGroupName, sql, windowNumber(clock.instant(), freshnessWindow));
+    }
+
+    private static Optional<String> readOnlyToken(String databaseName, String workGroupName, String sql, long windowNumber) {
+        if (SqlNormalizer.isReadOnly(sql)) {
+            return Optional.of(token(databaseName, workGroupName, sql, windowNumber));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    static long windowNumber(Instant instant, Duration freshnessWindow) {
+        return Math.floorDiv(instant.toEpochMilli(), freshnessWindow.toMillis());
+    }
+
+    /**
+     * @return the hex encoded SHA-256 of the query and its context, which is
+     *         64 characters and within the limits Athena places on tokens
+     */
+    static String token(String databaseName, String workGroupName, String sql, long windowNumber) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        String input = String.valueOf(databaseName) + '\u0000' + workGroupName + '\u0000' + windowNumber + '\u0000' + SqlNormalizer.normalize(sql);
+        byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,180 @@
+package io.burt.athena.dedup;
+
+import io.burt.athena.sql.SqlNormalizer;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Lets identical queries that are executed at the same time share one query
+ * execution.
+ *
+ * The first execution of a query becomes the leader of a flight: it starts
+ * the query execution and polls it as usual. Executions of the same query that
+ * join the flight while it is in the air don't start query executions of
+ * their own, they wait for the leader to see the query execution complete and
+ * then read its output. Queries are the same when they have the same
+ * {@link SqlNormalizer#normalize(String) canonical form} and run in the same
+ * database and work group with the same output location, through clients
+ * with the same region and credentials. Only
+ * {@link SqlNormalizer#isReadOnly(String) read-only} queries should share
+ * executions, since a statement that writes is expected to run every time
+ * it is executed.
+ *
+ * A flight lands when the query execution completes, and executions that
+ * start after that start a new query execution, so results are never older
+ * than the time the execution started.
+ */
+public class SingleFlight {
+    private static SingleFlight sharedInstance;
+
+    private final ConcurrentMap<String, Execution> executionsByKey;
+    private final ConcurrentMap<String, Execution> executionsByQueryExecutionId;
+
+    public SingleFlight() {
+        this.executionsByKey = new ConcurrentHashMap<>();
+        this.executionsByQueryExecutionId = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the JVM-wide registry.
+     *
+     * @return a registry shared by all connections in this JVM
+     */
+    public static synchronized SingleFlight shared() {
+        if (sharedInstance == null) {
+            sharedInstance = new SingleFlight();
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * @param clientIdentity the region and credentials of the client that
+     *                       runs the query, see
+     *                       {@link io.burt.athena.configuration.ConnectionConfiguration#clientIdentity()}
+     * @return the key that identifies executions of the same query
+     */
+    public static String key(String clientIdentity, String databaseName, String workGroupName, String outputLocation, String sql) {
+        return clientIdentity + '\u0000' + databaseName + '\u0000' + workGroupName + '\u0000' + outputLocation + '\u0000' + SqlNormalizer.normalize(sql);
+    }
+
+    /**
+     * Joins the flight of a query, or starts a new flight with the caller as
+     * its leader when there is no flight for the query.
+     *
+     * The caller must call {@link Flight#finish()} when its execution is
+     * done, whether it succeeded or not.
+     *
+     * @param key the key of the query, see {@link #key(String, String, String, String, String)}
+     * @return the caller's place in the flight
+     */
+    public Flight join(String key) {
+        Execution execution = new Execution(key);
+        Execution existing = executionsByKey.putIfAbsent(key, execution);
+        if (existing == null) {
+            return new Flight(execution, true);
+        } else {
+            return new Flight(existing, false);
+        }
+    }
+
+    /**
+     * Lands the flight of a query execution that has completed, if there is
+     * one, and lets the executions that follow it read its output.
+     *
+     * @param queryExecution a query execution in a final state
+     */
+    public void completed(QueryExecution queryExecution) {
+        Execution execution = executionsByQueryExecutionId.remove(queryExecution.queryExecutionId());
+        if (execution != null) {
+            executionsByKey.remove(execution.key, execution);
+            execution.completion.complete(Optional.of(queryExecution));
+        }
+    }
+
+    int inFlightCount() {
+        return executionsByKey.size();
+    }
+
+    private static class Execution {
+        private final String key;
+        private final CompletableFuture<String> queryExecutionId;
+        private final CompletableFuture<Optional<QueryExecution>> completion;
+
+        Execution(String key) {
+            this.key = key;
+            this.queryExecutionId = new CompletableFuture<>();
+            this.completion = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * An execution's place in a flight.
+     */
+    public class Flight {
+        private final Execution execution;
+        private final boolean leader;
+
+        private Flight(Execution execution, boolean leader) {
+            this.execution = execution;
+            this.leader = leader;
+        }
+
+        /**
+         * @return whether or not the caller should start the query execution
+         */
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * Called by the leader when it has started the query execution.
+         *
+         * @param queryExecutionId the ID of the query execution
+         */
+        public void started(String queryExecutionId) {
+            if (leader) {
+                executionsByQueryExecutionId.put(queryExecutionId, execution);
+                execution.queryExecutionId.complete(queryExecutionId);
+            }
+        }
+
+        /**
+         * @return a future that completes with the ID of the query execution
+         *         when the leader has started it, or with <code>null</code>
+         *         when the leader failed to start it
+         */
+        public CompletableFuture<String> queryExecutionId() {
+            return execution.queryExecutionId;
+        }
+
+        /**
+         * @return a future that completes with the query execution in its
+         *         final state, or with empty when the leader stopped polling
+         *         before it completed, in which case the followers have to
+         *         poll it themselves
+         */
+        public CompletableFuture<Optional<QueryExecution>> completion() {
+            return execution.completion;
+        }
+
+        /**
+         * Called by the leader when its execution is done. Executions that
+         * join after this start a new flight.
+         */
+        public void finish() {
+            if (leader) {
+                executionsByKey.remove(execution.key, execution);
+                String id = execution.queryExecutionId.getNow(null);
+                if (id != null) {
+                    executionsByQueryExecutionId.remove(id, execution);
+                }
+                execution.queryExecutionId.complete(null);
+                execution.completion.complete(Optional.empty());
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package io.burt.athena.polling;
+
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+@FunctionalInterface
+public interface AsyncPollingCallback {
+    CompletableFuture<Optional<ResultSet>> poll(Instant deadline);
+}
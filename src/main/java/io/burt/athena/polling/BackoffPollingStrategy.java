@@ -6,6 +6,7 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -50,11 +51,22 @@ class BackoffPollingStrategy implements PollingStrategy {
                 return resultSet.get();
             } else {
                 sleeper.sleep(sleepDuration(nextDelay, clock.instant(), deadline));
-                nextDelay = nextDelay.multipliedBy(factor);
-                if (nextDelay.compareTo(maxDelay) > 0) {
-                    nextDelay = maxDelay;
-                }
+                nextDelay = increaseDelay(nextDelay);
             }
         }
     }
+
+    @Override
+    public CompletableFuture<ResultSet> pollUntilCompletedAsync(AsyncPollingCallback callback, Instant deadline, PollingScheduler scheduler) {
+        return new ScheduledPolling(this, callback, deadline, scheduler, clock, this::increaseDelay).start(firstDelay);
+    }
+
+    private Duration increaseDelay(Duration delay) {
+        Duration nextDelay = delay.multipliedBy(factor);
+        if (nextDelay.compareTo(maxDelay) > 0) {
+            return maxDelay;
+        } else {
+            return nextDelay;
+        }
+    }
 }
@@ -0,0 +1,278 @@
+package io.burt.athena.polling;
+
+import software.amazon.awssdk.services.athena.AthenaAsyncClient;
+import software.amazon.awssdk.services.athena.model.BatchGetQueryExecutionResponse;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+import software.amazon.awssdk.services.athena.model.UnprocessedQueryExecutionId;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Polls the status of many query executions with as few API calls as
+ * possible.
+ *
+ * Instead of each statement calling <code>GetQueryExecution</code> for its
+ * own query, statements register the query execution ID with the poller and
+ * wait for it to complete. On a fixed cadence the poller collects all IDs that
+ * are still waiting and refreshes them with <code>BatchGetQueryExecution</code>,
+ * {@value #MAX_BATCH_SIZE} at a time. This keeps the number of API calls
+ * proportional to the number of in-flight queries divided by the batch size,
+ * instead of to the number of in-flight queries.
+ *
+ * The poller only schedules work while there are queries waiting.
+ */
+public class BatchQueryExecutionPoller implements AutoCloseable {
+    public static final int MAX_BATCH_SIZE = 50;
+
+    static final int MAX_UNPROCESSED_ATTEMPTS = 3;
+
+    static final int MAX_FAILED_ATTEMPTS = 3;
+
+    private final AthenaAsyncClient athenaClient;
+    private final PollingScheduler scheduler;
+    private final Duration interval;
+    private final ConcurrentMap<String, Waiter> waiters;
+    private final AtomicBoolean scheduled;
+    private volatile boolean open;
+
+    public BatchQueryExecutionPoller(AthenaAsyncClient athenaClient, PollingScheduler scheduler, Duration interval) {
+        this.athenaClient = athenaClient;
+        this.scheduler = scheduler;
+        this.interval = interval;
+        this.waiters = new ConcurrentHashMap<>();
+        this.scheduled = new AtomicBoolean(false);
+        this.open = true;
+    }
+
+    /**
+     * Registers a query execution and returns a future that completes when the
+     * query execution reaches a final state.
+     *
+     * The future completes with the query execution in its final state, which
+     * can be <code>SUCCEEDED</code>, <code>FAILED</code> or
+     * <code>CANCELLED</code>. It completes exceptionally if the status of the
+     * query execution could not be retrieved {@value #MAX_FAILED_ATTEMPTS}
+     * times in a row.
+     *
+     * Cancelling the returned future stops the polling for the query
+     * execution, but does not stop the query execution itself.
+     *
+     * @param queryExecutionId the ID of the query execution to wait for
+     * @return a future that completes when the query execution completes
+     */
+    public CompletableFuture<QueryExecution> awaitCompletion(String queryExecutionId) {
+        return awaitCompletion(queryExecutionId, queryExecution -> false);
+    }
+
+    /**
+     * Registers a query execution and returns a future that completes when the
+     * query execution reaches a final state, or as soon as a refreshed status
+     * matches a condition.
+     *
+     * This works like {@link #awaitCompletion(String)}, but the future can
+     * also complete with the query execution in a state that is not final,
+     * which is used for example to stop queries that go over their budget
+     * while they run.
+     *
+     * @param queryExecutionId the ID of the query execution to wait for
+     * @param stopWaitingWhen the condition, which is tested against every
+     *                        refreshed status of the query execution that is
+     *                        not final
+     * @return a future that completes when the query execution completes or
+     *         matches the condition
+     */
+    public CompletableFuture<QueryExecution> awaitCompletion(String queryExecutionId, Predicate<QueryExecution> stopWaitingWhen) {
+        if (!open) {
+            CompletableFuture<QueryExecution> future = new CompletableFuture<>();
+            future.completeExceptionally(new SQLException("Poller is closed"));
+            return future;
+        }
+        CompletableFuture<QueryExecution> future = new CompletableFuture<>();
+        Waiter waiter;
+        do {
+            waiter = waiters.computeIfAbsent(queryExecutionId, id -> new Waiter());
+        } while (!waiter.add(future, stopWaitingWhen));
+        Waiter registeredWaiter = waiter;
+        future.whenComplete((queryExecution, error) -> {
+            if (future.isCancelled() && registeredWaiter.remove(future)) {
+                waiters.remove(queryExecutionId, registeredWaiter);
+            }
+        });
+        ensureScheduled();
+        return future;
+    }
+
+    int pendingCount() {
+        return waiters.size();
+    }
+
+    private void ensureScheduled() {
+        if (open && !waiters.isEmpty() && scheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::refresh, interval);
+        }
+    }
+
+    private void refresh() {
+        List<String> queryExecutionIds = new ArrayList<>(waiters.keySet());
+        List<CompletableFuture<?>> batches = new ArrayList<>();
+        for (int offset = 0; offset < queryExecutionIds.size(); offset += MAX_BATCH_SIZE) {
+            List<String> batch = queryExecutionIds.subList(offset, Math.min(offset + MAX_BATCH_SIZE, queryExecutionIds.size()));
+            batches.add(refreshBatch(new ArrayList<>(batch)));
+        }
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).whenComplete((v, e) -> {
+            scheduled.set(false);
+            ensureScheduled();
+        });
+    }
+
+    private CompletableFuture<?> refreshBatch(List<String> queryExecutionIds) {
+        CompletableFuture<BatchGetQueryExecutionResponse> response;
+        try {
+            response = athenaClient.batchGetQueryExecution(b -> b.queryExecutionIds(queryExecutionIds));
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        return response.handle((r, error) -> {
+            if (error == null) {
+                handleResponse(r);
+            } else {
+                for (String queryExecutionId : queryExecutionIds) {
+                    Waiter waiter = waiters.get(queryExecutionId);
+                    if (waiter != null && ++waiter.failedAttempts >= MAX_FAILED_ATTEMPTS) {
+                        fail(queryExecutionId, error);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private void handleResponse(BatchGetQueryExecutionResponse response) {
+        for (QueryExecution queryExecution : response.queryExecutions()) {
+            Waiter waiter = waiters.get(queryExecution.queryExecutionId());
+            if (waiter != null) {
+                waiter.unprocessedAttempts = 0;
+                waiter.failedAttempts = 0;
+                if (isCompleted(queryExecution)) {
+                    if (waiters.remove(queryExecution.queryExecutionId(), waiter)) {
+                        waiter.complete(queryExecution);
+                    }
+                } else if (waiter.completeMatching(queryExecution)) {
+                    waiters.remove(queryExecution.queryExecutionId(), waiter);
+                }
+            }
+        }
+        for (UnprocessedQueryExecutionId unprocessed : response.unprocessedQueryExecutionIds()) {
+            Waiter waiter = waiters.get(unprocessed.queryExecutionId());
+            if (waiter != null) {
+                waiter.failedAttempts = 0;
+            }
+            if (waiter != null && ++waiter.unprocessedAttempts >= MAX_UNPROCESSED_ATTEMPTS) {
+                fail(unprocessed.queryExecutionId(), new SQLException(String.format("Could not get the status of query execution %s: %s", unprocessed.queryExecutionId(), unprocessed.errorMessage()), unprocessed.errorCode()));
+            }
+        }
+    }
+
+    private boolean isCompleted(QueryExecution queryExecution) {
+        QueryExecutionState state = queryExecution.status().state();
+        return state == QueryExecutionState.SUCCEEDED || state == QueryExecutionState.FAILED || state == QueryExecutionState.CANCELLED;
+    }
+
+    private void fail(String queryExecutionId, Throwable error) {
+        Waiter waiter = waiters.remove(queryExecutionId);
+        if (waiter != null) {
+            waiter.fail(error);
+        }
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        for (String queryExecutionId : new ArrayList<>(waiters.keySet())) {
+            fail(queryExecutionId, new SQLException("Poller is closed"));
+        }
+    }
+
+    private static class Waiter {
+        private final List<CompletableFuture<QueryExecution>> futures = new ArrayList<>(1);
+        private final Map<CompletableFuture<QueryExecution>, Predicate<QueryExecution>> conditions = new HashMap<>(1);
+        private boolean done = false;
+        private volatile int unprocessedAttempts = 0;
+        private volatile int failedAttempts = 0;
+
+        synchronized boolean add(CompletableFuture<QueryExecution> future, Predicate<QueryExecution> condition) {
+            if (done) {
+                return false;
+            } else {
+                futures.add(future);
+                conditions.put(future, condition);
+                return true;
+            }
+        }
+
+        synchronized boolean remove(CompletableFuture<QueryExecution> future) {
+            futures.remove(future);
+            conditions.remove(future);
+            if (futures.isEmpty()) {
+                done = true;
+            }
+            return done;
+        }
+
+        void complete(QueryExecution queryExecution) {
+            for (CompletableFuture<QueryExecution> future : snapshot()) {
+                future.complete(queryExecution);
+            }
+        }
+
+        /**
+         * Completes the futures whose conditions match the query execution.
+         *
+         * @return true when no futures are left waiting
+         */
+        boolean completeMatching(QueryExecution queryExecution) {
+            List<CompletableFuture<QueryExecution>> matching = new ArrayList<>();
+            boolean empty;
+            synchronized (this) {
+                for (CompletableFuture<QueryExecution> future : futures) {
+                    if (conditions.get(future).test(queryExecution)) {
+                        matching.add(future);
+                    }
+                }
+                futures.removeAll(matching);
+                conditions.keySet().removeAll(matching);
+                empty = !matching.isEmpty() && futures.isEmpty();
+                if (empty) {
+                    done = true;
+                }
+            }
+            for (CompletableFuture<QueryExecution> future : matching) {
+                future.complete(queryExecution);
+            }
+            return empty;
+        }
+
+        void fail(Throwable error) {
+            for (CompletableFuture<QueryExecution> future : snapshot()) {
+                future.completeExceptionally(error);
+            }
+        }
+
+        private synchronized List<CompletableFuture<QueryExecution>> snapshot() {
+            done = true;
+            return new ArrayList<>(futures);
+        }
+    }
+}
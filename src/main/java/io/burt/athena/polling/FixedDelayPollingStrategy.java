@@ -6,6 +6,7 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -36,4 +37,9 @@ public class FixedDelayPollingStrategy implements PollingStrategy {
             }
         }
     }
+
+    @Override
+    public CompletableFuture<ResultSet> pollUntilCompletedAsync(AsyncPollingCallback callback, Instant deadline, PollingScheduler scheduler) {
+        return new ScheduledPolling(this, callback, deadline, scheduler, clock, d -> d).start(delay);
+    }
 }
@@ -0,0 +1,104 @@
+package io.burt.athena.polling;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A timer that drives asynchronous polling.
+ *
+ * Instead of parking one thread per in-flight query, asynchronous executions
+ * schedule their next poll on a scheduler like this one. The tasks it runs are
+ * expected to be short – they issue a non-blocking API call and return – so a
+ * handful of threads can drive thousands of concurrent queries.
+ *
+ * Most applications should use {@link #shared()}, which is created on first use
+ * and runs on daemon threads.
+ */
+public class PollingScheduler implements AutoCloseable {
+    private static final int SHARED_THREAD_COUNT = 2;
+
+    private static PollingScheduler sharedInstance;
+
+    private final ScheduledExecutorService executor;
+
+    public PollingScheduler(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the JVM-wide scheduler.
+     *
+     * @return a scheduler shared by all connections in this JVM
+     */
+    public static synchronized PollingScheduler shared() {
+        if (sharedInstance == null) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(SHARED_THREAD_COUNT, new DaemonThreadFactory());
+            executor.setRemoveOnCancelPolicy(true);
+            sharedInstance = new PollingScheduler(Executors.unconfigurableScheduledExecutorService(executor));
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Runs a task after a delay.
+     *
+     * @param task the task to run
+     * @param delay how long to wait before running the task
+     * @return a future that can be used to cancel the task
+     */
+    public ScheduledFuture<?> schedule(Runnable task, Duration delay) {
+        return executor.schedule(task, Math.max(0, delay.toNanos()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns a future that completes like the given future, or with a
+     * {@link TimeoutException} if the given future has not completed within
+     * the timeout.
+     *
+     * @param future the future to wait for
+     * @param timeout the maximum time to wait
+     * @param <T> the type of the future's value
+     * @return a future that completes with the same value as the given future,
+     *         or exceptionally when the timeout expires
+     */
+    public <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, Duration timeout) {
+        if (future.isDone()) {
+            return future;
+        }
+        CompletableFuture<T> timedFuture = new CompletableFuture<>();
+        ScheduledFuture<?> timer = schedule(() -> timedFuture.completeExceptionally(new TimeoutException("operation did not complete within " + timeout)), timeout);
+        future.whenComplete((value, error) -> {
+            timer.cancel(false);
+            if (error == null) {
+                timedFuture.complete(value);
+            } else {
+                timedFuture.completeExceptionally(error);
+            }
+        });
+        return timedFuture;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "athena-polling-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -18,4 +18,16 @@ public class PollingStrategies {
     public static PollingStrategy backoff(Duration firstDelay, Duration maxDelay, long factor) {
         return new BackoffPollingStrategy(firstDelay, maxDelay, factor);
     }
+
+    public static PollingStrategy predictive() {
+        return predictive(backoff(Duration.ofMillis(10), Duration.ofSeconds(5)));
+    }
+
+    public static PollingStrategy predictive(PollingStrategy fallback) {
+        return predictive(fallback, Duration.ofMillis(50), Duration.ofSeconds(5));
+    }
+
+    public static PollingStrategy predictive(PollingStrategy fallback, Duration minDelay, Duration maxDelay) {
+        return new PredictivePollingStrategy(fallback, minDelay, maxDelay);
+    }
 }
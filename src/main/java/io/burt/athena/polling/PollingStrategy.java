@@ -1,15 +1,76 @@
 package io.burt.athena.polling;
 
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 public interface PollingStrategy {
     ResultSet pollUntilCompleted(PollingCallback callback, Instant deadline) throws SQLException, TimeoutException, ExecutionException, InterruptedException;
 
+    /**
+     * Polls until the callback produces a result set, without blocking the
+     * calling thread.
+     *
+     * The built in strategies schedule each poll on the given scheduler using
+     * the same delays as {@link #pollUntilCompleted(PollingCallback, Instant)}.
+     * This default implementation exists for custom strategies that only
+     * implement the blocking variant, and runs that on a pool thread.
+     *
+     * @param callback the callback that performs a poll
+     * @param deadline the time after which polling fails with a
+     *                 {@link TimeoutException}
+     * @param scheduler the scheduler that drives the polling
+     * @return a future that completes with the result set, or exceptionally
+     *         with the exception thrown by the callback or a
+     *         {@link TimeoutException}
+     */
+    default CompletableFuture<ResultSet> pollUntilCompletedAsync(AsyncPollingCallback callback, Instant deadline, PollingScheduler scheduler) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return pollUntilCompleted(d -> callback.poll(d).get(), deadline);
+            } catch (ExecutionException e) {
+                throw new CompletionException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            } catch (SQLException | TimeoutException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns the strategy to use when polling for a specific query.
+     *
+     * Strategies that adapt to the queries they poll for can return a
+     * strategy tailored to the query. The default implementation returns this
+     * strategy.
+     *
+     * @param sql the SQL of the query that will be polled for
+     * @return the strategy to poll with
+     */
+    default PollingStrategy forQuery(String sql) {
+        return this;
+    }
+
+    /**
+     * Called when a query has succeeded, to let strategies that adapt to the
+     * queries they poll for learn from its statistics.
+     *
+     * The default implementation does nothing.
+     *
+     * @param queryExecution the query execution of the query that succeeded
+     */
+    default void recordCompletion(QueryExecution queryExecution) {
+    }
+
     default Duration sleepDuration(Duration desired, Instant now, Instant deadline) throws TimeoutException {
         Duration beforeDeadline = Duration.between(now, deadline);
         if (beforeDeadline.compareTo(desired) < 0) {
@@ -0,0 +1,212 @@
+package io.burt.athena.polling;
+
+import io.burt.athena.sql.SqlNormalizer;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionStatistics;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A polling strategy that predicts when a query will complete from how long
+ * similar queries took before.
+ *
+ * Queries are grouped by their fingerprint (see
+ * {@link SqlNormalizer#fingerprint(String)}), and for each fingerprint the
+ * strategy keeps a smoothed mean and deviation of the total execution time
+ * reported in the statistics of succeeded queries. When polling for a query
+ * with a known fingerprint it sleeps until two deviations before the predicted
+ * completion, polls densely until two deviations after it, and then backs off
+ * if the query runs longer than expected. Queries with unknown fingerprints
+ * are polled with a fallback strategy.
+ */
+class PredictivePollingStrategy implements PollingStrategy {
+    static final int DEFAULT_MAX_FINGERPRINTS = 1000;
+
+    private static final double MEAN_GAIN = 0.125;
+    private static final double DEVIATION_GAIN = 0.25;
+    private static final int DEVIATIONS = 2;
+
+    private final PollingStrategy fallback;
+    private final Duration minDelay;
+    private final Duration maxDelay;
+    private final Sleeper sleeper;
+    private final Clock clock;
+    private final Map<String, LatencyEstimate> estimates;
+
+    PredictivePollingStrategy(PollingStrategy fallback, Duration minDelay, Duration maxDelay) {
+        this(fallback, minDelay, maxDelay, DEFAULT_MAX_FINGERPRINTS, duration -> TimeUnit.MILLISECONDS.sleep(duration.toMillis()), Clock.systemDefaultZone());
+    }
+
+    PredictivePollingStrategy(PollingStrategy fallback, Duration minDelay, Duration maxDelay, int maxFingerprints, Sleeper sleeper, Clock clock) {
+        this.fallback = fallback;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.sleeper = sleeper;
+        this.clock = clock;
+        this.estimates = new LinkedHashMap<String, LatencyEstimate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LatencyEstimate> eldest) {
+                return size() > maxFingerprints;
+            }
+        };
+    }
+
+    @Override
+    public ResultSet pollUntilCompleted(PollingCallback callback, Instant deadline) throws SQLException, TimeoutException, ExecutionException, InterruptedException {
+        return fallback.pollUntilCompleted(callback, deadline);
+    }
+
+    @Override
+    public CompletableFuture<ResultSet> pollUntilCompletedAsync(AsyncPollingCallback callback, Instant deadline, PollingScheduler scheduler) {
+        return fallback.pollUntilCompletedAsync(callback, deadline, scheduler);
+    }
+
+    @Override
+    public PollingStrategy forQuery(String sql) {
+        Optional<LatencyEstimate> estimate = estimate(SqlNormalizer.fingerprint(sql));
+        if (estimate.isPresent()) {
+            return new PredictedPolling(estimate.get());
+        } else {
+            return fallback.forQuery(sql);
+        }
+    }
+
+    @Override
+    public void recordCompletion(QueryExecution queryExecution) {
+        fallback.recordCompletion(queryExecution);
+        Optional<Duration> executionTime = executionTime(queryExecution.statistics());
+        if (queryExecution.query() != null && executionTime.isPresent()) {
+            String fingerprint = SqlNormalizer.fingerprint(queryExecution.query());
+            synchronized (estimates) {
+                LatencyEstimate estimate = estimates.get(fingerprint);
+                if (estimate == null) {
+                    estimates.put(fingerprint, LatencyEstimate.initial(executionTime.get()));
+                } else {
+                    estimates.put(fingerprint, estimate.update(executionTime.get()));
+                }
+            }
+        }
+    }
+
+    Optional<LatencyEstimate> estimate(String fingerprint) {
+        synchronized (estimates) {
+            return Optional.ofNullable(estimates.get(fingerprint));
+        }
+    }
+
+    private static Optional<Duration> executionTime(QueryExecutionStatistics statistics) {
+        if (statistics == null) {
+            return Optional.empty();
+        } else if (statistics.totalExecutionTimeInMillis() != null) {
+            return Optional.of(Duration.ofMillis(statistics.totalExecutionTimeInMillis()));
+        } else if (statistics.engineExecutionTimeInMillis() != null) {
+            long millis = statistics.engineExecutionTimeInMillis();
+            if (statistics.queryQueueTimeInMillis() != null) {
+                millis += statistics.queryQueueTimeInMillis();
+            }
+            return Optional.of(Duration.ofMillis(millis));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    static class LatencyEstimate {
+        private final double meanMillis;
+        private final double deviationMillis;
+
+        LatencyEstimate(double meanMillis, double deviationMillis) {
+            this.meanMillis = meanMillis;
+            this.deviationMillis = deviationMillis;
+        }
+
+        static LatencyEstimate initial(Duration sample) {
+            return new LatencyEstimate(sample.toMillis(), sample.toMillis() / 2.0);
+        }
+
+        LatencyEstimate update(Duration sample) {
+            double error = sample.toMillis() - meanMillis;
+            double newDeviation = deviationMillis + DEVIATION_GAIN * (Math.abs(error) - deviationMillis);
+            double newMean = meanMillis + MEAN_GAIN * error;
+            return new LatencyEstimate(newMean, newDeviation);
+        }
+
+        Duration mean() {
+            return Duration.ofMillis(Math.round(meanMillis));
+        }
+
+        Duration deviation() {
+            return Duration.ofMillis(Math.round(deviationMillis));
+        }
+
+        Duration earliestCompletion() {
+            return Duration.ofMillis(Math.max(0, Math.round(meanMillis - DEVIATIONS * deviationMillis)));
+        }
+
+        Duration latestCompletion() {
+            return Duration.ofMillis(Math.round(meanMillis + DEVIATIONS * deviationMillis));
+        }
+    }
+
+    private class PredictedPolling implements PollingStrategy {
+        private final Duration earliestCompletion;
+        private final Duration latestCompletion;
+        private final Duration denseDelay;
+
+        PredictedPolling(LatencyEstimate estimate) {
+            this.earliestCompletion = estimate.earliestCompletion();
+            this.latestCompletion = estimate.latestCompletion();
+            this.denseDelay = clamp(estimate.deviation().dividedBy(4));
+        }
+
+        @Override
+        public ResultSet pollUntilCompleted(PollingCallback callback, Instant deadline) throws SQLException, TimeoutException, ExecutionException, InterruptedException {
+            Instant start = clock.instant();
+            while (true) {
+                Optional<ResultSet> resultSet = callback.poll(deadline);
+                if (resultSet.isPresent()) {
+                    return resultSet.get();
+                } else {
+                    sleeper.sleep(sleepDuration(delayAt(Duration.between(start, clock.instant())), clock.instant(), deadline));
+                }
+            }
+        }
+
+        @Override
+        public CompletableFuture<ResultSet> pollUntilCompletedAsync(AsyncPollingCallback callback, Instant deadline, PollingScheduler scheduler) {
+            Instant start = clock.instant();
+            return new ScheduledPolling(this, callback, deadline, scheduler, clock, delay -> delayAt(Duration.between(start, clock.instant()))).start(delayAt(Duration.ZERO));
+        }
+
+        private Duration delayAt(Duration elapsed) {
+            if (elapsed.compareTo(earliestCompletion) < 0) {
+                Duration untilEarliestCompletion = earliestCompletion.minus(elapsed);
+                return untilEarliestCompletion.compareTo(minDelay) < 0 ? minDelay : untilEarliestCompletion;
+            } else if (elapsed.compareTo(latestCompletion) <= 0) {
+                return denseDelay;
+            } else {
+                return clamp(elapsed.minus(latestCompletion));
+            }
+        }
+    }
+
+    private Duration clamp(Duration delay) {
+        if (delay.compareTo(minDelay) < 0) {
+            return minDelay;
+        } else if (delay.compareTo(maxDelay) > 0) {
+            return maxDelay;
+        } else {
+            return delay;
+        }
+    }
+}
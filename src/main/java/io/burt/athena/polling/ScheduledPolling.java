@@ -0,0 +1,73 @@
+package io.burt.athena.polling;
+
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.UnaryOperator;
+
+class ScheduledPolling {
+    private final PollingStrategy strategy;
+    private final AsyncPollingCallback callback;
+    private final Instant deadline;
+    private final PollingScheduler scheduler;
+    private final Clock clock;
+    private final UnaryOperator<Duration> nextDelay;
+    private final CompletableFuture<ResultSet> result;
+
+    ScheduledPolling(PollingStrategy strategy, AsyncPollingCallback callback, Instant deadline, PollingScheduler scheduler, Clock clock, UnaryOperator<Duration> nextDelay) {
+        this.strategy = strategy;
+        this.callback = callback;
+        this.deadline = deadline;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.nextDelay = nextDelay;
+        this.result = new CompletableFuture<>();
+    }
+
+    CompletableFuture<ResultSet> start(Duration firstDelay) {
+        poll(firstDelay);
+        return result;
+    }
+
+    private void poll(Duration delay) {
+        if (result.isDone()) {
+            return;
+        }
+        CompletableFuture<Optional<ResultSet>> pollFuture;
+        try {
+            pollFuture = callback.poll(deadline);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        pollFuture.whenComplete((resultSet, error) -> {
+            if (error != null) {
+                result.completeExceptionally(unwrap(error));
+            } else if (resultSet.isPresent()) {
+                result.complete(resultSet.get());
+            } else {
+                try {
+                    Duration sleepDuration = strategy.sleepDuration(delay, clock.instant(), deadline);
+                    scheduler.schedule(() -> poll(nextDelay.apply(delay)), sleepDuration);
+                } catch (TimeoutException e) {
+                    result.completeExceptionally(e);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        } else {
+            return error;
+        }
+    }
+}
@@ -1,20 +1,30 @@
 package io.burt.athena.result;
 
 import io.burt.athena.AthenaResultSetMetaData;
-import io.burt.athena.result.protobuf.BinaryField;
-import io.burt.athena.result.protobuf.Field;
-import io.burt.athena.result.protobuf.IntegerField;
-import io.burt.athena.result.protobuf.VeryBasicProtobufParser;
+import io.burt.athena.result.protobuf.ProtobufReader;
 import software.amazon.awssdk.services.athena.model.ColumnInfo;
 import software.amazon.awssdk.services.athena.model.ColumnNullable;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
 import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Parses the metadata file that Athena writes next to a result.
+ *
+ * The file is a protobuf message that contains the query execution ID and
+ * the columns of the result. Queries that are run again and again, like
+ * those behind dashboards, return results with the same columns, so the
+ * decoded columns are cached, in a cache shared by the whole JVM, keyed by
+ * the bytes that describe them. When the columns of a result are in the
+ * cache parsing its metadata only scans the top level of the message.
+ */
 public class AthenaMetaDataParser {
     private static final int COLUMNS_FIELD = 4;
     private static final int CATALOG_NAME_FIELD = 1;
@@ -26,59 +36,111 @@ public class AthenaMetaDataParser {
     private static final int NULLABLE_FIELD = 9;
     private static final int CASE_SENSITIVE_FIELD = 10;
 
+    private static final int MAX_CACHED_SCHEMAS = 256;
+
+    private static final Map<ByteBuffer, ResultSetMetadata> SCHEMAS = Collections.synchronizedMap(new LinkedHashMap<ByteBuffer, ResultSetMetadata>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, ResultSetMetadata> eldest) {
+            return size() > MAX_CACHED_SCHEMAS;
+        }
+    });
+
     private final QueryExecution queryExecution;
+    private final Map<ByteBuffer, ResultSetMetadata> schemas;
 
     public AthenaMetaDataParser(QueryExecution queryExecution) {
+        this(queryExecution, SCHEMAS);
+    }
+
+    AthenaMetaDataParser(QueryExecution queryExecution, Map<ByteBuffer, ResultSetMetadata> schemas) {
         this.queryExecution = queryExecution;
+        this.schemas = schemas;
     }
 
+    /**
+     * @param buffer the contents of the metadata file, from its position to
+     *               its limit, which are not modified
+     * @return the metadata of the result
+     */
     public AthenaResultSetMetaData parse(ByteBuffer buffer) {
-        VeryBasicProtobufParser parser = new VeryBasicProtobufParser();
-        List<Field> fields = parser.parse(buffer);
-        List<ColumnInfo> columns = new LinkedList<>();
-        for (Field field : fields) {
-            if (field.getNumber() == COLUMNS_FIELD) {
-                byte[] contents = ((BinaryField) field).getContents();
-                List<Field> parse = parser.parse(contents);
-                ColumnInfo columnInfo = fieldsToColumn(parse);
-                columns.add(columnInfo);
+        ByteBuffer columnsBytes = columnsBytes(buffer);
+        ResultSetMetadata metaData = schemas.get(columnsBytes);
+        if (metaData == null) {
+            metaData = ResultSetMetadata.builder().columnInfo(parseColumns(columnsBytes)).build();
+            schemas.put(copy(columnsBytes), metaData);
+        }
+        return new AthenaResultSetMetaData(queryExecution, metaData);
+    }
+
+    /**
+     * The columns are a repeated field, so they are usually next to each
+     * other. The key is the part of the message from the first to the end
+     * of the last column, which leaves out the query execution ID.
+     */
+    private ByteBuffer columnsBytes(ByteBuffer buffer) {
+        ProtobufReader reader = new ProtobufReader(buffer);
+        int start = -1;
+        int end = -1;
+        while (reader.next()) {
+            if (reader.fieldNumber() == COLUMNS_FIELD) {
+                if (start < 0) {
+                    start = reader.fieldStart();
+                }
+                end = reader.fieldEnd();
             }
         }
-        return new AthenaResultSetMetaData(queryExecution, ResultSetMetadata.builder().columnInfo(columns).build());
+        ByteBuffer columnsBytes = buffer.duplicate();
+        if (start < 0) {
+            ((Buffer) columnsBytes).limit(columnsBytes.position());
+        } else {
+            ((Buffer) columnsBytes).limit(end);
+            ((Buffer) columnsBytes).position(start);
+        }
+        return columnsBytes.slice();
     }
 
-    private String fieldToString(Field field) {
-        return new String(((BinaryField) field).getContents(), StandardCharsets.UTF_8);
+    private static ByteBuffer copy(ByteBuffer buffer) {
+        ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+        copy.put(buffer.duplicate());
+        ((Buffer) copy).flip();
+        return copy.asReadOnlyBuffer();
     }
 
-    private int fieldToInt(Field field) {
-        return (int) ((IntegerField) field).getValue();
+    private List<ColumnInfo> parseColumns(ByteBuffer columnsBytes) {
+        List<ColumnInfo> columns = new ArrayList<>();
+        ProtobufReader reader = new ProtobufReader(columnsBytes);
+        while (reader.next()) {
+            if (reader.fieldNumber() == COLUMNS_FIELD) {
+                columns.add(parseColumn(new ProtobufReader(reader.contents())));
+            }
+        }
+        return columns;
     }
 
-    private ColumnInfo fieldsToColumn(List<Field> fields) {
+    private ColumnInfo parseColumn(ProtobufReader reader) {
         ColumnInfo.Builder builder = ColumnInfo.builder();
-        for (Field field : fields) {
-            switch (field.getNumber()) {
+        while (reader.next()) {
+            switch (reader.fieldNumber()) {
                 case CATALOG_NAME_FIELD:
-                    builder.catalogName(fieldToString(field));
+                    builder.catalogName(reader.stringValue());
                     break;
                 case NAME_FIELD:
-                    builder.name(fieldToString(field));
+                    builder.name(reader.stringValue());
                     break;
                 case LABEL_FIELD:
-                    builder.label(fieldToString(field));
+                    builder.label(reader.stringValue());
                     break;
                 case TYPE_FIELD:
-                    builder.type(fieldToString(field));
+                    builder.type(reader.stringValue());
                     break;
                 case PRECISION_FIELD:
-                    builder.precision(fieldToInt(field));
+                    builder.precision((int) reader.longValue());
                     break;
                 case SCALE_FIELD:
-                    builder.scale(fieldToInt(field));
+                    builder.scale((int) reader.longValue());
                     break;
                 case NULLABLE_FIELD:
-                    int v = fieldToInt(field);
+                    long v = reader.longValue();
                     if (v == 1) {
                         builder.nullable(ColumnNullable.NOT_NULL);
                     } else if (v == 2) {
@@ -88,7 +150,7 @@ public class AthenaMetaDataParser {
                     }
                     break;
                 case CASE_SENSITIVE_FIELD:
-                    builder.caseSensitive(fieldToInt(field) == 1);
+                    builder.caseSensitive(reader.longValue() == 1);
                     break;
             }
         }
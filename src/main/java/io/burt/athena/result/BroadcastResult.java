@@ -0,0 +1,139 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.StatementCancelledException;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A cursor over a result that is shared through a {@link ResultBroadcaster}.
+ */
+class BroadcastResult implements Result {
+    private final ResultBroadcaster.Broadcast broadcast;
+    private final AtomicBoolean active;
+
+    private ResultBroadcaster.Segment segment;
+    private int index;
+    private String[] currentRow;
+    private int rowNumber;
+    private boolean afterLast;
+    private boolean open;
+    private volatile boolean cancelled;
+
+    BroadcastResult(ResultBroadcaster.Broadcast broadcast, ResultBroadcaster.Segment first) {
+        this.broadcast = broadcast;
+        this.active = new AtomicBoolean(true);
+        this.segment = first;
+        this.index = -1;
+        this.currentRow = null;
+        this.rowNumber = 0;
+        this.afterLast = false;
+        this.open = true;
+        this.cancelled = false;
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return broadcast.getFetchSize();
+    }
+
+    @Override
+    public void setFetchSize(int newFetchSize) {
+    }
+
+    @Override
+    public AthenaResultSetMetaData getMetaData() throws SQLException {
+        return broadcast.getMetaData();
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * Moves to the next segment with rows, when the current segment has no
+     * more rows.
+     *
+     * @return false when there are no more rows
+     */
+    private boolean ensureRow() throws SQLException {
+        while (index + 1 >= segment.rows.size()) {
+            if (segment.last) {
+                return false;
+            }
+            broadcast.loadAfter(segment);
+            if (segment.next == null) {
+                return false;
+            }
+            segment = segment.next;
+            index = -1;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (cancelled) {
+            throw new StatementCancelledException("The result was cancelled");
+        }
+        if (afterLast) {
+            return false;
+        }
+        if (ensureRow()) {
+            index++;
+            currentRow = segment.rows.get(index);
+            rowNumber++;
+            return true;
+        } else {
+            currentRow = null;
+            afterLast = true;
+            return false;
+        }
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        return currentRow[columnIndex - 1];
+    }
+
+    @Override
+    public ResultPosition getPosition() throws SQLException {
+        if (rowNumber == 0) {
+            return ResultPosition.BEFORE_FIRST;
+        } else if (afterLast) {
+            return ResultPosition.AFTER_LAST;
+        } else if (rowNumber == 1) {
+            return ResultPosition.FIRST;
+        } else if (ensureRow()) {
+            return ResultPosition.MIDDLE;
+        } else {
+            return ResultPosition.LAST;
+        }
+    }
+
+    /**
+     * Makes this cursor fail with a {@link StatementCancelledException} on
+     * the next call to {@link #next()}. The shared download is only
+     * cancelled when this was the last cursor that was not closed or
+     * cancelled.
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
+        if (active.compareAndSet(true, false)) {
+            broadcast.cancelCursor();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (open) {
+            open = false;
+            segment = null;
+            currentRow = null;
+            broadcast.closeCursor(active.getAndSet(false));
+        }
+    }
+}
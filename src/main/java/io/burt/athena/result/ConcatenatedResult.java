@@ -0,0 +1,43 @@
+package io.burt.athena.result;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A merged result that returns the rows of the splits one split after the
+ * other, in the order that their executions complete.
+ */
+public class ConcatenatedResult extends MergedResult {
+    private int remainingSplits;
+    private SplitReader currentReader;
+
+    public ConcatenatedResult(List<CompletableFuture<? extends ResultSet>> splits) {
+        this(splits, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ConcatenatedResult(List<CompletableFuture<? extends ResultSet>> splits, int bufferSize) {
+        super(splits, bufferSize);
+        this.remainingSplits = splitCount();
+        this.currentReader = null;
+    }
+
+    @Override
+    protected String[] nextMergedRow() throws SQLException, InterruptedException {
+        while (true) {
+            if (currentReader != null) {
+                String[] row = currentReader.take();
+                if (row != null) {
+                    return row;
+                }
+                currentReader = null;
+            }
+            if (remainingSplits == 0) {
+                return null;
+            }
+            remainingSplits--;
+            currentReader = reader(takeCompletedSplit());
+        }
+    }
+}
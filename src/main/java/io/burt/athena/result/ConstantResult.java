@@ -0,0 +1,76 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A result with rows that are known without running a query.
+ */
+public class ConstantResult implements Result {
+    private final AthenaResultSetMetaData metaData;
+    private final List<String[]> rows;
+    private int rowNumber;
+
+    public ConstantResult(AthenaResultSetMetaData metaData, String[] row) {
+        this(metaData, Collections.singletonList(row));
+    }
+
+    public ConstantResult(AthenaResultSetMetaData metaData, List<String[]> rows) {
+        this.metaData = metaData;
+        this.rows = rows;
+        this.rowNumber = 0;
+    }
+
+    @Override
+    public int getFetchSize() {
+        return rows.size();
+    }
+
+    @Override
+    public void setFetchSize(int newFetchSize) {
+    }
+
+    @Override
+    public AthenaResultSetMetaData getMetaData() {
+        return metaData;
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public boolean next() {
+        if (rowNumber <= rows.size()) {
+            rowNumber++;
+        }
+        return rowNumber <= rows.size();
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        return rows.get(rowNumber - 1)[columnIndex - 1];
+    }
+
+    @Override
+    public ResultPosition getPosition() {
+        if (rowNumber == 0) {
+            return ResultPosition.BEFORE_FIRST;
+        } else if (rowNumber > rows.size()) {
+            return ResultPosition.AFTER_LAST;
+        } else if (rowNumber == 1) {
+            return ResultPosition.FIRST;
+        } else if (rowNumber == rows.size()) {
+            return ResultPosition.LAST;
+        } else {
+            return ResultPosition.MIDDLE;
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,266 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.StatementCancelledException;
+import io.burt.athena.VirtualThreads;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A result that combines the results of several query executions, the
+ * splits.
+ *
+ * Each split is read by a background thread as soon as its execution has
+ * completed, so the splits are downloaded in parallel while the merged
+ * result is consumed. Only a bounded number of rows per split are buffered.
+ *
+ * Subclasses decide in which order the rows of the splits are returned.
+ */
+public abstract class MergedResult implements Result {
+    public static final int DEFAULT_BUFFER_SIZE = 1000;
+
+    private static final Integer CLOSED = -1;
+
+    private final List<CompletableFuture<? extends ResultSet>> splits;
+    private final LinkedBlockingQueue<Integer> completedSplits;
+    private final List<CompletableFuture<SplitReader>> readers;
+    private final ExecutorService executor;
+    private final int bufferSize;
+
+    private AthenaResultSetMetaData metaData;
+    private String[] currentRow;
+    private String[] nextRow;
+    private boolean nextRowLoaded;
+    private int rowNumber;
+    private boolean open;
+    private volatile boolean cancelled;
+
+    protected MergedResult(List<CompletableFuture<? extends ResultSet>> splits, int bufferSize) {
+        if (splits.isEmpty()) {
+            throw new IllegalArgumentException("At least one split is required");
+        }
+        this.splits = new ArrayList<>(splits);
+        this.completedSplits = new LinkedBlockingQueue<>();
+        this.readers = new ArrayList<>(splits.size());
+        this.bufferSize = bufferSize;
+        this.executor = Executors.newFixedThreadPool(splits.size(), VirtualThreads.blockingThreadFactory("athena-split-reader"));
+        this.currentRow = null;
+        this.nextRow = null;
+        this.nextRowLoaded = false;
+        this.rowNumber = 0;
+        this.open = true;
+        this.cancelled = false;
+        for (int i = 0; i < this.splits.size(); i++) {
+            this.readers.add(new CompletableFuture<>());
+        }
+        for (int i = 0; i < this.splits.size(); i++) {
+            int index = i;
+            this.splits.get(i).whenComplete((resultSet, error) -> splitCompleted(index, resultSet, error));
+        }
+    }
+
+    private synchronized void splitCompleted(int index, ResultSet resultSet, Throwable error) {
+        if (error != null) {
+            readers.get(index).completeExceptionally(error);
+        } else if (open) {
+            readers.get(index).complete(new SplitReader(resultSet, bufferSize, executor));
+        } else {
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                // the result set was never used
+            }
+        }
+        completedSplits.add(index);
+    }
+
+    /**
+     * @return the number of splits
+     */
+    protected int splitCount() {
+        return splits.size();
+    }
+
+    /**
+     * Waits for the next split to complete.
+     *
+     * @return the index of a split whose execution has completed, in the order
+     *         the executions completed
+     * @throws SQLException when the result is cancelled or closed while
+     *                      waiting
+     */
+    protected int takeCompletedSplit() throws SQLException, InterruptedException {
+        Integer index = completedSplits.take();
+        if (index.equals(CLOSED)) {
+            completedSplits.add(CLOSED);
+            throw closedException();
+        }
+        return index;
+    }
+
+    /**
+     * Waits for a split's execution to complete and returns its reader.
+     *
+     * @param index the index of the split
+     * @return the reader of the split
+     * @throws SQLException when the split's execution failed, or when the
+     *                      result is cancelled or closed while waiting
+     */
+    protected SplitReader reader(int index) throws SQLException, InterruptedException {
+        try {
+            return readers.get(index).get();
+        } catch (ExecutionException e) {
+            throw toSQLException(e.getCause());
+        } catch (CancellationException e) {
+            throw closedException();
+        }
+    }
+
+    /**
+     * @return the next row of the merged result, or null when all splits have
+     *         been consumed
+     */
+    protected abstract String[] nextMergedRow() throws SQLException, InterruptedException;
+
+    private SQLException closedException() {
+        if (cancelled) {
+            return new StatementCancelledException("The merged result was cancelled");
+        } else {
+            return new SQLException("The merged result is closed");
+        }
+    }
+
+    static SQLException toSQLException(Throwable t) {
+        Throwable cause = t;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof SQLException) {
+            return (SQLException) cause;
+        } else {
+            return new SQLException(cause);
+        }
+    }
+
+    @Override
+    public int getFetchSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public void setFetchSize(int newFetchSize) {
+    }
+
+    @Override
+    public AthenaResultSetMetaData getMetaData() throws SQLException {
+        if (metaData == null) {
+            try {
+                int index = 0;
+                while (true) {
+                    try {
+                        metaData = reader(index).getMetaData();
+                        break;
+                    } catch (SQLException e) {
+                        if (++index == splitCount()) {
+                            throw e;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException(e);
+            }
+        }
+        return metaData;
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    private void loadNextRow() throws SQLException {
+        if (!nextRowLoaded) {
+            try {
+                nextRow = nextMergedRow();
+                nextRowLoaded = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException(e);
+            }
+        }
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        loadNextRow();
+        if (cancelled) {
+            throw new StatementCancelledException("The merged result was cancelled");
+        }
+        currentRow = nextRow;
+        nextRow = null;
+        nextRowLoaded = false;
+        if (currentRow == null) {
+            return false;
+        } else {
+            rowNumber++;
+            return true;
+        }
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        return currentRow[columnIndex - 1];
+    }
+
+    @Override
+    public ResultPosition getPosition() throws SQLException {
+        if (rowNumber == 0) {
+            return ResultPosition.BEFORE_FIRST;
+        } else if (currentRow == null) {
+            return ResultPosition.AFTER_LAST;
+        } else if (rowNumber == 1) {
+            return ResultPosition.FIRST;
+        } else {
+            loadNextRow();
+            return nextRow == null ? ResultPosition.LAST : ResultPosition.MIDDLE;
+        }
+    }
+
+    /**
+     * Stops reading the splits and cancels the executions that have not
+     * completed. A thread waiting for the next row is woken up and fails.
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
+        close();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            open = false;
+            for (CompletableFuture<SplitReader> reader : readers) {
+                if (!reader.cancel(true) && !reader.isCompletedExceptionally()) {
+                    reader.join().close();
+                }
+            }
+        }
+        for (CompletableFuture<? extends ResultSet> split : splits) {
+            split.cancel(true);
+        }
+        completedSplits.add(CLOSED);
+        executor.shutdown();
+    }
+}
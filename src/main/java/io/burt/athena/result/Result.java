@@ -18,4 +18,15 @@ public interface Result extends AutoCloseable {
     String getString(int columnIndex) throws SQLException;
 
     ResultPosition getPosition() throws SQLException;
+
+    /**
+     * Aborts loading the result, from any thread.
+     *
+     * Results that download their rows should stop the download and free its
+     * buffers, and make a thread that is waiting for rows fail with a
+     * {@link io.burt.athena.StatementCancelledException}. The default
+     * implementation does nothing.
+     */
+    default void cancel() {
+    }
 }
@@ -0,0 +1,275 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Lets several readers of the result of the same query execution share one
+ * download.
+ *
+ * The first reader of a query execution's result creates the result that
+ * downloads and parses it, and readers that open the same result while the
+ * first reader is still on its first segment of rows become cursors over the
+ * same download. The rows are parsed once, into segments that are shared by
+ * the cursors, and each cursor keeps its own position. Only the segments that
+ * some cursor has not passed yet are kept in memory, since the segments are
+ * only reachable from the cursors that are positioned on or before them.
+ *
+ * Rows are downloaded by whichever cursor first needs them, so there are no
+ * background threads, but a cursor that is far ahead of the others keeps the
+ * segments in between in memory until the others catch up or are closed.
+ */
+public class ResultBroadcaster {
+    public static final int DEFAULT_SEGMENT_SIZE = 1000;
+
+    private static ResultBroadcaster sharedInstance;
+
+    private final ConcurrentMap<String, Broadcast> broadcasts;
+    private final int segmentSize;
+
+    public ResultBroadcaster(int segmentSize) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("The segment size must be positive");
+        }
+        this.broadcasts = new ConcurrentHashMap<>();
+        this.segmentSize = segmentSize;
+    }
+
+    public ResultBroadcaster() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Returns the JVM-wide broadcaster.
+     *
+     * @return a broadcaster shared by all connections in this JVM
+     */
+    public static synchronized ResultBroadcaster shared() {
+        if (sharedInstance == null) {
+            sharedInstance = new ResultBroadcaster();
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Opens a cursor over the result of a query execution.
+     *
+     * @param queryExecution the query execution whose result to read
+     * @param resultFactory creates the result that downloads the rows, when
+     *                      there is no download that the cursor can join
+     * @return a result with its own position
+     */
+    public Result open(QueryExecution queryExecution, Supplier<Result> resultFactory) {
+        String queryExecutionId = queryExecution.queryExecutionId();
+        while (true) {
+            Broadcast broadcast = broadcasts.computeIfAbsent(queryExecutionId, id -> new Broadcast(id, resultFactory.get()));
+            BroadcastResult cursor = broadcast.openCursor();
+            if (cursor != null) {
+                return cursor;
+            }
+            broadcasts.remove(queryExecutionId, broadcast);
+        }
+    }
+
+    int broadcastCount() {
+        return broadcasts.size();
+    }
+
+    static class Segment {
+        final List<String[]> rows;
+        Segment next;
+        boolean last;
+
+        Segment(List<String[]> rows) {
+            this.rows = rows;
+            this.next = null;
+            this.last = false;
+        }
+    }
+
+    /**
+     * One download that is shared by any number of cursors.
+     */
+    class Broadcast {
+        private final String queryExecutionId;
+        private final Result source;
+        private final ReentrantLock lock;
+        private final AtomicInteger activeCursors;
+
+        private Segment head;
+        private Segment tail;
+        private AthenaResultSetMetaData metaData;
+        private SQLException failure;
+        private int openCursors;
+        private boolean sourceClosed;
+        private volatile boolean sourceCancelled;
+
+        Broadcast(String queryExecutionId, Result source) {
+            this.queryExecutionId = queryExecutionId;
+            this.source = source;
+            this.lock = new ReentrantLock();
+            this.activeCursors = new AtomicInteger(0);
+            this.head = new Segment(new ArrayList<>(0));
+            this.tail = head;
+            this.openCursors = 0;
+            this.sourceClosed = false;
+            this.sourceCancelled = false;
+        }
+
+        /**
+         * @return a new cursor positioned before the first row, or null when
+         *         the first rows have already been released, or when all
+         *         cursors have been cancelled
+         */
+        private BroadcastResult openCursor() {
+            lock.lock();
+            try {
+                if (head == null || sourceCancelled || sourceClosed && !tail.last) {
+                    return null;
+                }
+                int active = activeCursors.get();
+                while (true) {
+                    if (active == 0 && openCursors > 0) {
+                        return null;
+                    } else if (activeCursors.compareAndSet(active, active + 1)) {
+                        break;
+                    }
+                    active = activeCursors.get();
+                }
+                openCursors++;
+                return new BroadcastResult(this, head);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        AthenaResultSetMetaData getMetaData() throws SQLException {
+            lock.lock();
+            try {
+                if (metaData == null) {
+                    metaData = source.getMetaData();
+                }
+                return metaData;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int getFetchSize() throws SQLException {
+            return source.getFetchSize();
+        }
+
+        /**
+         * Makes sure that the segment after the given one has been loaded,
+         * unless the given segment is the last.
+         */
+        void loadAfter(Segment segment) throws SQLException {
+            lock.lock();
+            try {
+                if (segment.next != null || segment.last) {
+                    return;
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                if (sourceClosed) {
+                    throw new SQLException("The result has been closed");
+                }
+                if (segment != head && head != null) {
+                    head = null;
+                    broadcasts.remove(queryExecutionId, this);
+                }
+                int columnCount = getMetaData().getColumnCount();
+                List<String[]> rows = new ArrayList<>(segmentSize);
+                boolean last = false;
+                try {
+                    while (rows.size() < segmentSize) {
+                        if (source.next()) {
+                            String[] row = new String[columnCount];
+                            for (int i = 0; i < columnCount; i++) {
+                                row[i] = source.getString(i + 1);
+                            }
+                            rows.add(row);
+                        } else {
+                            last = true;
+                            break;
+                        }
+                    }
+                } catch (SQLException e) {
+                    failure = e;
+                    throw e;
+                }
+                Segment next = new Segment(rows);
+                next.last = last;
+                segment.next = next;
+                tail = next;
+                if (last) {
+                    closeSource();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Called when a cursor is cancelled. The download is only cancelled
+         * when no cursor that has not been cancelled remains open.
+         *
+         * This does not take the lock, since the lock is held by the cursor
+         * that is downloading, which can be the one that is being cancelled.
+         */
+        void cancelCursor() {
+            if (activeCursors.decrementAndGet() == 0) {
+                cancelSource();
+            }
+        }
+
+        /**
+         * @param active whether the cursor had not been cancelled
+         */
+        void closeCursor(boolean active) throws SQLException {
+            lock.lock();
+            try {
+                openCursors--;
+                boolean lastActive = active && activeCursors.decrementAndGet() == 0;
+                if (openCursors == 0) {
+                    head = null;
+                    broadcasts.remove(queryExecutionId, this);
+                    closeSource();
+                } else if (lastActive) {
+                    cancelSource();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void cancelSource() {
+            sourceCancelled = true;
+            broadcasts.remove(queryExecutionId, this);
+            source.cancel();
+        }
+
+        private void closeSource() throws SQLException {
+            if (!sourceClosed) {
+                sourceClosed = true;
+                try {
+                    source.close();
+                } catch (SQLException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new SQLException(e);
+                }
+            }
+        }
+    }
+}
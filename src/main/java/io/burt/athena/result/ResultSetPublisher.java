@@ -0,0 +1,219 @@
+package io.burt.athena.result;
+
+import io.burt.athena.VirtualThreads;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the rows of a result set as a Reactive Streams publisher.
+ *
+ * Rows are only read from the result set when the subscriber has requested
+ * them, apart from the one row that is read ahead to find the end of the
+ * rows, so a slow subscriber stops the reading, which in turn stops the
+ * download of the result once its read-ahead buffer is full. Each row is an
+ * array with the value of each column as returned by
+ * {@link ResultSet#getString(int)}.
+ *
+ * Reading the result set blocks, so it is done on the given executor and
+ * never on the thread that calls {@link Subscription#request(long)}. The
+ * default executor uses virtual threads when the JVM supports them. The
+ * publisher can only be subscribed to once, since the result set can only be
+ * read once, and the result set is closed when the publisher completes, fails
+ * or is cancelled.
+ */
+public class ResultSetPublisher implements Publisher<String[]> {
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(VirtualThreads.blockingThreadFactory("athena-result-publisher"));
+
+    private final ResultSet resultSet;
+    private final Executor executor;
+    private final Runnable abort;
+    private final AtomicBoolean subscribed;
+
+    /**
+     * @param resultSet the result set to publish
+     * @param executor the executor to read the result set on
+     * @param abort called when the subscription is cancelled, from the
+     *              cancelling thread, to stop a read that is in progress
+     */
+    public ResultSetPublisher(ResultSet resultSet, Executor executor, Runnable abort) {
+        this.resultSet = resultSet;
+        this.executor = executor;
+        this.abort = abort;
+        this.subscribed = new AtomicBoolean(false);
+    }
+
+    public ResultSetPublisher(ResultSet resultSet, Runnable abort) {
+        this(resultSet, DEFAULT_EXECUTOR, abort);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super String[]> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("The subscriber must not be null");
+        }
+        if (subscribed.compareAndSet(false, true)) {
+            RowSubscription subscription = new RowSubscription(subscriber);
+            subscriber.onSubscribe(subscription);
+        } else {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("A result set can only be published to one subscriber"));
+        }
+    }
+
+    private class RowSubscription implements Subscription, Runnable {
+        private final Subscriber<? super String[]> subscriber;
+        private final AtomicLong demand;
+        private final AtomicInteger scheduled;
+
+        private volatile boolean done;
+        private volatile Throwable invalidRequest;
+        private String[] nextRow;
+
+        RowSubscription(Subscriber<? super String[]> subscriber) {
+            this.subscriber = subscriber;
+            this.demand = new AtomicLong(0);
+            this.scheduled = new AtomicInteger(0);
+            this.done = false;
+            this.invalidRequest = null;
+            this.nextRow = null;
+        }
+
+        @Override
+        public void request(long n) {
+            if (done) {
+                return;
+            }
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException(String.format("The number of requested rows must be positive, was %d", n));
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            if (!done) {
+                done = true;
+                abort.run();
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * Reads and emits rows while there is demand. Only one thread runs
+         * this at a time, and it keeps going as long as there are new
+         * requests, so that the subscriber is signalled serially.
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            while (true) {
+                drain();
+                missed = scheduled.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void drain() {
+            if (done) {
+                closeQuietly();
+                return;
+            }
+            if (invalidRequest != null) {
+                fail(invalidRequest);
+                return;
+            }
+            try {
+                int columnCount = resultSet.getMetaData().getColumnCount();
+                while (demand.get() > 0 && !done) {
+                    String[] row = nextRow == null ? readRow(columnCount) : nextRow;
+                    nextRow = null;
+                    if (row == null) {
+                        complete();
+                        return;
+                    }
+                    long remaining = demand.decrementAndGet();
+                    subscriber.onNext(row);
+                    if (remaining == 0 && !done) {
+                        nextRow = readRow(columnCount);
+                        if (nextRow == null) {
+                            complete();
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * @return the next row, or null when there are no more rows
+         */
+        private String[] readRow(int columnCount) throws SQLException {
+            if (resultSet.next()) {
+                String[] row = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = resultSet.getString(i + 1);
+                }
+                return row;
+            } else {
+                return null;
+            }
+        }
+
+        /**
+         * Signals the end of the rows. When the demand runs out, one row is
+         * read ahead to find out if that was the last row, so that the
+         * subscriber is completed without having to request more, since a
+         * publisher does not need demand to complete.
+         */
+        private void complete() {
+            done = true;
+            closeQuietly();
+            subscriber.onComplete();
+        }
+
+        private void fail(Throwable t) {
+            if (!done) {
+                done = true;
+                closeQuietly();
+                subscriber.onError(t);
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                // the subscriber is no longer interested in the result set
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package io.burt.athena.result;
 
 import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.StatementCancelledException;
+import io.burt.athena.cache.ResultFileCache;
 import io.burt.athena.result.csv.VeryBasicCsvParser;
 import io.burt.athena.result.s3.ByteBufferResponseTransformer;
 import io.burt.athena.result.s3.GetObjectInputStreamTransformer;
@@ -13,10 +15,13 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
 import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -32,17 +37,31 @@ public class S3Result implements Result {
     private final String bucketName;
     private final String key;
     private final Duration timeout;
+    private final ResultFileCache fileCache;
 
     private ResponseParser responseParser;
+    private volatile boolean cancelled;
+    private volatile GetObjectInputStreamTransformer transformer;
+    private volatile CompletableFuture<ResponseParser> startFuture;
     private String[] currentRow;
     private int rowNumber;
 
     public S3Result(S3AsyncClient s3Client, QueryExecution queryExecution, Duration timeout) {
+        this(s3Client, queryExecution, timeout, null);
+    }
+
+    /**
+     * @param fileCache a cache to read the result from, and to add it to when
+     *                  it is downloaded, or null to always download it
+     */
+    public S3Result(S3AsyncClient s3Client, QueryExecution queryExecution, Duration timeout, ResultFileCache fileCache) {
         this.s3Client = s3Client;
         this.queryExecution = queryExecution;
         this.timeout = timeout;
+        this.fileCache = fileCache;
         this.currentRow = null;
         this.rowNumber = 0;
+        this.cancelled = false;
         Matcher matcher = S3_URI_PATTERN.matcher(queryExecution.resultConfiguration().outputLocation());
         if (matcher.matches()) {
             this.bucketName = matcher.group(1);
@@ -64,14 +83,34 @@ public class S3Result implements Result {
     private void start() throws SQLException, InterruptedException {
         try {
             AthenaMetaDataParser metaDataParser = new AthenaMetaDataParser(queryExecution);
-            CompletableFuture<AthenaResultSetMetaData> metadataFuture = s3Client.getObject(b -> b.bucket(bucketName).key(key + ".metadata"), new ByteBufferResponseTransformer()).thenApply(metaDataParser::parse);
+            if (startFromCache(metaDataParser)) {
+                return;
+            }
+            CompletableFuture<ByteBuffer> metadataFuture = s3Client.getObject(b -> b.bucket(bucketName).key(key + ".metadata"), new ByteBufferResponseTransformer());
             GetObjectRequest.Builder requestBuilder = GetObjectRequest.builder().bucket(bucketName).key(key);
-            CompletableFuture<InputStream> responseStreamFuture = s3Client.getObject(requestBuilder.build(), new GetObjectInputStreamTransformer(s3Client,requestBuilder, timeout));
-            CompletableFuture<ResponseParser> combinedFuture = metadataFuture.thenCombine(responseStreamFuture, (metaData, responseStream) -> new ResponseParser(responseStream, metaData));
+            GetObjectInputStreamTransformer currentTransformer = new GetObjectInputStreamTransformer(s3Client, requestBuilder, timeout);
+            transformer = currentTransformer;
+            CompletableFuture<InputStream> responseStreamFuture = s3Client.getObject(requestBuilder.build(), currentTransformer);
+            CompletableFuture<ResponseParser> combinedFuture = metadataFuture.thenCombine(responseStreamFuture, (metaDataBuffer, responseStream) -> {
+                AthenaResultSetMetaData metaData = metaDataParser.parse(metaDataBuffer.duplicate());
+                if (fileCache != null) {
+                    responseStream = fileCache.recording(queryExecution.queryExecutionId(), metaDataBuffer, responseStream, currentTransformer::eTag);
+                }
+                return new ResponseParser(responseStream, metaData);
+            });
+            startFuture = combinedFuture;
+            if (cancelled) {
+                cancel();
+            }
             responseParser = combinedFuture.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
             responseParser.next();
             rowNumber = 0;
+        } catch (CancellationException e) {
+            throw cancelledException();
         } catch (ExecutionException e) {
+            if (cancelled) {
+                throw cancelledException();
+            }
             SQLException ee = new SQLException(e.getCause());
             ee.addSuppressed(e);
             throw ee;
@@ -88,6 +127,24 @@ public class S3Result implements Result {
         }
     }
 
+    private boolean startFromCache(AthenaMetaDataParser metaDataParser) throws SQLException {
+        if (fileCache == null) {
+            return false;
+        }
+        Optional<ResultFileCache.ResultFiles> files = fileCache.get(queryExecution.queryExecutionId());
+        if (!files.isPresent()) {
+            return false;
+        }
+        try {
+            responseParser = new ResponseParser(files.get().openData(), metaDataParser.parse(files.get().metaData()));
+        } catch (IOException e) {
+            throw new SQLException(e);
+        }
+        responseParser.next();
+        rowNumber = 0;
+        return true;
+    }
+
     @Override
     public AthenaResultSetMetaData getMetaData() throws SQLException {
         if (responseParser == null) {
@@ -116,10 +173,15 @@ public class S3Result implements Result {
                 throw new SQLException(e);
             }
         }
+        if (cancelled) {
+            throw cancelledException();
+        }
         try {
             currentRow = responseParser.next();
         } catch (RuntimeException e) {
-            if (!(e.getCause() instanceof RuntimeException)) {
+            if (cancelled) {
+                throw cancelledException();
+            } else if (!(e.getCause() instanceof RuntimeException)) {
                 SQLException ee = new SQLException(e.getCause());
                 ee.addSuppressed(e);
                 throw ee;
@@ -155,6 +217,23 @@ public class S3Result implements Result {
         }
     }
 
+    @Override
+    public void cancel() {
+        cancelled = true;
+        GetObjectInputStreamTransformer currentTransformer = transformer;
+        if (currentTransformer != null) {
+            currentTransformer.cancel();
+        }
+        CompletableFuture<ResponseParser> currentStartFuture = startFuture;
+        if (currentStartFuture != null) {
+            currentStartFuture.cancel(false);
+        }
+    }
+
+    private StatementCancelledException cancelledException() {
+        return new StatementCancelledException(String.format("The download of the result of query execution %s was cancelled", queryExecution.queryExecutionId()));
+    }
+
     @Override
     public void close() throws SQLException {
         try {
@@ -0,0 +1,43 @@
+package io.burt.athena.result;
+
+/**
+ * A column that the rows of a scatter-gather execution are sorted on.
+ *
+ * @see io.burt.athena.AthenaStatement#executeScatter(String, java.util.List, java.util.List)
+ */
+public class SortColumn {
+    private final int columnIndex;
+    private final boolean descending;
+
+    private SortColumn(int columnIndex, boolean descending) {
+        if (columnIndex < 1) {
+            throw new IllegalArgumentException(String.format("Invalid column index %d", columnIndex));
+        }
+        this.columnIndex = columnIndex;
+        this.descending = descending;
+    }
+
+    /**
+     * @param columnIndex the index of the column, starting at one
+     * @return a column sorted in ascending order, with nulls last
+     */
+    public static SortColumn ascending(int columnIndex) {
+        return new SortColumn(columnIndex, false);
+    }
+
+    /**
+     * @param columnIndex the index of the column, starting at one
+     * @return a column sorted in descending order, with nulls last
+     */
+    public static SortColumn descending(int columnIndex) {
+        return new SortColumn(columnIndex, true);
+    }
+
+    public int columnIndex() {
+        return columnIndex;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+}
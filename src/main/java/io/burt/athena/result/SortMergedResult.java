@@ -0,0 +1,113 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A merged result that merges the rows of splits that are each sorted on the
+ * same columns, so that the merged rows are sorted too.
+ *
+ * Values of numeric columns are compared as numbers and all other values as
+ * strings, which gives the right order for dates and timestamps. Nulls sort
+ * after all other values in both ascending and descending order, like in
+ * Athena.
+ *
+ * The first row is only returned when all splits have completed.
+ */
+public class SortMergedResult extends MergedResult {
+    private final List<SortColumn> sortColumns;
+
+    private PriorityQueue<Head> heads;
+
+    public SortMergedResult(List<CompletableFuture<? extends ResultSet>> splits, List<SortColumn> sortColumns) {
+        this(splits, sortColumns, DEFAULT_BUFFER_SIZE);
+    }
+
+    public SortMergedResult(List<CompletableFuture<? extends ResultSet>> splits, List<SortColumn> sortColumns, int bufferSize) {
+        super(splits, bufferSize);
+        if (sortColumns.isEmpty()) {
+            throw new IllegalArgumentException("At least one sort column is required");
+        }
+        this.sortColumns = new ArrayList<>(sortColumns);
+        this.heads = null;
+    }
+
+    @Override
+    protected String[] nextMergedRow() throws SQLException, InterruptedException {
+        if (heads == null) {
+            heads = new PriorityQueue<>(splitCount(), createComparator(getMetaData()));
+            for (int i = 0; i < splitCount(); i++) {
+                SplitReader reader = reader(i);
+                String[] row = reader.take();
+                if (row != null) {
+                    heads.add(new Head(row, reader));
+                }
+            }
+        }
+        Head head = heads.poll();
+        if (head == null) {
+            return null;
+        }
+        String[] row = head.row;
+        String[] next = head.reader.take();
+        if (next != null) {
+            heads.add(new Head(next, head.reader));
+        }
+        return row;
+    }
+
+    private Comparator<Head> createComparator(AthenaResultSetMetaData metaData) throws SQLException {
+        Comparator<String[]> comparator = null;
+        for (SortColumn sortColumn : sortColumns) {
+            int columnIndex = sortColumn.columnIndex();
+            if (columnIndex > metaData.getColumnCount()) {
+                throw new SQLException(String.format("Sort column index out of bounds (%d > %d)", columnIndex, metaData.getColumnCount()));
+            }
+            Comparator<String> valueComparator = valueComparator(metaData.getColumnType(columnIndex));
+            if (sortColumn.isDescending()) {
+                valueComparator = valueComparator.reversed();
+            }
+            Comparator<String> columnComparator = Comparator.nullsLast(valueComparator);
+            Comparator<String[]> rowComparator = Comparator.comparing(row -> row[columnIndex - 1], columnComparator);
+            comparator = comparator == null ? rowComparator : comparator.thenComparing(rowComparator);
+        }
+        Comparator<String[]> rowsComparator = comparator;
+        return (a, b) -> rowsComparator.compare(a.row, b.row);
+    }
+
+    private static Comparator<String> valueComparator(int type) {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.DECIMAL:
+                return Comparator.comparing(BigDecimal::new);
+            case Types.FLOAT:
+            case Types.REAL:
+            case Types.DOUBLE:
+                return Comparator.comparing(Double::valueOf);
+            default:
+                return Comparator.naturalOrder();
+        }
+    }
+
+    private static class Head {
+        final String[] row;
+        final SplitReader reader;
+
+        Head(String[] row, SplitReader reader) {
+            this.row = row;
+            this.reader = reader;
+        }
+    }
+}
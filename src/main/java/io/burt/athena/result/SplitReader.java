@@ -0,0 +1,103 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the rows of one split of a merged result on a background thread.
+ *
+ * At most a fixed number of rows are buffered, so a split that is not
+ * consumed only blocks its own reader.
+ */
+class SplitReader implements AutoCloseable {
+    private static final String[] END = new String[0];
+
+    private final ResultSet resultSet;
+    private final BlockingQueue<String[]> rows;
+    private final CompletableFuture<AthenaResultSetMetaData> metaData;
+
+    private volatile boolean closed;
+    private volatile Exception failure;
+
+    SplitReader(ResultSet resultSet, int bufferSize, Executor executor) {
+        this.resultSet = resultSet;
+        this.rows = new ArrayBlockingQueue<>(bufferSize);
+        this.metaData = new CompletableFuture<>();
+        this.closed = false;
+        this.failure = null;
+        executor.execute(this::read);
+    }
+
+    private void read() {
+        try {
+            AthenaResultSetMetaData md = resultSet.getMetaData().unwrap(AthenaResultSetMetaData.class);
+            metaData.complete(md);
+            int columnCount = md.getColumnCount();
+            while (!closed && resultSet.next()) {
+                String[] row = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = resultSet.getString(i + 1);
+                }
+                offer(row);
+            }
+        } catch (Exception e) {
+            failure = e;
+            metaData.completeExceptionally(e);
+        } finally {
+            try {
+                offer(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                // the rows have already been read
+            }
+        }
+    }
+
+    private void offer(String[] row) throws InterruptedException {
+        while (!closed && !rows.offer(row, 100, TimeUnit.MILLISECONDS)) {
+        }
+    }
+
+    AthenaResultSetMetaData getMetaData() throws SQLException, InterruptedException {
+        try {
+            return metaData.get();
+        } catch (ExecutionException e) {
+            throw MergedResult.toSQLException(e.getCause());
+        }
+    }
+
+    /**
+     * @return the next row, or null when there are no more rows
+     */
+    String[] take() throws SQLException, InterruptedException {
+        String[] row = rows.take();
+        if (row == END) {
+            rows.offer(END);
+            if (failure != null) {
+                throw MergedResult.toSQLException(failure);
+            }
+            return null;
+        } else {
+            return row;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        rows.clear();
+        rows.offer(END);
+    }
+}
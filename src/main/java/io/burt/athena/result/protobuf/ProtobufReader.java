@@ -0,0 +1,141 @@
+package io.burt.athena.result.protobuf;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the fields of a protobuf message one at a time, directly from a
+ * buffer.
+ *
+ * Unlike {@link VeryBasicProtobufParser} the reader does not create objects
+ * for the fields, and the contents of length delimited fields are returned
+ * as slices of the buffer instead of being copied, so that nested messages
+ * can be read without copying them first.
+ *
+ * The buffer given to the constructor is not modified, the reader reads
+ * from its position to its limit.
+ */
+public class ProtobufReader {
+    public static final int VARINT = 0;
+    public static final int FIXED64 = 1;
+    public static final int LENGTH_DELIMITED = 2;
+    public static final int FIXED32 = 5;
+
+    private final ByteBuffer buffer;
+    private int fieldStart;
+    private int fieldNumber;
+    private int wireType;
+    private long value;
+    private int contentsStart;
+    private int contentsLength;
+
+    public ProtobufReader(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Advances to the next field.
+     *
+     * @return true when there was another field, false at the end of the
+     *         message
+     * @throws IllegalStateException when the field has an unsupported type
+     *                               or a malformed varint
+     */
+    public boolean next() {
+        if (!buffer.hasRemaining()) {
+            return false;
+        }
+        fieldStart = buffer.position();
+        long tag = readVarint();
+        fieldNumber = (int) (tag >>> 3);
+        wireType = (int) (tag & 7);
+        switch (wireType) {
+            case VARINT:
+                value = readVarint();
+                break;
+            case FIXED64:
+                value = buffer.getLong();
+                break;
+            case LENGTH_DELIMITED:
+                contentsLength = Math.toIntExact(readVarint());
+                contentsStart = buffer.position();
+                if (contentsLength > buffer.remaining()) {
+                    throw new IllegalStateException(String.format("Field %d is longer than the message", fieldNumber));
+                }
+                ((Buffer) buffer).position(contentsStart + contentsLength);
+                break;
+            case FIXED32:
+                value = Integer.toUnsignedLong(buffer.getInt());
+                break;
+            default:
+                throw new IllegalStateException(String.format("Unsupported field type: %d", wireType));
+        }
+        return true;
+    }
+
+    /**
+     * @return the position in the buffer where the current field starts
+     */
+    public int fieldStart() {
+        return fieldStart;
+    }
+
+    /**
+     * @return the position in the buffer just after the current field
+     */
+    public int fieldEnd() {
+        return buffer.position();
+    }
+
+    public int fieldNumber() {
+        return fieldNumber;
+    }
+
+    public int wireType() {
+        return wireType;
+    }
+
+    /**
+     * @return the value of the current varint or fixed width field
+     */
+    public long longValue() {
+        return value;
+    }
+
+    /**
+     * @return the contents of the current length delimited field, as a
+     *         slice of the buffer
+     */
+    public ByteBuffer contents() {
+        ByteBuffer contents = buffer.duplicate();
+        ((Buffer) contents).limit(contentsStart + contentsLength);
+        ((Buffer) contents).position(contentsStart);
+        return contents.slice();
+    }
+
+    /**
+     * @return the contents of the current length delimited field, decoded as
+     *         UTF-8
+     */
+    public String stringValue() {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + contentsStart, contentsLength, StandardCharsets.UTF_8);
+        } else {
+            return StandardCharsets.UTF_8.decode(contents()).toString();
+        }
+    }
+
+    private long readVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = Byte.toUnsignedInt(buffer.get());
+            result |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+}
@@ -10,10 +10,19 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 
+/**
+ * Collects the body of an object into a buffer.
+ *
+ * When the body arrives in a single chunk, which is common for small
+ * objects like the metadata files of results, that chunk is used as is,
+ * otherwise the chunks are copied into a buffer of the size of the object.
+ */
 public class ByteBufferResponseTransformer implements AsyncResponseTransformer<GetObjectResponse, ByteBuffer>, Subscriber<ByteBuffer> {
     private final CompletableFuture<ByteBuffer> future;
 
     private Subscription subscription;
+    private long contentLength;
+    private ByteBuffer firstChunk;
     private ByteBuffer resultBuffer;
 
     public ByteBufferResponseTransformer() {
@@ -27,7 +36,7 @@ public class ByteBufferResponseTransformer implements AsyncResponseTransformer<G
 
     @Override
     public void onResponse(GetObjectResponse response) {
-        resultBuffer = ByteBuffer.allocate(Math.toIntExact(response.contentLength()));
+        contentLength = response.contentLength();
     }
 
     @Override
@@ -48,7 +57,16 @@ public class ByteBufferResponseTransformer implements AsyncResponseTransformer<G
 
     @Override
     public void onNext(ByteBuffer byteBuffer) {
-        resultBuffer.put(byteBuffer);
+        if (resultBuffer == null && firstChunk == null) {
+            firstChunk = byteBuffer;
+        } else {
+            if (resultBuffer == null) {
+                resultBuffer = ByteBuffer.allocate(Math.toIntExact(contentLength));
+                resultBuffer.put(firstChunk);
+                firstChunk = null;
+            }
+            resultBuffer.put(byteBuffer);
+        }
         subscription.request(Long.MAX_VALUE);
     }
 
@@ -59,7 +77,13 @@ public class ByteBufferResponseTransformer implements AsyncResponseTransformer<G
 
     @Override
     public void onComplete() {
-        ((Buffer) resultBuffer).flip();
-        future.complete(resultBuffer);
+        if (resultBuffer != null) {
+            ((Buffer) resultBuffer).flip();
+            future.complete(resultBuffer);
+        } else if (firstChunk != null) {
+            future.complete(firstChunk);
+        } else {
+            future.complete(ByteBuffer.allocate(0));
+        }
     }
 }
@@ -14,6 +14,7 @@ public class GetObjectInputStreamTransformer extends InputStreamResponseTransfor
     private final S3AsyncClient s3Client;
     private final GetObjectRequest.Builder requestBuilder;
     private int bytesOffset = 0;
+    private volatile String eTag;
 
     public GetObjectInputStreamTransformer(S3AsyncClient s3Client, GetObjectRequest.Builder requestBuilder, Duration timeout) {
         super(timeout);
@@ -23,15 +24,23 @@ public class GetObjectInputStreamTransformer extends InputStreamResponseTransfor
 
     @Override
     public void onResponse(GetObjectResponse r) {
+        eTag = r.eTag();
         requestBuilder.ifMatch(r.eTag());
         super.onResponse(r);
     }
 
+    public String eTag() {
+        return eTag;
+    }
+
     @Override
     protected boolean ensureChunk() throws IOException {
         try {
             return super.ensureChunk();
         } catch (IOException cause) {
+            if (cancelled) {
+                throw cause;
+            }
             Throwable originalError = error;
             try {
                 error = null;
@@ -31,7 +31,8 @@ public class InputStreamResponseTransformer extends InputStream implements Async
     private GetObjectResponse response;
     private AtomicReference<Subscription> subscription;
     protected ByteBuffer readChunk;
-    protected Throwable error;
+    protected volatile Throwable error;
+    protected volatile boolean cancelled;
     private AtomicInteger approximateBufferSize;
     private AtomicInteger requests;
     private volatile float approximateChunkSize;
@@ -70,6 +71,10 @@ public class InputStreamResponseTransformer extends InputStream implements Async
 
     @Override
     public void onSubscribe(Subscription s) {
+        if (cancelled) {
+            s.cancel();
+            return;
+        }
         subscription.set(s);
         if (response.contentLength() < TARGET_BUFFER_SIZE) {
             requests.set(Integer.MAX_VALUE);
@@ -82,6 +87,9 @@ public class InputStreamResponseTransformer extends InputStream implements Async
 
     @Override
     public void onNext(ByteBuffer byteBuffer) {
+        if (cancelled) {
+            return;
+        }
         int chunkSize = byteBuffer.remaining();
         if (chunkSize > 0) {
             chunks.offer(byteBuffer);
@@ -179,6 +187,32 @@ public class InputStreamResponseTransformer extends InputStream implements Async
         }
     }
 
+    /**
+     * Aborts the download from any thread.
+     *
+     * The subscription is cancelled, the buffered chunks are released, and a
+     * thread that is waiting for a chunk is woken up and fails with an
+     * {@link IOException}. The download is not retried.
+     */
+    public void cancel() {
+        cancelled = true;
+        if (error == null) {
+            error = new IOException("cancelled");
+        }
+        Subscription s = subscription.getAndSet(null);
+        if (s != null) {
+            s.cancel();
+        }
+        future.cancel(false);
+        chunks.clear();
+        approximateBufferSize.set(0);
+        chunks.offer(END_MARKER);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
     @Override
     public void close() throws IOException {
         chunks.clear();
@@ -186,11 +220,11 @@ public class InputStreamResponseTransformer extends InputStream implements Async
         if (s != null) {
             s.cancel();
         }
-        onComplete();
-        readChunk = END_MARKER;
         if (error == null) {
             error = new IOException("closed");
         }
+        onComplete();
+        readChunk = END_MARKER;
         super.close();
     }
 }
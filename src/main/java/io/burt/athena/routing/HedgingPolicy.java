@@ -0,0 +1,98 @@
+package io.burt.athena.routing;
+
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionStatistics;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Decides when a query that is still queued should be hedged.
+ *
+ * A hedge is a second execution of the same SQL in another work group, see
+ * {@link WorkGroupRouter}. Whichever of the two executions succeeds first is
+ * used, and the other one is stopped.
+ *
+ * The threshold is either fixed, or a percentile of the queue times of the
+ * most recently completed queries. A percentile policy uses an initial
+ * threshold until it has seen enough queries.
+ */
+public class HedgingPolicy {
+    public static final Duration DEFAULT_INITIAL_THRESHOLD = Duration.ofSeconds(10);
+
+    static final int SAMPLE_SIZE = 100;
+    static final int MIN_SAMPLES = 10;
+
+    private final Duration fixedThreshold;
+    private final double percentile;
+    private final long[] queueTimes;
+    private int sampleCount;
+    private int nextSample;
+
+    private HedgingPolicy(Duration fixedThreshold, double percentile) {
+        this.fixedThreshold = fixedThreshold;
+        this.percentile = percentile;
+        this.queueTimes = new long[SAMPLE_SIZE];
+        this.sampleCount = 0;
+        this.nextSample = 0;
+    }
+
+    /**
+     * Creates a policy that hedges queries that have been queued for longer
+     * than a fixed threshold.
+     *
+     * @param threshold how long a query may be queued before it is hedged
+     * @return a new hedging policy
+     */
+    public static HedgingPolicy after(Duration threshold) {
+        return new HedgingPolicy(threshold, Double.NaN);
+    }
+
+    /**
+     * Creates a policy that hedges queries that have been queued for longer
+     * than the specified percentile of the recent queue times.
+     *
+     * @param percentile the percentile, between zero and one hundred
+     * @param initialThreshold the threshold to use until enough queue times
+     *                         have been recorded
+     * @return a new hedging policy
+     */
+    public static HedgingPolicy percentile(double percentile, Duration initialThreshold) {
+        if (!(percentile > 0 && percentile <= 100)) {
+            throw new IllegalArgumentException(String.format("Invalid percentile: %s", percentile));
+        }
+        return new HedgingPolicy(initialThreshold, percentile);
+    }
+
+    /**
+     * @return how long a query may be queued before it is hedged
+     */
+    public synchronized Duration threshold() {
+        if (Double.isNaN(percentile) || sampleCount < MIN_SAMPLES) {
+            return fixedThreshold;
+        } else {
+            long[] sorted = Arrays.copyOf(queueTimes, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sampleCount) - 1;
+            return Duration.ofMillis(sorted[Math.max(0, index)]);
+        }
+    }
+
+    /**
+     * Records the queue time of a completed query execution.
+     *
+     * @param queryExecution the completed query execution
+     */
+    public void recordCompletion(QueryExecution queryExecution) {
+        QueryExecutionStatistics statistics = queryExecution.statistics();
+        if (!Double.isNaN(percentile) && statistics != null && statistics.queryQueueTimeInMillis() != null) {
+            recordQueueTime(statistics.queryQueueTimeInMillis());
+        }
+    }
+
+    private synchronized void recordQueueTime(long queueTimeMillis) {
+        queueTimes[nextSample] = queueTimeMillis;
+        nextSample = (nextSample + 1) % SAMPLE_SIZE;
+        sampleCount = Math.min(SAMPLE_SIZE, sampleCount + 1);
+    }
+}
@@ -0,0 +1,285 @@
+package io.burt.athena.routing;
+
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionStatistics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Spreads query executions over a set of work groups.
+ *
+ * Each work group has its own queue and limits in Athena, so running the
+ * same workload in several work groups lets more queries run at the same
+ * time. The router sends each execution to the work group where it is
+ * expected to start the soonest: it keeps a moving average of the time
+ * completed queries spent queued in each work group, and multiplies it by
+ * the number of executions that have been routed to the work group and not
+ * yet completed, divided by the work group's weight.
+ *
+ * When an execution is throttled in a work group, that work group is avoided
+ * for a cooldown period and the execution can be routed to another one.
+ *
+ * A router can be shared by many connections.
+ */
+public class WorkGroupRouter {
+    public static final Duration DEFAULT_THROTTLE_COOLDOWN = Duration.ofSeconds(1);
+
+    private static final double QUEUE_TIME_SMOOTHING = 0.2;
+
+    private final Map<String, WorkGroupState> workGroups;
+    private final Duration throttleCooldown;
+    private final Clock clock;
+
+    public WorkGroupRouter(List<WorkGroup> workGroups) {
+        this(workGroups, DEFAULT_THROTTLE_COOLDOWN, Clock.systemUTC());
+    }
+
+    WorkGroupRouter(List<WorkGroup> workGroups, Duration throttleCooldown, Clock clock) {
+        if (workGroups.isEmpty()) {
+            throw new IllegalArgumentException("At least one work group is required");
+        }
+        this.workGroups = new LinkedHashMap<>();
+        for (WorkGroup workGroup : workGroups) {
+            if (this.workGroups.put(workGroup.name(), new WorkGroupState(workGroup)) != null) {
+                throw new IllegalArgumentException(String.format("Duplicate work group: \"%s\"", workGroup.name()));
+            }
+        }
+        this.throttleCooldown = throttleCooldown;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the work groups that executions are routed to
+     */
+    public List<WorkGroup> workGroups() {
+        List<WorkGroup> list = new ArrayList<>(workGroups.size());
+        for (WorkGroupState state : workGroups.values()) {
+            list.add(state.workGroup);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Picks the work group to start an execution in.
+     *
+     * Work groups that are cooling down after throttling are only picked when
+     * all work groups are, and then the one whose cooldown ends first.
+     *
+     * @return a route, which must be given back with {@link Route#release()}
+     *         or {@link Route#throttled()}
+     */
+    public synchronized Route route() {
+        Instant now = clock.instant();
+        WorkGroupState best = null;
+        for (WorkGroupState candidate : workGroups.values()) {
+            if (best == null || candidate.isBetterThan(best, now)) {
+                best = candidate;
+            }
+        }
+        best.pending++;
+        return new Route(best);
+    }
+
+    /**
+     * Picks the work group to start a hedge of an execution in.
+     *
+     * This works like {@link #route()}, but never picks the work group that
+     * the hedged execution is running in.
+     *
+     * @param workGroupName the name of the work group to avoid
+     * @return a route, or empty when there is no other work group
+     * @see HedgingPolicy
+     */
+    public synchronized Optional<Route> routeExcept(String workGroupName) {
+        Instant now = clock.instant();
+        WorkGroupState best = null;
+        for (WorkGroupState candidate : workGroups.values()) {
+            if (!candidate.workGroup.name().equals(workGroupName) && (best == null || candidate.isBetterThan(best, now))) {
+                best = candidate;
+            }
+        }
+        if (best == null) {
+            return Optional.empty();
+        } else {
+            best.pending++;
+            return Optional.of(new Route(best));
+        }
+    }
+
+    /**
+     * Records the queue time of a query execution in the work group it ran
+     * in.
+     *
+     * Executions without statistics, or that ran in a work group that is
+     * not known to the router, are ignored.
+     *
+     * @param queryExecution the completed query execution
+     */
+    public void recordCompletion(QueryExecution queryExecution) {
+        QueryExecutionStatistics statistics = queryExecution.statistics();
+        if (statistics != null && statistics.queryQueueTimeInMillis() != null) {
+            recordQueueTime(queryExecution.workGroup(), Duration.ofMillis(statistics.queryQueueTimeInMillis()));
+        }
+    }
+
+    synchronized void recordQueueTime(String workGroupName, Duration queueTime) {
+        WorkGroupState state = workGroupName == null ? null : workGroups.get(workGroupName);
+        if (state != null) {
+            state.queueTimeMillis += QUEUE_TIME_SMOOTHING * (queueTime.toMillis() - state.queueTimeMillis);
+        }
+    }
+
+    /**
+     * @param workGroupName the name of a work group
+     * @return the moving average of the queue times of the work group
+     */
+    public synchronized Duration estimatedQueueTime(String workGroupName) {
+        WorkGroupState state = workGroups.get(workGroupName);
+        return state == null ? Duration.ZERO : Duration.ofMillis(Math.round(state.queueTimeMillis));
+    }
+
+    /**
+     * @param workGroupName the name of a work group
+     * @return the number of executions that have been routed to the work
+     *         group and not yet released
+     */
+    public synchronized int pending(String workGroupName) {
+        WorkGroupState state = workGroups.get(workGroupName);
+        return state == null ? 0 : state.pending;
+    }
+
+    private synchronized void completed(WorkGroupState state, boolean throttled) {
+        state.pending--;
+        if (throttled) {
+            state.throttledUntil = clock.instant().plus(throttleCooldown);
+        }
+    }
+
+    private static class WorkGroupState {
+        final WorkGroup workGroup;
+        double queueTimeMillis;
+        int pending;
+        Instant throttledUntil;
+
+        WorkGroupState(WorkGroup workGroup) {
+            this.workGroup = workGroup;
+            this.queueTimeMillis = 0;
+            this.pending = 0;
+            this.throttledUntil = Instant.MIN;
+        }
+
+        boolean isCoolingDown(Instant now) {
+            return throttledUntil.isAfter(now);
+        }
+
+        double cost() {
+            return (queueTimeMillis + 1) * (pending + 1) / workGroup.weight();
+        }
+
+        boolean isBetterThan(WorkGroupState other, Instant now) {
+            boolean coolingDown = isCoolingDown(now);
+            if (coolingDown != other.isCoolingDown(now)) {
+                return !coolingDown;
+            } else if (coolingDown) {
+                return throttledUntil.isBefore(other.throttledUntil);
+            } else {
+                return cost() < other.cost();
+            }
+        }
+    }
+
+    /**
+     * A work group that executions can be routed to.
+     */
+    public static class WorkGroup {
+        private final String name;
+        private final String outputLocation;
+        private final double weight;
+
+        /**
+         * @param name the name of the work group
+         * @param outputLocation the S3 location where the results of queries
+         *                       in the work group are written, or
+         *                       <code>null</code> to use the connection's
+         *                       output location
+         * @param weight the relative share of the executions the work group
+         *               gets when the queue times are the same, must be
+         *               positive
+         */
+        public WorkGroup(String name, String outputLocation, double weight) {
+            if (!(weight > 0)) {
+                throw new IllegalArgumentException(String.format("Invalid weight for work group \"%s\": %s", name, weight));
+            }
+            this.name = name;
+            this.outputLocation = outputLocation;
+            this.weight = weight;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String outputLocation() {
+            return outputLocation;
+        }
+
+        public double weight() {
+            return weight;
+        }
+    }
+
+    /**
+     * The work group picked for one execution.
+     *
+     * A route must be given back with either {@link #release()} or
+     * {@link #throttled()} once the execution has completed, or when it
+     * failed to start.
+     */
+    public class Route {
+        private final WorkGroupState state;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Route(WorkGroupState state) {
+            this.state = state;
+        }
+
+        public String workGroupName() {
+            return state.workGroup.name();
+        }
+
+        public String outputLocation() {
+            return state.workGroup.outputLocation();
+        }
+
+        /**
+         * Gives the route back after the execution has completed.
+         *
+         * Calling this method more than once has no effect.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                completed(state, false);
+            }
+        }
+
+        /**
+         * Gives the route back after the execution was rejected because of
+         * throttling, which makes the router avoid the work group for a
+         * while.
+         */
+        public void throttled() {
+            if (released.compareAndSet(false, true)) {
+                completed(state, true);
+            }
+        }
+    }
+}
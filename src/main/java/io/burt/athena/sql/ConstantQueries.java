@@ -0,0 +1,282 @@
+package io.burt.athena.sql;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.result.ConstantResult;
+import io.burt.athena.result.Result;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+import software.amazon.awssdk.services.athena.model.ColumnNullable;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Answers queries that only select constants, like the <code>SELECT 1</code>
+ * that connection pools use to validate connections, without running them.
+ *
+ * The queries that are answered are a <code>SELECT</code> of one or more
+ * integer, decimal, string, boolean or <code>NULL</code> literals, each
+ * optionally with an alias, and nothing else. The result has the column
+ * names and types that Athena would give it, for example
+ * <code>_col0</code> and <code>integer</code> for <code>SELECT 1</code>.
+ * All other queries, including those that only select constant expressions
+ * like <code>1 + 1</code>, are left to Athena.
+ */
+public class ConstantQueries {
+    private static final BigInteger MAX_INTEGER = BigInteger.valueOf(Integer.MAX_VALUE);
+    private static final BigInteger MIN_INTEGER = BigInteger.valueOf(Integer.MIN_VALUE);
+    private static final BigInteger MAX_BIGINT = BigInteger.valueOf(Long.MAX_VALUE);
+    private static final BigInteger MIN_BIGINT = BigInteger.valueOf(Long.MIN_VALUE);
+
+    private ConstantQueries() {
+    }
+
+    /**
+     * Returns the result of a query that only selects constants.
+     *
+     * @param sql the query
+     * @param databaseName the database the query would run in
+     * @return the result, or empty when the query does something else
+     */
+    public static Optional<Result> evaluate(String sql, String databaseName) {
+        List<ColumnInfo> columns = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        if (!new Parser(sql, columns, values).parse()) {
+            return Optional.empty();
+        }
+        QueryExecution queryExecution = QueryExecution.builder()
+                .query(sql)
+                .queryExecutionContext(b -> b.database(databaseName))
+                .status(b -> b.state(QueryExecutionState.SUCCEEDED))
+                .build();
+        AthenaResultSetMetaData metaData = new AthenaResultSetMetaData(queryExecution, ResultSetMetadata.builder().columnInfo(columns).build());
+        return Optional.of(new ConstantResult(metaData, values.toArray(new String[0])));
+    }
+
+    private static class Parser {
+        private final String sql;
+        private final List<ColumnInfo> columns;
+        private final List<String> values;
+        private int position;
+
+        Parser(String sql, List<ColumnInfo> columns, List<String> values) {
+            this.sql = sql;
+            this.columns = columns;
+            this.values = values;
+            this.position = 0;
+        }
+
+        boolean parse() {
+            skipWhitespaceAndComments();
+            if (!"select".equals(word())) {
+                return false;
+            }
+            do {
+                if (!selectItem()) {
+                    return false;
+                }
+                skipWhitespaceAndComments();
+            } while (consume(','));
+            consume(';');
+            skipWhitespaceAndComments();
+            return position == sql.length();
+        }
+
+        private boolean selectItem() {
+            skipWhitespaceAndComments();
+            ColumnInfo.Builder column = ColumnInfo.builder().nullable(ColumnNullable.UNKNOWN);
+            if (!literal(column)) {
+                return false;
+            }
+            skipWhitespaceAndComments();
+            int beforeAlias = position;
+            String alias = word();
+            if ("as".equals(alias)) {
+                skipWhitespaceAndComments();
+                alias = identifier();
+                if (alias == null) {
+                    return false;
+                }
+            } else if (alias == null) {
+                alias = quotedIdentifier();
+            } else if (isReserved(alias)) {
+                position = beforeAlias;
+                alias = null;
+            }
+            String name = alias != null ? alias : "_col" + columns.size();
+            columns.add(column.name(name).label(name).build());
+            return true;
+        }
+
+        private boolean literal(ColumnInfo.Builder column) {
+            if (position >= sql.length()) {
+                return false;
+            }
+            char c = sql.charAt(position);
+            if (c == '\'') {
+                String value = quoted('\'');
+                if (value == null) {
+                    return false;
+                }
+                values.add(value);
+                column.type("varchar").precision(value.length()).scale(0);
+                return true;
+            } else if (c == '-' || c == '+' || c == '.' || Character.isDigit(c)) {
+                return number(column);
+            } else {
+                int start = position;
+                String word = word();
+                if ("true".equals(word) || "false".equals(word)) {
+                    values.add(word);
+                    column.type("boolean").precision(0).scale(0);
+                    return true;
+                } else if ("null".equals(word)) {
+                    values.add(null);
+                    column.type("unknown").precision(0).scale(0);
+                    return true;
+                } else {
+                    position = start;
+                    return false;
+                }
+            }
+        }
+
+        private boolean number(ColumnInfo.Builder column) {
+            int start = position;
+            if (sql.charAt(position) == '-' || sql.charAt(position) == '+') {
+                position++;
+            }
+            int digitsStart = position;
+            while (position < sql.length() && (Character.isDigit(sql.charAt(position)) || sql.charAt(position) == '.')) {
+                position++;
+            }
+            if (position == digitsStart || (position < sql.length() && (Character.isLetter(sql.charAt(position)) || sql.charAt(position) == '_'))) {
+                return false;
+            }
+            String text = sql.substring(start, position);
+            BigDecimal value;
+            try {
+                value = new BigDecimal(text);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (text.indexOf('.') < 0) {
+                BigInteger integer = value.toBigIntegerExact();
+                if (integer.compareTo(MIN_INTEGER) >= 0 && integer.compareTo(MAX_INTEGER) <= 0) {
+                    column.type("integer").precision(10).scale(0);
+                } else if (integer.compareTo(MIN_BIGINT) >= 0 && integer.compareTo(MAX_BIGINT) <= 0) {
+                    column.type("bigint").precision(19).scale(0);
+                } else {
+                    return false;
+                }
+                values.add(integer.toString());
+            } else {
+                int scale = Math.max(0, value.scale());
+                int precision = Math.max(value.precision(), scale);
+                if (precision > 38) {
+                    return false;
+                }
+                column.type("decimal").precision(precision).scale(scale);
+                values.add(value.toPlainString());
+            }
+            return true;
+        }
+
+        private String identifier() {
+            String word = word();
+            return word != null ? word : quotedIdentifier();
+        }
+
+        private String quotedIdentifier() {
+            if (position < sql.length() && sql.charAt(position) == '"') {
+                String name = quoted('"');
+                return name == null || name.isEmpty() ? null : name.toLowerCase(Locale.ROOT);
+            }
+            return null;
+        }
+
+        private String quoted(char quote) {
+            StringBuilder value = new StringBuilder();
+            position++;
+            while (position < sql.length()) {
+                char c = sql.charAt(position++);
+                if (c == quote) {
+                    if (position < sql.length() && sql.charAt(position) == quote) {
+                        value.append(quote);
+                        position++;
+                    } else {
+                        return value.toString();
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the next unquoted word, lower cased, or null when the next
+         *         token is not a word
+         */
+        private String word() {
+            int start = position;
+            if (position < sql.length() && (Character.isLetter(sql.charAt(position)) || sql.charAt(position) == '_')) {
+                while (position < sql.length() && (Character.isLetterOrDigit(sql.charAt(position)) || sql.charAt(position) == '_')) {
+                    position++;
+                }
+                return sql.substring(start, position).toLowerCase(Locale.ROOT);
+            }
+            return null;
+        }
+
+        private static boolean isReserved(String word) {
+            switch (word) {
+                case "from":
+                case "where":
+                case "group":
+                case "order":
+                case "limit":
+                case "union":
+                case "having":
+                case "into":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private boolean consume(char c) {
+            if (position < sql.length() && sql.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespaceAndComments() {
+            while (position < sql.length()) {
+                char c = sql.charAt(position);
+                if (Character.isWhitespace(c)) {
+                    position++;
+                } else if (sql.startsWith("--", position)) {
+                    int end = sql.indexOf('\n', position);
+                    position = end < 0 ? sql.length() : end + 1;
+                } else if (sql.startsWith("/*", position)) {
+                    int end = sql.indexOf("*/", position + 2);
+                    if (end < 0) {
+                        return;
+                    }
+                    position = end + 2;
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package io.burt.athena.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A script of <code>;</code> separated statements, and the order they must
+ * run in.
+ *
+ * The tables that each statement creates or changes, and the tables it reads,
+ * are found by looking at the statement's tokens, and a statement depends on
+ * every earlier statement that writes a table it reads or writes, or that
+ * reads a table it writes. Statements that do not depend on each other can
+ * run at the same time.
+ *
+ * The analysis errs on the side of more dependencies: tables are compared by
+ * name only, without their database, and statements that are not recognized,
+ * like those that create or drop databases, depend on all earlier statements
+ * and all later statements depend on them.
+ */
+public class Script {
+    private static final Set<String> READ_ONLY_COMMANDS = new HashSet<>(Arrays.asList("select", "with", "values", "table", "explain", "unload"));
+    private static final Set<String> DESCRIBING_COMMANDS = new HashSet<>(Arrays.asList("show", "describe", "desc"));
+    private static final Set<String> NON_ALIAS_KEYWORDS = new HashSet<>(Arrays.asList("where", "join", "inner", "left", "right", "full", "cross", "natural", "on", "using", "group", "order", "having", "limit", "offset", "union", "intersect", "except", "window", "tablesample", "lateral", "unnest", "fetch", "with", "as", "for"));
+
+    private final List<ScriptStatement> statements;
+
+    private Script(List<ScriptStatement> statements) {
+        this.statements = Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Splits a script into statements and finds the dependencies between
+     * them.
+     *
+     * Semicolons in string literals, quoted identifiers and comments do not
+     * end statements, and statements that are empty or only contain comments
+     * are left out.
+     *
+     * @param script the script to parse
+     * @return the parsed script
+     */
+    public static Script parse(String script) {
+        List<ScriptStatement> statements = new ArrayList<>();
+        List<Analysis> analyses = new ArrayList<>();
+        for (String sql : split(script)) {
+            Analysis analysis = analyze(tokenize(sql));
+            List<Integer> dependencies = new ArrayList<>();
+            for (int i = 0; i < analyses.size(); i++) {
+                if (analysis.dependsOn(analyses.get(i))) {
+                    dependencies.add(i);
+                }
+            }
+            statements.add(new ScriptStatement(statements.size(), sql, analysis.reads, analysis.writes, dependencies));
+            analyses.add(analysis);
+        }
+        return new Script(statements);
+    }
+
+    /**
+     * @return the statements of the script, in the order they appear
+     */
+    public List<ScriptStatement> statements() {
+        return statements;
+    }
+
+    static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        int length = script.length();
+        int start = 0;
+        int i = 0;
+        boolean hasTokens = false;
+        while (i < length) {
+            char c = script.charAt(i);
+            if (c == '-' && i + 1 < length && script.charAt(i + 1) == '-') {
+                i = skipLineComment(script, i);
+            } else if (c == '/' && i + 1 < length && script.charAt(i + 1) == '*') {
+                i = skipBlockComment(script, i);
+            } else if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(script, i, c);
+                hasTokens = true;
+            } else if (c == ';') {
+                if (hasTokens) {
+                    statements.add(script.substring(start, i).trim());
+                }
+                i++;
+                start = i;
+                hasTokens = false;
+            } else {
+                hasTokens |= !Character.isWhitespace(c);
+                i++;
+            }
+        }
+        if (hasTokens) {
+            statements.add(script.substring(start).trim());
+        }
+        return statements;
+    }
+
+    static List<Token> tokenize(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = skipLineComment(sql, i);
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = skipBlockComment(sql, i);
+            } else if (c == '\'') {
+                i = skipQuoted(sql, i, c);
+                tokens.add(new Token(TokenType.LITERAL, "?"));
+            } else if (c == '"' || c == '`') {
+                int end = skipQuoted(sql, i, c);
+                String name = sql.substring(i + 1, Math.max(i + 1, end - 1)).replace(String.valueOf(c) + c, String.valueOf(c));
+                tokens.add(new Token(TokenType.QUOTED_IDENTIFIER, name.toLowerCase()));
+                i = end;
+            } else if (isIdentifierPart(c)) {
+                int end = i;
+                while (end < length && isIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                tokens.add(new Token(TokenType.WORD, sql.substring(i, end).toLowerCase()));
+                i = end;
+            } else {
+                tokens.add(new Token(TokenType.SYMBOL, String.valueOf(c)));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static Analysis analyze(List<Token> tokens) {
+        Analysis analysis = new Analysis();
+        String command = tokens.isEmpty() ? "" : tokens.get(0).text;
+        int bodyStart = 0;
+        if (DESCRIBING_COMMANDS.contains(command)) {
+            for (Token token : tokens) {
+                if (token.isIdentifier()) {
+                    analysis.reads.add(token.text);
+                }
+            }
+            return analysis;
+        } else if (command.equals("create")) {
+            int i = skipWords(tokens, 1, "or", "replace");
+            i = skipWords(tokens, i, "external");
+            if (isWord(tokens, i, "table") || isWord(tokens, i, "view")) {
+                i = skipWords(tokens, i + 1, "if", "not", "exists");
+                bodyStart = addName(tokens, i, analysis.writes);
+            }
+        } else if (command.equals("drop") && (isWord(tokens, 1, "table") || isWord(tokens, 1, "view"))) {
+            bodyStart = addName(tokens, skipWords(tokens, 2, "if", "exists"), analysis.writes);
+        } else if (command.equals("insert") && isWord(tokens, 1, "into")) {
+            bodyStart = addName(tokens, 2, analysis.writes);
+        } else if (command.equals("alter") && isWord(tokens, 1, "table")) {
+            bodyStart = addName(tokens, 2, analysis.writes);
+        } else if (command.equals("msck") && isWord(tokens, 1, "repair") && isWord(tokens, 2, "table")) {
+            bodyStart = addName(tokens, 3, analysis.writes);
+        } else if ((command.equals("delete") && isWord(tokens, 1, "from")) || (command.equals("merge") && isWord(tokens, 1, "into"))) {
+            bodyStart = addName(tokens, 2, analysis.writes);
+        } else if (command.equals("update") || command.equals("vacuum") || command.equals("optimize")) {
+            bodyStart = addName(tokens, 1, analysis.writes);
+        }
+        if (bodyStart <= 0 && !READ_ONLY_COMMANDS.contains(command)) {
+            analysis.barrier = true;
+            return analysis;
+        }
+        addReads(tokens, bodyStart, analysis.reads);
+        return analysis;
+    }
+
+    private static void addReads(List<Token> tokens, int start, Set<String> reads) {
+        Set<String> namedQueries = new HashSet<>();
+        for (int i = start; i + 2 < tokens.size(); i++) {
+            if (tokens.get(i).isIdentifier() && isWord(tokens, i + 1, "as") && isSymbol(tokens, i + 2, "(")) {
+                namedQueries.add(tokens.get(i).text);
+            }
+        }
+        Set<String> tables = new LinkedHashSet<>();
+        for (int i = start; i < tokens.size(); i++) {
+            if (isWord(tokens, i, "from") || isWord(tokens, i, "join") || isWord(tokens, i, "using")) {
+                int next = addName(tokens, i + 1, tables);
+                while (next > 0) {
+                    if (next < tokens.size() && isWord(tokens, next, "as")) {
+                        next++;
+                    }
+                    if (next < tokens.size() && tokens.get(next).isIdentifier() && !NON_ALIAS_KEYWORDS.contains(tokens.get(next).text)) {
+                        next++;
+                    }
+                    if (isSymbol(tokens, next, ",")) {
+                        next = addName(tokens, next + 1, tables);
+                    } else {
+                        next = -1;
+                    }
+                }
+            }
+        }
+        tables.removeAll(namedQueries);
+        reads.addAll(tables);
+    }
+
+    /**
+     * Reads a possibly qualified name starting at the specified token and
+     * adds its last part to the set.
+     *
+     * @return the index of the first token after the name, or -1 when there
+     *         is no name at the index
+     */
+    private static int addName(List<Token> tokens, int index, Set<String> names) {
+        if (index >= tokens.size() || !tokens.get(index).isIdentifier()) {
+            return -1;
+        }
+        int i = index;
+        while (isSymbol(tokens, i + 1, ".") && i + 2 < tokens.size() && tokens.get(i + 2).isIdentifier()) {
+            i += 2;
+        }
+        names.add(tokens.get(i).text);
+        return i + 1;
+    }
+
+    private static int skipWords(List<Token> tokens, int index, String... words) {
+        for (int i = 0; i < words.length; i++) {
+            if (!isWord(tokens, index + i, words[i])) {
+                return index;
+            }
+        }
+        return index + words.length;
+    }
+
+    private static boolean isWord(List<Token> tokens, int index, String word) {
+        return index < tokens.size() && tokens.get(index).type == TokenType.WORD && tokens.get(index).text.equals(word);
+    }
+
+    private static boolean isSymbol(List<Token> tokens, int index, String symbol) {
+        return index < tokens.size() && tokens.get(index).type == TokenType.SYMBOL && tokens.get(index).text.equals(symbol);
+    }
+
+    private static int skipLineComment(String sql, int start) {
+        int end = sql.indexOf('\n', start);
+        return end == -1 ? sql.length() : end + 1;
+    }
+
+    private static int skipBlockComment(String sql, int start) {
+        int end = sql.indexOf("*/", start + 2);
+        return end == -1 ? sql.length() : end + 2;
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    enum TokenType {
+        WORD,
+        QUOTED_IDENTIFIER,
+        LITERAL,
+        SYMBOL
+    }
+
+    static class Token {
+        final TokenType type;
+        final String text;
+
+        Token(TokenType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+
+        boolean isIdentifier() {
+            return type == TokenType.WORD || type == TokenType.QUOTED_IDENTIFIER;
+        }
+    }
+
+    private static class Analysis {
+        final Set<String> reads = new LinkedHashSet<>();
+        final Set<String> writes = new LinkedHashSet<>();
+        boolean barrier = false;
+
+        boolean dependsOn(Analysis earlier) {
+            if (barrier || earlier.barrier) {
+                return true;
+            }
+            for (String table : earlier.writes) {
+                if (reads.contains(table) || writes.contains(table)) {
+                    return true;
+                }
+            }
+            for (String table : writes) {
+                if (earlier.reads.contains(table)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
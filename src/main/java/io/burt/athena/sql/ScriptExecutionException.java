@@ -0,0 +1,29 @@
+package io.burt.athena.sql;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when one or more statements of a script fail.
+ *
+ * The outcome of every statement, including the ones that succeeded or were
+ * skipped, is available from {@link #results()}, and the failures are
+ * available from {@link SQLException#getNextException()}.
+ */
+public class ScriptExecutionException extends SQLException {
+    private final List<ScriptStatementResult> results;
+
+    public ScriptExecutionException(String message, Throwable cause, List<ScriptStatementResult> results) {
+        super(message, cause);
+        this.results = Collections.unmodifiableList(results);
+    }
+
+    /**
+     * @return the outcome of each statement, in the order they appear in the
+     *         script
+     */
+    public List<ScriptStatementResult> results() {
+        return results;
+    }
+}
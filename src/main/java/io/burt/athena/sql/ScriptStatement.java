@@ -0,0 +1,59 @@
+package io.burt.athena.sql;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One of the statements of a {@link Script}.
+ */
+public class ScriptStatement {
+    private final int index;
+    private final String sql;
+    private final Set<String> reads;
+    private final Set<String> writes;
+    private final List<Integer> dependencies;
+
+    ScriptStatement(int index, String sql, Set<String> reads, Set<String> writes, List<Integer> dependencies) {
+        this.index = index;
+        this.sql = sql;
+        this.reads = Collections.unmodifiableSet(reads);
+        this.writes = Collections.unmodifiableSet(writes);
+        this.dependencies = Collections.unmodifiableList(dependencies);
+    }
+
+    /**
+     * @return the position of the statement in the script, starting at zero
+     */
+    public int index() {
+        return index;
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    /**
+     * @return the names of the tables the statement reads, lower cased and
+     *         without their databases
+     */
+    public Set<String> reads() {
+        return reads;
+    }
+
+    /**
+     * @return the names of the tables the statement creates, drops or
+     *         changes, lower cased and without their databases
+     */
+    public Set<String> writes() {
+        return writes;
+    }
+
+    /**
+     * @return the indices of the earlier statements that must complete
+     *         before this statement can run
+     */
+    public List<Integer> dependencies() {
+        return dependencies;
+    }
+}
@@ -0,0 +1,81 @@
+package io.burt.athena.sql;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * The outcome and timing of one statement of an executed {@link Script}.
+ */
+public class ScriptStatementResult {
+    /**
+     * What happened to a statement.
+     */
+    public enum Status {
+        SUCCEEDED,
+        FAILED,
+        /**
+         * The statement was not run because a statement it depends on failed
+         * or was skipped.
+         */
+        SKIPPED
+    }
+
+    private final ScriptStatement statement;
+    private final Status status;
+    private final Instant startedAt;
+    private final Instant completedAt;
+    private final SQLException failure;
+
+    public ScriptStatementResult(ScriptStatement statement, Status status, Instant startedAt, Instant completedAt, SQLException failure) {
+        this.statement = statement;
+        this.status = status;
+        this.startedAt = startedAt;
+        this.completedAt = completedAt;
+        this.failure = failure;
+    }
+
+    public ScriptStatement statement() {
+        return statement;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    /**
+     * @return when the statement was started, or empty if it was skipped
+     */
+    public Optional<Instant> startedAt() {
+        return Optional.ofNullable(startedAt);
+    }
+
+    /**
+     * @return when the statement completed, or empty if it was skipped
+     */
+    public Optional<Instant> completedAt() {
+        return Optional.ofNullable(completedAt);
+    }
+
+    /**
+     * The time from when the statement was started until it completed,
+     * including any time spent waiting for a query slot and queued in Athena.
+     *
+     * @return the duration of the statement, or zero if it was skipped
+     */
+    public Duration duration() {
+        if (startedAt == null || completedAt == null) {
+            return Duration.ZERO;
+        } else {
+            return Duration.between(startedAt, completedAt);
+        }
+    }
+
+    /**
+     * @return the reason the statement failed, or empty if it did not
+     */
+    public Optional<SQLException> failure() {
+        return Optional.ofNullable(failure);
+    }
+}
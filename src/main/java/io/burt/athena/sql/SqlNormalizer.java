@@ -0,0 +1,206 @@
+package io.burt.athena.sql;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Produces canonical forms of SQL strings.
+ *
+ * The canonical forms are not meant to be executed, only to be compared, for
+ * example to find queries that are likely to behave the same way.
+ * Queries that can safely share an execution or a cached result are told
+ * apart from statements with side effects with {@link #isReadOnly(String)}.
+ */
+public class SqlNormalizer {
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Set<String> READ_ONLY_COMMANDS = new HashSet<>(Arrays.asList("select", "with", "values", "table", "show", "describe", "desc", "explain"));
+
+    private SqlNormalizer() {
+    }
+
+    /**
+     * Returns the shape of a query, without any of its literal values.
+     *
+     * Comments are removed, runs of whitespace are replaced by a single space,
+     * keywords and unquoted identifiers are lower cased, and string and numeric
+     * literals are replaced by a <code>?</code>. Lists of literals, like those
+     * in <code>IN (1, 2, 3)</code>, are collapsed into a single <code>?</code>.
+     *
+     * Two queries that only differ in the values they filter on, like
+     * <code>SELECT * FROM t WHERE day = '2020-01-01'</code> and
+     * <code>select * from t where day = '2020-02-01'</code>, get the same
+     * fingerprint.
+     *
+     * @param sql the query to fingerprint
+     * @return the fingerprint of the query
+     */
+    public static String fingerprint(String sql) {
+        return PLACEHOLDER_LIST.matcher(canonicalize(sql, true)).replaceAll("?");
+    }
+
+    /**
+     * Returns the canonical form of a query.
+     *
+     * This works like {@link #fingerprint(String)}, but literals are kept as
+     * they are, so two queries with the same canonical form only differ in
+     * comments, whitespace and the case of keywords and unquoted identifiers,
+     * and return the same result.
+     *
+     * @param sql the query to normalize
+     * @return the canonical form of the query
+     */
+    public static String normalize(String sql) {
+        return canonicalize(sql, false);
+    }
+
+    /**
+     * Returns whether or not a query only reads data.
+     *
+     * Only the first keyword, after any comments and whitespace, is looked at,
+     * so a query is read-only when it is a <code>SELECT</code>,
+     * <code>WITH</code>, <code>VALUES</code>, <code>TABLE</code>,
+     * <code>SHOW</code>, <code>DESCRIBE</code> or <code>EXPLAIN</code>
+     * statement. Everything else, including <code>INSERT</code>,
+     * <code>CREATE TABLE AS</code> and <code>UNLOAD</code>, is assumed to
+     * have side effects.
+     *
+     * @param sql the query
+     * @return true when the query does not write anything
+     */
+    public static boolean isReadOnly(String sql) {
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = skipLineComment(sql, i);
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = skipBlockComment(sql, i);
+            } else {
+                break;
+            }
+        }
+        int end = i;
+        while (end < length && isIdentifierPart(sql.charAt(end))) {
+            end++;
+        }
+        return READ_ONLY_COMMANDS.contains(sql.substring(i, end).toLowerCase());
+    }
+
+    private static String canonicalize(String sql, boolean replaceLiterals) {
+        StringBuilder canonical = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        boolean pendingSpace = false;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = skipLineComment(sql, i);
+                pendingSpace = true;
+                continue;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = skipBlockComment(sql, i);
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace && canonical.length() > 0) {
+                canonical.append(' ');
+            }
+            pendingSpace = false;
+            if (c == '\'') {
+                int end = skipQuoted(sql, i, '\'');
+                if (replaceLiterals) {
+                    canonical.append('?');
+                } else {
+                    canonical.append(sql, i, end);
+                }
+                i = end;
+            } else if (c == '"' || c == '`') {
+                int end = skipQuoted(sql, i, c);
+                canonical.append(sql, i, end);
+                i = end;
+            } else if (isNumberStart(sql, i)) {
+                int end = skipNumber(sql, i);
+                if (replaceLiterals) {
+                    canonical.append('?');
+                } else {
+                    canonical.append(sql, i, end);
+                }
+                i = end;
+            } else if (isIdentifierPart(c)) {
+                int end = i;
+                while (end < length && isIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                canonical.append(sql.substring(i, end).toLowerCase());
+                i = end;
+            } else {
+                canonical.append(c);
+                i++;
+            }
+        }
+        return canonical.toString();
+    }
+
+    private static int skipLineComment(String sql, int start) {
+        int end = sql.indexOf('\n', start);
+        return end == -1 ? sql.length() : end + 1;
+    }
+
+    private static int skipBlockComment(String sql, int start) {
+        int end = sql.indexOf("*/", start + 2);
+        return end == -1 ? sql.length() : end + 2;
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+
+    private static boolean isNumberStart(String sql, int i) {
+        char c = sql.charAt(i);
+        if (c >= '0' && c <= '9') {
+            return true;
+        } else {
+            return c == '.' && i + 1 < sql.length() && Character.isDigit(sql.charAt(i + 1));
+        }
+    }
+
+    private static int skipNumber(String sql, int start) {
+        int i = start;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isDigit(c) || c == '.') {
+                i++;
+            } else if ((c == 'e' || c == 'E') && i + 1 < sql.length() && (Character.isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '-' || sql.charAt(i + 1) == '+')) {
+                i += 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
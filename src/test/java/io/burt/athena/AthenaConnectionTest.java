@@ -1,7 +1,9 @@
 package io.burt.athena;
 
+import io.burt.athena.cache.QueryRefresher;
 import io.burt.athena.configuration.ConnectionConfiguration;
 import io.burt.athena.polling.PollingStrategy;
+import io.burt.athena.result.Result;
 import io.burt.athena.support.ConfigurableConnectionConfiguration;
 import io.burt.athena.support.QueryExecutionHelper;
 import io.burt.athena.support.TestNameGenerator;
@@ -40,6 +42,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayNameGeneration(TestNameGenerator.class)
@@ -321,6 +324,25 @@ class AthenaConnectionTest {
         }
     }
 
+    @Nested
+    class SetQueryRefresher {
+        @Test
+        void makesStatementsReturnTheLatestResultsOfRefreshedQueries() throws Exception {
+            QueryRefresher queryRefresher = mock(QueryRefresher.class);
+            Result result = mock(Result.class);
+            when(queryRefresher.get("test_db", "SELECT 1")).thenReturn(Optional.of(result));
+            connection.setQueryRefresher(queryRefresher);
+            connection.createStatement().execute("SELECT 1");
+            assertTrue(queryExecutionHelper.startQueryRequests().isEmpty());
+        }
+
+        @Test
+        void throwsWhenClosed() throws Exception {
+            connection.close();
+            assertThrows(SQLException.class, () -> connection.setQueryRefresher(null));
+        }
+    }
+
     @Nested
     class GetSchema {
         @Test
@@ -1,7 +1,12 @@
 package io.burt.athena;
 
+import io.burt.athena.catalog.Catalog;
+import io.burt.athena.catalog.CatalogColumn;
+import io.burt.athena.catalog.CatalogSource;
+import io.burt.athena.catalog.CatalogTable;
 import io.burt.athena.support.PomVersionLoader;
 import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.Nested;
@@ -14,6 +19,9 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.RowIdLifetime;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -22,7 +30,10 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,11 +41,36 @@ import static org.mockito.Mockito.when;
 class AthenaDatabaseMetaDataTest implements PomVersionLoader {
     private DatabaseMetaData metaData;
     private Connection connection;
+    private CatalogSource catalogSource;
+    private Catalog catalog;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         connection = mock(Connection.class);
-        metaData = new AthenaDatabaseMetaData(connection);
+        catalogSource = mock(CatalogSource.class);
+        lenient().when(catalogSource.listDatabases()).thenReturn(Arrays.asList("default", "sales"));
+        lenient().when(catalogSource.listTables("default")).thenReturn(Arrays.asList(
+                new CatalogTable("default", "events", CatalogTable.TABLE, Arrays.asList(
+                        new CatalogColumn("id", "bigint", 1, false, null),
+                        new CatalogColumn("name", "varchar(255)", 2, true, "the name"),
+                        new CatalogColumn("price", "decimal(10,2)", 3, true, null)
+                )),
+                new CatalogTable("default", "events_view", CatalogTable.VIEW, Arrays.asList(
+                        new CatalogColumn("id", "bigint", 1, true, null)
+                ))
+        ));
+        lenient().when(catalogSource.listTables("sales")).thenReturn(Arrays.asList(
+                new CatalogTable("sales", "orders", CatalogTable.TABLE, Arrays.asList(
+                        new CatalogColumn("order_id", "integer", 1, true, null)
+                ))
+        ));
+        catalog = new Catalog(catalogSource, Duration.ofMinutes(1));
+        metaData = new AthenaDatabaseMetaData(connection, catalog);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.close();
     }
 
     @Nested
@@ -1082,23 +1118,75 @@ class AthenaDatabaseMetaDataTest implements PomVersionLoader {
     @Nested
     class GetTables {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getTables("", "", "", new String[]{}));
+        void returnsTheTablesOfAllDatabases() throws Exception {
+            ResultSet rs = metaData.getTables(null, null, null, null);
+            assertTrue(rs.next());
+            assertEquals("AwsDataCatalog", rs.getString("TABLE_CAT"));
+            assertEquals("default", rs.getString("TABLE_SCHEM"));
+            assertEquals("events", rs.getString("TABLE_NAME"));
+            assertEquals("TABLE", rs.getString("TABLE_TYPE"));
+            assertTrue(rs.next());
+            assertEquals("sales", rs.getString("TABLE_SCHEM"));
+            assertEquals("orders", rs.getString("TABLE_NAME"));
+            assertTrue(rs.next());
+            assertEquals("events_view", rs.getString("TABLE_NAME"));
+            assertEquals("VIEW", rs.getString("TABLE_TYPE"));
+            assertFalse(rs.next());
+        }
+
+        @Test
+        void matchesSchemaAndTablePatterns() throws Exception {
+            ResultSet rs = metaData.getTables(null, "def%", "EVENT_", null);
+            assertTrue(rs.next());
+            assertEquals("events", rs.getString("TABLE_NAME"));
+            assertFalse(rs.next());
+        }
+
+        @Test
+        void filtersOnTableTypes() throws Exception {
+            ResultSet rs = metaData.getTables(null, null, null, new String[]{"VIEW"});
+            assertTrue(rs.next());
+            assertEquals("events_view", rs.getString("TABLE_NAME"));
+            assertFalse(rs.next());
+        }
+
+        @Test
+        void returnsNothingForOtherCatalogs() throws Exception {
+            assertFalse(metaData.getTables("", null, null, null).next());
+            assertFalse(metaData.getTables("other", null, null, null).next());
+            assertTrue(metaData.getTables("awsdatacatalog", null, null, null).next());
+        }
+
+        @Test
+        void loadsTheCatalogOnce() throws Exception {
+            metaData.getTables(null, null, null, null);
+            metaData.getTables(null, "sales", null, null);
+            verify(catalogSource, times(1)).listDatabases();
+            verify(catalogSource, times(1)).listTables("sales");
         }
     }
 
     @Nested
     class GetSchemas {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getSchemas());
+        void returnsAllDatabases() throws Exception {
+            ResultSet rs = metaData.getSchemas();
+            assertTrue(rs.next());
+            assertEquals("default", rs.getString("TABLE_SCHEM"));
+            assertEquals("AwsDataCatalog", rs.getString("TABLE_CATALOG"));
+            assertTrue(rs.next());
+            assertEquals("sales", rs.getString("TABLE_SCHEM"));
+            assertFalse(rs.next());
         }
 
         @Nested
         class WhenGivenAPattern {
             @Test
-            void isNotSupported() {
-                assertThrows(UnsupportedOperationException.class, () -> metaData.getSchemas("", ""));
+            void returnsTheMatchingDatabases() throws Exception {
+                ResultSet rs = metaData.getSchemas(null, "s%");
+                assertTrue(rs.next());
+                assertEquals("sales", rs.getString(1));
+                assertFalse(rs.next());
             }
         }
     }
@@ -1106,24 +1194,65 @@ class AthenaDatabaseMetaDataTest implements PomVersionLoader {
     @Nested
     class GetCatalogs {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getCatalogs());
+        void returnsTheAthenaDataCatalog() throws Exception {
+            ResultSet rs = metaData.getCatalogs();
+            assertTrue(rs.next());
+            assertEquals("AwsDataCatalog", rs.getString("TABLE_CAT"));
+            assertFalse(rs.next());
         }
     }
 
     @Nested
     class GetTableTypes {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getTableTypes());
+        void returnsTablesAndViews() throws Exception {
+            ResultSet rs = metaData.getTableTypes();
+            assertTrue(rs.next());
+            assertEquals("TABLE", rs.getString("TABLE_TYPE"));
+            assertTrue(rs.next());
+            assertEquals("VIEW", rs.getString("TABLE_TYPE"));
+            assertFalse(rs.next());
         }
     }
 
     @Nested
     class GetColumns {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getColumns("", "", "", ""));
+        void returnsTheColumnsOfTheMatchingTables() throws Exception {
+            ResultSet rs = metaData.getColumns(null, "default", "events", null);
+            assertTrue(rs.next());
+            assertEquals("default", rs.getString("TABLE_SCHEM"));
+            assertEquals("events", rs.getString("TABLE_NAME"));
+            assertEquals("id", rs.getString("COLUMN_NAME"));
+            assertEquals(Types.BIGINT, rs.getInt("DATA_TYPE"));
+            assertEquals("bigint", rs.getString("TYPE_NAME"));
+            assertEquals(DatabaseMetaData.columnNoNulls, rs.getInt("NULLABLE"));
+            assertEquals("NO", rs.getString("IS_NULLABLE"));
+            assertEquals(1, rs.getInt("ORDINAL_POSITION"));
+            assertTrue(rs.next());
+            assertEquals("name", rs.getString("COLUMN_NAME"));
+            assertEquals(Types.VARCHAR, rs.getInt("DATA_TYPE"));
+            assertEquals("varchar(255)", rs.getString("TYPE_NAME"));
+            assertEquals(255, rs.getInt("COLUMN_SIZE"));
+            assertEquals("the name", rs.getString("REMARKS"));
+            assertEquals(DatabaseMetaData.columnNullable, rs.getInt("NULLABLE"));
+            assertTrue(rs.next());
+            assertEquals("price", rs.getString("COLUMN_NAME"));
+            assertEquals(Types.DECIMAL, rs.getInt("DATA_TYPE"));
+            assertEquals(10, rs.getInt("COLUMN_SIZE"));
+            assertEquals(2, rs.getInt("DECIMAL_DIGITS"));
+            assertEquals(3, rs.getInt("ORDINAL_POSITION"));
+            assertFalse(rs.next());
+        }
+
+        @Test
+        void matchesColumnPatterns() throws Exception {
+            ResultSet rs = metaData.getColumns(null, null, null, "i_");
+            assertTrue(rs.next());
+            assertEquals("events", rs.getString("TABLE_NAME"));
+            assertTrue(rs.next());
+            assertEquals("events_view", rs.getString("TABLE_NAME"));
+            assertFalse(rs.next());
         }
     }
 
@@ -1,7 +1,16 @@
 package io.burt.athena;
 
+import io.burt.athena.admission.AdmissionController;
+import io.burt.athena.admission.RateGovernor;
+import io.burt.athena.budget.QueryBudget;
+import io.burt.athena.cache.ResultCache;
+import io.burt.athena.cache.ResultFileCache;
 import io.burt.athena.configuration.ConnectionConfiguration;
 import io.burt.athena.configuration.ConnectionConfigurationFactory;
+import io.burt.athena.dedup.SingleFlight;
+import io.burt.athena.result.ResultBroadcaster;
+import io.burt.athena.routing.HedgingPolicy;
+import io.burt.athena.routing.WorkGroupRouter;
 import io.burt.athena.support.PomVersionLoader;
 import io.burt.athena.support.QueryExecutionHelper;
 import io.burt.athena.support.TestNameGenerator;
@@ -10,19 +19,26 @@ import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.athena.model.QueryExecutionState;
 import software.amazon.awssdk.services.athena.model.StartQueryExecutionRequest;
 
+import java.nio.file.Path;
 import java.sql.Driver;
 import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -30,9 +46,14 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -43,6 +64,7 @@ class AthenaDriverTest implements PomVersionLoader {
     private Properties defaultProperties;
     private QueryExecutionHelper queryExecutionHelper;
     private ConnectionConfigurationFactory connectionConfigurationFactory;
+    private ConnectionConfiguration connectionConfiguration;
 
     @BeforeEach
     void setUpDriver() {
@@ -51,6 +73,7 @@ class AthenaDriverTest implements PomVersionLoader {
             ConnectionConfiguration cc = (ConnectionConfiguration) invocation.callRealMethod();
             cc = spy(cc);
             lenient().when(cc.athenaClient()).thenReturn(queryExecutionHelper);
+            connectionConfiguration = cc;
             return cc;
         });
         driver = new AthenaDriver(connectionConfigurationFactory);
@@ -74,7 +97,7 @@ class AthenaDriverTest implements PomVersionLoader {
         }
 
         @Test
-        void returnsConnection() {
+        void returnsConnection() throws Exception {
             assertNotNull(driver.connect("jdbc:athena:test_db", defaultProperties));
         }
 
@@ -93,7 +116,7 @@ class AthenaDriverTest implements PomVersionLoader {
         }
 
         @Test
-        void usesTheAwsRegionFromTheProperties() {
+        void usesTheAwsRegionFromTheProperties() throws Exception {
             driver.connect("jdbc:athena", defaultProperties);
             verify(connectionConfigurationFactory).createConnectionConfiguration(eq(Region.AP_SOUTHEAST_1), any(), any(), any(), any(), any(), any());
         }
@@ -112,10 +135,423 @@ class AthenaDriverTest implements PomVersionLoader {
             assertEquals("s3://test/location", request.resultConfiguration().outputLocation());
         }
 
+        @Test
+        void doesNotLimitConcurrencyByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withAdmissionController(any());
+        }
+
+        @Test
+        void doesNotPaceApiCallsByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withRateGovernor(any());
+        }
+
+        @Test
+        void doesNotHedgeQueriesByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withHedgingPolicy(any());
+        }
+
+        @Test
+        void doesNotLimitQueriesByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withQueryBudget(any());
+        }
+
+        @Test
+        void doesNotShareQueryExecutionsByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withSingleFlight(any());
+        }
+
+        @Test
+        void doesNotShareResultDownloadsByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withResultBroadcaster(any());
+        }
+
+        @Test
+        void doesNotCacheResultsByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withResultCache(any());
+            verify(connectionConfiguration, never()).withResultCacheMaxAge(any());
+        }
+
+        @Test
+        void doesNotCacheResultFilesByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withResultFileCache(any());
+        }
+
+        @Test
+        void doesNotAnswerConstantQueriesLocallyByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withLocalConstantQueries(anyBoolean());
+        }
+
+        @Test
+        void usesTheDefaultCatalogCacheTtlByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withCatalogCacheTtl(any());
+        }
+
+        @Test
+        void doesNotUseVirtualThreadsByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withVirtualThreads(anyBoolean());
+        }
+
+        @Test
+        void doesNotRouteQueriesByDefault() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withWorkGroupRouter(any());
+        }
+
+        @Nested
+        class WhenGivenWorkGroups {
+            List<WorkGroupRouter.WorkGroup> workGroups() {
+                ArgumentCaptor<WorkGroupRouter> captor = ArgumentCaptor.forClass(WorkGroupRouter.class);
+                verify(connectionConfiguration).withWorkGroupRouter(captor.capture());
+                return captor.getValue().workGroups();
+            }
+
+            @Test
+            void routesQueriesToTheWorkGroups() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.WORK_GROUPS_PROPERTY_NAME, "wg1:2:s3://bucket/wg1/, wg2");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                List<WorkGroupRouter.WorkGroup> workGroups = workGroups();
+                assertEquals(2, workGroups.size());
+                assertEquals("wg1", workGroups.get(0).name());
+                assertEquals(2.0, workGroups.get(0).weight());
+                assertEquals("s3://bucket/wg1/", workGroups.get(0).outputLocation());
+                assertEquals("wg2", workGroups.get(1).name());
+                assertEquals(1.0, workGroups.get(1).weight());
+                assertNull(workGroups.get(1).outputLocation());
+            }
+
+            @Test
+            void throwsWhenAWorkGroupIsMalformed() {
+                defaultProperties.setProperty(AthenaDriver.WORK_GROUPS_PROPERTY_NAME, "wg1,:2");
+                SQLException e = assertThrows(SQLException.class, () -> driver.connect("jdbc:athena:test_db", defaultProperties));
+                assertTrue(e.getMessage().contains(AthenaDriver.WORK_GROUPS_PROPERTY_NAME));
+            }
+
+            @Test
+            void throwsWhenAWeightIsNotANumber() {
+                defaultProperties.setProperty(AthenaDriver.WORK_GROUPS_PROPERTY_NAME, "wg1:heavy");
+                SQLException e = assertThrows(SQLException.class, () -> driver.connect("jdbc:athena:test_db", defaultProperties));
+                assertTrue(e.getMessage().contains(AthenaDriver.WORK_GROUPS_PROPERTY_NAME));
+                assertTrue(e.getCause() instanceof NumberFormatException);
+            }
+        }
+
+        @Nested
+        class WhenGivenHedgeAfter {
+            HedgingPolicy hedgingPolicy() {
+                ArgumentCaptor<HedgingPolicy> captor = ArgumentCaptor.forClass(HedgingPolicy.class);
+                verify(connectionConfiguration).withHedgingPolicy(captor.capture());
+                return captor.getValue();
+            }
+
+            @Test
+            void hedgesAfterAFixedNumberOfMilliseconds() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.HEDGE_AFTER_PROPERTY_NAME, "2500");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                assertEquals(Duration.ofMillis(2500), hedgingPolicy().threshold());
+            }
+
+            @Test
+            void hedgesAfterAPercentileOfTheQueueTimes() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.HEDGE_AFTER_PROPERTY_NAME, "p95");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                assertEquals(HedgingPolicy.DEFAULT_INITIAL_THRESHOLD, hedgingPolicy().threshold());
+            }
+
+            @Test
+            void throwsWhenTheValueIsMalformed() {
+                defaultProperties.setProperty(AthenaDriver.HEDGE_AFTER_PROPERTY_NAME, "2.5s");
+                SQLException e = assertThrows(SQLException.class, () -> driver.connect("jdbc:athena:test_db", defaultProperties));
+                assertTrue(e.getMessage().contains(AthenaDriver.HEDGE_AFTER_PROPERTY_NAME));
+            }
+        }
+
+        @Nested
+        class WhenGivenQueryBudgetLimits {
+            QueryBudget queryBudget() {
+                ArgumentCaptor<QueryBudget> captor = ArgumentCaptor.forClass(QueryBudget.class);
+                verify(connectionConfiguration).withQueryBudget(captor.capture());
+                return captor.getValue();
+            }
+
+            @Test
+            void limitsTheDataScanned() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.MAX_DATA_SCANNED_PROPERTY_NAME, "1000000");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                assertEquals(1000000L, queryBudget().maxDataScannedBytes());
+            }
+
+            @Test
+            void limitsTheEngineExecutionTime() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.MAX_ENGINE_EXECUTION_TIME_PROPERTY_NAME, "60000");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                assertEquals(Duration.ofMinutes(1), queryBudget().maxEngineExecutionTime());
+            }
+
+            @Test
+            void throwsWhenALimitIsNotANumber() {
+                defaultProperties.setProperty(AthenaDriver.MAX_DATA_SCANNED_PROPERTY_NAME, "1GB");
+                SQLException e = assertThrows(SQLException.class, () -> driver.connect("jdbc:athena:test_db", defaultProperties));
+                assertTrue(e.getMessage().contains(AthenaDriver.MAX_DATA_SCANNED_PROPERTY_NAME));
+            }
+        }
+
+        @Nested
+        class WhenGivenSingleFlight {
+            @Test
+            void sharesQueryExecutionsWithTheJvmWideRegistry() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.SINGLE_FLIGHT_PROPERTY_NAME, "true");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withSingleFlight(SingleFlight.shared());
+            }
+        }
+
+        @Nested
+        class WhenGivenBroadcastResults {
+            @Test
+            void sharesResultDownloadsWithTheJvmWideBroadcaster() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.BROADCAST_RESULTS_PROPERTY_NAME, "true");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withResultBroadcaster(ResultBroadcaster.shared());
+            }
+        }
+
+        @Nested
+        class WhenGivenResultCache {
+            @Test
+            void cachesResultsInTheJvmWideCache() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.RESULT_CACHE_PROPERTY_NAME, "true");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withResultCache(ResultCache.shared());
+            }
+        }
+
+        @Nested
+        class WhenGivenResultCacheMaxAge {
+            @Test
+            void setsTheMaxAgeOfCachedResults() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.RESULT_CACHE_MAX_AGE_PROPERTY_NAME, "60000");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withResultCacheMaxAge(Duration.ofMinutes(1));
+            }
+        }
+
+        @Nested
+        class WhenGivenResultFileCacheDirectory {
+            @Test
+            void cachesResultFilesInTheDirectory(@TempDir Path directory) throws Exception {
+                defaultProperties.setProperty(AthenaDriver.RESULT_FILE_CACHE_DIRECTORY_PROPERTY_NAME, directory.toString());
+                defaultProperties.setProperty(AthenaDriver.RESULT_FILE_CACHE_SIZE_PROPERTY_NAME, "1000000");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withResultFileCache(ResultFileCache.forDirectory(directory, 1_000_000));
+            }
+        }
+
+        @Nested
+        class WhenGivenLocalConstantQueries {
+            @Test
+            void answersConstantQueriesLocally() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.LOCAL_CONSTANT_QUERIES_PROPERTY_NAME, "true");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withLocalConstantQueries(true);
+            }
+        }
+
+        @Nested
+        class WhenGivenCatalogCacheTtl {
+            @Test
+            void setsTheTtlOfTheCatalogCache() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.CATALOG_CACHE_TTL_PROPERTY_NAME, "60000");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withCatalogCacheTtl(Duration.ofMinutes(1));
+            }
+        }
+
+        @Nested
+        class WhenGivenVirtualThreads {
+            @Test
+            void runsTheSdkCallbacksOnVirtualThreads() throws Exception {
+                assumeTrue(VirtualThreads.isAvailable());
+                defaultProperties.setProperty(AthenaDriver.VIRTUAL_THREADS_PROPERTY_NAME, "true");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withVirtualThreads(true);
+            }
+
+            @Test
+            void failsWhenTheJvmDoesNotSupportVirtualThreads() {
+                assumeFalse(VirtualThreads.isAvailable());
+                defaultProperties.setProperty(AthenaDriver.VIRTUAL_THREADS_PROPERTY_NAME, "true");
+                assertThrows(UnsupportedOperationException.class, () -> driver.connect("jdbc:athena:test_db", defaultProperties));
+            }
+        }
+
+        @Nested
+        class WhenGivenRateGovernor {
+            @Test
+            void pacesApiCallsWithTheSharedRateGovernor() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.RATE_GOVERNOR_PROPERTY_NAME, "true");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withRateGovernor(RateGovernor.shared());
+            }
+        }
+
+        @Test
+        void usesTheDefaultPollingStrategy() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withPollingStrategy(any());
+        }
+
+        @Nested
+        class WhenGivenPredictivePolling {
+            @Test
+            void usesThePredictivePollingStrategy() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.PREDICTIVE_POLLING_PROPERTY_NAME, "true");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withPollingStrategy(any());
+            }
+        }
+
+        @Nested
+        class WhenGivenMaxConcurrentQueries {
+            @BeforeEach
+            void setUp() {
+                defaultProperties.setProperty(AthenaDriver.MAX_CONCURRENT_QUERIES_PROPERTY_NAME, "7");
+            }
+
+            AdmissionController admissionController() {
+                ArgumentCaptor<AdmissionController> captor = ArgumentCaptor.forClass(AdmissionController.class);
+                verify(connectionConfiguration).withAdmissionController(captor.capture());
+                return captor.getValue();
+            }
+
+            @Test
+            void limitsTheNumberOfConcurrentQueries() throws Exception {
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                assertEquals(7, admissionController().limit());
+            }
+
+            @Test
+            void throwsWhenTheLimitIsNotANumber() {
+                defaultProperties.setProperty(AthenaDriver.MAX_CONCURRENT_QUERIES_PROPERTY_NAME, "seven");
+                SQLException e = assertThrows(SQLException.class, () -> driver.connect("jdbc:athena:test_db", defaultProperties));
+                assertTrue(e.getMessage().contains(AthenaDriver.MAX_CONCURRENT_QUERIES_PROPERTY_NAME));
+            }
+
+            @Test
+            void doesNotAdaptTheLimitToThrottling() throws Exception {
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                AdmissionController admissionController = admissionController();
+                admissionController.acquire(Duration.ZERO).get().throttled();
+                assertEquals(7, admissionController.limit());
+            }
+
+            @Nested
+            class AndAdaptiveConcurrency {
+                @BeforeEach
+                void setUp() {
+                    defaultProperties.setProperty(AthenaDriver.ADAPTIVE_CONCURRENCY_PROPERTY_NAME, "true");
+                }
+
+                @Test
+                void adaptsTheLimitToThrottling() throws Exception {
+                    driver.connect("jdbc:athena:test_db", defaultProperties);
+                    AdmissionController admissionController = admissionController();
+                    admissionController.acquire(Duration.ZERO).get().throttled();
+                    assertEquals(3, admissionController.limit());
+                }
+            }
+        }
+
+        @Nested
+        class WhenGivenTenantWeights {
+            @BeforeEach
+            void setUp() {
+                defaultProperties.setProperty(AthenaDriver.MAX_CONCURRENT_QUERIES_PROPERTY_NAME, "1");
+                defaultProperties.setProperty(AthenaDriver.TENANT_WEIGHTS_PROPERTY_NAME, "a:2, b:1");
+            }
+
+            @Test
+            void setsTheWeightsOfTheTenants() throws Exception {
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                ArgumentCaptor<AdmissionController> captor = ArgumentCaptor.forClass(AdmissionController.class);
+                verify(connectionConfiguration).withAdmissionController(captor.capture());
+                AdmissionController admissionController = captor.getValue();
+                AdmissionController.Slot slot = admissionController.acquire(Duration.ZERO).get();
+                CompletableFuture<AdmissionController.Slot> a1 = admissionController.acquire(0, "a", Duration.ofMinutes(1));
+                CompletableFuture<AdmissionController.Slot> a2 = admissionController.acquire(0, "a", Duration.ofMinutes(1));
+                CompletableFuture<AdmissionController.Slot> b1 = admissionController.acquire(0, "b", Duration.ofMinutes(1));
+                slot.release();
+                a1.get().release();
+                assertTrue(a2.isDone());
+                assertFalse(b1.isDone());
+            }
+
+            @Test
+            void throwsWhenTheWeightsAreMalformed() {
+                defaultProperties.setProperty(AthenaDriver.TENANT_WEIGHTS_PROPERTY_NAME, "a=2");
+                SQLException e = assertThrows(SQLException.class, () -> driver.connect("jdbc:athena:test_db", defaultProperties));
+                assertTrue(e.getMessage().contains(AthenaDriver.TENANT_WEIGHTS_PROPERTY_NAME));
+            }
+
+            @Test
+            void throwsWhenAWeightIsNotAPositiveNumber() {
+                defaultProperties.setProperty(AthenaDriver.TENANT_WEIGHTS_PROPERTY_NAME, "a:2, b:lots");
+                SQLException e = assertThrows(SQLException.class, () -> driver.connect("jdbc:athena:test_db", defaultProperties));
+                assertTrue(e.getMessage().contains(AthenaDriver.TENANT_WEIGHTS_PROPERTY_NAME));
+                defaultProperties.setProperty(AthenaDriver.TENANT_WEIGHTS_PROPERTY_NAME, "a:2, b:0");
+                e = assertThrows(SQLException.class, () -> driver.connect("jdbc:athena:test_db", defaultProperties));
+                assertTrue(e.getMessage().contains(AthenaDriver.TENANT_WEIGHTS_PROPERTY_NAME));
+            }
+        }
+
+        @Test
+        void usesTheDefaultPriorityAndTenant() throws Exception {
+            driver.connect("jdbc:athena:test_db", defaultProperties);
+            verify(connectionConfiguration, never()).withPriority(anyInt());
+            verify(connectionConfiguration, never()).withTenant(any());
+        }
+
+        @Nested
+        class WhenGivenPriority {
+            @Test
+            void usesThePriorityFromTheProperties() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.PRIORITY_PROPERTY_NAME, "5");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withPriority(5);
+            }
+
+            @Test
+            void throwsWhenThePriorityIsNotANumber() {
+                defaultProperties.setProperty(AthenaDriver.PRIORITY_PROPERTY_NAME, "high");
+                SQLException e = assertThrows(SQLException.class, () -> driver.connect("jdbc:athena:test_db", defaultProperties));
+                assertTrue(e.getMessage().contains(AthenaDriver.PRIORITY_PROPERTY_NAME));
+            }
+        }
+
+        @Nested
+        class WhenGivenTenant {
+            @Test
+            void usesTheTenantFromTheProperties() throws Exception {
+                defaultProperties.setProperty(AthenaDriver.TENANT_PROPERTY_NAME, "dashboards");
+                driver.connect("jdbc:athena:test_db", defaultProperties);
+                verify(connectionConfiguration).withTenant("dashboards");
+            }
+        }
+
         @Nested
         class WhenGivenABadUrl {
             @Test
-            void returnsNull() {
+            void returnsNull() throws Exception {
                 assertNull(driver.connect("athena:jdbc://hello", new Properties()));
             }
         }
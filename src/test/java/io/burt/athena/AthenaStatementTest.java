@@ -1,8 +1,23 @@
 package io.burt.athena;
 
+import io.burt.athena.admission.AdmissionController;
+import io.burt.athena.admission.RateGovernor;
+import io.burt.athena.budget.QueryBudget;
+import io.burt.athena.budget.QueryBudgetExceededException;
+import io.burt.athena.cache.QueryRefresher;
+import io.burt.athena.cache.ResultCache;
 import io.burt.athena.configuration.ConnectionConfiguration;
+import io.burt.athena.dedup.ClientRequestTokens;
+import io.burt.athena.dedup.SingleFlight;
+import io.burt.athena.polling.PollingCallback;
+import io.burt.athena.polling.PollingScheduler;
+import io.burt.athena.polling.PollingStrategies;
 import io.burt.athena.polling.PollingStrategy;
 import io.burt.athena.result.Result;
+import io.burt.athena.routing.HedgingPolicy;
+import io.burt.athena.routing.WorkGroupRouter;
+import io.burt.athena.sql.ScriptExecutionException;
+import io.burt.athena.sql.ScriptStatementResult;
 import io.burt.athena.support.ConfigurableConnectionConfiguration;
 import io.burt.athena.support.QueryExecutionHelper;
 import io.burt.athena.support.TestClock;
@@ -13,33 +28,50 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
 import software.amazon.awssdk.services.athena.model.GetQueryExecutionRequest;
 import software.amazon.awssdk.services.athena.model.InternalServerException;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
 import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
 import software.amazon.awssdk.services.athena.model.StartQueryExecutionRequest;
 import software.amazon.awssdk.services.athena.model.StopQueryExecutionRequest;
 import software.amazon.awssdk.services.athena.model.TooManyRequestsException;
 
+import java.sql.BatchUpdateException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLTimeoutException;
 import java.sql.Statement;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayNameGeneration(TestNameGenerator.class)
@@ -321,6 +353,1163 @@ class AthenaStatementTest {
         }
     }
 
+    @Nested
+    class ExecuteAsync extends SharedExecuteSetup {
+        @Test
+        void completesWithAResultSet() throws Exception {
+            AthenaResultSet rs = statement.executeAsync("SELECT 1").get();
+            assertNotNull(rs);
+        }
+
+        @Test
+        void startsQueryExecution() throws Exception {
+            statement.executeAsync("SELECT 1").get();
+            StartQueryExecutionRequest request = queryExecutionHelper.startQueryRequests().get(0);
+            assertEquals("SELECT 1", request.queryString());
+            assertEquals("test_db", request.queryExecutionContext().database());
+            assertEquals("test_wg", request.workGroup());
+            assertEquals("s3://test/location", request.resultConfiguration().outputLocation());
+        }
+
+        @Test
+        void pollsUntilSucceeded() throws Exception {
+            statement.executeAsync("SELECT 1").get();
+            List<GetQueryExecutionRequest> pollRequests = queryExecutionHelper.getQueryExecutionRequests();
+            assertEquals(3, pollRequests.size());
+            assertEquals("Q1234", pollRequests.get(2).queryExecutionId());
+        }
+
+        @Test
+        void createsAResultFromTheQueryExecution() throws Exception {
+            statement.executeAsync("SELECT 1").get().next();
+            assertEquals("Q1234", resultFactoryQueryExecution.queryExecutionId());
+        }
+
+        @Test
+        void stopsTheQueryExecutionWhenTheFutureIsCancelled() throws Exception {
+            queryExecutionHelper.blockGetQueryExecutionResponse();
+            CompletableFuture<AthenaResultSet> future = statement.executeAsync("SELECT 1");
+            while (queryExecutionHelper.getQueryExecutionRequests().size() == 0) {
+                Thread.sleep(1);
+            }
+            future.cancel(true);
+            queryExecutionHelper.unblockGetQueryExecutionResponse();
+            assertEquals("Q1234", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+        }
+
+        @Test
+        void doesNotChangeTheCurrentResultSet() throws Exception {
+            statement.executeAsync("SELECT 1").get();
+            assertNull(statement.getResultSet());
+        }
+
+        @Test
+        void completesExceptionallyOnFailure() {
+            queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.FAILED, "Teh bork");
+            ExecutionException e = assertThrows(ExecutionException.class, () -> statement.executeAsync("SELECT 1").get());
+            assertTrue(e.getCause() instanceof SQLException);
+            assertEquals("Teh bork", e.getCause().getMessage());
+        }
+
+        @Test
+        void completesExceptionallyWhenStartQueryExecutionFails() {
+            queryExecutionHelper.queueStartQueryExecutionException(InternalServerException.builder().message("b0rk").build());
+            ExecutionException e = assertThrows(ExecutionException.class, () -> statement.executeAsync("SELECT 1").get());
+            assertTrue(e.getCause() instanceof SQLException);
+            assertTrue(e.getCause().getCause() instanceof InternalServerException);
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void completesExceptionally() throws Exception {
+                statement.close();
+                ExecutionException e = assertThrows(ExecutionException.class, () -> statement.executeAsync("SELECT 1").get());
+                assertTrue(e.getCause() instanceof SQLException);
+            }
+        }
+
+        @Nested
+        class WhenTheQueryTimesOut {
+            @BeforeEach
+            void setUp() {
+                pollingStrategy = PollingStrategies.fixedDelay(Duration.ofMillis(1));
+                queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+                for (int i = 0; i < 100; i++) {
+                    queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+                }
+                statement.setQueryTimeout(Duration.ofMillis(-1));
+            }
+
+            @Test
+            void completesWithATimeoutException() {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> statement.executeAsync("SELECT 1").get());
+                assertTrue(e.getCause() instanceof SQLTimeoutException);
+            }
+
+            @Test
+            void cancelsTheQuery() {
+                assertThrows(ExecutionException.class, () -> statement.executeAsync("SELECT 1").get());
+                StopQueryExecutionRequest request = queryExecutionHelper.stopQueryExecutionRequests().get(0);
+                assertEquals("Q1234", request.queryExecutionId());
+            }
+        }
+    }
+
+    @Nested
+    class WithAnAdaptivePollingStrategy extends SharedExecuteSetup {
+        private List<String> polledQueries;
+        private List<QueryExecution> completedQueryExecutions;
+
+        @BeforeEach
+        void setUp() {
+            PollingStrategy basePollingStrategy = createPollingStrategy();
+            polledQueries = new ArrayList<>();
+            completedQueryExecutions = new ArrayList<>();
+            pollingStrategy = new PollingStrategy() {
+                @Override
+                public ResultSet pollUntilCompleted(PollingCallback callback, Instant deadline) throws SQLException, TimeoutException, ExecutionException, InterruptedException {
+                    return basePollingStrategy.pollUntilCompleted(callback, deadline);
+                }
+
+                @Override
+                public PollingStrategy forQuery(String sql) {
+                    polledQueries.add(sql);
+                    return this;
+                }
+
+                @Override
+                public void recordCompletion(QueryExecution queryExecution) {
+                    completedQueryExecutions.add(queryExecution);
+                }
+            };
+        }
+
+        @Test
+        void getsAStrategyForTheQuery() throws Exception {
+            statement.execute("SELECT 1");
+            assertEquals(Arrays.asList("SELECT 1"), polledQueries);
+        }
+
+        @Test
+        void recordsTheCompletedQueryExecution() throws Exception {
+            statement.execute("SELECT 1");
+            assertEquals("Q1234", completedQueryExecutions.get(0).queryExecutionId());
+        }
+
+        @Test
+        void getsAStrategyForAsyncQueries() throws Exception {
+            statement.executeAsync("SELECT 1").get();
+            assertEquals(Arrays.asList("SELECT 1"), polledQueries);
+            assertEquals(1, completedQueryExecutions.size());
+        }
+
+        @Test
+        void doesNotRecordFailedQueryExecutions() {
+            queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.FAILED, "Teh bork");
+            assertThrows(SQLException.class, () -> statement.execute("SELECT 1"));
+            assertEquals(0, completedQueryExecutions.size());
+        }
+    }
+
+    @Nested
+    class WithBatchPolling extends SharedExecuteSetup {
+        @BeforeEach
+        void setUp() {
+            statement = new AthenaStatement(createConfiguration().withBatchPollingInterval(Duration.ofMillis(1)), clock);
+        }
+
+        @Test
+        void pollsWithBatchGetQueryExecution() throws Exception {
+            statement.execute("SELECT 1");
+            assertEquals(0, queryExecutionHelper.getQueryExecutionRequests().size());
+            assertEquals(3, queryExecutionHelper.batchGetQueryExecutionRequests().size());
+            assertEquals("Q1234", queryExecutionHelper.batchGetQueryExecutionRequests().get(0).queryExecutionIds().get(0));
+        }
+
+        @Test
+        void createsAResultSetFromTheQueryExecution() throws Exception {
+            statement.executeQuery("SELECT 1").next();
+            assertEquals("Q1234", resultFactoryQueryExecution.queryExecutionId());
+        }
+
+        @Test
+        void throwsOnFailure() {
+            queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.FAILED, "Teh bork");
+            SQLException e = assertThrows(SQLException.class, () -> statement.execute("SELECT 1"));
+            assertEquals("Teh bork", e.getMessage());
+        }
+
+        @Test
+        void completesAsyncExecutions() throws Exception {
+            assertNotNull(statement.executeAsync("SELECT 1").get());
+            assertEquals(0, queryExecutionHelper.getQueryExecutionRequests().size());
+            assertEquals(3, queryExecutionHelper.batchGetQueryExecutionRequests().size());
+        }
+
+        @Test
+        void throwsWhenTheQueryDoesNotCompleteBeforeTheTimeout() {
+            queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+            for (int i = 0; i < 1000; i++) {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            }
+            statement.setQueryTimeout(Duration.ofMillis(-1));
+            assertThrows(SQLTimeoutException.class, () -> statement.execute("SELECT 1"));
+            assertEquals("Q1234", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+        }
+    }
+
+    @Nested
+    class WithAQueryBudget {
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+            queryExecutionHelper.queueGetQueryExecutionResponse(b -> b.queryExecution(bb -> bb.status(bbb -> bbb.state(QueryExecutionState.RUNNING)).statistics(bbb -> bbb.dataScannedInBytes(100L).engineExecutionTimeInMillis(1000L))));
+            queryExecutionHelper.queueGetQueryExecutionResponse(b -> b.queryExecution(bb -> bb.status(bbb -> bbb.state(QueryExecutionState.RUNNING)).statistics(bbb -> bbb.dataScannedInBytes(5000L).engineExecutionTimeInMillis(2000L))));
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+        }
+
+        @Test
+        void stopsQueriesThatScanTooMuchData() {
+            statement.setQueryBudget(QueryBudget.UNLIMITED.withMaxDataScanned(1000));
+            QueryBudgetExceededException e = assertThrows(QueryBudgetExceededException.class, () -> statement.execute("SELECT 1"));
+            assertEquals("Q1234", e.getQueryExecutionId());
+            assertEquals(5000L, e.getDataScannedBytes());
+            assertEquals("Q1234", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+        }
+
+        @Test
+        void stopsQueriesThatRunForTooLong() {
+            statement.setQueryBudget(QueryBudget.UNLIMITED.withMaxEngineExecutionTime(Duration.ofMillis(500)));
+            QueryBudgetExceededException e = assertThrows(QueryBudgetExceededException.class, () -> statement.execute("SELECT 1"));
+            assertEquals(Duration.ofSeconds(1), e.getEngineExecutionTime());
+            assertEquals(1, queryExecutionHelper.getQueryExecutionRequests().size());
+        }
+
+        @Test
+        void letsQueriesWithinTheBudgetComplete() throws Exception {
+            statement.setQueryBudget(QueryBudget.UNLIMITED.withMaxDataScanned(10000));
+            assertTrue(statement.execute("SELECT 1"));
+            assertEquals(0, queryExecutionHelper.stopQueryExecutionRequests().size());
+        }
+
+        @Test
+        void usesTheConnectionBudgetByDefault() {
+            statement = new AthenaStatement(createConfiguration().withQueryBudget(QueryBudget.UNLIMITED.withMaxDataScanned(1000)), clock);
+            assertThrows(QueryBudgetExceededException.class, () -> statement.execute("SELECT 1"));
+        }
+
+        @Test
+        void stopsAsyncQueriesThatGoOverTheBudget() {
+            statement.setQueryBudget(QueryBudget.UNLIMITED.withMaxDataScanned(1000));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> statement.executeAsync("SELECT 1").get());
+            assertTrue(e.getCause() instanceof QueryBudgetExceededException);
+            assertEquals("Q1234", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+        }
+
+        @Test
+        void usesTheBudgetFromWhenAnAsyncQueryWasStarted() throws Exception {
+            statement.setQueryBudget(QueryBudget.UNLIMITED.withMaxDataScanned(1000));
+            queryExecutionHelper.blockGetQueryExecutionResponse();
+            CompletableFuture<AthenaResultSet> future;
+            try {
+                future = statement.executeAsync("SELECT 1");
+                statement.setQueryBudget(QueryBudget.UNLIMITED);
+            } finally {
+                queryExecutionHelper.unblockGetQueryExecutionResponse();
+            }
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof QueryBudgetExceededException);
+        }
+
+        @Test
+        void stopsQueriesThatGoOverTheBudgetWithBatchPolling() {
+            statement = new AthenaStatement(createConfiguration().withBatchPollingInterval(Duration.ofMillis(1)).withQueryBudget(QueryBudget.UNLIMITED.withMaxDataScanned(1000)), clock);
+            assertThrows(QueryBudgetExceededException.class, () -> statement.execute("SELECT 1"));
+            assertEquals(2, queryExecutionHelper.batchGetQueryExecutionRequests().size());
+            assertEquals("Q1234", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+        }
+    }
+
+    @Nested
+    class WithResultCache {
+        private ResultCache resultCache;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            resultCache = new ResultCache(1_000_000);
+            statement = new AthenaStatement(createConfiguration().withResultCache(resultCache).withResultCacheMaxAge(Duration.ofMinutes(1)), clock);
+            AthenaResultSetMetaData metaData = new AthenaResultSetMetaData(QueryExecution.builder().build(), ResultSetMetadata.builder().columnInfo(ColumnInfo.builder().name("x").type("varchar").build()).build());
+            when(result.getMetaData()).thenReturn(metaData);
+            when(result.next()).thenReturn(true, false);
+            when(result.getString(1)).thenReturn("hello");
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+            queryExecutionHelper.queueGetQueryExecutionResponse(b -> b.queryExecution(bb -> bb
+                    .query("SELECT 1")
+                    .queryExecutionContext(bbb -> bbb.database("test_db"))
+                    .status(bbb -> bbb.state(QueryExecutionState.SUCCEEDED).completionDateTime(clock.instant()))
+            ));
+            try (ResultSet rs = statement.executeQuery("SELECT 1")) {
+                while (rs.next()) {
+                    rs.getString(1);
+                }
+            }
+            resultFactoryQueryExecution = null;
+        }
+
+        @Test
+        void readsTheResultOfACachedQueryExecutionFromTheCache() throws Exception {
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            ResultSet rs = statement.executeQuery("SELECT 2");
+            assertTrue(rs.next());
+            assertEquals("hello", rs.getString(1));
+            assertFalse(rs.next());
+            assertNull(resultFactoryQueryExecution);
+        }
+
+        @Test
+        void returnsTheCachedResultOfTheSameQueryWithoutStartingAQueryExecution() throws Exception {
+            ResultSet rs = statement.executeQuery("select  1");
+            assertTrue(rs.next());
+            assertEquals("hello", rs.getString(1));
+            assertEquals(1, queryExecutionHelper.startQueryRequests().size());
+        }
+
+        @Test
+        void startsAQueryExecutionEachTimeAStatementThatWritesIsExecuted() throws Exception {
+            for (String queryExecutionId : Arrays.asList("Q2345", "Q3456")) {
+                queryExecutionHelper.queueStartQueryResponse(queryExecutionId);
+                queryExecutionHelper.queueGetQueryExecutionResponse(b -> b.queryExecution(bb -> bb
+                        .query("INSERT INTO t SELECT 1")
+                        .queryExecutionContext(bbb -> bbb.database("test_db"))
+                        .status(bbb -> bbb.state(QueryExecutionState.SUCCEEDED).completionDateTime(clock.instant()))
+                ));
+                try (ResultSet rs = statement.executeQuery("INSERT INTO t SELECT 1")) {
+                    while (rs.next()) {
+                        rs.getString(1);
+                    }
+                }
+            }
+            assertEquals(3, queryExecutionHelper.startQueryRequests().size());
+        }
+
+        @Test
+        void startsAQueryExecutionWhenTheCachedResultIsTooOld() throws Exception {
+            clock.tick(Duration.ofMinutes(2));
+            queryExecutionHelper.queueStartQueryResponse("Q2345");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.executeQuery("SELECT 1");
+            assertEquals(2, queryExecutionHelper.startQueryRequests().size());
+        }
+    }
+
+    @Nested
+    class WithLocalConstantQueries {
+        @BeforeEach
+        void setUp() {
+            statement = new AthenaStatement(createConfiguration().withLocalConstantQueries(true), clock);
+        }
+
+        @Test
+        void answersConstantQueriesWithoutContactingAthena() throws Exception {
+            ResultSet rs = statement.executeQuery("SELECT 1");
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+            assertFalse(rs.next());
+            assertTrue(queryExecutionHelper.startQueryRequests().isEmpty());
+        }
+
+        @Test
+        void runsOtherQueriesInAthena() throws Exception {
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.executeQuery("SELECT 1 FROM t");
+            assertEquals(1, queryExecutionHelper.startQueryRequests().size());
+        }
+
+        @Nested
+        class WhenDisabled {
+            @Test
+            void runsConstantQueriesInAthena() throws Exception {
+                statement = new AthenaStatement(createConfiguration(), clock);
+                queryExecutionHelper.queueStartQueryResponse("Q1234");
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+                statement.executeQuery("SELECT 1");
+                assertEquals(1, queryExecutionHelper.startQueryRequests().size());
+            }
+        }
+    }
+
+    @Nested
+    class WithAQueryRefresher {
+        private QueryRefresher queryRefresher;
+
+        @BeforeEach
+        void setUp() {
+            queryRefresher = mock(QueryRefresher.class);
+            statement = new AthenaStatement(createConfiguration().withQueryRefresher(queryRefresher), clock);
+        }
+
+        @Test
+        void returnsTheLatestResultOfARefreshedQueryWithoutStartingAQueryExecution() throws Exception {
+            when(queryRefresher.get("test_db", "SELECT 1")).thenReturn(Optional.of(result));
+            when(result.getMetaData()).thenReturn(new AthenaResultSetMetaData(QueryExecution.builder().build(), ResultSetMetadata.builder().columnInfo(ColumnInfo.builder().name("x").type("varchar").build()).build()));
+            when(result.next()).thenReturn(true);
+            when(result.getString(1)).thenReturn("hello");
+            ResultSet rs = statement.executeQuery("SELECT 1");
+            assertTrue(rs.next());
+            assertEquals("hello", rs.getString(1));
+            assertTrue(queryExecutionHelper.startQueryRequests().isEmpty());
+        }
+
+        @Test
+        void runsQueriesThatAreNotRefreshed() throws Exception {
+            when(queryRefresher.get("test_db", "SELECT 1")).thenReturn(Optional.empty());
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.executeQuery("SELECT 1");
+            assertEquals(1, queryExecutionHelper.startQueryRequests().size());
+        }
+    }
+
+    @Nested
+    class WithSingleFlight {
+        private SingleFlight singleFlight;
+        private SingleFlight.Flight leader;
+        private Semaphore joined;
+
+        @BeforeEach
+        void setUp() {
+            joined = new Semaphore(0);
+            singleFlight = new SingleFlight() {
+                @Override
+                public Flight join(String key) {
+                    Flight flight = super.join(key);
+                    joined.release();
+                    return flight;
+                }
+            };
+            statement = new AthenaStatement(createConfiguration().withSingleFlight(singleFlight), clock);
+            leader = singleFlight.join(SingleFlight.key(createConfiguration().clientIdentity(), "test_db", "test_wg", "s3://test/location", "SELECT 1"));
+            joined.acquireUninterruptibly();
+        }
+
+        QueryExecution completedQueryExecution(QueryExecutionState state) {
+            return QueryExecution.builder()
+                    .queryExecutionId("Q1234")
+                    .status(b -> b.state(state).stateChangeReason("b0rk"))
+                    .resultConfiguration(b -> b.outputLocation("s3://test/location/Q1234.csv"))
+                    .build();
+        }
+
+        CompletableFuture<Boolean> executeInBackground(String sql) {
+            CompletableFuture<Boolean> execution = new CompletableFuture<>();
+            Thread runner = new Thread(() -> {
+                try {
+                    execution.complete(statement.execute(sql));
+                } catch (Exception e) {
+                    execution.completeExceptionally(e);
+                }
+            });
+            runner.start();
+            joined.acquireUninterruptibly();
+            return execution;
+        }
+
+        @Test
+        void readsTheOutputOfAnIdenticalQueryThatIsAlreadyRunning() throws Exception {
+            CompletableFuture<Boolean> execution = executeInBackground("select  1");
+            leader.started("Q1234");
+            singleFlight.completed(completedQueryExecution(QueryExecutionState.SUCCEEDED));
+            assertTrue(execution.get(1, TimeUnit.SECONDS));
+            assertEquals("Q1234", resultFactoryQueryExecution.queryExecutionId());
+            assertEquals(0, queryExecutionHelper.startQueryRequests().size());
+            assertEquals(0, queryExecutionHelper.getQueryExecutionRequests().size());
+        }
+
+        @Test
+        void failsWhenTheSharedQueryExecutionFails() {
+            CompletableFuture<Boolean> execution = executeInBackground("SELECT 1");
+            leader.started("Q1234");
+            singleFlight.completed(completedQueryExecution(QueryExecutionState.FAILED));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> execution.get(1, TimeUnit.SECONDS));
+            assertEquals("b0rk", e.getCause().getMessage());
+        }
+
+        @Test
+        void pollsTheSharedQueryExecutionWhenTheOtherStatementStopsPolling() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            CompletableFuture<Boolean> execution = executeInBackground("SELECT 1");
+            leader.started("Q1234");
+            leader.finish();
+            assertTrue(execution.get(1, TimeUnit.SECONDS));
+            assertEquals(0, queryExecutionHelper.startQueryRequests().size());
+            assertEquals("Q1234", queryExecutionHelper.getQueryExecutionRequests().get(0).queryExecutionId());
+        }
+
+        @Test
+        void startsItsOwnQueryExecutionWhenTheOtherStatementFailsToStartOne() throws Exception {
+            queryExecutionHelper.queueStartQueryResponse("Q2345");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            CompletableFuture<Boolean> execution = executeInBackground("SELECT 1");
+            leader.finish();
+            assertTrue(execution.get(1, TimeUnit.SECONDS));
+            assertEquals(1, queryExecutionHelper.startQueryRequests().size());
+        }
+
+        @Test
+        void doesNotStopTheSharedQueryExecutionWhenCancelled() throws Exception {
+            leader.started("Q1234");
+            CompletableFuture<Boolean> execution = executeInBackground("SELECT 1");
+            while (true) {
+                try {
+                    statement.cancel();
+                    break;
+                } catch (SQLException e) {
+                    Thread.sleep(1);
+                }
+            }
+            ExecutionException e = assertThrows(ExecutionException.class, () -> execution.get(1, TimeUnit.SECONDS));
+            assertEquals(StatementCancelledException.class, e.getCause().getClass());
+            assertEquals(0, queryExecutionHelper.stopQueryExecutionRequests().size());
+        }
+
+        @Test
+        void startsAQueryExecutionForEachConcurrentStatementThatWrites() throws Exception {
+            AthenaStatement otherStatement = new AthenaStatement(createConfiguration().withSingleFlight(singleFlight), clock);
+            queryExecutionHelper.queueStartQueryResponse("Q2345");
+            queryExecutionHelper.queueStartQueryResponse("Q3456");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            queryExecutionHelper.blockGetQueryExecutionResponse();
+            CompletableFuture<Boolean> execution = new CompletableFuture<>();
+            try {
+                Thread runner = new Thread(() -> {
+                    try {
+                        execution.complete(otherStatement.execute("INSERT INTO t SELECT 1"));
+                    } catch (Exception e) {
+                        execution.completeExceptionally(e);
+                    }
+                });
+                runner.start();
+                while (queryExecutionHelper.getQueryExecutionRequests().size() == 0) {
+                    Thread.sleep(1);
+                }
+                statement.execute("INSERT INTO t SELECT 1");
+            } finally {
+                queryExecutionHelper.unblockGetQueryExecutionResponse();
+            }
+            execution.get(1, TimeUnit.SECONDS);
+            assertEquals(2, queryExecutionHelper.startQueryRequests().size());
+            assertEquals(0, joined.availablePermits());
+        }
+
+        @Test
+        void startsQueriesThatAreNotAlreadyRunning() throws Exception {
+            queryExecutionHelper.queueStartQueryResponse("Q2345");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            queryExecutionHelper.queueStartQueryResponse("Q3456");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.execute("SELECT 2");
+            statement.execute("SELECT 2");
+            assertEquals(2, queryExecutionHelper.startQueryRequests().size());
+        }
+    }
+
+    @Nested
+    class WithRateGovernor extends SharedExecuteSetup {
+        @BeforeEach
+        void setUp() {
+            RateGovernor rateGovernor = new RateGovernor(PollingScheduler.shared());
+            rateGovernor.setRate(RateGovernor.GET_QUERY_EXECUTION, 1000, 1);
+            statement = new AthenaStatement(createConfiguration().withRateGovernor(rateGovernor), clock);
+        }
+
+        @Test
+        void sendsTheApiCallsThroughTheGovernor() throws Exception {
+            assertTrue(statement.execute("SELECT 1"));
+            assertEquals(1, queryExecutionHelper.startQueryRequests().size());
+            assertEquals(3, queryExecutionHelper.getQueryExecutionRequests().size());
+        }
+
+        @Test
+        void sendsAsyncApiCallsThroughTheGovernor() throws Exception {
+            assertNotNull(statement.executeAsync("SELECT 1").get(1, TimeUnit.SECONDS));
+            assertEquals(3, queryExecutionHelper.getQueryExecutionRequests().size());
+        }
+    }
+
+    @Nested
+    class WithAdmissionControl extends SharedExecuteSetup {
+        private AdmissionController admissionController;
+
+        @BeforeEach
+        void setUp() {
+            admissionController = new AdmissionController(1, 1, PollingScheduler.shared(), Duration.ofMillis(1));
+            statement = new AthenaStatement(createConfiguration().withAdmissionController(admissionController), clock);
+        }
+
+        @Test
+        void releasesTheSlotWhenTheQueryHasCompleted() throws Exception {
+            statement.execute("SELECT 1");
+            assertEquals(0, admissionController.slotsInUse());
+        }
+
+        @Test
+        void releasesTheSlotWhenTheQueryFails() {
+            queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.FAILED, "Teh bork");
+            assertThrows(SQLException.class, () -> statement.execute("SELECT 1"));
+            assertEquals(0, admissionController.slotsInUse());
+        }
+
+        @Test
+        void releasesTheSlotWhenAnAsyncQueryHasCompleted() throws Exception {
+            statement.executeAsync("SELECT 1").get();
+            assertEquals(0, admissionController.slotsInUse());
+        }
+
+        @Nested
+        class WhenStartingTheQueryIsThrottled {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.queueStartQueryExecutionException(TooManyRequestsException.builder().message("Too many queries").build());
+                queryExecutionHelper.queueStartQueryResponse("Q1234");
+            }
+
+            @Test
+            void retriesWhenASlotIsAvailable() throws Exception {
+                assertTrue(statement.execute("SELECT 1"));
+                assertEquals(2, queryExecutionHelper.startQueryRequests().size());
+            }
+
+            @Test
+            void retriesAsyncExecutionsWhenASlotIsAvailable() throws Exception {
+                assertNotNull(statement.executeAsync("SELECT 1").get(1, TimeUnit.SECONDS));
+                assertEquals(2, queryExecutionHelper.startQueryRequests().size());
+            }
+        }
+
+        @Nested
+        class WhenStatementsHaveDifferentPriorities {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.queueStartQueryResponse("Q2345");
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            }
+
+            @Test
+            void startsTheQueryWithTheHighestPriorityFirst() throws Exception {
+                AdmissionController.Slot slot = admissionController.acquire(Duration.ofMinutes(1)).get();
+                AthenaStatement otherStatement = new AthenaStatement(createConfiguration().withAdmissionController(admissionController), clock);
+                otherStatement.setPriority(10);
+                CompletableFuture<AthenaResultSet> low = statement.executeAsync("SELECT 'low'");
+                CompletableFuture<AthenaResultSet> high = otherStatement.executeAsync("SELECT 'high'");
+                slot.release();
+                high.get(1, TimeUnit.SECONDS);
+                low.get(1, TimeUnit.SECONDS);
+                assertEquals("SELECT 'high'", queryExecutionHelper.startQueryRequests().get(0).queryString());
+                assertEquals("SELECT 'low'", queryExecutionHelper.startQueryRequests().get(1).queryString());
+            }
+        }
+
+        @Nested
+        class WhenNoSlotBecomesAvailable {
+            @BeforeEach
+            void setUp() throws Exception {
+                admissionController.acquire(Duration.ofMinutes(1)).get();
+                statement.setQueryTimeout(Duration.ofMillis(10));
+            }
+
+            @Test
+            void throwsAnError() {
+                assertThrows(SQLTimeoutException.class, () -> statement.execute("SELECT 1"));
+                assertEquals(0, queryExecutionHelper.startQueryRequests().size());
+            }
+
+            @Test
+            void completesAsyncExecutionsExceptionally() {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> statement.executeAsync("SELECT 1").get(1, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof SQLTimeoutException);
+            }
+        }
+    }
+
+    @Nested
+    class WithWorkGroupRouting extends SharedExecuteSetup {
+        private WorkGroupRouter router;
+
+        @BeforeEach
+        void setUp() {
+            router = new WorkGroupRouter(Arrays.asList(
+                    new WorkGroupRouter.WorkGroup("wg1", "s3://test/wg1", 1),
+                    new WorkGroupRouter.WorkGroup("wg2", null, 1)
+            ));
+            statement = new AthenaStatement(createConfiguration().withWorkGroupRouter(router), clock);
+        }
+
+        @Test
+        void startsTheQueryInTheRoutedWorkGroup() throws Exception {
+            statement.execute("SELECT 1");
+            StartQueryExecutionRequest request = queryExecutionHelper.startQueryRequests().get(0);
+            assertEquals("wg1", request.workGroup());
+            assertEquals("s3://test/wg1", request.resultConfiguration().outputLocation());
+        }
+
+        @Test
+        void usesTheConnectionsOutputLocationWhenTheWorkGroupHasNone() throws Exception {
+            router.route();
+            statement.execute("SELECT 1");
+            StartQueryExecutionRequest request = queryExecutionHelper.startQueryRequests().get(0);
+            assertEquals("wg2", request.workGroup());
+            assertEquals("s3://test/location", request.resultConfiguration().outputLocation());
+        }
+
+        @Test
+        void usesTheConnectionsOutputLocationForAsyncQueriesWhenTheWorkGroupHasNone() throws Exception {
+            router.route();
+            statement.executeAsync("SELECT 1").get(1, TimeUnit.SECONDS);
+            StartQueryExecutionRequest request = queryExecutionHelper.startQueryRequests().get(0);
+            assertEquals("wg2", request.workGroup());
+            assertEquals("s3://test/location", request.resultConfiguration().outputLocation());
+        }
+
+        @Test
+        void releasesTheRouteWhenTheQueryHasCompleted() throws Exception {
+            statement.execute("SELECT 1");
+            assertEquals(0, router.pending("wg1"));
+        }
+
+        @Test
+        void releasesTheRouteWhenAnAsyncQueryHasCompleted() throws Exception {
+            statement.executeAsync("SELECT 1").get(1, TimeUnit.SECONDS);
+            assertEquals(0, router.pending("wg1"));
+        }
+
+        @Test
+        void recordsTheQueueTimeOfTheWorkGroup() throws Exception {
+            queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+            queryExecutionHelper.queueGetQueryExecutionResponse(b -> b.queryExecution(bb -> bb
+                    .workGroup("wg1")
+                    .statistics(bbb -> bbb.queryQueueTimeInMillis(1000L))
+                    .status(bbb -> bbb.state(QueryExecutionState.SUCCEEDED))
+                    .resultConfiguration(bbb -> bbb.outputLocation("s3://dummy/location.csv"))));
+            statement.execute("SELECT 1");
+            assertTrue(router.estimatedQueueTime("wg1").compareTo(Duration.ZERO) > 0);
+            assertEquals(Duration.ZERO, router.estimatedQueueTime("wg2"));
+        }
+
+        @Nested
+        class WhenStartingTheQueryIsThrottled {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.queueStartQueryExecutionException(TooManyRequestsException.builder().message("Too many queries").build());
+                queryExecutionHelper.queueStartQueryResponse("Q1234");
+            }
+
+            @Test
+            void retriesInAnotherWorkGroup() throws Exception {
+                assertTrue(statement.execute("SELECT 1"));
+                assertEquals("wg1", queryExecutionHelper.startQueryRequests().get(0).workGroup());
+                assertEquals("wg2", queryExecutionHelper.startQueryRequests().get(1).workGroup());
+            }
+
+            @Test
+            void retriesAsyncExecutionsInAnotherWorkGroup() throws Exception {
+                assertNotNull(statement.executeAsync("SELECT 1").get(1, TimeUnit.SECONDS));
+                assertEquals("wg1", queryExecutionHelper.startQueryRequests().get(0).workGroup());
+                assertEquals("wg2", queryExecutionHelper.startQueryRequests().get(1).workGroup());
+            }
+
+            @Test
+            void throwsWhenAllWorkGroupsAreThrottled() {
+                queryExecutionHelper.queueStartQueryExecutionException(TooManyRequestsException.builder().message("Too many queries").build());
+                SQLException e = assertThrows(SQLException.class, () -> statement.execute("SELECT 1"));
+                assertTrue(e.getCause() instanceof TooManyRequestsException);
+                assertEquals(2, queryExecutionHelper.startQueryRequests().size());
+                assertEquals(0, router.pending("wg1"));
+                assertEquals(0, router.pending("wg2"));
+            }
+        }
+    }
+
+    @Nested
+    class WithHedging extends SharedExecuteSetup {
+        private WorkGroupRouter router;
+
+        @BeforeEach
+        void setUp() {
+            router = new WorkGroupRouter(Arrays.asList(
+                    new WorkGroupRouter.WorkGroup("wg1", null, 1),
+                    new WorkGroupRouter.WorkGroup("wg2", null, 1)
+            ));
+            statement = new AthenaStatement(createConfiguration().withWorkGroupRouter(router), clock);
+            statement.setHedgingPolicy(HedgingPolicy.after(Duration.ZERO));
+            statement.setClientRequestTokenProvider(sql -> Optional.of("token"));
+            queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+            queryExecutionHelper.queueStartQueryResponse("Q2345");
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1234", QueryExecutionState.QUEUED);
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1234", QueryExecutionState.QUEUED);
+        }
+
+        @Test
+        void usesTheConnectionsHedgingPolicyByDefault() {
+            assertNull(new AthenaStatement(createConfiguration(), clock).getHedgingPolicy());
+        }
+
+        @Nested
+        class WhenTheHedgeSucceedsFirst {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q2345", QueryExecutionState.SUCCEEDED);
+            }
+
+            @Test
+            void startsTheSameQueryInAnotherWorkGroup() throws Exception {
+                statement.execute("SELECT 1");
+                List<StartQueryExecutionRequest> requests = queryExecutionHelper.startQueryRequests();
+                assertEquals(2, requests.size());
+                assertEquals("wg1", requests.get(0).workGroup());
+                assertEquals("wg2", requests.get(1).workGroup());
+                assertEquals("SELECT 1", requests.get(1).queryString());
+            }
+
+            @Test
+            void startsTheHedgeWithoutAClientRequestToken() throws Exception {
+                statement.execute("SELECT 1");
+                assertEquals("token", queryExecutionHelper.startQueryRequests().get(0).clientRequestToken());
+                assertNull(queryExecutionHelper.startQueryRequests().get(1).clientRequestToken());
+            }
+
+            @Test
+            void usesTheResultOfTheHedge() throws Exception {
+                statement.execute("SELECT 1");
+                assertEquals("Q2345", resultFactoryQueryExecution.queryExecutionId());
+            }
+
+            @Test
+            void stopsTheOriginalQuery() throws Exception {
+                statement.execute("SELECT 1");
+                assertEquals(1, queryExecutionHelper.stopQueryExecutionRequests().size());
+                assertEquals("Q1234", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+            }
+
+            @Test
+            void releasesTheRoutes() throws Exception {
+                statement.execute("SELECT 1");
+                assertEquals(0, router.pending("wg1"));
+                assertEquals(0, router.pending("wg2"));
+            }
+
+            @Test
+            void hedgesAsyncExecutions() throws Exception {
+                statement.executeAsync("SELECT 1").get(1, TimeUnit.SECONDS);
+                assertEquals("Q2345", resultFactoryQueryExecution.queryExecutionId());
+                assertEquals("Q1234", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+                assertEquals(0, router.pending("wg2"));
+            }
+        }
+
+        @Nested
+        class WhenTheOriginalQuerySucceedsFirst {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q1234", QueryExecutionState.SUCCEEDED);
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q2345", QueryExecutionState.QUEUED);
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q2345", QueryExecutionState.QUEUED);
+            }
+
+            @Test
+            void usesTheResultOfTheOriginalQuery() throws Exception {
+                statement.execute("SELECT 1");
+                assertEquals("Q1234", resultFactoryQueryExecution.queryExecutionId());
+            }
+
+            @Test
+            void stopsTheHedge() throws Exception {
+                statement.execute("SELECT 1");
+                assertEquals(1, queryExecutionHelper.stopQueryExecutionRequests().size());
+                assertEquals("Q2345", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+            }
+        }
+
+        @Nested
+        class WhenTheQueryHasNotBeenQueuedForLong {
+            @BeforeEach
+            void setUp() {
+                statement.setHedgingPolicy(HedgingPolicy.after(Duration.ofMinutes(1)));
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q1234", QueryExecutionState.SUCCEEDED);
+            }
+
+            @Test
+            void doesNotHedgeTheQuery() throws Exception {
+                statement.execute("SELECT 1");
+                assertEquals(1, queryExecutionHelper.startQueryRequests().size());
+            }
+        }
+
+        @Nested
+        class WhenThereIsNoFreeQuerySlot {
+            private AdmissionController admissionController;
+
+            @BeforeEach
+            void setUp() {
+                admissionController = new AdmissionController(1, 1, PollingScheduler.shared(), Duration.ofMillis(1));
+                statement = new AthenaStatement(createConfiguration().withWorkGroupRouter(router).withAdmissionController(admissionController).withHedgingPolicy(HedgingPolicy.after(Duration.ZERO)), clock);
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q1234", QueryExecutionState.SUCCEEDED);
+            }
+
+            @Test
+            void doesNotHedgeTheQuery() throws Exception {
+                statement.execute("SELECT 1");
+                assertEquals(1, queryExecutionHelper.startQueryRequests().size());
+                assertEquals(0, admissionController.slotsInUse());
+            }
+        }
+    }
+
+    @Nested
+    class ExecuteScatter {
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+            queryExecutionHelper.queueStartQueryResponse("Q2345");
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1234", QueryExecutionState.SUCCEEDED);
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q2345", QueryExecutionState.SUCCEEDED);
+        }
+
+        @Test
+        void startsOneQueryPerPredicate() throws Exception {
+            statement.executeScatter("SELECT * FROM t WHERE {predicate}", Arrays.asList("dt = '2020-01-01'", "dt = '2020-01-02'")).close();
+            List<String> queryStrings = new ArrayList<>();
+            for (StartQueryExecutionRequest request : queryExecutionHelper.startQueryRequests()) {
+                queryStrings.add(request.queryString());
+            }
+            assertEquals(Arrays.asList("SELECT * FROM t WHERE (dt = '2020-01-01')", "SELECT * FROM t WHERE (dt = '2020-01-02')"), queryStrings);
+        }
+
+        @Test
+        void returnsTheResultSet() throws Exception {
+            ResultSet resultSet = statement.executeScatter("SELECT * FROM t WHERE {predicate}", Arrays.asList("a", "b"));
+            assertSame(resultSet, statement.getResultSet());
+            resultSet.close();
+        }
+
+        @Test
+        void throwsWhenTheTemplateHasNoPlaceholder() {
+            assertThrows(SQLException.class, () -> statement.executeScatter("SELECT 1", Arrays.asList("a", "b")));
+            assertEquals(0, queryExecutionHelper.startQueryRequests().size());
+        }
+
+        @Test
+        void throwsWhenThereAreNoPredicates() {
+            assertThrows(SQLException.class, () -> statement.executeScatter("SELECT * FROM t WHERE {predicate}", Collections.emptyList()));
+        }
+    }
+
+    @Nested
+    class ExecuteScript {
+        private final String script = "CREATE TABLE a AS SELECT 1;\nCREATE TABLE b AS SELECT * FROM a;\nCREATE TABLE c AS SELECT 3;";
+
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.queueStartQueryResponse("Q1");
+            queryExecutionHelper.queueStartQueryResponse("Q2");
+            queryExecutionHelper.queueStartQueryResponse("Q3");
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q2", QueryExecutionState.SUCCEEDED);
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q3", QueryExecutionState.SUCCEEDED);
+        }
+
+        @Nested
+        class WhenAllStatementsSucceed {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.RUNNING);
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.SUCCEEDED);
+            }
+
+            @Test
+            void startsIndependentStatementsBeforeTheirPredecessorsComplete() throws Exception {
+                statement.executeScript(script);
+                List<String> queryStrings = new ArrayList<>();
+                for (StartQueryExecutionRequest request : queryExecutionHelper.startQueryRequests()) {
+                    queryStrings.add(request.queryString());
+                }
+                assertEquals(Arrays.asList("CREATE TABLE a AS SELECT 1", "CREATE TABLE c AS SELECT 3", "CREATE TABLE b AS SELECT * FROM a"), queryStrings);
+            }
+
+            @Test
+            void runsTheStatementsInScriptOrderWhenParallelismIsOne() throws Exception {
+                statement.setBatchParallelism(1);
+                statement.executeScript(script);
+                List<String> queryStrings = new ArrayList<>();
+                for (StartQueryExecutionRequest request : queryExecutionHelper.startQueryRequests()) {
+                    queryStrings.add(request.queryString());
+                }
+                assertEquals(Arrays.asList("CREATE TABLE a AS SELECT 1", "CREATE TABLE b AS SELECT * FROM a", "CREATE TABLE c AS SELECT 3"), queryStrings);
+            }
+
+            @Test
+            void returnsTheOutcomeOfEachStatementInScriptOrder() throws Exception {
+                List<ScriptStatementResult> results = statement.executeScript(script);
+                assertEquals(3, results.size());
+                for (int i = 0; i < results.size(); i++) {
+                    assertEquals(i, results.get(i).statement().index());
+                    assertEquals(ScriptStatementResult.Status.SUCCEEDED, results.get(i).status());
+                    assertTrue(results.get(i).startedAt().isPresent());
+                    assertTrue(results.get(i).completedAt().isPresent());
+                }
+            }
+
+            @Test
+            void closesTheResults() throws Exception {
+                statement.executeScript(script);
+                verify(result, times(3)).close();
+            }
+        }
+
+        @Nested
+        class WhenAStatementFails {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.FAILED);
+            }
+
+            @Test
+            void throwsAnExceptionWithTheOutcomeOfEachStatement() {
+                ScriptExecutionException e = assertThrows(ScriptExecutionException.class, () -> statement.executeScript(script));
+                assertEquals(ScriptStatementResult.Status.FAILED, e.results().get(0).status());
+                assertTrue(e.results().get(0).failure().isPresent());
+                assertEquals(ScriptStatementResult.Status.SKIPPED, e.results().get(1).status());
+                assertEquals(ScriptStatementResult.Status.SUCCEEDED, e.results().get(2).status());
+                assertNotNull(e.getNextException());
+            }
+
+            @Test
+            void doesNotStartTheDependentStatements() {
+                assertThrows(ScriptExecutionException.class, () -> statement.executeScript(script));
+                assertEquals(2, queryExecutionHelper.startQueryRequests().size());
+            }
+        }
+    }
+
+    @Nested
+    class ExecuteBatch {
+        @BeforeEach
+        void setUp() throws Exception {
+            queryExecutionHelper.queueStartQueryResponse("Q1");
+            queryExecutionHelper.queueStartQueryResponse("Q2");
+            queryExecutionHelper.queueStartQueryResponse("Q3");
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.SUCCEEDED);
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q3", QueryExecutionState.SUCCEEDED);
+            statement.addBatch("CREATE TABLE a AS SELECT 1");
+            statement.addBatch("CREATE TABLE b AS SELECT 2");
+            statement.addBatch("CREATE TABLE c AS SELECT 3");
+        }
+
+        @Nested
+        class WhenAllStatementsSucceed {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q2", QueryExecutionState.SUCCEEDED);
+            }
+
+            @Test
+            void startsAllStatements() throws Exception {
+                statement.executeBatch();
+                List<String> queryStrings = new ArrayList<>();
+                for (StartQueryExecutionRequest request : queryExecutionHelper.startQueryRequests()) {
+                    queryStrings.add(request.queryString());
+                }
+                assertEquals(Arrays.asList("CREATE TABLE a AS SELECT 1", "CREATE TABLE b AS SELECT 2", "CREATE TABLE c AS SELECT 3"), queryStrings);
+            }
+
+            @Test
+            void returnsAnUpdateCountForEachStatement() throws Exception {
+                assertArrayEquals(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO}, statement.executeBatch());
+            }
+
+            @Test
+            void closesTheResults() throws Exception {
+                statement.executeBatch();
+                verify(result, times(3)).close();
+            }
+
+            @Test
+            void clearsTheBatch() throws Exception {
+                statement.executeBatch();
+                assertArrayEquals(new int[0], statement.executeBatch());
+            }
+
+            @Test
+            void doesNotChangeTheCurrentResultSet() throws Exception {
+                statement.executeBatch();
+                assertNull(statement.getResultSet());
+            }
+
+            @Test
+            void runsOneStatementAtATimeWhenParallelismIsOne() throws Exception {
+                statement.setBatchParallelism(1);
+                assertArrayEquals(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO}, statement.executeBatch());
+            }
+        }
+
+        @Nested
+        class WhenAStatementFails {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q2", QueryExecutionState.FAILED);
+            }
+
+            @Test
+            void throwsABatchUpdateException() {
+                BatchUpdateException e = assertThrows(BatchUpdateException.class, () -> statement.executeBatch());
+                assertArrayEquals(new int[]{Statement.SUCCESS_NO_INFO, Statement.EXECUTE_FAILED, Statement.SUCCESS_NO_INFO}, e.getUpdateCounts());
+                assertNotNull(e.getNextException());
+            }
+
+            @Test
+            void runsTheOtherStatementsToCompletion() throws Exception {
+                assertThrows(BatchUpdateException.class, () -> statement.executeBatch());
+                verify(result, times(2)).close();
+            }
+        }
+
+        @Nested
+        class ClearBatch {
+            @Test
+            void removesAllBatchedStatements() throws Exception {
+                statement.clearBatch();
+                assertArrayEquals(new int[0], statement.executeBatch());
+                assertEquals(0, queryExecutionHelper.startQueryRequests().size());
+            }
+        }
+
+        @Nested
+        class SetBatchParallelism {
+            @Test
+            void rejectsParallelismBelowOne() {
+                assertThrows(IllegalArgumentException.class, () -> statement.setBatchParallelism(0));
+            }
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void throwsAnError() throws Exception {
+                statement.close();
+                assertThrows(SQLException.class, () -> statement.addBatch("SELECT 1"));
+                assertThrows(SQLException.class, () -> statement.executeBatch());
+            }
+        }
+    }
+
     @Nested
     class ExecuteWithAutoGeneratedKeys {
         @Nested
@@ -496,6 +1685,34 @@ class AthenaStatementTest {
         }
     }
 
+    @Nested
+    class GetPriority {
+        @Test
+        void returnsTheDefaultPriority() {
+            assertEquals(AdmissionController.DEFAULT_PRIORITY, statement.getPriority());
+        }
+
+        @Test
+        void returnsTheValueSetWithSetPriority() {
+            statement.setPriority(3);
+            assertEquals(3, statement.getPriority());
+        }
+    }
+
+    @Nested
+    class GetTenant {
+        @Test
+        void returnsTheDefaultTenant() {
+            assertEquals(AdmissionController.DEFAULT_TENANT, statement.getTenant());
+        }
+
+        @Test
+        void returnsTheValueSetWithSetTenant() {
+            statement.setTenant("dashboards");
+            assertEquals("dashboards", statement.getTenant());
+        }
+    }
+
     @Nested
     class SetQueryTimeout {
         @BeforeEach
@@ -563,11 +1780,12 @@ class AthenaStatementTest {
                 queryExecutionHelper.queueStartQueryResponse("Q2345");
                 queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
                 queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+                AtomicReference<Exception> executeError = new AtomicReference<>(null);
                 Thread runner = new Thread(() -> {
                     try {
                         statement.execute("SELECT 1");
                     } catch (SQLException e) {
-                        throw new RuntimeException(e);
+                        executeError.set(e);
                     }
                 });
                 runner.start();
@@ -579,17 +1797,56 @@ class AthenaStatementTest {
                 runner.join();
                 StopQueryExecutionRequest request = queryExecutionHelper.stopQueryExecutionRequests().get(0);
                 assertEquals("Q2345", request.queryExecutionId());
+                assertEquals(StatementCancelledException.class, executeError.get().getClass());
+                assertEquals("HY008", ((SQLException) executeError.get()).getSQLState());
+            }
+
+            @Test
+            void makesTheExecutingThreadFailWithACancellationError() throws Exception {
+                pollingStrategy = (callback, deadline) -> {
+                    while (true) {
+                        Optional<ResultSet> rs = callback.poll(deadline);
+                        if (rs.isPresent()) {
+                            return rs.get();
+                        }
+                        Thread.sleep(60_000);
+                    }
+                };
+                queryExecutionHelper.queueStartQueryResponse("Q2345");
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+                AtomicReference<Exception> executeError = new AtomicReference<>(null);
+                AtomicBoolean interruptedAfterwards = new AtomicBoolean(true);
+                Thread runner = new Thread(() -> {
+                    try {
+                        statement.execute("SELECT 1");
+                    } catch (SQLException e) {
+                        executeError.set(e);
+                    }
+                    interruptedAfterwards.set(Thread.currentThread().isInterrupted());
+                });
+                runner.start();
+                while (queryExecutionHelper.getQueryExecutionRequests().size() == 0) {
+                    Thread.sleep(1);
+                }
+                statement.cancel();
+                runner.join(1000);
+                assertFalse(runner.isAlive());
+                assertEquals(StatementCancelledException.class, executeError.get().getClass());
+                assertEquals("HY008", ((SQLException) executeError.get()).getSQLState());
+                assertFalse(interruptedAfterwards.get());
+                assertEquals("Q2345", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
             }
         }
 
         @Nested
         class WhenCalledAfterQueryCompletion {
             @Test
-            void throwsAnException() throws Exception {
+            void cancelsTheDownloadOfTheResult() throws Exception {
                 queryExecutionHelper.queueStartQueryResponse("Q1234");
                 queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
                 statement.execute("SELECT 1");
-                assertThrows(SQLException.class, () -> statement.cancel());
+                statement.cancel();
+                verify(result).cancel();
             }
         }
 
@@ -637,6 +1894,53 @@ class AthenaStatementTest {
         }
     }
 
+    @Nested
+    class SetDeterministicClientRequestTokens extends SharedExecuteSetup {
+        @BeforeEach
+        void setUpSecondExecution() {
+            queryExecutionHelper.queueStartQueryResponse("Q2345");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+        }
+
+        @Test
+        void usesATokenDerivedFromTheQueryTheDatabaseAndTheWorkGroup() throws Exception {
+            statement.setDeterministicClientRequestTokens(Duration.ofMinutes(5));
+            statement.execute("SELECT 1");
+            StartQueryExecutionRequest request = queryExecutionHelper.startQueryRequests().get(0);
+            assertEquals(ClientRequestTokens.deterministic("test_db", "test_wg", Duration.ofMinutes(5), clock).apply("SELECT 1").get(), request.clientRequestToken());
+        }
+
+        @Test
+        void usesTheSameTokenForTheSameQueryWithinTheFreshnessWindow() throws Exception {
+            statement.setDeterministicClientRequestTokens(Duration.ofMinutes(5));
+            statement.execute("SELECT 1");
+            clock.tick(Duration.ofMinutes(1));
+            statement.execute("select  1");
+            List<StartQueryExecutionRequest> requests = queryExecutionHelper.startQueryRequests();
+            assertEquals(requests.get(0).clientRequestToken(), requests.get(1).clientRequestToken());
+        }
+
+        @Test
+        void usesANewTokenInTheNextFreshnessWindow() throws Exception {
+            statement.setDeterministicClientRequestTokens(Duration.ofMinutes(5));
+            statement.execute("SELECT 1");
+            clock.tick(Duration.ofMinutes(5));
+            statement.execute("SELECT 1");
+            List<StartQueryExecutionRequest> requests = queryExecutionHelper.startQueryRequests();
+            assertNotEquals(requests.get(0).clientRequestToken(), requests.get(1).clientRequestToken());
+        }
+
+        @Test
+        void leavesTheTokenOfWritesToTheSdkSoThatTheyAreRunAgain() throws Exception {
+            statement.setDeterministicClientRequestTokens(Duration.ofMinutes(5));
+            statement.execute("INSERT INTO t VALUES (1)");
+            statement.execute("INSERT INTO t VALUES (1)");
+            List<StartQueryExecutionRequest> requests = queryExecutionHelper.startQueryRequests();
+            assertNull(requests.get(0).clientRequestToken());
+            assertNull(requests.get(1).clientRequestToken());
+        }
+    }
+
     @Nested
     class GetFetchDirection {
         @Test
@@ -0,0 +1,63 @@
+package io.burt.athena;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class VirtualThreadsTest {
+    private static boolean supportedByTheJvm() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Nested
+    class IsAvailable {
+        @Test
+        void detectsWhetherTheJvmSupportsVirtualThreads() {
+            assertEquals(supportedByTheJvm(), VirtualThreads.isAvailable());
+        }
+    }
+
+    @Nested
+    class NewExecutor {
+        @Test
+        void runsTasksOrFailsWhenVirtualThreadsAreNotSupported() throws Exception {
+            if (supportedByTheJvm()) {
+                ExecutorService executor = VirtualThreads.newExecutor("test");
+                AtomicReference<String> threadName = new AtomicReference<>(null);
+                executor.execute(() -> threadName.set(Thread.currentThread().getName()));
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+                assertTrue(threadName.get().startsWith("test-"));
+            } else {
+                assertThrows(UnsupportedOperationException.class, () -> VirtualThreads.newExecutor("test"));
+            }
+        }
+    }
+
+    @Nested
+    class BlockingThreadFactory {
+        @Test
+        void createsDaemonThreads() {
+            Thread thread = VirtualThreads.blockingThreadFactory("test").newThread(() -> {});
+            assertTrue(thread.isDaemon());
+        }
+    }
+}
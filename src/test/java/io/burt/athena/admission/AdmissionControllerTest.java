@@ -0,0 +1,301 @@
+package io.burt.athena.admission;
+
+import io.burt.athena.polling.PollingScheduler;
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class AdmissionControllerTest {
+    private static final Duration LONG_TIMEOUT = Duration.ofMinutes(1);
+
+    private PollingScheduler scheduler;
+    private TestClock clock;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new PollingScheduler(Executors.newSingleThreadScheduledExecutor());
+        clock = new TestClock();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+    }
+
+    AdmissionController createController(int minSlots, int maxSlots) {
+        return new AdmissionController(minSlots, maxSlots, scheduler, Duration.ofMillis(50), clock);
+    }
+
+    @Nested
+    class Constructor {
+        @Test
+        void requiresAtLeastOneSlot() {
+            assertThrows(IllegalArgumentException.class, () -> createController(0, 1));
+        }
+
+        @Test
+        void requiresTheMaximumToBeAtLeastTheMinimum() {
+            assertThrows(IllegalArgumentException.class, () -> createController(3, 2));
+        }
+    }
+
+    @Nested
+    class Acquire {
+        private AdmissionController controller;
+
+        @BeforeEach
+        void setUp() {
+            controller = createController(2, 2);
+        }
+
+        @Test
+        void grantsSlotsUpToTheLimit() {
+            CompletableFuture<AdmissionController.Slot> first = controller.acquire(LONG_TIMEOUT);
+            CompletableFuture<AdmissionController.Slot> second = controller.acquire(LONG_TIMEOUT);
+            CompletableFuture<AdmissionController.Slot> third = controller.acquire(LONG_TIMEOUT);
+            assertTrue(first.isDone());
+            assertTrue(second.isDone());
+            assertFalse(third.isDone());
+            assertEquals(2, controller.slotsInUse());
+            assertEquals(1, controller.queueLength());
+        }
+
+        @Test
+        void grantsReleasedSlotsInTheOrderTheyWereRequested() throws Exception {
+            AdmissionController.Slot slot = controller.acquire(LONG_TIMEOUT).get();
+            controller.acquire(LONG_TIMEOUT);
+            CompletableFuture<AdmissionController.Slot> third = controller.acquire(LONG_TIMEOUT);
+            CompletableFuture<AdmissionController.Slot> fourth = controller.acquire(LONG_TIMEOUT);
+            slot.release();
+            assertTrue(third.isDone());
+            assertFalse(fourth.isDone());
+        }
+
+        @Test
+        void ignoresRepeatedReleases() throws Exception {
+            AdmissionController.Slot slot = controller.acquire(LONG_TIMEOUT).get();
+            controller.acquire(LONG_TIMEOUT);
+            slot.release();
+            slot.release();
+            assertEquals(1, controller.slotsInUse());
+        }
+
+        @Nested
+        class WhenNoSlotBecomesAvailableInTime {
+            @Test
+            void completesWithATimeoutException() {
+                controller.acquire(LONG_TIMEOUT);
+                controller.acquire(LONG_TIMEOUT);
+                CompletableFuture<AdmissionController.Slot> waiter = controller.acquire(Duration.ofMillis(10));
+                ExecutionException e = assertThrows(ExecutionException.class, () -> waiter.get(1, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof TimeoutException);
+                assertEquals(0, controller.queueLength());
+            }
+        }
+
+        @Nested
+        class WhenCancelled {
+            @Test
+            void leavesTheQueue() {
+                controller.acquire(LONG_TIMEOUT);
+                controller.acquire(LONG_TIMEOUT);
+                CompletableFuture<AdmissionController.Slot> waiter = controller.acquire(LONG_TIMEOUT);
+                waiter.cancel(false);
+                assertEquals(0, controller.queueLength());
+            }
+        }
+    }
+
+    @Nested
+    class AcquireWithPriorityAndTenant {
+        private AdmissionController controller;
+        private AdmissionController.Slot slot;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            controller = createController(1, 1);
+            slot = controller.acquire(LONG_TIMEOUT).get();
+        }
+
+        @Test
+        void grantsReleasedSlotsToTheHighestPriorityFirst() {
+            CompletableFuture<AdmissionController.Slot> low = controller.acquire(0, "a", LONG_TIMEOUT);
+            CompletableFuture<AdmissionController.Slot> high = controller.acquire(10, "a", LONG_TIMEOUT);
+            slot.release();
+            assertTrue(high.isDone());
+            assertFalse(low.isDone());
+        }
+
+        @Test
+        void grantsReleasedSlotsFairlyAcrossTenants() throws Exception {
+            CompletableFuture<AdmissionController.Slot> a1 = controller.acquire(0, "a", LONG_TIMEOUT);
+            CompletableFuture<AdmissionController.Slot> a2 = controller.acquire(0, "a", LONG_TIMEOUT);
+            CompletableFuture<AdmissionController.Slot> b1 = controller.acquire(0, "b", LONG_TIMEOUT);
+            slot.release();
+            assertTrue(a1.isDone());
+            a1.get().release();
+            assertTrue(b1.isDone());
+            assertFalse(a2.isDone());
+        }
+
+        @Test
+        void grantsReleasedSlotsInProportionToTheTenantWeights() throws Exception {
+            controller.setTenantWeight("a", 2);
+            CompletableFuture<AdmissionController.Slot> a1 = controller.acquire(0, "a", LONG_TIMEOUT);
+            CompletableFuture<AdmissionController.Slot> a2 = controller.acquire(0, "a", LONG_TIMEOUT);
+            CompletableFuture<AdmissionController.Slot> b1 = controller.acquire(0, "b", LONG_TIMEOUT);
+            slot.release();
+            a1.get().release();
+            assertTrue(a2.isDone());
+            assertFalse(b1.isDone());
+        }
+
+        @Test
+        void usesTheDefaultTenantWhenNoneIsGiven() {
+            CompletableFuture<AdmissionController.Slot> waiter = controller.acquire(0, null, LONG_TIMEOUT);
+            slot.release();
+            assertTrue(waiter.isDone());
+        }
+    }
+
+    @Nested
+    class AcquireBlocking {
+        @Test
+        void returnsASlot() throws Exception {
+            AdmissionController controller = createController(1, 1);
+            controller.acquireBlocking(LONG_TIMEOUT);
+            assertEquals(1, controller.slotsInUse());
+        }
+
+        @Test
+        void throwsWhenNoSlotBecomesAvailableInTime() throws Exception {
+            AdmissionController controller = createController(1, 1);
+            controller.acquireBlocking(LONG_TIMEOUT);
+            assertThrows(TimeoutException.class, () -> controller.acquireBlocking(Duration.ofMillis(10)));
+        }
+    }
+
+    @Nested
+    class TryAcquire {
+        @Test
+        void takesAFreeSlot() {
+            AdmissionController controller = createController(1, 1);
+            assertTrue(controller.tryAcquire().isPresent());
+            assertEquals(1, controller.slotsInUse());
+        }
+
+        @Test
+        void returnsNothingWhenThereIsNoFreeSlot() {
+            AdmissionController controller = createController(1, 1);
+            controller.acquire(LONG_TIMEOUT);
+            assertFalse(controller.tryAcquire().isPresent());
+            assertEquals(1, controller.slotsInUse());
+        }
+
+        @Test
+        void doesNotTakeASlotAheadOfQueuedExecutions() throws Exception {
+            AdmissionController controller = createController(1, 1);
+            AdmissionController.Slot slot = controller.acquire(LONG_TIMEOUT).get();
+            CompletableFuture<AdmissionController.Slot> queued = controller.acquire(LONG_TIMEOUT);
+            slot.release();
+            assertFalse(controller.tryAcquire().isPresent());
+            assertTrue(queued.isDone());
+        }
+    }
+
+    @Nested
+    class Throttled {
+        @Test
+        void keepsTheSlotForTheBackoffPeriod() throws Exception {
+            AdmissionController controller = createController(1, 1);
+            controller.acquire(LONG_TIMEOUT).get().throttled();
+            CompletableFuture<AdmissionController.Slot> waiter = controller.acquire(LONG_TIMEOUT);
+            assertFalse(waiter.isDone());
+            waiter.get(1, TimeUnit.SECONDS);
+        }
+
+        @Nested
+        class WhenTheNumberOfSlotsIsFixed {
+            @Test
+            void keepsTheLimit() throws Exception {
+                AdmissionController controller = createController(4, 4);
+                controller.acquire(LONG_TIMEOUT).get().throttled();
+                assertEquals(4, controller.limit());
+            }
+        }
+
+        @Nested
+        class WhenTheNumberOfSlotsIsAdaptive {
+            private AdmissionController controller;
+
+            @BeforeEach
+            void setUp() {
+                controller = createController(2, 8);
+            }
+
+            @Test
+            void halvesTheLimit() throws Exception {
+                controller.acquire(LONG_TIMEOUT).get().throttled();
+                assertEquals(4, controller.limit());
+            }
+
+            @Test
+            void halvesTheLimitOnlyOncePerBackoffPeriod() throws Exception {
+                AdmissionController.Slot first = controller.acquire(LONG_TIMEOUT).get();
+                AdmissionController.Slot second = controller.acquire(LONG_TIMEOUT).get();
+                first.throttled();
+                second.throttled();
+                assertEquals(4, controller.limit());
+                clock.tick(Duration.ofSeconds(1));
+                controller.acquire(LONG_TIMEOUT).get().throttled();
+                assertEquals(2, controller.limit());
+            }
+
+            @Test
+            void doesNotGoBelowTheMinimum() throws Exception {
+                for (int i = 0; i < 5; i++) {
+                    controller.acquire(LONG_TIMEOUT).get(1, TimeUnit.SECONDS).throttled();
+                    clock.tick(Duration.ofSeconds(1));
+                }
+                assertEquals(2, controller.limit());
+            }
+
+            @Test
+            void growsTheLimitAsExecutionsComplete() throws Exception {
+                controller.acquire(LONG_TIMEOUT).get().throttled();
+                for (int i = 0; i < 5; i++) {
+                    controller.acquire(LONG_TIMEOUT).get(1, TimeUnit.SECONDS).release();
+                }
+                assertEquals(5, controller.limit());
+            }
+
+            @Test
+            void doesNotGrowTheLimitAboveTheMaximum() throws Exception {
+                for (int i = 0; i < 100; i++) {
+                    controller.acquire(LONG_TIMEOUT).get().release();
+                }
+                assertEquals(8, controller.limit());
+            }
+        }
+    }
+}
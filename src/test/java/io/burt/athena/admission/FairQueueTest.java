@@ -0,0 +1,127 @@
+package io.burt.athena.admission;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class FairQueueTest {
+    private FairQueue<String> queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new FairQueue<>();
+    }
+
+    List<String> drain() {
+        List<String> items = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            items.add(queue.poll());
+        }
+        return items;
+    }
+
+    @Nested
+    class Poll {
+        @Test
+        void returnsNullWhenEmpty() {
+            assertNull(queue.poll());
+        }
+
+        @Test
+        void returnsItemsOfTheSameTenantInTheOrderTheyWereAdded() {
+            queue.add("a1", 0, "a");
+            queue.add("a2", 0, "a");
+            queue.add("a3", 0, "a");
+            assertEquals(Arrays.asList("a1", "a2", "a3"), drain());
+        }
+
+        @Test
+        void returnsItemsWithAHigherPriorityFirst() {
+            queue.add("low", 0, "a");
+            queue.add("high", 5, "a");
+            queue.add("medium", 1, "b");
+            assertEquals(Arrays.asList("high", "medium", "low"), drain());
+        }
+
+        @Test
+        void alternatesBetweenTenants() {
+            queue.add("a1", 0, "a");
+            queue.add("a2", 0, "a");
+            queue.add("a3", 0, "a");
+            queue.add("b1", 0, "b");
+            queue.add("b2", 0, "b");
+            assertEquals(Arrays.asList("a1", "b1", "a2", "b2", "a3"), drain());
+        }
+
+        @Test
+        void doesNotLetIdleTenantsSaveUpTurns() {
+            queue.add("a1", 0, "a");
+            queue.add("a2", 0, "a");
+            queue.add("a3", 0, "a");
+            queue.poll();
+            queue.poll();
+            queue.add("b1", 0, "b");
+            queue.add("b2", 0, "b");
+            assertEquals(Arrays.asList("a3", "b1", "b2"), drain());
+        }
+
+        @Nested
+        class WhenTenantsHaveWeights {
+            @BeforeEach
+            void setUp() {
+                queue.setWeight("a", 2);
+            }
+
+            @Test
+            void givesTurnsInProportionToTheWeights() {
+                for (int i = 1; i <= 4; i++) {
+                    queue.add("a" + i, 0, "a");
+                }
+                for (int i = 1; i <= 4; i++) {
+                    queue.add("b" + i, 0, "b");
+                }
+                assertEquals(Arrays.asList("a1", "a2", "b1", "a3", "a4", "b2", "b3", "b4"), drain());
+            }
+        }
+    }
+
+    @Nested
+    class SetWeight {
+        @Test
+        void requiresAPositiveWeight() {
+            assertThrows(IllegalArgumentException.class, () -> queue.setWeight("a", 0));
+        }
+    }
+
+    @Nested
+    class Remove {
+        @Test
+        void removesTheItem() {
+            String item = "a1";
+            queue.add(item, 0, "a");
+            queue.add("a2", 0, "a");
+            assertTrue(queue.remove(item));
+            assertEquals(1, queue.size());
+            assertEquals("a2", queue.poll());
+        }
+
+        @Test
+        void returnsFalseWhenTheItemIsNotInTheQueue() {
+            queue.add("a1", 0, "a");
+            assertFalse(queue.remove(new String("a1")));
+        }
+    }
+}
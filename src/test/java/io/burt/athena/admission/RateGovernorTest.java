@@ -0,0 +1,169 @@
+package io.burt.athena.admission;
+
+import io.burt.athena.support.ImmediatePollingScheduler;
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.athena.model.InvalidRequestException;
+import software.amazon.awssdk.services.athena.model.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class RateGovernorTest {
+    private TestClock clock;
+    private ImmediatePollingScheduler scheduler;
+    private double randomValue;
+    private RateGovernor governor;
+
+    @BeforeEach
+    void setUp() {
+        clock = new TestClock();
+        scheduler = new ImmediatePollingScheduler(clock);
+        randomValue = 0;
+        Random random = new Random() {
+            @Override
+            public double nextDouble() {
+                return randomValue;
+            }
+        };
+        governor = new RateGovernor(scheduler, () -> clock.millis() * 1_000_000L, random);
+        governor.setRate("Op", 10, 2);
+    }
+
+    CompletableFuture<String> succeed() {
+        return CompletableFuture.completedFuture("ok");
+    }
+
+    CompletableFuture<String> fail(Throwable t) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        future.completeExceptionally(t);
+        return future;
+    }
+
+    @Nested
+    class Submit {
+        @Test
+        void makesTheCall() throws Exception {
+            assertEquals("ok", governor.submit("Op", RateGovernorTest.this::succeed).get());
+        }
+
+        @Test
+        void doesNotPaceOperationsWithoutARate() {
+            CompletableFuture<String> future = succeed();
+            for (int i = 0; i < 100; i++) {
+                assertSame(future, governor.submit("Other", () -> future));
+            }
+            assertEquals(0, scheduler.delays().size());
+        }
+
+        @Test
+        void doesNotDelayCallsWithinTheBurst() {
+            governor.submit("Op", RateGovernorTest.this::succeed);
+            governor.submit("Op", RateGovernorTest.this::succeed);
+            assertEquals(0, scheduler.delays().size());
+        }
+
+        @Test
+        void delaysCallsBeyondTheBurst() throws Exception {
+            AtomicInteger calls = new AtomicInteger();
+            for (int i = 0; i < 3; i++) {
+                governor.submit("Op", () -> {
+                    calls.incrementAndGet();
+                    return succeed();
+                }).get();
+            }
+            assertEquals(3, calls.get());
+            assertEquals(Duration.ofMillis(100), scheduler.delays().get(0));
+        }
+
+        @Test
+        void jittersTheDelays() {
+            randomValue = 0.5;
+            governor.submit("Op", RateGovernorTest.this::succeed);
+            governor.submit("Op", RateGovernorTest.this::succeed);
+            governor.submit("Op", RateGovernorTest.this::succeed);
+            assertEquals(Duration.ofMillis(105), scheduler.delays().get(0));
+        }
+
+        @Test
+        void pacesEachOperationSeparately() {
+            governor.setRate("Op2", 10, 2);
+            governor.submit("Op", RateGovernorTest.this::succeed);
+            governor.submit("Op", RateGovernorTest.this::succeed);
+            governor.submit("Op2", RateGovernorTest.this::succeed);
+            governor.submit("Op2", RateGovernorTest.this::succeed);
+            assertEquals(0, scheduler.delays().size());
+        }
+
+        @Nested
+        class WhenACallIsThrottled {
+            @BeforeEach
+            void setUp() {
+                governor.setRate("Op", 1000, 2);
+            }
+
+            @Test
+            void pausesTheOperation() {
+                governor.submit("Op", () -> fail(TooManyRequestsException.builder().message("Slow down").build()));
+                governor.submit("Op", RateGovernorTest.this::succeed);
+                assertEquals(RateGovernor.MIN_COOLDOWN.dividedBy(2), scheduler.delays().get(0));
+            }
+
+            @Test
+            void recognizesThrottlingErrorsFromTheSdk() {
+                AwsServiceException throttling = AwsServiceException.builder().awsErrorDetails(AwsErrorDetails.builder().errorCode("ThrottlingException").build()).build();
+                governor.submit("Op", () -> fail(throttling));
+                governor.submit("Op", RateGovernorTest.this::succeed);
+                assertEquals(1, scheduler.delays().size());
+            }
+
+            @Test
+            void doublesThePauseForEachConsecutiveThrottledCall() {
+                governor.submit("Op", () -> fail(TooManyRequestsException.builder().build()));
+                governor.submit("Op", () -> fail(TooManyRequestsException.builder().build()));
+                governor.submit("Op", () -> fail(TooManyRequestsException.builder().build()));
+                assertEquals(RateGovernor.MIN_COOLDOWN.dividedBy(2), scheduler.delays().get(0));
+                assertEquals(RateGovernor.MIN_COOLDOWN, scheduler.delays().get(1));
+            }
+
+            @Test
+            void resetsThePauseWhenACallSucceeds() {
+                governor.submit("Op", () -> fail(TooManyRequestsException.builder().build()));
+                governor.submit("Op", RateGovernorTest.this::succeed);
+                clock.tick(Duration.ofSeconds(10));
+                governor.submit("Op", () -> fail(TooManyRequestsException.builder().build()));
+                governor.submit("Op", RateGovernorTest.this::succeed);
+                assertEquals(RateGovernor.MIN_COOLDOWN.dividedBy(2), scheduler.delays().get(scheduler.delays().size() - 1));
+            }
+
+            @Test
+            void doesNotPauseForOtherErrors() {
+                governor.submit("Op", () -> fail(InvalidRequestException.builder().build()));
+                governor.submit("Op", RateGovernorTest.this::succeed);
+                assertEquals(0, scheduler.delays().size());
+            }
+
+            @Test
+            void failsTheThrottledCall() {
+                CompletableFuture<String> future = governor.submit("Op", () -> fail(TooManyRequestsException.builder().build()));
+                assertTrue(future.isCompletedExceptionally());
+            }
+        }
+    }
+}
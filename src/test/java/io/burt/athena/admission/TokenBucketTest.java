@@ -0,0 +1,94 @@
+package io.burt.athena.admission;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class TokenBucketTest {
+    private TokenBucket bucket;
+
+    @BeforeEach
+    void setUp() {
+        bucket = new TokenBucket(10, 3, 0);
+    }
+
+    @Nested
+    class Constructor {
+        @Test
+        void requiresAPositiveRate() {
+            assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, 0));
+        }
+
+        @Test
+        void requiresABurstOfAtLeastOne() {
+            assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, 0));
+        }
+    }
+
+    @Nested
+    class Reserve {
+        @Test
+        void allowsABurstWithoutDelay() {
+            assertEquals(Duration.ZERO, bucket.reserve(0));
+            assertEquals(Duration.ZERO, bucket.reserve(0));
+            assertEquals(Duration.ZERO, bucket.reserve(0));
+        }
+
+        @Test
+        void spacesOutReservationsBeyondTheBurstAtTheRate() {
+            bucket.reserve(0);
+            bucket.reserve(0);
+            bucket.reserve(0);
+            assertEquals(Duration.ofMillis(100), bucket.reserve(0));
+            assertEquals(Duration.ofMillis(200), bucket.reserve(0));
+            assertEquals(Duration.ofMillis(300), bucket.reserve(0));
+        }
+
+        @Test
+        void refillsOverTime() {
+            bucket.reserve(0);
+            bucket.reserve(0);
+            bucket.reserve(0);
+            assertEquals(Duration.ZERO, bucket.reserve(Duration.ofMillis(100).toNanos()));
+        }
+
+        @Test
+        void doesNotRefillBeyondTheBurst() {
+            long later = Duration.ofMinutes(1).toNanos();
+            bucket.reserve(later);
+            bucket.reserve(later);
+            bucket.reserve(later);
+            assertEquals(Duration.ofMillis(100), bucket.reserve(later));
+        }
+    }
+
+    @Nested
+    class Drain {
+        @Test
+        void removesTheBurst() {
+            bucket.drain(0);
+            assertEquals(Duration.ofMillis(100), bucket.reserve(0));
+        }
+
+        @Test
+        void keepsExistingReservations() {
+            bucket.reserve(0);
+            bucket.reserve(0);
+            bucket.reserve(0);
+            bucket.reserve(0);
+            bucket.drain(0);
+            assertEquals(Duration.ofMillis(200), bucket.reserve(0));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.burt.athena.budget;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class QueryBudgetTest {
+    QueryExecution queryExecution(long dataScannedBytes, long engineExecutionTimeMillis) {
+        return QueryExecution.builder().statistics(b -> b.dataScannedInBytes(dataScannedBytes).engineExecutionTimeInMillis(engineExecutionTimeMillis)).build();
+    }
+
+    @Nested
+    class IsExceededBy {
+        @Test
+        void isNotExceededWhenUnlimited() {
+            assertFalse(QueryBudget.UNLIMITED.isExceededBy(queryExecution(Long.MAX_VALUE, Long.MAX_VALUE)));
+        }
+
+        @Test
+        void isExceededWhenTooMuchDataHasBeenScanned() {
+            QueryBudget budget = QueryBudget.UNLIMITED.withMaxDataScanned(1000);
+            assertFalse(budget.isExceededBy(queryExecution(1000, 0)));
+            assertTrue(budget.isExceededBy(queryExecution(1001, 0)));
+        }
+
+        @Test
+        void isExceededWhenTheQueryHasRunForTooLong() {
+            QueryBudget budget = QueryBudget.UNLIMITED.withMaxEngineExecutionTime(Duration.ofSeconds(1));
+            assertFalse(budget.isExceededBy(queryExecution(0, 1000)));
+            assertTrue(budget.isExceededBy(queryExecution(0, 1001)));
+        }
+
+        @Test
+        void isNotExceededByQueryExecutionsWithoutStatistics() {
+            assertFalse(QueryBudget.UNLIMITED.withMaxDataScanned(0).isExceededBy(QueryExecution.builder().build()));
+        }
+    }
+
+    @Nested
+    class WithMaxDataScanned {
+        @Test
+        void keepsTheOtherLimit() {
+            QueryBudget budget = QueryBudget.UNLIMITED.withMaxEngineExecutionTime(Duration.ofSeconds(1)).withMaxDataScanned(1000);
+            assertTrue(budget.isExceededBy(queryExecution(0, 1001)));
+        }
+
+        @Test
+        void rejectsNegativeLimits() {
+            assertThrows(IllegalArgumentException.class, () -> QueryBudget.UNLIMITED.withMaxDataScanned(-1));
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package io.burt.athena.cache;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class QueryRefresherTest {
+    private static final AthenaResultSetMetaData META_DATA = new AthenaResultSetMetaData(QueryExecution.builder().build(), ResultSetMetadata.builder().columnInfo(
+            ColumnInfo.builder().name("id").type("integer").build(),
+            ColumnInfo.builder().name("name").type("varchar").build()
+    ).build());
+
+    private static final AthenaResultSetMetaData DAILY_META_DATA = new AthenaResultSetMetaData(QueryExecution.builder().build(), ResultSetMetadata.builder().columnInfo(
+            ColumnInfo.builder().name("day").label("day").type("date").build(),
+            ColumnInfo.builder().name("count").label("count").type("bigint").build()
+    ).build());
+
+    @Mock private Connection connection;
+    @Mock private Statement statement;
+    @Mock private ResultSet resultSet;
+    @Mock private ScheduledExecutorService executor;
+
+    private TestClock clock;
+    private Queue<Runnable> pendingTasks;
+    private QueryRefresher refresher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clock = new TestClock();
+        pendingTasks = new ArrayDeque<>();
+        lenient().when(executor.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).then(invocation -> {
+            pendingTasks.add(invocation.getArgument(0));
+            return mock(ScheduledFuture.class);
+        });
+        lenient().doAnswer(invocation -> pendingTasks.add(invocation.getArgument(0))).when(executor).execute(any());
+        lenient().when(connection.getSchema()).thenReturn("db");
+        lenient().when(connection.createStatement()).thenReturn(statement);
+        lenient().when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        lenient().when(resultSet.getMetaData()).thenReturn(META_DATA);
+        lenient().when(resultSet.next()).thenReturn(true, false);
+        lenient().when(resultSet.getString(1)).thenReturn("1");
+        lenient().when(resultSet.getString(2)).thenReturn("a");
+        refresher = new QueryRefresher(connection, executor, clock);
+    }
+
+    private void stubRows(AthenaResultSetMetaData metaData, String... rows) throws SQLException {
+        Boolean[] hasNext = new Boolean[rows.length];
+        String[] firsts = new String[rows.length];
+        String[] seconds = new String[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            String[] parts = rows[i].split(":");
+            hasNext[i] = true;
+            firsts[i] = parts[0];
+            seconds[i] = parts[1];
+        }
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        if (rows.length == 0) {
+            when(resultSet.next()).thenReturn(false);
+        } else {
+            Boolean[] rest = Arrays.copyOf(Arrays.copyOfRange(hasNext, 1, rows.length), rows.length);
+            rest[rows.length - 1] = false;
+            when(resultSet.next()).thenReturn(true, rest);
+            lenient().when(resultSet.getString(1)).thenReturn(firsts[0], Arrays.copyOfRange(firsts, 1, rows.length));
+            lenient().when(resultSet.getString(2)).thenReturn(seconds[0], Arrays.copyOfRange(seconds, 1, rows.length));
+        }
+    }
+
+    private void runPendingTasks() {
+        int count = pendingTasks.size();
+        for (int i = 0; i < count; i++) {
+            pendingTasks.remove().run();
+        }
+    }
+
+    @Nested
+    class Register {
+        @Test
+        void doesNotAcceptANonPositiveInterval() {
+            assertThrows(IllegalArgumentException.class, () -> refresher.register("SELECT * FROM t", Duration.ZERO));
+        }
+
+        @Test
+        void runsTheQueryInTheBackground() throws Exception {
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            assertEquals(1, pendingTasks.size());
+            runPendingTasks();
+            assertEquals(Collections.singletonList("1:a"), ResultCacheTest.consume(refresher.get("db", "SELECT * FROM t").get()));
+        }
+
+        @Test
+        void schedulesTheNextRunWhenARunCompletes() throws Exception {
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            runPendingTasks();
+            assertEquals(1, pendingTasks.size());
+        }
+    }
+
+    @Nested
+    class Get {
+        @Test
+        void returnsEmptyBeforeTheFirstRunHasCompleted() throws Exception {
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            assertFalse(refresher.get("db", "SELECT * FROM t").isPresent());
+        }
+
+        @Test
+        void returnsEmptyForQueriesThatAreNotRegistered() throws Exception {
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            runPendingTasks();
+            assertFalse(refresher.get("db", "SELECT * FROM u").isPresent());
+            assertFalse(refresher.get("db2", "SELECT * FROM t").isPresent());
+        }
+
+        @Test
+        void matchesQueriesThatOnlyDifferInFormatting() throws Exception {
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            runPendingTasks();
+            assertTrue(refresher.get("db", "select *\n  from T").isPresent());
+        }
+
+        @Test
+        void keepsTheLatestResultWhenARunFails() throws Exception {
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            runPendingTasks();
+            when(statement.executeQuery(anyString())).thenThrow(new SQLException("b0rk"));
+            clock.tick(Duration.ofMinutes(1));
+            runPendingTasks();
+            assertEquals(Collections.singletonList("1:a"), ResultCacheTest.consume(refresher.get("db", "SELECT * FROM t").get()));
+        }
+
+        @Test
+        void returnsAStaleResultAndRefreshesItInTheBackground() throws Exception {
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            runPendingTasks();
+            pendingTasks.clear();
+            clock.tick(Duration.ofMinutes(2));
+            when(resultSet.next()).thenReturn(true, false);
+            when(resultSet.getString(2)).thenReturn("b");
+            assertEquals(Collections.singletonList("1:a"), ResultCacheTest.consume(refresher.get("db", "SELECT * FROM t").get()));
+            assertEquals(1, pendingTasks.size());
+            runPendingTasks();
+            assertEquals(Collections.singletonList("1:b"), ResultCacheTest.consume(refresher.get("db", "SELECT * FROM t").get()));
+        }
+
+        @Test
+        void doesNotRefreshResultsThatAreFresh() throws Exception {
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            runPendingTasks();
+            pendingTasks.clear();
+            clock.tick(Duration.ofSeconds(30));
+            refresher.get("db", "SELECT * FROM t");
+            assertTrue(pendingTasks.isEmpty());
+        }
+
+        @Test
+        void returnsEmptyToTheQueriesRunByTheRefresher() throws Exception {
+            AtomicBoolean servedToRefresher = new AtomicBoolean(false);
+            when(statement.executeQuery(anyString())).then(invocation -> {
+                servedToRefresher.compareAndSet(false, refresher.get("db", "SELECT * FROM t").isPresent());
+                return resultSet;
+            });
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            runPendingTasks();
+            when(resultSet.next()).thenReturn(true, false);
+            clock.tick(Duration.ofMinutes(1));
+            runPendingTasks();
+            assertFalse(servedToRefresher.get());
+        }
+    }
+
+    @Nested
+    class RegisterIncremental {
+        private static final String SQL = "SELECT day, COUNT(*) AS count FROM t GROUP BY day";
+
+        @Test
+        void requiresAWatermarkColumn() {
+            assertThrows(IllegalArgumentException.class, () -> refresher.registerIncremental(SQL, null, Duration.ofMinutes(1)));
+        }
+
+        @Test
+        void readsAllDataTheFirstTime() throws Exception {
+            stubRows(DAILY_META_DATA, "2020-01-01:10", "2020-01-02:5");
+            refresher.registerIncremental(SQL, "day", Duration.ofMinutes(1));
+            runPendingTasks();
+            verify(statement).executeQuery(SQL);
+            assertEquals(Arrays.asList("2020-01-01:10", "2020-01-02:5"), ResultCacheTest.consume(refresher.get("db", SQL).get()));
+        }
+
+        @Test
+        void onlyReadsDataFromTheWatermarkOnwardsTheNextTime() throws Exception {
+            stubRows(DAILY_META_DATA, "2020-01-02:5", "2020-01-01:10");
+            refresher.registerIncremental(SQL, "day", Duration.ofMinutes(1));
+            runPendingTasks();
+            stubRows(DAILY_META_DATA, "2020-01-02:7");
+            runPendingTasks();
+            verify(statement).executeQuery("SELECT * FROM (" + SQL + ") WHERE \"day\" >= DATE '2020-01-02'");
+        }
+
+        @Test
+        void replacesTheRowsFromTheWatermarkOnwardsWithTheNewRows() throws Exception {
+            stubRows(DAILY_META_DATA, "2020-01-01:10", "2020-01-02:5");
+            refresher.registerIncremental(SQL, "day", Duration.ofMinutes(1));
+            runPendingTasks();
+            stubRows(DAILY_META_DATA, "2020-01-02:7", "2020-01-03:1");
+            runPendingTasks();
+            assertEquals(Arrays.asList("2020-01-01:10", "2020-01-02:7", "2020-01-03:1"), ResultCacheTest.consume(refresher.get("db", SQL).get()));
+            stubRows(DAILY_META_DATA);
+            runPendingTasks();
+            verify(statement).executeQuery("SELECT * FROM (" + SQL + ") WHERE \"day\" >= DATE '2020-01-03'");
+        }
+
+        @Test
+        void comparesNumericWatermarksAsNumbers() throws Exception {
+            stubRows(META_DATA, "9:a", "10:b");
+            refresher.registerIncremental("SELECT id, name FROM t", "id", Duration.ofMinutes(1));
+            runPendingTasks();
+            stubRows(META_DATA, "10:c");
+            runPendingTasks();
+            verify(statement).executeQuery("SELECT * FROM (SELECT id, name FROM t) WHERE \"id\" >= 10");
+            assertEquals(Arrays.asList("9:a", "10:c"), ResultCacheTest.consume(refresher.get("db", "SELECT id, name FROM t").get()));
+        }
+
+        @Test
+        void doesNotCacheResultsWithoutTheWatermarkColumn() throws Exception {
+            stubRows(DAILY_META_DATA, "2020-01-01:10");
+            refresher.registerIncremental(SQL, "month", Duration.ofMinutes(1));
+            runPendingTasks();
+            assertFalse(refresher.get("db", SQL).isPresent());
+        }
+    }
+
+    @Nested
+    class Unregister {
+        @Test
+        void dropsTheLatestResult() throws Exception {
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            runPendingTasks();
+            refresher.unregister("SELECT * FROM t");
+            assertFalse(refresher.get("db", "SELECT * FROM t").isPresent());
+        }
+
+        @Test
+        void stopsRefreshingTheQuery() throws Exception {
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            refresher.unregister("SELECT * FROM t");
+            runPendingTasks();
+            assertTrue(pendingTasks.isEmpty());
+        }
+    }
+
+    @Nested
+    class Close {
+        @Test
+        void stopsRefreshingAllQueries() throws Exception {
+            refresher.register("SELECT * FROM t", Duration.ofMinutes(1));
+            refresher.register("SELECT * FROM u", Duration.ofMinutes(1));
+            refresher.close();
+            runPendingTasks();
+            assertTrue(pendingTasks.isEmpty());
+            assertEquals(Arrays.asList(false, false), Arrays.asList(refresher.get("db", "SELECT * FROM t").isPresent(), refresher.get("db", "SELECT * FROM u").isPresent()));
+        }
+    }
+}
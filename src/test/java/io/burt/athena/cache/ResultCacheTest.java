@@ -0,0 +1,229 @@
+package io.burt.athena.cache;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.result.Result;
+import io.burt.athena.result.ResultPosition;
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class ResultCacheTest {
+    private static final AthenaResultSetMetaData META_DATA = new AthenaResultSetMetaData(QueryExecution.builder().build(), ResultSetMetadata.builder().columnInfo(
+            ColumnInfo.builder().name("id").type("integer").build(),
+            ColumnInfo.builder().name("name").type("varchar").build()
+    ).build());
+
+    private static final String QUERY_KEY = queryKey("db", "SELECT * FROM t");
+
+    private TestClock clock;
+    private ResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new TestClock();
+        clock.tick(Duration.ofDays(1000));
+        cache = new ResultCache(100_000, clock);
+    }
+
+    QueryExecution queryExecution(String queryExecutionId) {
+        return QueryExecution.builder()
+                .queryExecutionId(queryExecutionId)
+                .query("SELECT * FROM t")
+                .queryExecutionContext(b -> b.database("db"))
+                .status(b -> b.completionDateTime(clock.instant()))
+                .build();
+    }
+
+    static String queryKey(String databaseName, String sql) {
+        return ResultCache.queryKey("eu-west-1/AKIA1", databaseName, "wg", "s3://o/", sql);
+    }
+
+    static DecodedResult decoded(String... values) {
+        List<String[]> rows = new ArrayList<>();
+        for (String value : values) {
+            String[] parts = value.split(":", -1);
+            rows.add(new String[]{parts[0].equals("null") ? null : parts[0], parts[1].equals("null") ? null : parts[1]});
+        }
+        return DecodedResult.encode(META_DATA, 2, rows);
+    }
+
+    static List<String> consume(Result result) throws SQLException {
+        List<String> values = new ArrayList<>();
+        while (result.next()) {
+            values.add(result.getString(1) + ":" + result.getString(2));
+        }
+        return values;
+    }
+
+    @Nested
+    class GetById {
+        @Test
+        void returnsTheRowsOfACachedResult() throws Exception {
+            cache.put(queryExecution("Q1"), QUERY_KEY, decoded("1:a", "2:b", "3:ö"));
+            assertEquals(Arrays.asList("1:a", "2:b", "3:ö"), consume(cache.get("Q1").get()));
+        }
+
+        @Test
+        void returnsNullsAndEmptyStrings() throws Exception {
+            cache.put(queryExecution("Q1"), QUERY_KEY, decoded("null:", "2:null"));
+            Result result = cache.get("Q1").get();
+            result.next();
+            assertNull(result.getString(1));
+            assertEquals("", result.getString(2));
+            result.next();
+            assertEquals("2", result.getString(1));
+            assertNull(result.getString(2));
+        }
+
+        @Test
+        void returnsTheMetaDataOfTheResult() throws Exception {
+            cache.put(queryExecution("Q1"), QUERY_KEY, decoded("1:a"));
+            assertSame(META_DATA, cache.get("Q1").get().getMetaData());
+        }
+
+        @Test
+        void returnsCursorsWithTheirOwnPosition() throws Exception {
+            cache.put(queryExecution("Q1"), QUERY_KEY, decoded("1:a", "2:b", "3:c"));
+            Result first = cache.get("Q1").get();
+            Result second = cache.get("Q1").get();
+            first.next();
+            assertEquals(ResultPosition.FIRST, first.getPosition());
+            assertEquals(ResultPosition.BEFORE_FIRST, second.getPosition());
+            first.next();
+            assertEquals(ResultPosition.MIDDLE, first.getPosition());
+            first.next();
+            assertEquals(ResultPosition.LAST, first.getPosition());
+            first.next();
+            assertEquals(ResultPosition.AFTER_LAST, first.getPosition());
+        }
+
+        @Test
+        void returnsEmptyWhenTheResultIsNotCached() {
+            assertFalse(cache.get("Q1").isPresent());
+        }
+    }
+
+    @Nested
+    class GetByQuery {
+        @Test
+        void returnsTheLatestResultOfTheQuery() throws Exception {
+            cache.put(queryExecution("Q1"), QUERY_KEY, decoded("1:a"));
+            clock.tick(Duration.ofSeconds(1));
+            cache.put(queryExecution("Q2"), QUERY_KEY, decoded("2:b"));
+            assertEquals(Collections.singletonList("2:b"), consume(cache.get(queryKey("db", "select *\n from T"), clock.instant().minus(Duration.ofMinutes(1))).get()));
+        }
+
+        @Test
+        void returnsEmptyWhenTheResultIsTooOld() {
+            cache.put(queryExecution("Q1"), QUERY_KEY, decoded("1:a"));
+            clock.tick(Duration.ofMinutes(2));
+            assertFalse(cache.get(QUERY_KEY, clock.instant().minus(Duration.ofMinutes(1))).isPresent());
+            assertTrue(cache.get("Q1").isPresent());
+        }
+
+        @Test
+        void returnsEmptyForOtherDatabases() {
+            cache.put(queryExecution("Q1"), QUERY_KEY, decoded("1:a"));
+            assertFalse(cache.get(queryKey("db2", "SELECT * FROM t"), clock.instant().minus(Duration.ofMinutes(1))).isPresent());
+        }
+
+        @Test
+        void returnsEmptyForOtherRegionsCredentialsWorkGroupsAndOutputLocations() {
+            cache.put(queryExecution("Q1"), QUERY_KEY, decoded("1:a"));
+            Instant completedAfter = clock.instant().minus(Duration.ofMinutes(1));
+            assertFalse(cache.get(ResultCache.queryKey("us-east-1/AKIA2", "db", "wg", "s3://o/", "SELECT * FROM t"), completedAfter).isPresent());
+            assertFalse(cache.get(ResultCache.queryKey("eu-west-1/AKIA1", "db", "wg2", "s3://o/", "SELECT * FROM t"), completedAfter).isPresent());
+            assertFalse(cache.get(ResultCache.queryKey("eu-west-1/AKIA1", "db", "wg", "s3://o2/", "SELECT * FROM t"), completedAfter).isPresent());
+        }
+
+        @Test
+        void onlyFindsResultsByIdWhenTheyHaveNoQueryKey() {
+            cache.put(queryExecution("Q1"), null, decoded("1:a"));
+            assertFalse(cache.get(QUERY_KEY, clock.instant().minus(Duration.ofMinutes(1))).isPresent());
+            assertTrue(cache.get("Q1").isPresent());
+        }
+    }
+
+    @Nested
+    class Put {
+        @Test
+        void doesNotCacheResultsLargerThanATenthOfTheCache() {
+            String[] values = new String[1000];
+            Arrays.fill(values, "1234567890:abcdefghij");
+            cache.put(queryExecution("Q1"), QUERY_KEY, decoded(values));
+            assertFalse(cache.contains("Q1"));
+        }
+
+        @Test
+        void staysWithinTheMaximumSize() {
+            for (int i = 0; i < 1000; i++) {
+                cache.put(queryExecution("Q" + i), QUERY_KEY, decoded("1:a", "2:b"));
+            }
+            assertTrue(cache.weightedSize() <= 100_000);
+            assertTrue(cache.size() > 0);
+        }
+
+        @Test
+        void keepsFrequentlyUsedResultsOverRecentlyAddedOnes() {
+            cache.put(queryExecution("hot"), QUERY_KEY, decoded("1:a"));
+            for (int i = 0; i < 10; i++) {
+                cache.get("hot");
+            }
+            for (int i = 0; i < 1000; i++) {
+                cache.put(queryExecution("Q" + i), QUERY_KEY, decoded("1:a", "2:b"));
+            }
+            assertTrue(cache.contains("hot"));
+        }
+    }
+
+    @Nested
+    class Recording {
+        @Test
+        void cachesTheResultWhenAllRowsHaveBeenRead() throws Exception {
+            Result result = cache.recording(queryExecution("Q1"), QUERY_KEY, new CachedResult(decoded("1:a", "2:b")));
+            assertEquals(Arrays.asList("1:a", "2:b"), consume(result));
+            assertEquals(Arrays.asList("1:a", "2:b"), consume(cache.get("Q1").get()));
+        }
+
+        @Test
+        void doesNotCacheTheResultWhenItIsClosedBeforeTheEnd() throws Exception {
+            Result result = cache.recording(queryExecution("Q1"), QUERY_KEY, new CachedResult(decoded("1:a", "2:b")));
+            result.next();
+            result.close();
+            assertFalse(cache.contains("Q1"));
+        }
+
+        @Test
+        void doesNotCacheResultsThatAreTooLarge() throws Exception {
+            String[] values = new String[1000];
+            Arrays.fill(values, "1234567890:abcdefghij");
+            Result result = cache.recording(queryExecution("Q1"), QUERY_KEY, new CachedResult(decoded(values)));
+            assertEquals(1000, consume(result).size());
+            assertFalse(cache.contains("Q1"));
+        }
+    }
+}
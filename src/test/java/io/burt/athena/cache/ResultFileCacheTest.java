@@ -0,0 +1,139 @@
+package io.burt.athena.cache;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class ResultFileCacheTest {
+    private Path directory;
+    private ResultFileCache cache;
+
+    @BeforeEach
+    void setUp(@TempDir Path temporaryDirectory) {
+        directory = temporaryDirectory;
+        cache = new ResultFileCache(directory, 1000);
+    }
+
+    static byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int n;
+        while ((n = stream.read(buffer)) >= 0) {
+            output.write(buffer, 0, n);
+        }
+        return output.toByteArray();
+    }
+
+    static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    void record(String queryExecutionId, String metaData, String data) throws IOException {
+        InputStream stream = cache.recording(queryExecutionId, ByteBuffer.wrap(metaData.getBytes(StandardCharsets.UTF_8)), new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), () -> "tag-1");
+        readAll(stream);
+        stream.close();
+    }
+
+    @Nested
+    class Constructor {
+        @Test
+        void doesNotAcceptANonPositiveMaximumSize() {
+            assertThrows(IllegalArgumentException.class, () -> new ResultFileCache(directory, 0));
+        }
+    }
+
+    @Nested
+    class ForDirectory {
+        @Test
+        void returnsTheSameInstanceForTheSameDirectory() {
+            assertSame(ResultFileCache.forDirectory(directory, 1000), ResultFileCache.forDirectory(directory.resolve("x").resolve(".."), 2000));
+        }
+    }
+
+    @Nested
+    class Recording {
+        @Test
+        void passesTheDataThrough() throws Exception {
+            InputStream stream = cache.recording("Q1", ByteBuffer.wrap(new byte[]{1, 2}), new ByteArrayInputStream("a,b\n".getBytes(StandardCharsets.UTF_8)), () -> "tag-1");
+            assertEquals("a,b\n", new String(readAll(stream), StandardCharsets.UTF_8));
+        }
+
+        @Test
+        void cachesTheFilesWhenTheDataHasBeenReadToTheEnd() throws Exception {
+            record("Q1", "meta", "a,b\n");
+            ResultFileCache.ResultFiles files = cache.get("Q1").get();
+            assertEquals("meta", new String(bytes(files.metaData()), StandardCharsets.UTF_8));
+            assertEquals("a,b\n", new String(readAll(files.openData()), StandardCharsets.UTF_8));
+            assertEquals("tag-1", cache.eTag("Q1").get());
+        }
+
+        @Test
+        void doesNotCacheTheFilesWhenTheStreamIsClosedBeforeTheEnd() throws Exception {
+            InputStream stream = cache.recording("Q1", ByteBuffer.wrap(new byte[]{1}), new ByteArrayInputStream("a,b\n".getBytes(StandardCharsets.UTF_8)), () -> "tag-1");
+            stream.read();
+            stream.close();
+            assertFalse(cache.get("Q1").isPresent());
+            try (Stream<Path> children = Files.list(directory)) {
+                assertTrue(children.allMatch(p -> p.getFileName().toString().equals(".lock")));
+            }
+        }
+
+        @Test
+        void doesNotCacheQueryExecutionIdsThatAreNotSafeFileNames() throws Exception {
+            InputStream data = new ByteArrayInputStream(new byte[]{1});
+            assertSame(data, cache.recording("../Q1", ByteBuffer.allocate(0), data, () -> "tag-1"));
+            assertFalse(cache.get("../Q1").isPresent());
+        }
+
+        @Test
+        void canBeReadByOtherInstancesUsingTheSameDirectory() throws Exception {
+            record("Q1", "meta", "a,b\n");
+            ResultFileCache other = new ResultFileCache(directory, 1000);
+            assertArrayEquals("a,b\n".getBytes(StandardCharsets.UTF_8), readAll(other.get("Q1").get().openData()));
+        }
+    }
+
+    @Nested
+    class Eviction {
+        @Test
+        void deletesTheLeastRecentlyUsedResultsWhenTheCacheIsFull() throws Exception {
+            char[] data = new char[300];
+            Arrays.fill(data, 'x');
+            record("Q1", "meta", new String(data));
+            Files.setLastModifiedTime(directory.resolve("Q1"), FileTime.fromMillis(1000));
+            record("Q2", "meta", new String(data));
+            Files.setLastModifiedTime(directory.resolve("Q2"), FileTime.fromMillis(2000));
+            cache.get("Q1");
+            record("Q3", "meta", new String(data));
+            record("Q4", "meta", new String(data));
+            assertTrue(cache.get("Q1").isPresent());
+            assertFalse(cache.get("Q2").isPresent());
+            assertTrue(cache.get("Q4").isPresent());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package io.burt.athena.catalog;
+
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class CatalogTest {
+    @Mock private CatalogSource source;
+    @Mock private ExecutorService executor;
+
+    private TestClock clock;
+    private Queue<Runnable> pendingTasks;
+    private boolean deferTasks;
+    private Catalog catalog;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clock = new TestClock();
+        pendingTasks = new ArrayDeque<>();
+        deferTasks = false;
+        lenient().doAnswer(invocation -> {
+            Runnable task = invocation.getArgument(0);
+            if (deferTasks) {
+                pendingTasks.add(task);
+            } else {
+                task.run();
+            }
+            return null;
+        }).when(executor).execute(any());
+        lenient().when(source.listDatabases()).thenReturn(Arrays.asList("default", "sales", "sales_archive"));
+        lenient().when(source.listTables("default")).thenReturn(Arrays.asList(table("default", "events"), table("default", "users")));
+        lenient().when(source.listTables("sales")).thenReturn(Collections.singletonList(table("sales", "orders")));
+        lenient().when(source.listTables("sales_archive")).thenReturn(Collections.singletonList(table("sales_archive", "orders_2019")));
+        catalog = new Catalog(source, Duration.ofMinutes(1), executor, clock);
+    }
+
+    private static CatalogTable table(String databaseName, String name) {
+        return new CatalogTable(databaseName, name, CatalogTable.TABLE, Collections.singletonList(new CatalogColumn("id", "bigint", 1, true, null)));
+    }
+
+    private void runPendingTasks() {
+        while (!pendingTasks.isEmpty()) {
+            pendingTasks.poll().run();
+        }
+    }
+
+    private static List<String> names(List<CatalogTable> tables) {
+        List<String> names = new ArrayList<>();
+        for (CatalogTable table : tables) {
+            names.add(table.databaseName() + "." + table.name());
+        }
+        return names;
+    }
+
+    @Nested
+    class Matcher {
+        @Test
+        void matchesEverythingWithoutAPattern() {
+            assertTrue(Catalog.matcher(null).test("anything"));
+            assertTrue(Catalog.matcher("%").test("anything"));
+        }
+
+        @Test
+        void matchesAnySequenceWithPercent() {
+            Predicate<String> matcher = Catalog.matcher("sales%");
+            assertTrue(matcher.test("sales"));
+            assertTrue(matcher.test("sales_archive"));
+            assertFalse(matcher.test("presales"));
+        }
+
+        @Test
+        void matchesAnyCharacterWithUnderscore() {
+            Predicate<String> matcher = Catalog.matcher("t_");
+            assertTrue(matcher.test("t1"));
+            assertFalse(matcher.test("t"));
+            assertFalse(matcher.test("t12"));
+        }
+
+        @Test
+        void matchesEscapedCharactersLiterally() {
+            Predicate<String> matcher = Catalog.matcher("sales\\_%");
+            assertTrue(matcher.test("sales_archive"));
+            assertFalse(matcher.test("salesarchive"));
+            assertTrue(Catalog.matcher("a.b").test("a.b"));
+            assertFalse(Catalog.matcher("a.b").test("axb"));
+        }
+
+        @Test
+        void ignoresCase() {
+            assertTrue(Catalog.matcher("Sales").test("sales"));
+        }
+    }
+
+    @Nested
+    class Databases {
+        @Test
+        void returnsTheMatchingDatabases() throws Exception {
+            assertEquals(Arrays.asList("default", "sales", "sales_archive"), catalog.databases(null));
+            assertEquals(Arrays.asList("sales", "sales_archive"), catalog.databases("sales%"));
+        }
+
+        @Test
+        void loadsTheDatabasesOnce() throws Exception {
+            catalog.databases(null);
+            catalog.databases("sales");
+            verify(source, times(1)).listDatabases();
+        }
+
+        @Test
+        void throwsWhenTheDatabasesCannotBeLoaded() throws Exception {
+            when(source.listDatabases()).thenThrow(new SQLException("b0rk"));
+            SQLException e = assertThrows(SQLException.class, () -> catalog.databases(null));
+            assertEquals("b0rk", e.getMessage());
+        }
+
+        @Test
+        void triesAgainAfterAFailedLoad() throws Exception {
+            when(source.listDatabases()).thenThrow(new SQLException("b0rk")).thenReturn(Collections.singletonList("default"));
+            assertThrows(SQLException.class, () -> catalog.databases(null));
+            assertEquals(Collections.singletonList("default"), catalog.databases(null));
+        }
+
+        @Nested
+        class WhenOlderThanTheTtl {
+            @BeforeEach
+            void setUp() throws Exception {
+                catalog.databases(null);
+                lenient().when(source.listDatabases()).thenReturn(Collections.singletonList("default"));
+                deferTasks = true;
+                clock.tick(Duration.ofMinutes(2));
+            }
+
+            @Test
+            void returnsThePreviousDatabasesWhileReloadingInTheBackground() throws Exception {
+                assertEquals(3, catalog.databases(null).size());
+                assertEquals(1, pendingTasks.size());
+                runPendingTasks();
+                assertEquals(Collections.singletonList("default"), catalog.databases(null));
+            }
+
+            @Test
+            void reloadsOnceAtATime() throws Exception {
+                catalog.databases(null);
+                catalog.databases(null);
+                assertEquals(1, pendingTasks.size());
+            }
+
+            @Test
+            void keepsThePreviousDatabasesWhenTheReloadFails() throws Exception {
+                when(source.listDatabases()).thenThrow(new SQLException("b0rk"));
+                catalog.databases(null);
+                runPendingTasks();
+                assertEquals(3, catalog.databases(null).size());
+                assertEquals(1, pendingTasks.size());
+            }
+        }
+    }
+
+    @Nested
+    class Tables {
+        @Test
+        void returnsTheMatchingTablesOfTheMatchingDatabases() throws Exception {
+            assertEquals(Arrays.asList("default.events", "default.users", "sales.orders", "sales_archive.orders_2019"), names(catalog.tables(null, null)));
+            assertEquals(Arrays.asList("sales.orders", "sales_archive.orders_2019"), names(catalog.tables("sales%", "orders%")));
+            assertEquals(Collections.singletonList("default.users"), names(catalog.tables("default", "u%")));
+        }
+
+        @Test
+        void loadsTheTablesOfEachDatabaseOnce() throws Exception {
+            catalog.tables(null, null);
+            catalog.tables("sales", "orders");
+            verify(source, times(1)).listTables("sales");
+        }
+
+        @Test
+        void onlyLoadsTheTablesOfTheMatchingDatabases() throws Exception {
+            catalog.tables("default", null);
+            verify(source, times(0)).listTables("sales");
+        }
+
+        @Test
+        void throwsWhenTheTablesCannotBeLoaded() throws Exception {
+            when(source.listTables("sales")).thenThrow(new SQLException("b0rk"));
+            assertThrows(SQLException.class, () -> catalog.tables(null, null));
+        }
+
+        @Test
+        void reloadsTheTablesInTheBackgroundWhenOlderThanTheTtl() throws Exception {
+            catalog.tables("default", null);
+            when(source.listTables("default")).thenReturn(Collections.singletonList(table("default", "sessions")));
+            deferTasks = true;
+            clock.tick(Duration.ofMinutes(2));
+            assertEquals(Arrays.asList("default.events", "default.users"), names(catalog.tables("default", null)));
+            runPendingTasks();
+            assertEquals(Collections.singletonList("default.sessions"), names(catalog.tables("default", null)));
+        }
+
+        @Test
+        void loadsTheTablesOfSeveralDatabasesInParallel() throws Exception {
+            CountDownLatch bothLoading = new CountDownLatch(2);
+            when(source.listTables("sales")).then(invocation -> {
+                bothLoading.countDown();
+                assertTrue(bothLoading.await(10, TimeUnit.SECONDS));
+                return Collections.singletonList(table("sales", "orders"));
+            });
+            when(source.listTables("sales_archive")).then(invocation -> {
+                bothLoading.countDown();
+                assertTrue(bothLoading.await(10, TimeUnit.SECONDS));
+                return Collections.emptyList();
+            });
+            try (Catalog parallelCatalog = new Catalog(source, Duration.ofMinutes(1))) {
+                assertEquals(Collections.singletonList("sales.orders"), names(parallelCatalog.tables("sales%", null)));
+            }
+        }
+    }
+}
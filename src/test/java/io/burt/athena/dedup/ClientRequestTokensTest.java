@@ -0,0 +1,100 @@
+package io.burt.athena.dedup;
+
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class ClientRequestTokensTest {
+    private TestClock clock;
+    private Function<String, Optional<String>> provider;
+
+    @BeforeEach
+    void setUp() {
+        clock = new TestClock();
+        clock.tick(Duration.ofHours(1000));
+        provider = ClientRequestTokens.deterministic("db", "wg", Duration.ofMinutes(10), clock);
+    }
+
+    @Nested
+    class Deterministic {
+        @Test
+        void returnsATokenWithinTheLimitsOfAthena() {
+            String token = provider.apply("SELECT 1").get();
+            assertEquals(64, token.length());
+            assertTrue(token.matches("[0-9a-f]+"));
+        }
+
+        @Test
+        void returnsTheSameTokenForQueriesThatOnlyDifferInFormatting() {
+            assertEquals(provider.apply("SELECT * FROM t -- report"), provider.apply("select *\n  from T"));
+        }
+
+        @Test
+        void returnsDifferentTokensForDifferentQueries() {
+            assertNotEquals(provider.apply("SELECT * FROM t WHERE a = 1"), provider.apply("SELECT * FROM t WHERE a = 2"));
+        }
+
+        @Test
+        void returnsDifferentTokensForDifferentDatabasesAndWorkGroups() {
+            Optional<String> token = provider.apply("SELECT 1");
+            assertNotEquals(token, ClientRequestTokens.deterministic("db2", "wg", Duration.ofMinutes(10), clock).apply("SELECT 1"));
+            assertNotEquals(token, ClientRequestTokens.deterministic("db", "wg2", Duration.ofMinutes(10), clock).apply("SELECT 1"));
+        }
+
+        @Test
+        void returnsTheSameTokenWithinAWindow() {
+            Optional<String> token = provider.apply("SELECT 1");
+            clock.tick(Duration.ofMinutes(9));
+            assertEquals(token, provider.apply("SELECT 1"));
+        }
+
+        @Test
+        void returnsANewTokenInTheNextWindow() {
+            Optional<String> token = provider.apply("SELECT 1");
+            clock.tick(Duration.ofMinutes(10));
+            assertNotEquals(token, provider.apply("SELECT 1"));
+        }
+
+        @Test
+        void alignsTheWindowsToTheEpochSoThatAllNodesAgree() {
+            TestClock otherClock = new TestClock();
+            otherClock.tick(Duration.ofHours(1000).plusMinutes(9));
+            assertEquals(provider.apply("SELECT 1"), ClientRequestTokens.deterministic("db", "wg", Duration.ofMinutes(10), otherClock).apply("SELECT 1"));
+        }
+
+        @Test
+        void returnsTheSameTokenForeverWithoutAWindow() {
+            Function<String, Optional<String>> forever = ClientRequestTokens.deterministic("db", "wg");
+            assertEquals(forever.apply("SELECT 1"), forever.apply("SELECT 1"));
+        }
+
+        @Test
+        void returnsNoTokenForStatementsThatAreNotReadOnly() {
+            assertFalse(provider.apply("INSERT INTO t SELECT * FROM s").isPresent());
+            assertFalse(provider.apply("-- copy\nCREATE TABLE t AS SELECT 1").isPresent());
+            assertFalse(ClientRequestTokens.deterministic("db", "wg").apply("DROP TABLE t").isPresent());
+        }
+
+        @Test
+        void throwsWhenTheWindowIsNotPositive() {
+            assertThrows(IllegalArgumentException.class, () -> ClientRequestTokens.deterministic("db", "wg", Duration.ZERO));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package io.burt.athena.dedup;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class SingleFlightTest {
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        singleFlight = new SingleFlight();
+    }
+
+    QueryExecution succeeded(String queryExecutionId) {
+        return QueryExecution.builder().queryExecutionId(queryExecutionId).status(b -> b.state(QueryExecutionState.SUCCEEDED)).build();
+    }
+
+    @Nested
+    class Key {
+        @Test
+        void isTheSameForQueriesThatOnlyDifferInFormatting() {
+            assertEquals(SingleFlight.key("id", "db", "wg", "s3://o/", "SELECT * FROM t -- dashboard"), SingleFlight.key("id", "db", "wg", "s3://o/", "select *\n  from T"));
+        }
+
+        @Test
+        void differsForQueriesWithDifferentLiterals() {
+            assertNotEquals(SingleFlight.key("id", "db", "wg", "s3://o/", "SELECT 1"), SingleFlight.key("id", "db", "wg", "s3://o/", "SELECT 2"));
+        }
+
+        @Test
+        void differsForQueriesInDifferentDatabasesOrWorkGroups() {
+            assertNotEquals(SingleFlight.key("id", "db1", "wg", "s3://o/", "SELECT 1"), SingleFlight.key("id", "db2", "wg", "s3://o/", "SELECT 1"));
+            assertNotEquals(SingleFlight.key("id", "db", "wg1", "s3://o/", "SELECT 1"), SingleFlight.key("id", "db", "wg2", "s3://o/", "SELECT 1"));
+        }
+
+        @Test
+        void differsForQueriesRunWithDifferentRegionsOrCredentials() {
+            assertNotEquals(SingleFlight.key("eu-west-1/AKIA1", "db", "wg", "s3://o/", "SELECT 1"), SingleFlight.key("us-east-1/AKIA1", "db", "wg", "s3://o/", "SELECT 1"));
+            assertNotEquals(SingleFlight.key("eu-west-1/AKIA1", "db", "wg", "s3://o/", "SELECT 1"), SingleFlight.key("eu-west-1/AKIA2", "db", "wg", "s3://o/", "SELECT 1"));
+        }
+    }
+
+    @Nested
+    class Join {
+        @Test
+        void makesTheFirstCallerTheLeader() {
+            assertTrue(singleFlight.join("k").isLeader());
+            assertFalse(singleFlight.join("k").isLeader());
+        }
+
+        @Test
+        void givesFollowersTheQueryExecutionIdOfTheLeader() {
+            SingleFlight.Flight leader = singleFlight.join("k");
+            SingleFlight.Flight follower = singleFlight.join("k");
+            leader.started("Q1");
+            assertEquals("Q1", follower.queryExecutionId().join());
+        }
+
+        @Test
+        void givesFollowersTheCompletedQueryExecution() {
+            SingleFlight.Flight leader = singleFlight.join("k");
+            SingleFlight.Flight follower = singleFlight.join("k");
+            leader.started("Q1");
+            singleFlight.completed(succeeded("Q1"));
+            assertEquals("Q1", follower.completion().join().get().queryExecutionId());
+        }
+
+        @Test
+        void startsANewFlightWhenTheQueryExecutionHasCompleted() {
+            singleFlight.join("k").started("Q1");
+            singleFlight.completed(succeeded("Q1"));
+            assertTrue(singleFlight.join("k").isLeader());
+        }
+    }
+
+    @Nested
+    class Finish {
+        @Test
+        void letsFollowersKnowThatTheLeaderDidNotStartAQueryExecution() {
+            SingleFlight.Flight leader = singleFlight.join("k");
+            SingleFlight.Flight follower = singleFlight.join("k");
+            leader.finish();
+            assertNull(follower.queryExecutionId().join());
+        }
+
+        @Test
+        void letsFollowersKnowThatTheLeaderStoppedPolling() {
+            SingleFlight.Flight leader = singleFlight.join("k");
+            SingleFlight.Flight follower = singleFlight.join("k");
+            leader.started("Q1");
+            leader.finish();
+            assertEquals(Optional.empty(), follower.completion().join());
+            assertEquals(0, singleFlight.inFlightCount());
+        }
+
+        @Test
+        void doesNothingWhenCalledByAFollower() {
+            singleFlight.join("k");
+            singleFlight.join("k").finish();
+            assertEquals(1, singleFlight.inFlightCount());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.burt.athena.polling;
 
+import io.burt.athena.support.ImmediatePollingScheduler;
 import io.burt.athena.support.TestClock;
 import io.burt.athena.support.TestNameGenerator;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +18,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -24,6 +26,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -178,4 +181,75 @@ class BackoffPollingStrategyTest {
             }
         }
     }
+
+    @Nested
+    class PollUntilCompletedAsync {
+        private ImmediatePollingScheduler scheduler;
+
+        @BeforeEach
+        void setUp() {
+            scheduler = new ImmediatePollingScheduler(clock);
+        }
+
+        @Test
+        void pollsUntilTheCallbackReturnsAResultSet() throws Exception {
+            AtomicInteger counter = new AtomicInteger(0);
+            pollingStrategy.pollUntilCompletedAsync((Instant deadline) -> {
+                if (counter.get() == 3) {
+                    return CompletableFuture.completedFuture(Optional.of(mock(ResultSet.class)));
+                } else {
+                    counter.incrementAndGet();
+                    return CompletableFuture.completedFuture(Optional.empty());
+                }
+            }, clock.instant().plus(Duration.ofSeconds(30)), scheduler).get();
+            assertEquals(3, counter.get());
+        }
+
+        @Test
+        void completesWithTheResultSet() throws Exception {
+            ResultSet rs1 = mock(ResultSet.class);
+            ResultSet rs2 = pollingStrategy.pollUntilCompletedAsync((Instant deadline) -> CompletableFuture.completedFuture(Optional.of(rs1)), clock.instant().plus(Duration.ofSeconds(30)), scheduler).get();
+            assertSame(rs1, rs2);
+        }
+
+        @Test
+        void doublesTheDelayAfterEachPollUpToTheConfiguredMax() throws Exception {
+            AtomicInteger counter = new AtomicInteger(0);
+            pollingStrategy.pollUntilCompletedAsync((Instant deadline) -> {
+                if (counter.getAndIncrement() == 12) {
+                    return CompletableFuture.completedFuture(Optional.of(mock(ResultSet.class)));
+                } else {
+                    return CompletableFuture.completedFuture(Optional.empty());
+                }
+            }, clock.instant().plus(Duration.ofSeconds(30)), scheduler).get();
+            List<Duration> delays = scheduler.delays();
+            assertEquals(Duration.ofMillis(3), delays.get(0));
+            assertEquals(Duration.ofMillis(6), delays.get(1));
+            assertEquals(Duration.ofMillis(12), delays.get(2));
+            assertEquals(Duration.ofMillis(768), delays.get(8));
+            assertEquals(Duration.ofMillis(1000), delays.get(9));
+            assertEquals(Duration.ofMillis(1000), delays.get(10));
+        }
+
+        @Test
+        void completesWithTimeoutExceptionIfNotCompletedWithinDeadline() {
+            CompletableFuture<ResultSet> future = pollingStrategy.pollUntilCompletedAsync((Instant deadline) -> {
+                clock.tick(Duration.ofSeconds(10));
+                return CompletableFuture.completedFuture(Optional.empty());
+            }, clock.instant(), scheduler);
+            ExecutionException e = assertThrows(ExecutionException.class, future::get);
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        @Test
+        void completesWithTheExceptionOfTheCallback() {
+            CompletableFuture<ResultSet> future = pollingStrategy.pollUntilCompletedAsync((Instant deadline) -> {
+                CompletableFuture<Optional<ResultSet>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new SQLException("b0rk"));
+                return failed;
+            }, clock.instant().plus(Duration.ofSeconds(30)), scheduler);
+            ExecutionException e = assertThrows(ExecutionException.class, future::get);
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+    }
 }
@@ -0,0 +1,220 @@
+package io.burt.athena.polling;
+
+import io.burt.athena.support.QueryExecutionHelper;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.BatchGetQueryExecutionRequest;
+import software.amazon.awssdk.services.athena.model.InternalServerException;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class BatchQueryExecutionPollerTest {
+    private QueryExecutionHelper queryExecutionHelper;
+    private PollingScheduler scheduler;
+    private BatchQueryExecutionPoller poller;
+
+    @BeforeEach
+    void setUp() {
+        queryExecutionHelper = new QueryExecutionHelper();
+        scheduler = PollingScheduler.shared();
+        poller = new BatchQueryExecutionPoller(queryExecutionHelper, scheduler, Duration.ofMillis(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        poller.close();
+    }
+
+    @Nested
+    class AwaitCompletion {
+        @Test
+        void completesWithTheFinalQueryExecution() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.QUEUED);
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.SUCCEEDED);
+            QueryExecution queryExecution = poller.awaitCompletion("Q1").get(5, TimeUnit.SECONDS);
+            assertEquals("Q1", queryExecution.queryExecutionId());
+            assertEquals(QueryExecutionState.SUCCEEDED, queryExecution.status().state());
+        }
+
+        @Test
+        void completesWithFailedAndCancelledQueryExecutions() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.FAILED);
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q2", QueryExecutionState.CANCELLED);
+            assertEquals(QueryExecutionState.FAILED, poller.awaitCompletion("Q1").get(5, TimeUnit.SECONDS).status().state());
+            assertEquals(QueryExecutionState.CANCELLED, poller.awaitCompletion("Q2").get(5, TimeUnit.SECONDS).status().state());
+        }
+
+        @Test
+        void pollsManyQueryExecutionsWithOneRequest() throws Exception {
+            List<CompletableFuture<QueryExecution>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q" + i, QueryExecutionState.SUCCEEDED);
+            }
+            poller.close();
+            poller = new BatchQueryExecutionPoller(queryExecutionHelper, scheduler, Duration.ofMillis(50));
+            for (int i = 0; i < 10; i++) {
+                futures.add(poller.awaitCompletion("Q" + i));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+            assertEquals(1, queryExecutionHelper.batchGetQueryExecutionRequests().size());
+            assertEquals(10, queryExecutionHelper.batchGetQueryExecutionRequests().get(0).queryExecutionIds().size());
+        }
+
+        @Test
+        void splitsLargeBatches() throws Exception {
+            List<CompletableFuture<QueryExecution>> futures = new ArrayList<>();
+            for (int i = 0; i < 120; i++) {
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q" + i, QueryExecutionState.SUCCEEDED);
+            }
+            poller.close();
+            poller = new BatchQueryExecutionPoller(queryExecutionHelper, scheduler, Duration.ofMillis(50));
+            for (int i = 0; i < 120; i++) {
+                futures.add(poller.awaitCompletion("Q" + i));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+            Set<String> polledIds = new HashSet<>();
+            for (BatchGetQueryExecutionRequest request : queryExecutionHelper.batchGetQueryExecutionRequests()) {
+                assertTrue(request.queryExecutionIds().size() <= BatchQueryExecutionPoller.MAX_BATCH_SIZE);
+                polledIds.addAll(request.queryExecutionIds());
+            }
+            assertEquals(120, polledIds.size());
+        }
+
+        @Test
+        void stopsPollingWhenNothingIsWaiting() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.SUCCEEDED);
+            poller.awaitCompletion("Q1").get(5, TimeUnit.SECONDS);
+            Thread.sleep(20);
+            assertEquals(1, queryExecutionHelper.batchGetQueryExecutionRequests().size());
+            assertEquals(0, poller.pendingCount());
+        }
+
+        @Test
+        void completesAllFuturesWaitingForTheSameQueryExecution() throws Exception {
+            Queue<Runnable> pendingTasks = new ArrayDeque<>();
+            ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+            when(executor.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).then(invocation -> {
+                pendingTasks.add(invocation.getArgument(0));
+                return mock(ScheduledFuture.class);
+            });
+            poller.close();
+            poller = new BatchQueryExecutionPoller(queryExecutionHelper, new PollingScheduler(executor), Duration.ofMillis(1));
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.SUCCEEDED);
+            CompletableFuture<QueryExecution> f1 = poller.awaitCompletion("Q1");
+            CompletableFuture<QueryExecution> f2 = poller.awaitCompletion("Q1");
+            assertEquals(1, pendingTasks.size());
+            pendingTasks.remove().run();
+            assertEquals("Q1", f1.getNow(null).queryExecutionId());
+            assertEquals("Q1", f2.getNow(null).queryExecutionId());
+            assertEquals(1, queryExecutionHelper.batchGetQueryExecutionRequests().size());
+        }
+
+        @Test
+        void completesEarlyWhenTheConditionMatches() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.QUEUED);
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.RUNNING);
+            QueryExecution queryExecution = poller.awaitCompletion("Q1", qe -> qe.status().state() == QueryExecutionState.RUNNING).get(5, TimeUnit.SECONDS);
+            assertEquals(QueryExecutionState.RUNNING, queryExecution.status().state());
+            Thread.sleep(20);
+            assertEquals(0, poller.pendingCount());
+        }
+
+        @Test
+        void keepsWaitingForTheFuturesWhoseConditionsDoNotMatch() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.SUCCEEDED);
+            CompletableFuture<QueryExecution> f1 = poller.awaitCompletion("Q1", qe -> true);
+            CompletableFuture<QueryExecution> f2 = poller.awaitCompletion("Q1");
+            assertEquals(QueryExecutionState.RUNNING, f1.get(5, TimeUnit.SECONDS).status().state());
+            assertEquals(QueryExecutionState.SUCCEEDED, f2.get(5, TimeUnit.SECONDS).status().state());
+        }
+
+        @Nested
+        class WhenTheRequestFails {
+            @Test
+            void retriesOnTheNextTick() throws Exception {
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.RUNNING);
+                queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.SUCCEEDED);
+                queryExecutionHelper.queueGetQueryExecutionException(InternalServerException.builder().message("b0rk").build());
+                QueryExecution queryExecution = poller.awaitCompletion("Q1").get(5, TimeUnit.SECONDS);
+                assertEquals(QueryExecutionState.SUCCEEDED, queryExecution.status().state());
+                assertEquals(2, queryExecutionHelper.batchGetQueryExecutionRequests().size());
+            }
+
+            @Test
+            void completesExceptionallyAfterSeveralConsecutiveFailures() {
+                for (int i = 0; i < BatchQueryExecutionPoller.MAX_FAILED_ATTEMPTS; i++) {
+                    queryExecutionHelper.queueGetQueryExecutionResponse("Q1", QueryExecutionState.SUCCEEDED);
+                    queryExecutionHelper.queueGetQueryExecutionException(InternalServerException.builder().message("b0rk").build());
+                }
+                ExecutionException e = assertThrows(ExecutionException.class, () -> poller.awaitCompletion("Q1").get(5, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof InternalServerException);
+                assertEquals(BatchQueryExecutionPoller.MAX_FAILED_ATTEMPTS, queryExecutionHelper.batchGetQueryExecutionRequests().size());
+            }
+        }
+
+        @Nested
+        class WhenCancelled {
+            @Test
+            void stopsPollingForTheQueryExecution() {
+                poller.close();
+                poller = new BatchQueryExecutionPoller(queryExecutionHelper, scheduler, Duration.ofSeconds(10));
+                CompletableFuture<QueryExecution> future = poller.awaitCompletion("Q1");
+                assertEquals(1, poller.pendingCount());
+                future.cancel(false);
+                assertEquals(0, poller.pendingCount());
+            }
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void failsWaitingFutures() {
+                poller.close();
+                poller = new BatchQueryExecutionPoller(queryExecutionHelper, scheduler, Duration.ofSeconds(10));
+                CompletableFuture<QueryExecution> future = poller.awaitCompletion("Q1");
+                poller.close();
+                assertTrue(future.isCompletedExceptionally());
+            }
+
+            @Test
+            void failsNewRegistrations() {
+                poller.close();
+                CompletableFuture<QueryExecution> future = poller.awaitCompletion("Q1");
+                assertTrue(future.isCompletedExceptionally());
+                assertFalse(future.isCancelled());
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.burt.athena.polling;
 
+import io.burt.athena.support.ImmediatePollingScheduler;
 import io.burt.athena.support.TestClock;
 import io.burt.athena.support.TestNameGenerator;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +15,7 @@ import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -21,6 +23,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -125,4 +128,71 @@ class FixedDelayPollingStrategyTest {
             }
         }
     }
+
+    @Nested
+    class PollUntilCompletedAsync {
+        private ImmediatePollingScheduler scheduler;
+
+        @BeforeEach
+        void setUp() {
+            scheduler = new ImmediatePollingScheduler(clock);
+        }
+
+        @Test
+        void pollsUntilTheCallbackReturnsAResultSet() throws Exception {
+            AtomicInteger counter = new AtomicInteger(0);
+            pollingStrategy.pollUntilCompletedAsync((Instant deadline) -> {
+                if (counter.get() == 3) {
+                    return CompletableFuture.completedFuture(Optional.of(mock(ResultSet.class)));
+                } else {
+                    counter.incrementAndGet();
+                    return CompletableFuture.completedFuture(Optional.empty());
+                }
+            }, clock.instant().plus(Duration.ofSeconds(30)), scheduler).get();
+            assertEquals(3, counter.get());
+        }
+
+        @Test
+        void completesWithTheResultSet() throws Exception {
+            ResultSet rs1 = mock(ResultSet.class);
+            ResultSet rs2 = pollingStrategy.pollUntilCompletedAsync((Instant deadline) -> CompletableFuture.completedFuture(Optional.of(rs1)), clock.instant().plus(Duration.ofSeconds(30)), scheduler).get();
+            assertSame(rs1, rs2);
+        }
+
+        @Test
+        void waitsTheConfiguredDelayBetweenPolls() throws Exception {
+            AtomicInteger counter = new AtomicInteger(0);
+            pollingStrategy.pollUntilCompletedAsync((Instant deadline) -> {
+                if (counter.getAndIncrement() == 2) {
+                    return CompletableFuture.completedFuture(Optional.of(mock(ResultSet.class)));
+                } else {
+                    return CompletableFuture.completedFuture(Optional.empty());
+                }
+            }, clock.instant().plus(Duration.ofSeconds(30)), scheduler).get();
+            assertEquals(2, scheduler.delays().size());
+            assertEquals(Duration.ofSeconds(3), scheduler.delays().get(0));
+            assertEquals(Duration.ofSeconds(3), scheduler.delays().get(1));
+        }
+
+        @Test
+        void completesWithTimeoutExceptionIfNotCompletedWithinDeadline() {
+            CompletableFuture<ResultSet> future = pollingStrategy.pollUntilCompletedAsync((Instant deadline) -> {
+                clock.tick(Duration.ofSeconds(10));
+                return CompletableFuture.completedFuture(Optional.empty());
+            }, clock.instant(), scheduler);
+            ExecutionException e = assertThrows(ExecutionException.class, future::get);
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        @Test
+        void completesWithTheExceptionOfTheCallback() {
+            CompletableFuture<ResultSet> future = pollingStrategy.pollUntilCompletedAsync((Instant deadline) -> {
+                CompletableFuture<Optional<ResultSet>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new SQLException("b0rk"));
+                return failed;
+            }, clock.instant().plus(Duration.ofSeconds(30)), scheduler);
+            ExecutionException e = assertThrows(ExecutionException.class, future::get);
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+    }
 }
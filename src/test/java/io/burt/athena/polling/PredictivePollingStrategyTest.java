@@ -0,0 +1,185 @@
+package io.burt.athena.polling;
+
+import io.burt.athena.sql.SqlNormalizer;
+import io.burt.athena.support.ImmediatePollingScheduler;
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class PredictivePollingStrategyTest {
+    private static final String SQL = "SELECT * FROM events WHERE day = '2020-01-01'";
+
+    private TestClock clock;
+    private List<Duration> delays;
+    private PollingStrategy fallback;
+    private PredictivePollingStrategy pollingStrategy;
+
+    @BeforeEach
+    void setUp() {
+        clock = new TestClock();
+        delays = new ArrayList<>();
+        fallback = new BackoffPollingStrategy(Duration.ofMillis(10), Duration.ofSeconds(5), duration -> clock.tick(duration), clock);
+        pollingStrategy = new PredictivePollingStrategy(fallback, Duration.ofMillis(50), Duration.ofSeconds(5), 3, duration -> {
+            delays.add(duration);
+            clock.tick(duration);
+        }, clock);
+    }
+
+    QueryExecution queryExecution(String sql, long totalExecutionTimeInMillis) {
+        return QueryExecution.builder().query(sql).statistics(b -> b.totalExecutionTimeInMillis(totalExecutionTimeInMillis)).build();
+    }
+
+    void recordCompletions(String sql, long totalExecutionTimeInMillis, int times) {
+        for (int i = 0; i < times; i++) {
+            pollingStrategy.recordCompletion(queryExecution(sql, totalExecutionTimeInMillis));
+        }
+    }
+
+    PollingCallback completesAfter(Duration duration, AtomicInteger pollCount) {
+        Instant completion = clock.instant().plus(duration);
+        return deadline -> {
+            pollCount.incrementAndGet();
+            if (clock.instant().isBefore(completion)) {
+                return Optional.empty();
+            } else {
+                return Optional.of(mock(ResultSet.class));
+            }
+        };
+    }
+
+    @Nested
+    class ForQuery {
+        @Test
+        void returnsTheFallbackForUnknownQueries() {
+            assertSame(fallback, pollingStrategy.forQuery(SQL));
+        }
+
+        @Test
+        void returnsAPredictingStrategyForQueriesWithTheSameShapeAsAPreviousQuery() {
+            recordCompletions("SELECT * FROM events WHERE day = '2019-12-31'", 40000, 1);
+            assertNotSame(fallback, pollingStrategy.forQuery(SQL));
+        }
+    }
+
+    @Nested
+    class RecordCompletion {
+        @Test
+        void ignoresQueriesWithoutStatistics() {
+            pollingStrategy.recordCompletion(QueryExecution.builder().query(SQL).build());
+            assertSame(fallback, pollingStrategy.forQuery(SQL));
+        }
+
+        @Test
+        void usesTheEngineExecutionAndQueueTimeWhenTheTotalIsMissing() {
+            pollingStrategy.recordCompletion(QueryExecution.builder().query(SQL).statistics(b -> b.engineExecutionTimeInMillis(30000L).queryQueueTimeInMillis(10000L)).build());
+            assertEquals(Duration.ofSeconds(40), pollingStrategy.estimate(SqlNormalizer.fingerprint(SQL)).get().mean());
+        }
+
+        @Test
+        void smoothsTheExecutionTimes() {
+            recordCompletions(SQL, 40000, 1);
+            recordCompletions(SQL, 48000, 1);
+            PredictivePollingStrategy.LatencyEstimate estimate = pollingStrategy.estimate(SqlNormalizer.fingerprint(SQL)).get();
+            assertEquals(Duration.ofSeconds(41), estimate.mean());
+            assertEquals(Duration.ofSeconds(17), estimate.deviation());
+        }
+
+        @Test
+        void forgetsTheLeastRecentlyUsedFingerprints() {
+            recordCompletions("SELECT 1 FROM a", 1000, 1);
+            recordCompletions("SELECT 1 FROM b", 1000, 1);
+            recordCompletions("SELECT 1 FROM c", 1000, 1);
+            recordCompletions("SELECT 1 FROM d", 1000, 1);
+            assertFalse(pollingStrategy.estimate(SqlNormalizer.fingerprint("SELECT 1 FROM a")).isPresent());
+            assertTrue(pollingStrategy.estimate(SqlNormalizer.fingerprint("SELECT 1 FROM d")).isPresent());
+        }
+    }
+
+    @Nested
+    class PollUntilCompleted {
+        @BeforeEach
+        void setUp() {
+            recordCompletions(SQL, 40000, 10);
+        }
+
+        @Test
+        void pollsSparselyUntilShortlyBeforeThePredictedCompletion() throws Exception {
+            pollingStrategy.forQuery(SQL).pollUntilCompleted(completesAfter(Duration.ofSeconds(40), new AtomicInteger()), clock.instant().plus(Duration.ofMinutes(5)));
+            assertEquals(Duration.ofMillis(36997), delays.get(0));
+            assertTrue(delays.get(1).compareTo(Duration.ofSeconds(1)) < 0);
+        }
+
+        @Test
+        void detectsCompletionSoonAfterItHappens() throws Exception {
+            pollingStrategy.forQuery(SQL).pollUntilCompleted(completesAfter(Duration.ofSeconds(40), new AtomicInteger()), clock.instant().plus(Duration.ofMinutes(5)));
+            assertTrue(Duration.ofMillis(clock.millis()).minus(Duration.ofSeconds(40)).compareTo(Duration.ofMillis(500)) < 0);
+        }
+
+        @Test
+        void pollsLessThanTheFallback() throws Exception {
+            AtomicInteger predictedPolls = new AtomicInteger();
+            pollingStrategy.forQuery(SQL).pollUntilCompleted(completesAfter(Duration.ofSeconds(40), predictedPolls), clock.instant().plus(Duration.ofMinutes(5)));
+            AtomicInteger fallbackPolls = new AtomicInteger();
+            fallback.pollUntilCompleted(completesAfter(Duration.ofSeconds(40), fallbackPolls), clock.instant().plus(Duration.ofMinutes(5)));
+            assertTrue(predictedPolls.get() < fallbackPolls.get(), String.format("%d polls is not less than %d polls", predictedPolls.get(), fallbackPolls.get()));
+        }
+
+        @Test
+        void backsOffWhenTheQueryRunsLongerThanPredicted() throws Exception {
+            pollingStrategy.forQuery(SQL).pollUntilCompleted(completesAfter(Duration.ofSeconds(120), new AtomicInteger()), clock.instant().plus(Duration.ofMinutes(5)));
+            assertEquals(Duration.ofSeconds(5), delays.get(delays.size() - 1));
+        }
+    }
+
+    @Nested
+    class PollUntilCompletedAsync {
+        private ImmediatePollingScheduler scheduler;
+
+        @BeforeEach
+        void setUp() {
+            recordCompletions(SQL, 40000, 10);
+            scheduler = new ImmediatePollingScheduler(clock);
+        }
+
+        @Test
+        void pollsSparselyUntilShortlyBeforeThePredictedCompletion() throws Exception {
+            Instant completion = clock.instant().plus(Duration.ofSeconds(40));
+            AsyncPollingCallback callback = deadline -> {
+                if (clock.instant().isBefore(completion)) {
+                    return CompletableFuture.completedFuture(Optional.empty());
+                } else {
+                    return CompletableFuture.completedFuture(Optional.of(mock(ResultSet.class)));
+                }
+            };
+            CompletableFuture<ResultSet> future = pollingStrategy.forQuery(SQL).pollUntilCompletedAsync(callback, clock.instant().plus(Duration.ofMinutes(5)), scheduler);
+            assertTrue(future.isDone());
+            assertEquals(Duration.ofMillis(36997), scheduler.delays().get(0));
+            assertTrue(scheduler.delays().get(1).compareTo(Duration.ofSeconds(1)) < 0);
+            assertTrue(Duration.ofMillis(clock.millis()).minus(Duration.ofSeconds(40)).compareTo(Duration.ofMillis(500)) < 0);
+        }
+    }
+}
@@ -11,11 +11,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.services.athena.model.ColumnInfo;
 import software.amazon.awssdk.services.athena.model.ColumnNullable;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.sql.ResultSetMetaData;
 import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -42,10 +45,14 @@ class AthenaMetaDataParserTest {
     }
 
     private ByteBuffer createMetaData(ColumnInfo... columns) {
+        return createMetaData("fnord", columns);
+    }
+
+    private ByteBuffer createMetaData(String queryExecutionId, ColumnInfo... columns) {
         ByteBuffer outerBuffer = ByteBuffer.allocate(1 << 16);
         outerBuffer.put((byte) (1 << 3 | 2));
-        outerBuffer.put((byte) 5);
-        outerBuffer.put("fnord".getBytes());
+        outerBuffer.put((byte) queryExecutionId.length());
+        outerBuffer.put(queryExecutionId.getBytes());
         for (ColumnInfo column : columns) {
             ByteBuffer innerBuffer = ByteBuffer.allocate(1 << 12);
             putString(innerBuffer, 1, column.catalogName());
@@ -153,6 +160,57 @@ class AthenaMetaDataParserTest {
             }
         }
 
+        @Nested
+        class WithColumnsThatHaveBeenParsedBefore {
+            private Map<ByteBuffer, ResultSetMetadata> schemas;
+
+            @BeforeEach
+            void setUp() {
+                schemas = new HashMap<>();
+            }
+
+            @Test
+            void reusesTheColumnsOfResultsOfOtherQueryExecutions() {
+                ColumnInfo column = ColumnInfo.builder().label("col_label").name("col_name").type("varchar").build();
+                AthenaResultSetMetaData metaData1 = new AthenaMetaDataParser(QueryExecution.builder().queryExecutionId("Q1").build(), schemas).parse(createMetaData("Q1", column));
+                AthenaResultSetMetaData metaData2 = new AthenaMetaDataParser(QueryExecution.builder().queryExecutionId("Q2").build(), schemas).parse(createMetaData("Q2", column));
+                assertEquals(1, schemas.size());
+                assertEquals("col_label", metaData2.getColumnLabel(1));
+                assertEquals("Q1", metaData1.getQueryExecutionId());
+                assertEquals("Q2", metaData2.getQueryExecutionId());
+            }
+
+            @Test
+            void doesNotReuseDifferentColumns() {
+                AthenaMetaDataParser cachingParser = new AthenaMetaDataParser(QueryExecution.builder().build(), schemas);
+                cachingParser.parse(createMetaData(ColumnInfo.builder().name("a").type("varchar").build()));
+                AthenaResultSetMetaData metaData = cachingParser.parse(createMetaData(ColumnInfo.builder().name("a").type("bigint").build()));
+                assertEquals(2, schemas.size());
+                assertEquals(Types.BIGINT, metaData.getColumnType(1));
+            }
+
+            @Test
+            void doesNotKeepAReferenceToTheBuffer() {
+                ByteBuffer buffer = createMetaData(ColumnInfo.builder().name("a").type("varchar").build());
+                AthenaMetaDataParser cachingParser = new AthenaMetaDataParser(QueryExecution.builder().build(), schemas);
+                cachingParser.parse(buffer);
+                while (buffer.hasRemaining()) {
+                    buffer.put((byte) 0);
+                }
+                AthenaResultSetMetaData metaData = cachingParser.parse(createMetaData(ColumnInfo.builder().name("a").type("varchar").build()));
+                assertEquals(1, schemas.size());
+                assertEquals("a", metaData.getColumnName(1));
+            }
+        }
+
+        @Test
+        void doesNotModifyTheBuffer() {
+            ByteBuffer buffer = createMetaData(ColumnInfo.builder().name("a").type("varchar").build());
+            int position = buffer.position();
+            parser.parse(buffer);
+            assertEquals(position, buffer.position());
+        }
+
         @Nested
         class WithCaseSensitivity {
             @Test
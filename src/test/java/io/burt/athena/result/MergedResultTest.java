@@ -0,0 +1,287 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSet;
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.StatementCancelledException;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class MergedResultTest {
+    static CompletableFuture<? extends ResultSet> split(String... values) {
+        List<String[]> rows = new ArrayList<>();
+        for (String value : values) {
+            String[] parts = value.split(":");
+            rows.add(new String[]{parts[0].equals("null") ? null : parts[0], parts[1]});
+        }
+        return CompletableFuture.completedFuture(new AthenaResultSet(new RowsResult(rows), null));
+    }
+
+    static List<String> consume(Result result) throws SQLException {
+        List<String> values = new ArrayList<>();
+        while (result.next()) {
+            values.add(result.getString(1) + ":" + result.getString(2));
+        }
+        return values;
+    }
+
+    @Nested
+    class Concatenated {
+        @Test
+        void returnsTheRowsOfAllSplits() throws Exception {
+            ConcatenatedResult result = new ConcatenatedResult(Arrays.asList(split("1:a", "2:b"), split("3:c")), 1);
+            assertEquals(Arrays.asList("1:a", "2:b", "3:c"), consume(result));
+        }
+
+        @Test
+        void returnsTheRowsOfTheSplitsInTheOrderTheyComplete() throws Exception {
+            CompletableFuture<ResultSet> first = new CompletableFuture<>();
+            ConcatenatedResult result = new ConcatenatedResult(Arrays.asList(first, split("3:c")));
+            assertTrue(result.next());
+            assertEquals("3", result.getString(1));
+            first.complete(split("1:a").get());
+            assertTrue(result.next());
+            assertEquals("1", result.getString(1));
+            assertFalse(result.next());
+        }
+
+        @Test
+        void usesTheMetaDataOfTheFirstSplit() throws Exception {
+            ConcatenatedResult result = new ConcatenatedResult(Arrays.asList(split("1:a"), split("3:c")));
+            assertEquals(2, result.getMetaData().getColumnCount());
+        }
+
+        @Test
+        void reportsThePosition() throws Exception {
+            ConcatenatedResult result = new ConcatenatedResult(Arrays.asList(split("1:a", "2:b"), split("3:c")));
+            assertEquals(ResultPosition.BEFORE_FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.MIDDLE, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.LAST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.AFTER_LAST, result.getPosition());
+            assertEquals(3, result.getRowNumber());
+        }
+
+        @Test
+        void throwsWhenASplitFails() {
+            CompletableFuture<ResultSet> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new SQLException("b0rk"));
+            ConcatenatedResult result = new ConcatenatedResult(Arrays.asList(split("1:a"), failed));
+            SQLException e = assertThrows(SQLException.class, () -> consume(result));
+            assertEquals("b0rk", e.getMessage());
+        }
+
+        @Test
+        void cancelsSplitsThatHaveNotCompletedWhenTheResultIsClosed() {
+            CompletableFuture<ResultSet> late = new CompletableFuture<>();
+            ConcatenatedResult result = new ConcatenatedResult(Arrays.asList(split("1:a"), late));
+            result.close();
+            assertTrue(late.isCancelled());
+        }
+    }
+
+    @Nested
+    class WhenCancelled {
+        @Test
+        void cancelsTheExecutionsThatHaveNotCompleted() {
+            CompletableFuture<ResultSet> pending = new CompletableFuture<>();
+            ConcatenatedResult result = new ConcatenatedResult(Arrays.asList(split("1:a"), pending));
+            result.cancel();
+            assertTrue(pending.isCancelled());
+        }
+
+        @Test
+        void wakesUpAThreadWaitingForTheNextSplitToComplete() {
+            ConcatenatedResult result = new ConcatenatedResult(Collections.singletonList(new CompletableFuture<ResultSet>()));
+            CompletableFuture<Boolean> next = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return result.next();
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            result.cancel();
+            ExecutionException e = assertThrows(ExecutionException.class, () -> next.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof StatementCancelledException);
+            assertEquals(StatementCancelledException.SQL_STATE, ((SQLException) e.getCause()).getSQLState());
+        }
+
+        @Test
+        void wakesUpAThreadWaitingForASplitToComplete() {
+            SortMergedResult result = new SortMergedResult(Arrays.asList(split("1:a"), new CompletableFuture<ResultSet>()), Collections.singletonList(SortColumn.ascending(1)));
+            CompletableFuture<Boolean> next = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return result.next();
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            result.cancel();
+            ExecutionException e = assertThrows(ExecutionException.class, () -> next.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof StatementCancelledException);
+        }
+    }
+
+    @Nested
+    class SortMerged {
+        @Test
+        void mergesTheSortedSplits() throws Exception {
+            SortMergedResult result = new SortMergedResult(Arrays.asList(split("1:a", "5:e", "9:i"), split("2:b", "3:c", "10:j")), Collections.singletonList(SortColumn.ascending(1)), 1);
+            assertEquals(Arrays.asList("1:a", "2:b", "3:c", "5:e", "9:i", "10:j"), consume(result));
+        }
+
+        @Test
+        void comparesNumericColumnsAsNumbers() throws Exception {
+            SortMergedResult result = new SortMergedResult(Arrays.asList(split("9:a"), split("10:b")), Collections.singletonList(SortColumn.ascending(1)));
+            assertEquals(Arrays.asList("9:a", "10:b"), consume(result));
+        }
+
+        @Test
+        void comparesOtherColumnsAsStrings() throws Exception {
+            SortMergedResult result = new SortMergedResult(Arrays.asList(split("1:b", "2:d"), split("3:a", "4:c")), Collections.singletonList(SortColumn.ascending(2)));
+            assertEquals(Arrays.asList("3:a", "1:b", "4:c", "2:d"), consume(result));
+        }
+
+        @Test
+        void supportsDescendingOrder() throws Exception {
+            SortMergedResult result = new SortMergedResult(Arrays.asList(split("9:a", "1:b"), split("10:c", "2:d")), Collections.singletonList(SortColumn.descending(1)));
+            assertEquals(Arrays.asList("10:c", "9:a", "2:d", "1:b"), consume(result));
+        }
+
+        @Test
+        void sortsNullsLast() throws Exception {
+            SortMergedResult result = new SortMergedResult(Arrays.asList(split("1:a", "null:b"), split("2:c")), Collections.singletonList(SortColumn.ascending(1)));
+            assertEquals(Arrays.asList("1:a", "2:c", "null:b"), consume(result));
+        }
+
+        @Test
+        void sortsNullsLastInDescendingOrder() throws Exception {
+            SortMergedResult result = new SortMergedResult(Arrays.asList(split("2:a", "null:b"), split("1:c")), Collections.singletonList(SortColumn.descending(1)));
+            assertEquals(Arrays.asList("2:a", "1:c", "null:b"), consume(result));
+        }
+
+        @Test
+        void usesTheFollowingColumnsToBreakTies() throws Exception {
+            SortMergedResult result = new SortMergedResult(Arrays.asList(split("1:b", "2:a"), split("1:a")), Arrays.asList(SortColumn.ascending(1), SortColumn.ascending(2)));
+            assertEquals(Arrays.asList("1:a", "1:b", "2:a"), consume(result));
+        }
+
+        @Test
+        void waitsForTheReaderOfASplitThatIsStillCompleting() throws Exception {
+            CompletableFuture<ResultSet> late = new CompletableFuture<>();
+            SortMergedResult result = new SortMergedResult(Arrays.asList(split("1:a"), late), Collections.singletonList(SortColumn.ascending(1)));
+            CompletableFuture<List<String>> rows = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return consume(result);
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            late.whenComplete((resultSet, error) -> {
+                try {
+                    rows.get(200, TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    // the split's reader is created after this callback
+                }
+            });
+            late.complete(split("2:b").get());
+            assertEquals(Arrays.asList("1:a", "2:b"), rows.get(5, TimeUnit.SECONDS));
+        }
+
+        @Test
+        void throwsWhenASortColumnIsOutOfBounds() {
+            SortMergedResult result = new SortMergedResult(Collections.singletonList(split("1:a")), Collections.singletonList(SortColumn.ascending(3)));
+            assertThrows(SQLException.class, result::next);
+        }
+    }
+
+    private static class RowsResult implements Result {
+        private final List<String[]> rows;
+        private int rowNumber;
+
+        RowsResult(List<String[]> rows) {
+            this.rows = rows;
+            this.rowNumber = 0;
+        }
+
+        @Override
+        public int getFetchSize() {
+            return 0;
+        }
+
+        @Override
+        public void setFetchSize(int newFetchSize) {
+        }
+
+        @Override
+        public AthenaResultSetMetaData getMetaData() {
+            return new AthenaResultSetMetaData(QueryExecution.builder().build(), ResultSetMetadata.builder().columnInfo(
+                    ColumnInfo.builder().name("id").type("integer").build(),
+                    ColumnInfo.builder().name("name").type("varchar").build()
+            ).build());
+        }
+
+        @Override
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+        @Override
+        public boolean next() {
+            rowNumber++;
+            return rowNumber <= rows.size();
+        }
+
+        @Override
+        public String getString(int columnIndex) {
+            return rows.get(rowNumber - 1)[columnIndex - 1];
+        }
+
+        @Override
+        public ResultPosition getPosition() {
+            if (rowNumber == 0) {
+                return ResultPosition.BEFORE_FIRST;
+            } else if (rowNumber > rows.size()) {
+                return ResultPosition.AFTER_LAST;
+            } else if (rowNumber == 1) {
+                return ResultPosition.FIRST;
+            } else if (rowNumber == rows.size()) {
+                return ResultPosition.LAST;
+            } else {
+                return ResultPosition.MIDDLE;
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
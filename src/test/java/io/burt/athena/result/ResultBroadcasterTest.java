@@ -0,0 +1,297 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.StatementCancelledException;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.burt.athena.result.MergedResultTest.consume;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class ResultBroadcasterTest {
+    private ResultBroadcaster broadcaster;
+    private QueryExecution queryExecution;
+    private List<SourceResult> sources;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new ResultBroadcaster(2);
+        queryExecution = QueryExecution.builder().queryExecutionId("Q1234").build();
+        sources = new ArrayList<>();
+    }
+
+    private Result open(String... values) {
+        return broadcaster.open(queryExecution, () -> {
+            SourceResult source = new SourceResult(values);
+            sources.add(source);
+            return source;
+        });
+    }
+
+    @Nested
+    class Open {
+        @Test
+        void downloadsTheResultOnceForConcurrentReaders() throws Exception {
+            Result first = open("1:a", "2:b", "3:c");
+            Result second = open("1:a", "2:b", "3:c");
+            assertEquals(Arrays.asList("1:a", "2:b", "3:c"), consume(first));
+            assertEquals(Arrays.asList("1:a", "2:b", "3:c"), consume(second));
+            assertEquals(1, sources.size());
+            assertEquals(4, sources.get(0).nextCount);
+        }
+
+        @Test
+        void givesEachReaderItsOwnPosition() throws Exception {
+            Result first = open("1:a", "2:b", "3:c");
+            Result second = open("1:a", "2:b", "3:c");
+            first.next();
+            first.next();
+            second.next();
+            assertEquals("2", first.getString(1));
+            assertEquals("1", second.getString(1));
+            assertEquals(2, first.getRowNumber());
+            assertEquals(1, second.getRowNumber());
+        }
+
+        @Test
+        void startsANewDownloadWhenTheFirstRowsHaveBeenReleased() throws Exception {
+            Result first = open("1:a", "2:b", "3:c");
+            first.next();
+            first.next();
+            first.next();
+            Result second = open("1:a", "2:b", "3:c");
+            assertEquals(Arrays.asList("1:a", "2:b", "3:c"), consume(second));
+            assertEquals(2, sources.size());
+        }
+
+        @Test
+        void startsANewDownloadWhenAllReadersHaveBeenClosed() throws Exception {
+            open("1:a").close();
+            open("1:a").close();
+            assertEquals(2, sources.size());
+            assertEquals(0, broadcaster.broadcastCount());
+        }
+
+        @Test
+        void doesNotShareDownloadsOfDifferentQueryExecutions() throws Exception {
+            Result first = open("1:a");
+            Result second = broadcaster.open(QueryExecution.builder().queryExecutionId("Q2345").build(), () -> new SourceResult("2:b"));
+            assertEquals(Arrays.asList("1:a"), consume(first));
+            assertEquals(Arrays.asList("2:b"), consume(second));
+        }
+    }
+
+    @Nested
+    class GetMetaData {
+        @Test
+        void returnsTheMetaDataOfTheDownloadedResult() throws Exception {
+            Result first = open("1:a");
+            Result second = open("1:a");
+            assertSame(first.getMetaData(), second.getMetaData());
+            assertEquals(2, first.getMetaData().getColumnCount());
+        }
+    }
+
+    @Nested
+    class GetPosition {
+        @Test
+        void reportsThePositionOfTheReader() throws Exception {
+            Result result = open("1:a", "2:b", "3:c");
+            assertEquals(ResultPosition.BEFORE_FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.MIDDLE, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.LAST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.AFTER_LAST, result.getPosition());
+        }
+    }
+
+    @Nested
+    class Next {
+        @Test
+        void throwsTheDownloadErrorToAllReaders() throws Exception {
+            Result first = open("1:a", "2:b", "fail:c");
+            Result second = open("1:a", "2:b", "fail:c");
+            SQLException e1 = assertThrows(SQLException.class, () -> consume(first));
+            SQLException e2 = assertThrows(SQLException.class, () -> consume(second));
+            assertSame(e1, e2);
+        }
+
+        @Test
+        void closesTheDownloadedResultWhenItHasBeenRead() throws Exception {
+            Result first = open("1:a", "2:b", "3:c");
+            open("1:a", "2:b", "3:c");
+            consume(first);
+            assertTrue(sources.get(0).closed);
+        }
+    }
+
+    @Nested
+    class Close {
+        @Test
+        void closesTheDownloadedResultWhenTheLastReaderIsClosed() throws Exception {
+            Result first = open("1:a", "2:b", "3:c");
+            Result second = open("1:a", "2:b", "3:c");
+            first.next();
+            first.close();
+            assertFalse(sources.get(0).closed);
+            second.close();
+            assertTrue(sources.get(0).closed);
+        }
+
+        @Test
+        void doesNotAffectTheOtherReaders() throws Exception {
+            Result first = open("1:a", "2:b", "3:c");
+            Result second = open("1:a", "2:b", "3:c");
+            first.close();
+            first.close();
+            assertEquals(Arrays.asList("1:a", "2:b", "3:c"), consume(second));
+        }
+    }
+
+    @Nested
+    class Cancel {
+        @Test
+        void doesNotCancelTheDownloadWhenThereAreOtherReaders() throws Exception {
+            Result first = open("1:a");
+            open("1:a");
+            first.cancel();
+            assertFalse(sources.get(0).cancelled);
+        }
+
+        @Test
+        void failsTheNextCallOnTheCancelledReaderOnly() throws Exception {
+            Result first = open("1:a", "2:b", "3:c");
+            Result second = open("1:a", "2:b", "3:c");
+            first.next();
+            second.next();
+            first.cancel();
+            StatementCancelledException e = assertThrows(StatementCancelledException.class, first::next);
+            assertEquals(StatementCancelledException.SQL_STATE, e.getSQLState());
+            assertEquals(Arrays.asList("2:b", "3:c"), consume(second));
+            assertFalse(sources.get(0).cancelled);
+        }
+
+        @Test
+        void cancelsTheDownloadWhenTheLastReaderIsCancelled() throws Exception {
+            Result first = open("1:a");
+            Result second = open("1:a");
+            first.cancel();
+            first.cancel();
+            assertFalse(sources.get(0).cancelled);
+            second.cancel();
+            assertTrue(sources.get(0).cancelled);
+        }
+
+        @Test
+        void startsANewDownloadWhenAllReadersHaveBeenCancelled() throws Exception {
+            open("1:a").cancel();
+            Result second = open("1:a");
+            assertEquals(Arrays.asList("1:a"), consume(second));
+            assertEquals(2, sources.size());
+        }
+
+        @Test
+        void cancelsTheDownloadWhenThereAreNoOtherReaders() throws Exception {
+            Result first = open("1:a");
+            Result second = open("1:a");
+            first.close();
+            second.cancel();
+            assertTrue(sources.get(0).cancelled);
+        }
+    }
+
+    @Test
+    void sharedReturnsTheSameInstance() {
+        assertSame(ResultBroadcaster.shared(), ResultBroadcaster.shared());
+        assertNotSame(ResultBroadcaster.shared(), broadcaster);
+    }
+
+    private static class SourceResult implements Result {
+        private final String[] values;
+        private int rowNumber;
+        int nextCount;
+        boolean closed;
+        boolean cancelled;
+
+        SourceResult(String... values) {
+            this.values = values;
+            this.rowNumber = 0;
+        }
+
+        @Override
+        public int getFetchSize() {
+            return 0;
+        }
+
+        @Override
+        public void setFetchSize(int newFetchSize) {
+        }
+
+        @Override
+        public AthenaResultSetMetaData getMetaData() {
+            return new AthenaResultSetMetaData(QueryExecution.builder().build(), ResultSetMetadata.builder().columnInfo(
+                    ColumnInfo.builder().name("id").type("integer").build(),
+                    ColumnInfo.builder().name("name").type("varchar").build()
+            ).build());
+        }
+
+        @Override
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            nextCount++;
+            rowNumber++;
+            if (rowNumber <= values.length && values[rowNumber - 1].startsWith("fail")) {
+                throw new SQLException("b0rk");
+            }
+            return rowNumber <= values.length;
+        }
+
+        @Override
+        public String getString(int columnIndex) {
+            return values[rowNumber - 1].split(":")[columnIndex - 1];
+        }
+
+        @Override
+        public ResultPosition getPosition() {
+            return ResultPosition.MIDDLE;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
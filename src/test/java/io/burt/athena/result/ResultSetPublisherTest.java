@@ -0,0 +1,166 @@
+package io.burt.athena.result;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class ResultSetPublisherTest {
+    private ResultSet resultSet;
+    private AtomicBoolean aborted;
+    private ResultSetPublisher publisher;
+    private RecordingSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        resultSet = MergedResultTest.split("1:a", "2:b", "3:c").get();
+        aborted = new AtomicBoolean(false);
+        publisher = new ResultSetPublisher(resultSet, Runnable::run, () -> aborted.set(true));
+        subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+    }
+
+    static class RecordingSubscriber implements Subscriber<String[]> {
+        Subscription subscription;
+        List<String> rows = new ArrayList<>();
+        boolean completed = false;
+        Throwable error = null;
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+        }
+
+        @Override
+        public void onNext(String[] row) {
+            rows.add(row[0] + ":" + row[1]);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @Nested
+    class Request {
+        @Test
+        void emitsOnlyTheRequestedNumberOfRows() {
+            subscriber.subscription.request(2);
+            assertEquals(Arrays.asList("1:a", "2:b"), subscriber.rows);
+            assertFalse(subscriber.completed);
+        }
+
+        @Test
+        void emitsMoreRowsWhenMoreAreRequested() {
+            subscriber.subscription.request(1);
+            subscriber.subscription.request(1);
+            assertEquals(Arrays.asList("1:a", "2:b"), subscriber.rows);
+        }
+
+        @Test
+        void completesAndClosesTheResultSetAfterTheLastRow() throws Exception {
+            subscriber.subscription.request(Long.MAX_VALUE);
+            assertEquals(Arrays.asList("1:a", "2:b", "3:c"), subscriber.rows);
+            assertTrue(subscriber.completed);
+            assertTrue(resultSet.isClosed());
+        }
+
+        @Test
+        void completesWhenTheLastRowUsesUpTheDemand() throws Exception {
+            subscriber.subscription.request(3);
+            assertEquals(Arrays.asList("1:a", "2:b", "3:c"), subscriber.rows);
+            assertTrue(subscriber.completed);
+            assertTrue(resultSet.isClosed());
+        }
+
+        @Test
+        void completesASingleRowResultWhenTheRowIsRequested() throws Exception {
+            ResultSet singleRow = MergedResultTest.split("1:a").get();
+            ResultSetPublisher singleRowPublisher = new ResultSetPublisher(singleRow, Runnable::run, () -> aborted.set(true));
+            RecordingSubscriber singleRowSubscriber = new RecordingSubscriber();
+            singleRowPublisher.subscribe(singleRowSubscriber);
+            singleRowSubscriber.subscription.request(1);
+            assertEquals(Collections.singletonList("1:a"), singleRowSubscriber.rows);
+            assertTrue(singleRowSubscriber.completed);
+            assertTrue(singleRow.isClosed());
+        }
+
+        @Test
+        void acceptsMoreThanLongMaxValueInTotal() {
+            subscriber.subscription.request(1);
+            subscriber.subscription.request(Long.MAX_VALUE);
+            assertTrue(subscriber.completed);
+        }
+
+        @Test
+        void failsWhenTheRequestIsNotPositive() throws Exception {
+            subscriber.subscription.request(0);
+            assertEquals(IllegalArgumentException.class, subscriber.error.getClass());
+            assertTrue(resultSet.isClosed());
+        }
+
+        @Test
+        void failsWhenTheResultSetFails() throws Exception {
+            resultSet.close();
+            subscriber.subscription.request(1);
+            assertTrue(subscriber.error instanceof SQLException);
+            assertEquals(Collections.emptyList(), subscriber.rows);
+        }
+    }
+
+    @Nested
+    class Cancel {
+        @Test
+        void stopsEmittingRows() {
+            subscriber.subscription.request(1);
+            subscriber.subscription.cancel();
+            subscriber.subscription.request(1);
+            assertEquals(Collections.singletonList("1:a"), subscriber.rows);
+            assertFalse(subscriber.completed);
+            assertNull(subscriber.error);
+        }
+
+        @Test
+        void abortsTheReadingAndClosesTheResultSet() throws Exception {
+            subscriber.subscription.cancel();
+            assertTrue(aborted.get());
+            assertTrue(resultSet.isClosed());
+        }
+    }
+
+    @Nested
+    class Subscribe {
+        @Test
+        void failsForASecondSubscriber() {
+            RecordingSubscriber second = new RecordingSubscriber();
+            publisher.subscribe(second);
+            assertEquals(IllegalStateException.class, second.error.getClass());
+        }
+    }
+}
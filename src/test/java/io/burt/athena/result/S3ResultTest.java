@@ -1,5 +1,6 @@
 package io.burt.athena.result;
 
+import io.burt.athena.cache.ResultFileCache;
 import io.burt.athena.support.GetObjectHelper;
 import io.burt.athena.support.TestNameGenerator;
 import org.junit.jupiter.api.AfterEach;
@@ -7,6 +8,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 import software.amazon.awssdk.core.async.SdkPublisher;
@@ -19,11 +21,13 @@ import java.io.IOException;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
 import java.text.ParseException;
 import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
@@ -602,4 +606,53 @@ class S3ResultTest {
             result.close();
         }
     }
+
+    @Nested
+    class WithAResultFileCache {
+        @TempDir
+        Path directory;
+
+        private ResultFileCache fileCache;
+        private QueryExecution queryExecution;
+
+        @BeforeEach
+        void setUp() {
+            fileCache = new ResultFileCache(directory, 1_000_000);
+            queryExecution = QueryExecution
+                    .builder()
+                    .queryExecutionId("Q1234")
+                    .resultConfiguration(b -> b.outputLocation("s3://some-bucket/the/prefix/Q1234.csv"))
+                    .build();
+            createData();
+        }
+
+        private List<String> consume(S3Result r) throws SQLException {
+            List<String> rows = new ArrayList<>();
+            while (r.next()) {
+                rows.add(r.getString(1) + ":" + r.getString(2));
+            }
+            return rows;
+        }
+
+        @Test
+        void readsTheResultFromTheCacheTheSecondTime() throws Exception {
+            S3Result first = new S3Result(getObjectHelper, queryExecution, Duration.ofSeconds(10), fileCache);
+            assertEquals(Arrays.asList("row1:1", "row2:2", "row\u2603:3"), consume(first));
+            first.close();
+            int requestCount = getObjectHelper.getObjectRequests().size();
+            S3Result second = new S3Result(getObjectHelper, queryExecution, Duration.ofSeconds(10), fileCache);
+            assertEquals(Arrays.asList("row1:1", "row2:2", "row\u2603:3"), consume(second));
+            assertEquals("integer", second.getMetaData().getColumnTypeName(2));
+            second.close();
+            assertEquals(requestCount, getObjectHelper.getObjectRequests().size());
+        }
+
+        @Test
+        void doesNotCacheResultsThatAreNotReadToTheEnd() throws Exception {
+            S3Result first = new S3Result(getObjectHelper, queryExecution, Duration.ofSeconds(10), fileCache);
+            first.next();
+            first.close();
+            assertFalse(fileCache.get("Q1234").isPresent());
+        }
+    }
 }
@@ -0,0 +1,166 @@
+package io.burt.athena.result.protobuf;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class ProtobufReaderTest {
+    private static ByteBuffer bytes(int... bytes) {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+        for (int b : bytes) {
+            buffer.put((byte) b);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Nested
+    class Next {
+        @Test
+        void returnsFalseAtTheEndOfTheMessage() {
+            assertFalse(new ProtobufReader(bytes()).next());
+        }
+
+        @Test
+        void readsVarintFields() {
+            ProtobufReader reader = new ProtobufReader(bytes(1 << 3, 0x96, 0x01));
+            assertTrue(reader.next());
+            assertEquals(1, reader.fieldNumber());
+            assertEquals(ProtobufReader.VARINT, reader.wireType());
+            assertEquals(150, reader.longValue());
+            assertFalse(reader.next());
+        }
+
+        @Test
+        void readsVarintsWiderThan32Bits() {
+            ProtobufReader reader = new ProtobufReader(bytes(1 << 3, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x01));
+            reader.next();
+            assertEquals(Long.MIN_VALUE, reader.longValue());
+            reader = new ProtobufReader(bytes(1 << 3, 0x80, 0x80, 0x80, 0x80, 0x10));
+            reader.next();
+            assertEquals(1L << 32, reader.longValue());
+        }
+
+        @Test
+        void readsFieldNumbersThatNeedMoreThanOneByte() {
+            ProtobufReader reader = new ProtobufReader(bytes(0x80 | (16 << 3 & 0x7f), 16 >> 4, 7));
+            reader.next();
+            assertEquals(16, reader.fieldNumber());
+            assertEquals(7, reader.longValue());
+        }
+
+        @Test
+        void readsFixedWidthFields() {
+            ProtobufReader reader = new ProtobufReader(bytes(1 << 3 | 5, 1, 0, 0, 0, 2 << 3 | 1, 2, 0, 0, 0, 0, 0, 0, 0));
+            reader.next();
+            assertEquals(1, reader.longValue());
+            reader.next();
+            assertEquals(2, reader.longValue());
+        }
+
+        @Test
+        void throwsOnMalformedVarints() {
+            ProtobufReader reader = new ProtobufReader(bytes(1 << 3, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0x01));
+            assertThrows(IllegalStateException.class, reader::next);
+        }
+
+        @Test
+        void throwsWhenAFieldIsLongerThanTheMessage() {
+            ProtobufReader reader = new ProtobufReader(bytes(1 << 3 | 2, 5, 'a'));
+            assertThrows(IllegalStateException.class, reader::next);
+        }
+
+        @Test
+        void throwsOnUnsupportedFieldTypes() {
+            ProtobufReader reader = new ProtobufReader(bytes(1 << 3 | 3));
+            assertThrows(IllegalStateException.class, reader::next);
+        }
+
+        @Test
+        void doesNotModifyTheBuffer() {
+            ByteBuffer buffer = bytes(1 << 3, 1);
+            ProtobufReader reader = new ProtobufReader(buffer);
+            reader.next();
+            assertEquals(0, buffer.position());
+        }
+
+        @Test
+        void returnsThePositionsOfTheField() {
+            ProtobufReader reader = new ProtobufReader(bytes(1 << 3, 1, 2 << 3 | 2, 2, 'a', 'b'));
+            reader.next();
+            reader.next();
+            assertEquals(2, reader.fieldStart());
+            assertEquals(6, reader.fieldEnd());
+        }
+    }
+
+    @Nested
+    class Contents {
+        @Test
+        void returnsASliceOfTheBuffer() {
+            ByteBuffer buffer = bytes(1 << 3 | 2, 3, 'a', 'b', 'c', 2 << 3, 1);
+            ProtobufReader reader = new ProtobufReader(buffer);
+            reader.next();
+            ByteBuffer contents = reader.contents();
+            assertEquals(3, contents.remaining());
+            buffer.put(3, (byte) 'x');
+            assertEquals('x', contents.get(1));
+            assertTrue(reader.next());
+            assertEquals(2, reader.fieldNumber());
+        }
+
+        @Test
+        void canBeReadAsANestedMessage() {
+            ProtobufReader reader = new ProtobufReader(bytes(4 << 3 | 2, 2, 1 << 3, 42));
+            reader.next();
+            ProtobufReader nested = new ProtobufReader(reader.contents());
+            assertTrue(nested.next());
+            assertEquals(42, nested.longValue());
+            assertFalse(nested.next());
+        }
+    }
+
+    @Nested
+    class StringValue {
+        @Test
+        void decodesUtf8() {
+            byte[] string = "smörgåsbord".getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(string.length + 2);
+            buffer.put((byte) (1 << 3 | 2)).put((byte) string.length).put(string).flip();
+            ProtobufReader reader = new ProtobufReader(buffer);
+            reader.next();
+            assertEquals("smörgåsbord", reader.stringValue());
+        }
+
+        @Test
+        void decodesUtf8FromDirectBuffers() {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(5);
+            buffer.put(bytes(1 << 3 | 2, 3, 'a', 'b', 'c')).flip();
+            ProtobufReader reader = new ProtobufReader(buffer);
+            reader.next();
+            assertEquals("abc", reader.stringValue());
+        }
+
+        @Test
+        void decodesUtf8FromSlices() {
+            ByteBuffer buffer = bytes('x', 'x', 1 << 3 | 2, 2, 'a', 'b');
+            buffer.position(2);
+            ProtobufReader reader = new ProtobufReader(buffer.slice());
+            reader.next();
+            assertEquals("ab", reader.stringValue());
+        }
+    }
+}
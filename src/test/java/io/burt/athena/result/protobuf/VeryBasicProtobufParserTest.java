@@ -105,5 +105,15 @@ class VeryBasicProtobufParserTest {
                 assertEquals(0x1ff, ((BinaryField)fields.get(0)).getContents().length);
             }
         }
+
+        @Nested
+        class WithVarintsWiderThan32Bits {
+            @Test
+            void returnsTheFullValue() throws Exception {
+                byte[] contents = new byte[]{1 << 3, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x01};
+                List<Field> fields = parser.parse(contents);
+                assertEquals((1L << 36) - 1, ((IntegerField) fields.get(0)).getValue());
+            }
+        }
     }
 }
@@ -25,10 +25,14 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -150,4 +154,50 @@ public class GetObjectInputStreamTransformerTest {
             }
         }
     }
+    @Nested
+    class Cancel {
+        private AtomicBoolean subscriptionCancelled;
+
+        @BeforeEach
+        void setUp() {
+            subscriptionCancelled = new AtomicBoolean(false);
+            getObjectHelper.setObjectPublisher("example-bucket", "path/to/my-key", SdkPublisher.adapt(s -> {
+                s.onSubscribe(new NoopSubscription() {
+                    @Override
+                    public void cancel() {
+                        subscriptionCancelled.set(true);
+                    }
+                });
+                s.onNext(ByteBuffer.wrap("12".getBytes(StandardCharsets.UTF_8)));
+            }));
+        }
+
+        @Test
+        void wakesUpABlockedReadWithAnException() throws Exception {
+            InputStream stream = call().get(1, TimeUnit.SECONDS);
+            assertEquals('1', stream.read());
+            assertEquals('2', stream.read());
+            AtomicReference<Exception> readError = new AtomicReference<>(null);
+            Thread reader = new Thread(() -> {
+                try {
+                    stream.read();
+                } catch (IOException e) {
+                    readError.set(e);
+                }
+            });
+            reader.start();
+            subject.cancel();
+            reader.join(1000);
+            assertFalse(reader.isAlive());
+            assertEquals(IOException.class, readError.get().getClass());
+        }
+
+        @Test
+        void cancelsTheSubscription() throws Exception {
+            call().get(1, TimeUnit.SECONDS);
+            subject.cancel();
+            assertTrue(subscriptionCancelled.get());
+            assertTrue(subject.isCancelled());
+        }
+    }
 }
@@ -0,0 +1,82 @@
+package io.burt.athena.routing;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class HedgingPolicyTest {
+    QueryExecution queryExecution(long queueTimeMillis) {
+        return QueryExecution.builder().statistics(b -> b.queryQueueTimeInMillis(queueTimeMillis)).build();
+    }
+
+    @Nested
+    class After {
+        @Test
+        void usesTheFixedThreshold() {
+            HedgingPolicy policy = HedgingPolicy.after(Duration.ofSeconds(3));
+            for (int i = 0; i < 20; i++) {
+                policy.recordCompletion(queryExecution(100));
+            }
+            assertEquals(Duration.ofSeconds(3), policy.threshold());
+        }
+    }
+
+    @Nested
+    class Percentile {
+        @Test
+        void requiresAValidPercentile() {
+            assertThrows(IllegalArgumentException.class, () -> HedgingPolicy.percentile(0, Duration.ofSeconds(1)));
+            assertThrows(IllegalArgumentException.class, () -> HedgingPolicy.percentile(101, Duration.ofSeconds(1)));
+        }
+
+        @Test
+        void usesTheInitialThresholdUntilEnoughQueueTimesHaveBeenRecorded() {
+            HedgingPolicy policy = HedgingPolicy.percentile(90, Duration.ofSeconds(5));
+            for (int i = 0; i < HedgingPolicy.MIN_SAMPLES - 1; i++) {
+                policy.recordCompletion(queryExecution(100));
+            }
+            assertEquals(Duration.ofSeconds(5), policy.threshold());
+        }
+
+        @Test
+        void usesThePercentileOfTheRecordedQueueTimes() {
+            HedgingPolicy policy = HedgingPolicy.percentile(90, Duration.ofSeconds(5));
+            for (int i = 1; i <= 20; i++) {
+                policy.recordCompletion(queryExecution(i * 100));
+            }
+            assertEquals(Duration.ofMillis(1800), policy.threshold());
+        }
+
+        @Test
+        void onlyUsesTheMostRecentQueueTimes() {
+            HedgingPolicy policy = HedgingPolicy.percentile(50, Duration.ofSeconds(5));
+            for (int i = 0; i < HedgingPolicy.SAMPLE_SIZE; i++) {
+                policy.recordCompletion(queryExecution(10000));
+            }
+            for (int i = 0; i < HedgingPolicy.SAMPLE_SIZE; i++) {
+                policy.recordCompletion(queryExecution(100));
+            }
+            assertEquals(Duration.ofMillis(100), policy.threshold());
+        }
+
+        @Test
+        void ignoresExecutionsWithoutStatistics() {
+            HedgingPolicy policy = HedgingPolicy.percentile(50, Duration.ofSeconds(5));
+            for (int i = 0; i < 20; i++) {
+                policy.recordCompletion(QueryExecution.builder().build());
+            }
+            assertEquals(Duration.ofSeconds(5), policy.threshold());
+        }
+    }
+}
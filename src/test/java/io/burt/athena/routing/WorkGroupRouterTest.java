@@ -0,0 +1,176 @@
+package io.burt.athena.routing;
+
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class WorkGroupRouterTest {
+    private TestClock clock;
+    private WorkGroupRouter router;
+
+    @BeforeEach
+    void setUp() {
+        clock = new TestClock();
+        router = createRouter(1, 1);
+    }
+
+    WorkGroupRouter createRouter(double weight1, double weight2) {
+        return new WorkGroupRouter(Arrays.asList(
+                new WorkGroupRouter.WorkGroup("wg1", "s3://test/wg1", weight1),
+                new WorkGroupRouter.WorkGroup("wg2", "s3://test/wg2", weight2)
+        ), Duration.ofSeconds(1), clock);
+    }
+
+    @Nested
+    class Constructor {
+        @Test
+        void requiresAtLeastOneWorkGroup() {
+            assertThrows(IllegalArgumentException.class, () -> new WorkGroupRouter(Collections.emptyList()));
+        }
+
+        @Test
+        void rejectsDuplicateWorkGroups() {
+            assertThrows(IllegalArgumentException.class, () -> new WorkGroupRouter(Arrays.asList(
+                    new WorkGroupRouter.WorkGroup("wg1", null, 1),
+                    new WorkGroupRouter.WorkGroup("wg1", null, 1)
+            )));
+        }
+
+        @Test
+        void requiresPositiveWeights() {
+            assertThrows(IllegalArgumentException.class, () -> new WorkGroupRouter.WorkGroup("wg1", null, 0));
+        }
+    }
+
+    @Nested
+    class Route {
+        @Test
+        void returnsTheWorkGroupAndItsOutputLocation() {
+            WorkGroupRouter.Route route = router.route();
+            assertEquals("wg1", route.workGroupName());
+            assertEquals("s3://test/wg1", route.outputLocation());
+        }
+
+        @Test
+        void spreadsExecutionsOverTheWorkGroups() {
+            assertEquals("wg1", router.route().workGroupName());
+            assertEquals("wg2", router.route().workGroupName());
+            assertEquals("wg1", router.route().workGroupName());
+            assertEquals("wg2", router.route().workGroupName());
+        }
+
+        @Test
+        void spreadsExecutionsAccordingToTheWeights() {
+            router = createRouter(1, 2);
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                names.add(router.route().workGroupName());
+            }
+            assertEquals(2, Collections.frequency(names, "wg1"));
+            assertEquals(4, Collections.frequency(names, "wg2"));
+        }
+
+        @Test
+        void prefersTheWorkGroupWithTheShortestQueueTime() {
+            router.recordQueueTime("wg1", Duration.ofSeconds(10));
+            for (int i = 0; i < 5; i++) {
+                assertEquals("wg2", router.route().workGroupName());
+            }
+        }
+
+        @Test
+        void countsExecutionsUntilTheyAreReleased() {
+            WorkGroupRouter.Route route = router.route();
+            assertEquals(1, router.pending("wg1"));
+            route.release();
+            route.release();
+            assertEquals(0, router.pending("wg1"));
+        }
+
+        @Nested
+        class WhenAWorkGroupIsThrottled {
+            @BeforeEach
+            void setUp() {
+                router.route().throttled();
+            }
+
+            @Test
+            void avoidsTheWorkGroupDuringTheCooldown() {
+                assertEquals("wg2", router.route().workGroupName());
+                assertEquals("wg2", router.route().workGroupName());
+                assertEquals("wg2", router.route().workGroupName());
+            }
+
+            @Test
+            void usesTheWorkGroupAgainAfterTheCooldown() {
+                router.route();
+                clock.tick(Duration.ofSeconds(2));
+                assertEquals("wg1", router.route().workGroupName());
+            }
+
+            @Test
+            void picksTheWorkGroupWhoseCooldownEndsFirstWhenAllAreThrottled() {
+                clock.tick(Duration.ofMillis(100));
+                router.route().throttled();
+                assertEquals("wg1", router.route().workGroupName());
+            }
+        }
+    }
+
+    @Nested
+    class RouteExcept {
+        @Test
+        void neverPicksTheExcludedWorkGroup() {
+            router.recordQueueTime("wg2", Duration.ofSeconds(10));
+            assertEquals("wg2", router.routeExcept("wg1").get().workGroupName());
+        }
+
+        @Test
+        void returnsNothingWhenThereIsNoOtherWorkGroup() {
+            router = new WorkGroupRouter(Collections.singletonList(new WorkGroupRouter.WorkGroup("wg1", null, 1)));
+            assertFalse(router.routeExcept("wg1").isPresent());
+        }
+    }
+
+    @Nested
+    class RecordCompletion {
+        @Test
+        void updatesTheEstimatedQueueTimeOfTheWorkGroup() {
+            for (int i = 0; i < 50; i++) {
+                router.recordCompletion(QueryExecution.builder().workGroup("wg2").statistics(b -> b.queryQueueTimeInMillis(2000L)).build());
+            }
+            assertEquals(Duration.ZERO, router.estimatedQueueTime("wg1"));
+            assertEquals(2000, router.estimatedQueueTime("wg2").toMillis(), 1);
+        }
+
+        @Test
+        void ignoresExecutionsWithoutStatistics() {
+            router.recordCompletion(QueryExecution.builder().workGroup("wg1").build());
+            assertEquals(Duration.ZERO, router.estimatedQueueTime("wg1"));
+        }
+
+        @Test
+        void ignoresUnknownWorkGroups() {
+            router.recordCompletion(QueryExecution.builder().workGroup("wg3").statistics(b -> b.queryQueueTimeInMillis(2000L)).build());
+            assertEquals(Duration.ZERO, router.estimatedQueueTime("wg3"));
+        }
+    }
+}
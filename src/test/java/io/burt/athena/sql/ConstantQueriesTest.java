@@ -0,0 +1,120 @@
+package io.burt.athena.sql;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.result.Result;
+import io.burt.athena.result.ResultPosition;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class ConstantQueriesTest {
+    private static Result evaluate(String sql) {
+        return ConstantQueries.evaluate(sql, "test_db").get();
+    }
+
+    @Nested
+    class Evaluate {
+        @Test
+        void answersSelectOne() throws Exception {
+            Result result = evaluate("SELECT 1");
+            AthenaResultSetMetaData metaData = result.getMetaData();
+            assertEquals(1, metaData.getColumnCount());
+            assertEquals("_col0", metaData.getColumnLabel(1));
+            assertEquals("integer", metaData.getColumnTypeName(1));
+            assertTrue(result.next());
+            assertEquals("1", result.getString(1));
+            assertFalse(result.next());
+        }
+
+        @Test
+        void answersSeveralColumns() throws Exception {
+            Result result = evaluate("select 'x', -42, 3.50, TRUE, null");
+            AthenaResultSetMetaData metaData = result.getMetaData();
+            assertEquals("varchar", metaData.getColumnTypeName(1));
+            assertEquals("integer", metaData.getColumnTypeName(2));
+            assertEquals("decimal", metaData.getColumnTypeName(3));
+            assertEquals(2, metaData.getScale(3));
+            assertEquals("boolean", metaData.getColumnTypeName(4));
+            assertEquals("unknown", metaData.getColumnTypeName(5));
+            assertEquals("_col4", metaData.getColumnLabel(5));
+            result.next();
+            assertEquals("x", result.getString(1));
+            assertEquals("-42", result.getString(2));
+            assertEquals("3.50", result.getString(3));
+            assertEquals("true", result.getString(4));
+            assertNull(result.getString(5));
+        }
+
+        @Test
+        void usesBigintForLargeIntegers() throws Exception {
+            assertEquals("bigint", evaluate("SELECT 3000000000").getMetaData().getColumnTypeName(1));
+        }
+
+        @Test
+        void usesAliasesAsColumnNames() throws Exception {
+            AthenaResultSetMetaData metaData = evaluate("SELECT 1 AS One, 'a' b, 2 AS \"Quoted Name\"").getMetaData();
+            assertEquals("one", metaData.getColumnLabel(1));
+            assertEquals("b", metaData.getColumnLabel(2));
+            assertEquals("quoted name", metaData.getColumnLabel(3));
+        }
+
+        @Test
+        void handlesEscapedQuotes() throws Exception {
+            Result result = evaluate("SELECT 'it''s'");
+            result.next();
+            assertEquals("it's", result.getString(1));
+        }
+
+        @Test
+        void ignoresCommentsWhitespaceAndATrailingSemicolon() {
+            assertTrue(ConstantQueries.evaluate("  -- health check\n  SELECT /* probe */ 1 ;  ", "test_db").isPresent());
+        }
+
+        @Test
+        void returnsASingleRow() throws SQLException {
+            Result result = evaluate("SELECT 1");
+            assertEquals(ResultPosition.BEFORE_FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.FIRST, result.getPosition());
+            assertEquals(1, result.getRowNumber());
+            result.next();
+            assertEquals(ResultPosition.AFTER_LAST, result.getPosition());
+        }
+
+        @Test
+        void doesNotAnswerQueriesThatReadTables() {
+            assertFalse(ConstantQueries.evaluate("SELECT 1 FROM t", "test_db").isPresent());
+            assertFalse(ConstantQueries.evaluate("SELECT 1 x FROM t", "test_db").isPresent());
+            assertFalse(ConstantQueries.evaluate("SELECT * FROM t", "test_db").isPresent());
+        }
+
+        @Test
+        void doesNotAnswerExpressions() {
+            assertFalse(ConstantQueries.evaluate("SELECT 1 + 1", "test_db").isPresent());
+            assertFalse(ConstantQueries.evaluate("SELECT now()", "test_db").isPresent());
+            assertFalse(ConstantQueries.evaluate("SELECT 1e5", "test_db").isPresent());
+            assertFalse(ConstantQueries.evaluate("SELECT DATE '2020-01-01'", "test_db").isPresent());
+        }
+
+        @Test
+        void doesNotAnswerOtherStatements() {
+            assertFalse(ConstantQueries.evaluate("SHOW TABLES", "test_db").isPresent());
+            assertFalse(ConstantQueries.evaluate("SELECT 1; DROP TABLE t", "test_db").isPresent());
+            assertFalse(ConstantQueries.evaluate("SELECT 'unterminated", "test_db").isPresent());
+            assertFalse(ConstantQueries.evaluate("SELECT 1 /* unterminated", "test_db").isPresent());
+            assertFalse(ConstantQueries.evaluate("SELECT", "test_db").isPresent());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.burt.athena.sql;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class ScriptTest {
+    @Nested
+    class Split {
+        @Test
+        void splitsOnSemicolons() {
+            assertEquals(Arrays.asList("SELECT 1", "SELECT 2"), Script.split("SELECT 1; SELECT 2;"));
+        }
+
+        @Test
+        void includesAStatementWithoutATrailingSemicolon() {
+            assertEquals(Arrays.asList("SELECT 1", "SELECT 2"), Script.split("SELECT 1;\nSELECT 2\n"));
+        }
+
+        @Test
+        void ignoresSemicolonsInLiteralsIdentifiersAndComments() {
+            List<String> statements = Script.split("SELECT ';', \"a;b\" -- c;d\nFROM t /* e;f */; SELECT 2");
+            assertEquals(2, statements.size());
+            assertEquals("SELECT ';', \"a;b\" -- c;d\nFROM t /* e;f */", statements.get(0));
+        }
+
+        @Test
+        void skipsEmptyStatementsAndStatementsWithOnlyComments() {
+            assertEquals(Collections.singletonList("SELECT 1"), Script.split(";; -- nothing here\n; SELECT 1; /* or here */"));
+        }
+    }
+
+    @Nested
+    class Parse {
+        ScriptStatement statement(String sql) {
+            return Script.parse(sql).statements().get(0);
+        }
+
+        @Test
+        void findsTheTablesReadByAQuery() {
+            assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), statement("SELECT * FROM db.a x, c JOIN \"B\" ON x.id = b.id WHERE x.id IN (SELECT id FROM a)").reads());
+        }
+
+        @Test
+        void doesNotCountNamedSubqueriesAsTables() {
+            assertEquals(Collections.singleton("a"), statement("WITH recent AS (SELECT * FROM a) SELECT * FROM recent").reads());
+        }
+
+        @Test
+        void findsTheTableCreatedByAStatement() {
+            ScriptStatement statement = statement("CREATE TABLE IF NOT EXISTS db.b WITH (format = 'PARQUET') AS SELECT * FROM a");
+            assertEquals(Collections.singleton("b"), statement.writes());
+            assertEquals(Collections.singleton("a"), statement.reads());
+        }
+
+        @Test
+        void findsTheTablesChangedByStatements() {
+            assertEquals(Collections.singleton("a"), statement("CREATE EXTERNAL TABLE a (id INT) LOCATION 's3://bucket/a/'").writes());
+            assertEquals(Collections.singleton("a"), statement("CREATE OR REPLACE VIEW a AS SELECT * FROM b").writes());
+            assertEquals(Collections.singleton("a"), statement("DROP TABLE IF EXISTS `a`").writes());
+            assertEquals(Collections.singleton("a"), statement("INSERT INTO a SELECT * FROM b").writes());
+            assertEquals(Collections.singleton("a"), statement("ALTER TABLE a ADD PARTITION (day = '2020-01-01')").writes());
+            assertEquals(Collections.singleton("a"), statement("MSCK REPAIR TABLE a").writes());
+        }
+
+        @Test
+        void makesStatementsThatDependOnEachOtherRunInOrder() {
+            List<ScriptStatement> statements = Script.parse("CREATE TABLE a AS SELECT 1; INSERT INTO b SELECT * FROM a; SELECT * FROM b; DROP TABLE a").statements();
+            assertEquals(Collections.emptyList(), statements.get(0).dependencies());
+            assertEquals(Collections.singletonList(0), statements.get(1).dependencies());
+            assertEquals(Collections.singletonList(1), statements.get(2).dependencies());
+            assertEquals(Arrays.asList(0, 1), statements.get(3).dependencies());
+        }
+
+        @Test
+        void letsIndependentStatementsRunConcurrently() {
+            List<ScriptStatement> statements = Script.parse("CREATE TABLE a AS SELECT 1; CREATE TABLE b AS SELECT 2; SELECT * FROM a; SELECT * FROM a").statements();
+            assertEquals(Collections.emptyList(), statements.get(1).dependencies());
+            assertEquals(Collections.singletonList(0), statements.get(2).dependencies());
+            assertEquals(Collections.singletonList(0), statements.get(3).dependencies());
+        }
+
+        @Test
+        void makesUnrecognizedStatementsBarriers() {
+            List<ScriptStatement> statements = Script.parse("SELECT 1; CREATE DATABASE d; SELECT 2").statements();
+            assertEquals(Collections.singletonList(0), statements.get(1).dependencies());
+            assertEquals(Collections.singletonList(1), statements.get(2).dependencies());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.burt.athena.sql;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class SqlNormalizerTest {
+    @Nested
+    class Fingerprint {
+        @Test
+        void replacesStringLiterals() {
+            assertEquals("select * from t where a = ?", SqlNormalizer.fingerprint("SELECT * FROM t WHERE a = 'hello'"));
+        }
+
+        @Test
+        void handlesEscapedQuotesInStringLiterals() {
+            assertEquals("select ?, b", SqlNormalizer.fingerprint("SELECT 'it''s', b"));
+        }
+
+        @Test
+        void replacesNumericLiterals() {
+            assertEquals("select * from t where a > ? and b < ? limit ?", SqlNormalizer.fingerprint("SELECT * FROM t WHERE a > 3.14 AND b < 1e-5 LIMIT 100"));
+        }
+
+        @Test
+        void keepsDigitsInIdentifiers() {
+            assertEquals("select c1 from t2", SqlNormalizer.fingerprint("SELECT c1 FROM t2"));
+        }
+
+        @Test
+        void collapsesListsOfLiterals() {
+            assertEquals("select * from t where a in (?)", SqlNormalizer.fingerprint("SELECT * FROM t WHERE a IN (1, 2, 3, 'four')"));
+        }
+
+        @Test
+        void removesComments() {
+            assertEquals("select a from t", SqlNormalizer.fingerprint("-- the query\nSELECT /* the columns */ a\nFROM t"));
+        }
+
+        @Test
+        void collapsesWhitespace() {
+            assertEquals("select a from t", SqlNormalizer.fingerprint("  SELECT\ta\n\n  FROM   t  "));
+        }
+
+        @Test
+        void lowerCasesKeywordsAndIdentifiers() {
+            assertEquals(SqlNormalizer.fingerprint("select a from t"), SqlNormalizer.fingerprint("SELECT A FROM T"));
+        }
+
+        @Test
+        void keepsQuotedIdentifiersAsTheyAre() {
+            assertEquals("select \"A b\" from `T`", SqlNormalizer.fingerprint("SELECT \"A b\" FROM `T`"));
+        }
+
+        @Test
+        void givesQueriesThatOnlyDifferInTheirLiteralsTheSameFingerprint() {
+            assertEquals(
+                    SqlNormalizer.fingerprint("SELECT * FROM events WHERE day = '2020-01-01' AND n = 3"),
+                    SqlNormalizer.fingerprint("select *\nfrom events\nwhere day = '2020-02-01' and n = 4")
+            );
+        }
+
+        @Test
+        void givesQueriesWithDifferentShapesDifferentFingerprints() {
+            assertNotEquals(
+                    SqlNormalizer.fingerprint("SELECT * FROM events WHERE day = '2020-01-01'"),
+                    SqlNormalizer.fingerprint("SELECT * FROM sessions WHERE day = '2020-01-01'")
+            );
+        }
+    }
+    @Nested
+    class Normalize {
+        @Test
+        void keepsLiterals() {
+            assertEquals("select * from t where day = '2020-01-01' and n in (1, 2.5)", SqlNormalizer.normalize("SELECT * FROM t WHERE day = '2020-01-01' AND n IN (1, 2.5)"));
+        }
+
+        @Test
+        void removesCommentsAndCollapsesWhitespace() {
+            assertEquals("select 1 from t", SqlNormalizer.normalize("-- dashboard\nSELECT  1\n  FROM /* the table */ t"));
+        }
+
+        @Test
+        void keepsTheCaseOfLiteralsAndQuotedIdentifiers() {
+            assertEquals("select \"A\" from t where s = 'Ab'", SqlNormalizer.normalize("SELECT \"A\" FROM T WHERE s = 'Ab'"));
+        }
+
+        @Test
+        void givesQueriesWithDifferentLiteralsDifferentForms() {
+            assertNotEquals(
+                    SqlNormalizer.normalize("SELECT * FROM events WHERE day = '2020-01-01'"),
+                    SqlNormalizer.normalize("SELECT * FROM events WHERE day = '2020-02-01'")
+            );
+        }
+    }
+
+    @Nested
+    class IsReadOnly {
+        @Test
+        void acceptsQueries() {
+            assertTrue(SqlNormalizer.isReadOnly("SELECT 1"));
+            assertTrue(SqlNormalizer.isReadOnly("with t as (select 1) select * from t"));
+            assertTrue(SqlNormalizer.isReadOnly("SHOW TABLES"));
+            assertTrue(SqlNormalizer.isReadOnly("DESCRIBE t"));
+            assertTrue(SqlNormalizer.isReadOnly("EXPLAIN SELECT 1"));
+        }
+
+        @Test
+        void skipsLeadingCommentsAndWhitespace() {
+            assertTrue(SqlNormalizer.isReadOnly("-- dashboard\n  /* daily */ Select 1"));
+        }
+
+        @Test
+        void rejectsStatementsThatWrite() {
+            assertFalse(SqlNormalizer.isReadOnly("INSERT INTO t SELECT 1"));
+            assertFalse(SqlNormalizer.isReadOnly("CREATE TABLE t AS SELECT 1"));
+            assertFalse(SqlNormalizer.isReadOnly("UNLOAD (SELECT 1) TO 's3://bucket/'"));
+            assertFalse(SqlNormalizer.isReadOnly("-- SELECT\nDROP TABLE t"));
+            assertFalse(SqlNormalizer.isReadOnly(""));
+        }
+    }
+}
@@ -1,26 +1,58 @@
 package io.burt.athena.support;
 
 import io.burt.athena.configuration.ConnectionConfiguration;
+import io.burt.athena.admission.AdmissionController;
+import io.burt.athena.admission.GovernedAthenaAsyncClient;
+import io.burt.athena.admission.RateGovernor;
+import io.burt.athena.budget.QueryBudget;
+import io.burt.athena.cache.QueryRefresher;
+import io.burt.athena.cache.ResultCache;
+import io.burt.athena.cache.ResultFileCache;
+import io.burt.athena.catalog.Catalog;
+import io.burt.athena.dedup.SingleFlight;
+import io.burt.athena.polling.BatchQueryExecutionPoller;
+import io.burt.athena.polling.PollingScheduler;
 import io.burt.athena.polling.PollingStrategy;
 import io.burt.athena.result.Result;
+import io.burt.athena.result.ResultBroadcaster;
+import io.burt.athena.routing.HedgingPolicy;
+import io.burt.athena.routing.WorkGroupRouter;
 import software.amazon.awssdk.services.athena.AthenaAsyncClient;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 
 import java.time.Duration;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class ConfigurableConnectionConfiguration implements ConnectionConfiguration {
-    private final String databaseName;
-    private final String workGroupName;
-    private final String outputLocation;
-    private final Duration networkTimeout;
-    private final Duration queryTimeout;
-    private final Supplier<AthenaAsyncClient> athenaClientFactory;
     private final Supplier<S3AsyncClient> s3ClientFactory;
-    private final Supplier<PollingStrategy> pollingStrategyFactory;
     private final Function<QueryExecution, Result> resultFactory;
+    private Supplier<AthenaAsyncClient> athenaClientFactory;
+    private Supplier<PollingStrategy> pollingStrategyFactory;
+    private String databaseName;
+    private String workGroupName;
+    private String outputLocation;
+    private Duration networkTimeout;
+    private Duration queryTimeout;
+    private int priority;
+    private String tenant;
+    private PollingScheduler pollingScheduler;
+    private BatchQueryExecutionPoller batchPoller;
+    private AdmissionController admissionController;
+    private WorkGroupRouter workGroupRouter;
+    private HedgingPolicy hedgingPolicy;
+    private QueryBudget queryBudget;
+    private SingleFlight singleFlight;
+    private ResultBroadcaster resultBroadcaster;
+    private ResultCache resultCache;
+    private Duration resultCacheMaxAge;
+    private ResultFileCache resultFileCache;
+    private QueryRefresher queryRefresher;
+    private boolean localConstantQueries;
+    private Duration catalogCacheTtl;
+    private boolean virtualThreads;
 
     public ConfigurableConnectionConfiguration(String databaseName, String workGroupName, String outputLocation, Duration networkTimeout, Duration queryTimeout, Supplier<AthenaAsyncClient> athenaClientFactory, Supplier<S3AsyncClient> s3ClientFactory, Supplier<PollingStrategy> pollingStrategyFactory, Function<QueryExecution, Result> resultFactory) {
         this.databaseName = databaseName;
@@ -28,10 +60,37 @@ public class ConfigurableConnectionConfiguration implements ConnectionConfigurat
         this.outputLocation = outputLocation;
         this.networkTimeout = networkTimeout;
         this.queryTimeout = queryTimeout;
+        this.priority = AdmissionController.DEFAULT_PRIORITY;
+        this.tenant = AdmissionController.DEFAULT_TENANT;
+        this.queryBudget = QueryBudget.UNLIMITED;
+        this.resultCacheMaxAge = Duration.ZERO;
+        this.catalogCacheTtl = Catalog.DEFAULT_TTL;
         this.athenaClientFactory = athenaClientFactory;
         this.s3ClientFactory = s3ClientFactory;
         this.pollingStrategyFactory = pollingStrategyFactory;
         this.resultFactory = resultFactory;
+        this.pollingScheduler = PollingScheduler.shared();
+    }
+
+    private ConfigurableConnectionConfiguration(ConfigurableConnectionConfiguration other) {
+        this(other.databaseName, other.workGroupName, other.outputLocation, other.networkTimeout, other.queryTimeout, other.athenaClientFactory, other.s3ClientFactory, other.pollingStrategyFactory, other.resultFactory);
+        this.pollingScheduler = other.pollingScheduler;
+        this.batchPoller = other.batchPoller;
+        this.admissionController = other.admissionController;
+        this.workGroupRouter = other.workGroupRouter;
+        this.hedgingPolicy = other.hedgingPolicy;
+        this.queryBudget = other.queryBudget;
+        this.singleFlight = other.singleFlight;
+        this.resultBroadcaster = other.resultBroadcaster;
+        this.resultCache = other.resultCache;
+        this.resultCacheMaxAge = other.resultCacheMaxAge;
+        this.resultFileCache = other.resultFileCache;
+        this.queryRefresher = other.queryRefresher;
+        this.localConstantQueries = other.localConstantQueries;
+        this.catalogCacheTtl = other.catalogCacheTtl;
+        this.virtualThreads = other.virtualThreads;
+        this.priority = other.priority;
+        this.tenant = other.tenant;
     }
 
     @Override
@@ -57,6 +116,16 @@ public class ConfigurableConnectionConfiguration implements ConnectionConfigurat
     @Override
     public Duration queryTimeout() { return queryTimeout; }
 
+    @Override
+    public int priority() {
+        return priority;
+    }
+
+    @Override
+    public String tenant() {
+        return tenant;
+    }
+
     @Override
     public AthenaAsyncClient athenaClient() {
         return athenaClientFactory.get();
@@ -67,29 +136,252 @@ public class ConfigurableConnectionConfiguration implements ConnectionConfigurat
         return s3ClientFactory.get();
     }
 
+    @Override
+    public String clientIdentity() {
+        return "test_region/test_credentials";
+    }
+
     @Override
     public PollingStrategy pollingStrategy() {
         return pollingStrategyFactory.get();
     }
 
+    @Override
+    public PollingScheduler pollingScheduler() {
+        return pollingScheduler;
+    }
+
+    @Override
+    public Optional<BatchQueryExecutionPoller> batchQueryExecutionPoller() {
+        return Optional.ofNullable(batchPoller);
+    }
+
+    @Override
+    public Optional<AdmissionController> admissionController() {
+        return Optional.ofNullable(admissionController);
+    }
+
+    @Override
+    public Optional<WorkGroupRouter> workGroupRouter() {
+        return Optional.ofNullable(workGroupRouter);
+    }
+
+    @Override
+    public Optional<HedgingPolicy> hedgingPolicy() {
+        return Optional.ofNullable(hedgingPolicy);
+    }
+
+    @Override
+    public QueryBudget queryBudget() {
+        return queryBudget;
+    }
+
+    @Override
+    public Optional<SingleFlight> singleFlight() {
+        return Optional.ofNullable(singleFlight);
+    }
+
+    @Override
+    public Optional<ResultBroadcaster> resultBroadcaster() {
+        return Optional.ofNullable(resultBroadcaster);
+    }
+
+    @Override
+    public Optional<ResultCache> resultCache() {
+        return Optional.ofNullable(resultCache);
+    }
+
+    @Override
+    public Duration resultCacheMaxAge() {
+        return resultCacheMaxAge;
+    }
+
+    @Override
+    public Optional<ResultFileCache> resultFileCache() {
+        return Optional.ofNullable(resultFileCache);
+    }
+
+    @Override
+    public Optional<QueryRefresher> queryRefresher() {
+        return Optional.ofNullable(queryRefresher);
+    }
+
+    @Override
+    public boolean localConstantQueries() {
+        return localConstantQueries;
+    }
+
+    @Override
+    public Duration catalogCacheTtl() {
+        return catalogCacheTtl;
+    }
+
+    @Override
+    public boolean virtualThreads() {
+        return virtualThreads;
+    }
+
+    public ConfigurableConnectionConfiguration withPollingScheduler(PollingScheduler newPollingScheduler) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.pollingScheduler = newPollingScheduler;
+        return configuration;
+    }
+
     @Override
     public ConnectionConfiguration withDatabaseName(String newDatabaseName) {
-        return new ConfigurableConnectionConfiguration(newDatabaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, athenaClientFactory, s3ClientFactory, pollingStrategyFactory, resultFactory);
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.databaseName = newDatabaseName;
+        return configuration;
     }
 
     @Override
     public ConnectionConfiguration withNetworkTimeout(Duration newNetworkTimeout) {
-        return new ConfigurableConnectionConfiguration(databaseName, workGroupName, outputLocation, newNetworkTimeout, queryTimeout, athenaClientFactory, s3ClientFactory, pollingStrategyFactory, resultFactory);
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.networkTimeout = newNetworkTimeout;
+        return configuration;
     }
 
     @Override
     public ConnectionConfiguration withQueryTimeout(Duration newQueryTimeout) {
-        return new ConfigurableConnectionConfiguration(databaseName, workGroupName, outputLocation, networkTimeout, newQueryTimeout, athenaClientFactory, s3ClientFactory, pollingStrategyFactory, resultFactory);
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.queryTimeout = newQueryTimeout;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withPriority(int newPriority) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.priority = newPriority;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withTenant(String newTenant) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.tenant = newTenant;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withPollingStrategy(PollingStrategy newPollingStrategy) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.pollingStrategyFactory = () -> newPollingStrategy;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withBatchPollingInterval(Duration interval) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.batchPoller = new BatchQueryExecutionPoller(athenaClient(), pollingScheduler, interval);
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withAdmissionController(AdmissionController newAdmissionController) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.admissionController = newAdmissionController;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withRateGovernor(RateGovernor rateGovernor) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        AthenaAsyncClient governedClient = new GovernedAthenaAsyncClient(athenaClient(), rateGovernor);
+        configuration.athenaClientFactory = () -> governedClient;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withWorkGroupRouter(WorkGroupRouter newWorkGroupRouter) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.workGroupRouter = newWorkGroupRouter;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withHedgingPolicy(HedgingPolicy newHedgingPolicy) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.hedgingPolicy = newHedgingPolicy;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withQueryBudget(QueryBudget newQueryBudget) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.queryBudget = newQueryBudget == null ? QueryBudget.UNLIMITED : newQueryBudget;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withSingleFlight(SingleFlight newSingleFlight) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.singleFlight = newSingleFlight;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withResultBroadcaster(ResultBroadcaster newResultBroadcaster) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.resultBroadcaster = newResultBroadcaster;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withResultCache(ResultCache newResultCache) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.resultCache = newResultCache;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withResultCacheMaxAge(Duration newMaxAge) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.resultCacheMaxAge = newMaxAge;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withResultFileCache(ResultFileCache newResultFileCache) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.resultFileCache = newResultFileCache;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withQueryRefresher(QueryRefresher newQueryRefresher) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.queryRefresher = newQueryRefresher;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withLocalConstantQueries(boolean newLocalConstantQueries) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.localConstantQueries = newLocalConstantQueries;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withCatalogCacheTtl(Duration newTtl) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.catalogCacheTtl = newTtl;
+        return configuration;
+    }
+
+    @Override
+    public ConnectionConfiguration withVirtualThreads(boolean newVirtualThreads) {
+        ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(this);
+        configuration.virtualThreads = newVirtualThreads;
+        return configuration;
     }
 
     @Override
     public Result createResult(QueryExecution queryExecution) {
-        return resultFactory.apply(queryExecution);
+        if (resultBroadcaster != null) {
+            return resultBroadcaster.open(queryExecution, () -> resultFactory.apply(queryExecution));
+        } else {
+            return resultFactory.apply(queryExecution);
+        }
     }
 
     @Override
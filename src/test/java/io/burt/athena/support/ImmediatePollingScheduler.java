@@ -0,0 +1,35 @@
+package io.burt.athena.support;
+
+import io.burt.athena.polling.PollingScheduler;
+
+import java.time.Duration;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+public class ImmediatePollingScheduler extends PollingScheduler {
+    private final TestClock clock;
+    private final List<Duration> delays;
+
+    public ImmediatePollingScheduler(TestClock clock) {
+        super(null);
+        this.clock = clock;
+        this.delays = new LinkedList<>();
+    }
+
+    public List<Duration> delays() {
+        return delays;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Duration delay) {
+        delays.add(delay);
+        clock.tick(delay);
+        task.run();
+        return null;
+    }
+
+    @Override
+    public void close() {
+    }
+}
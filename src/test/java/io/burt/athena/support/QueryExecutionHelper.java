@@ -1,11 +1,14 @@
 package io.burt.athena.support;
 
 import software.amazon.awssdk.services.athena.AthenaAsyncClient;
+import software.amazon.awssdk.services.athena.model.BatchGetQueryExecutionRequest;
+import software.amazon.awssdk.services.athena.model.BatchGetQueryExecutionResponse;
 import software.amazon.awssdk.services.athena.model.ColumnInfo;
 import software.amazon.awssdk.services.athena.model.GetQueryExecutionRequest;
 import software.amazon.awssdk.services.athena.model.GetQueryExecutionResponse;
 import software.amazon.awssdk.services.athena.model.GetQueryResultsRequest;
 import software.amazon.awssdk.services.athena.model.GetQueryResultsResponse;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
 import software.amazon.awssdk.services.athena.model.QueryExecutionState;
 import software.amazon.awssdk.services.athena.model.Row;
 import software.amazon.awssdk.services.athena.model.StartQueryExecutionRequest;
@@ -14,10 +17,15 @@ import software.amazon.awssdk.services.athena.model.StopQueryExecutionRequest;
 import software.amazon.awssdk.services.athena.model.StopQueryExecutionResponse;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
@@ -27,6 +35,8 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
     private final List<GetQueryExecutionRequest> getQueryExecutionRequests;
     private final List<GetQueryResultsRequest> getQueryResultsRequests;
     private final List<StopQueryExecutionRequest> stopQueryExecutionRequests;
+    private final List<BatchGetQueryExecutionRequest> batchGetQueryExecutionRequests;
+    private final Map<String, Queue<GetQueryExecutionResponse>> getQueryExecutionResponseQueuesById;
     private final Queue<StartQueryExecutionResponse> startQueryExecutionResponseQueue;
     private final Queue<GetQueryExecutionResponse> getQueryExecutionResponseQueue;
     private final Queue<Exception> startQueryExecutionExceptionQueue;
@@ -44,14 +54,16 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
 
     public QueryExecutionHelper(TestClock clock) {
         this.clock = clock;
-        this.startQueryRequests = new LinkedList<>();
-        this.getQueryExecutionRequests = new LinkedList<>();
-        this.getQueryResultsRequests = new LinkedList<>();
-        this.stopQueryExecutionRequests = new LinkedList<>();
+        this.startQueryRequests = Collections.synchronizedList(new LinkedList<>());
+        this.getQueryExecutionRequests = Collections.synchronizedList(new LinkedList<>());
+        this.getQueryResultsRequests = Collections.synchronizedList(new LinkedList<>());
+        this.stopQueryExecutionRequests = Collections.synchronizedList(new LinkedList<>());
+        this.batchGetQueryExecutionRequests = Collections.synchronizedList(new LinkedList<>());
+        this.getQueryExecutionResponseQueuesById = new HashMap<>();
         this.startQueryExecutionResponseQueue = new LinkedList<>();
         this.getQueryExecutionResponseQueue = new LinkedList<>();
-        this.startQueryExecutionExceptionQueue = new LinkedList<>();
-        this.getQueryExecutionExceptionQueue = new LinkedList<>();
+        this.startQueryExecutionExceptionQueue = new ConcurrentLinkedQueue<>();
+        this.getQueryExecutionExceptionQueue = new ConcurrentLinkedQueue<>();
         this.startQueryExecutionDelay = Duration.ZERO;
         this.getQueryExecutionDelay = Duration.ZERO;
         this.getQueryResultsDelay = Duration.ZERO;
@@ -91,6 +103,10 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
         return stopQueryExecutionRequests;
     }
 
+    public List<BatchGetQueryExecutionRequest> batchGetQueryExecutionRequests() {
+        return batchGetQueryExecutionRequests;
+    }
+
     public void queueStartQueryResponse(String queryExecutionId) {
         queueStartQueryResponse(b -> b.queryExecutionId(queryExecutionId));
     }
@@ -115,6 +131,11 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
         getQueryExecutionResponseQueue.add(builder.build());
     }
 
+    public synchronized void queueGetQueryExecutionResponse(String queryExecutionId, QueryExecutionState state) {
+        GetQueryExecutionResponse response = GetQueryExecutionResponse.builder().queryExecution(bb -> bb.status(bbb -> bbb.state(state)).resultConfiguration(bbb -> bbb.outputLocation("s3://dummy/location.csv"))).build();
+        getQueryExecutionResponseQueuesById.computeIfAbsent(queryExecutionId, id -> new LinkedList<>()).add(response);
+    }
+
     public void clearGetQueryExecutionResponseQueue() {
         getQueryExecutionResponseQueue.clear();
     }
@@ -170,8 +191,7 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
         requestBuilderConsumer.accept(builder);
         GetQueryExecutionRequest request = builder.build();
         getQueryExecutionRequests.add(request);
-        GetQueryExecutionResponse responsePrototype = getQueryExecutionResponseQueue.remove();
-        GetQueryExecutionResponse response = responsePrototype.toBuilder().queryExecution(responsePrototype.queryExecution().toBuilder().queryExecutionId(request.queryExecutionId()).build()).build();
+        GetQueryExecutionResponse response = nextGetQueryExecutionResponse(request.queryExecutionId());
         try {
             getQueryExecutionBlocker.lock();
             CompletableFuture<GetQueryExecutionResponse> future = CompletableFuture.completedFuture(response);
@@ -181,6 +201,33 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
         }
     }
 
+    private synchronized GetQueryExecutionResponse nextGetQueryExecutionResponse(String queryExecutionId) {
+        Queue<GetQueryExecutionResponse> queue = getQueryExecutionResponseQueuesById.get(queryExecutionId);
+        GetQueryExecutionResponse responsePrototype;
+        if (queue != null && !queue.isEmpty()) {
+            responsePrototype = queue.remove();
+        } else {
+            responsePrototype = getQueryExecutionResponseQueue.remove();
+        }
+        return responsePrototype.toBuilder().queryExecution(responsePrototype.queryExecution().toBuilder().queryExecutionId(queryExecutionId).build()).build();
+    }
+
+    @Override
+    public CompletableFuture<BatchGetQueryExecutionResponse> batchGetQueryExecution(Consumer<BatchGetQueryExecutionRequest.Builder> requestBuilderConsumer) {
+        BatchGetQueryExecutionRequest.Builder builder = BatchGetQueryExecutionRequest.builder();
+        requestBuilderConsumer.accept(builder);
+        BatchGetQueryExecutionRequest request = builder.build();
+        List<QueryExecution> queryExecutions = new ArrayList<>();
+        synchronized (this) {
+            batchGetQueryExecutionRequests.add(request);
+            for (String queryExecutionId : request.queryExecutionIds()) {
+                queryExecutions.add(nextGetQueryExecutionResponse(queryExecutionId).queryExecution());
+            }
+        }
+        CompletableFuture<BatchGetQueryExecutionResponse> future = CompletableFuture.completedFuture(BatchGetQueryExecutionResponse.builder().queryExecutions(queryExecutions).build());
+        return maybeFailResponse(future, getQueryExecutionExceptionQueue);
+    }
+
     @Override
     public CompletableFuture<GetQueryResultsResponse> getQueryResults(Consumer<GetQueryResultsRequest.Builder> requestBuilderConsumer) {
         GetQueryResultsRequest.Builder builder = GetQueryResultsRequest.builder();